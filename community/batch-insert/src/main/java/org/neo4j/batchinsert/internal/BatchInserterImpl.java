@@ -66,6 +66,7 @@ import org.neo4j.internal.index.label.NativeLabelScanStore;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.internal.recordstorage.DirectRecordAccessSet;
+import org.neo4j.internal.recordstorage.HotPropertyStore;
 import org.neo4j.internal.recordstorage.PropertyCreator;
 import org.neo4j.internal.recordstorage.PropertyDeleter;
 import org.neo4j.internal.recordstorage.PropertyTraverser;
@@ -302,6 +303,8 @@ public class BatchInserterImpl implements BatchInserter
             neoStores = sf.openAllNeoStores( true );
             neoStores.verifyStoreOk();
             neoStores.start();
+            // Hot property columns are only kept up to date when transactions are applied, which the batch inserter doesn't do
+            HotPropertyStore.deleteColumns( fileSystem, databaseLayout );
             this.pageCache = pageCache;
 
             nodeStore = neoStores.getNodeStore();
@@ -91,7 +91,7 @@ public class BoltKernelGraphDatabaseServiceProvider implements BoltGraphDatabase
             Duration txTimeout, AccessMode accessMode, Map<String,Object> txMetadata )
     {
         awaitUpToDate( bookmarks );
-        InternalTransaction topLevelInternalTransaction = beginInternalTransaction( type, loginContext, clientInfo, txTimeout, txMetadata );
+        InternalTransaction topLevelInternalTransaction = beginInternalTransaction( type, loginContext, clientInfo, txTimeout, accessMode, txMetadata );
         KernelTransaction kernelTransaction = topLevelInternalTransaction.kernelTransaction();
         if ( KernelTransaction.Type.implicit == type )
         {
@@ -115,16 +115,18 @@ public class BoltKernelGraphDatabaseServiceProvider implements BoltGraphDatabase
     }
 
     private InternalTransaction beginInternalTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo clientInfo,
-            Duration txTimeout, Map<String,Object> txMetadata )
+            Duration txTimeout, AccessMode accessMode, Map<String,Object> txMetadata )
     {
+        // Transactions the client begins in read mode never write, so they can skip lock client allocation and the commit process
+        boolean readOnly = accessMode == AccessMode.READ;
         InternalTransaction internalTransaction;
         if ( txTimeout == null )
         {
-            internalTransaction = databaseAPI.beginTransaction( type, loginContext, clientInfo );
+            internalTransaction = databaseAPI.beginTransaction( type, loginContext, clientInfo, readOnly );
         }
         else
         {
-            internalTransaction = databaseAPI.beginTransaction( type, loginContext, clientInfo, txTimeout.toMillis(), TimeUnit.MILLISECONDS );
+            internalTransaction = databaseAPI.beginTransaction( type, loginContext, clientInfo, txTimeout.toMillis(), TimeUnit.MILLISECONDS, readOnly );
         }
 
         if ( txMetadata != null )
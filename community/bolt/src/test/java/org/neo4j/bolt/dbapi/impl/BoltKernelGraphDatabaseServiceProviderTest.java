@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.dbapi.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.neo4j.bolt.runtime.AccessMode;
+import org.neo4j.bolt.txtracking.TransactionIdTracker;
+import org.neo4j.collection.Dependencies;
+import org.neo4j.kernel.GraphDatabaseQueryService;
+import org.neo4j.kernel.database.Database;
+import org.neo4j.kernel.database.TestDatabaseIdRepository;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.query.QueryExecutionEngine;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.internal.kernel.api.connectioninfo.ClientConnectionInfo.EMBEDDED_CONNECTION;
+import static org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED;
+import static org.neo4j.kernel.api.KernelTransaction.Type.explicit;
+
+class BoltKernelGraphDatabaseServiceProviderTest
+{
+    private final GraphDatabaseAPI facade = mockFacade();
+    private final BoltKernelGraphDatabaseServiceProvider dbSpi =
+            new BoltKernelGraphDatabaseServiceProvider( facade, mock( TransactionIdTracker.class ), Duration.ofSeconds( 1 ) );
+
+    @Test
+    void shouldBeginReadOnlyTransactionInReadMode()
+    {
+        dbSpi.beginTransaction( explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, List.of(), null, AccessMode.READ, null );
+
+        verify( facade ).beginTransaction( explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, true );
+    }
+
+    @Test
+    void shouldBeginReadOnlyTransactionWithTimeoutInReadMode()
+    {
+        dbSpi.beginTransaction( explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, List.of(), Duration.ofSeconds( 3 ), AccessMode.READ, null );
+
+        verify( facade ).beginTransaction( explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, 3_000, MILLISECONDS, true );
+    }
+
+    @Test
+    void shouldBeginWritableTransactionInWriteMode()
+    {
+        dbSpi.beginTransaction( explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, List.of(), null, AccessMode.WRITE, null );
+
+        verify( facade ).beginTransaction( explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, false );
+    }
+
+    private static GraphDatabaseAPI mockFacade()
+    {
+        var db = mock( Database.class );
+        when( db.getNamedDatabaseId() ).thenReturn( new TestDatabaseIdRepository().defaultDatabase() );
+
+        var dependencyResolver = mock( Dependencies.class );
+        var queryService = mock( GraphDatabaseQueryService.class );
+        when( queryService.getDependencyResolver() ).thenReturn( dependencyResolver );
+        when( dependencyResolver.resolveDependency( QueryExecutionEngine.class ) ).thenReturn( mock( QueryExecutionEngine.class ) );
+        when( dependencyResolver.resolveDependency( GraphDatabaseQueryService.class ) ).thenReturn( queryService );
+        when( dependencyResolver.resolveDependency( Database.class ) ).thenReturn( db );
+
+        var facade = mock( GraphDatabaseAPI.class );
+        when( facade.getDependencyResolver() ).thenReturn( dependencyResolver );
+        var tx = mock( InternalTransaction.class );
+        when( facade.beginTransaction( any(), any(), any(), anyBoolean() ) ).thenReturn( tx );
+        when( facade.beginTransaction( any(), any(), any(), anyLong(), any(), anyBoolean() ) ).thenReturn( tx );
+        return facade;
+    }
+}
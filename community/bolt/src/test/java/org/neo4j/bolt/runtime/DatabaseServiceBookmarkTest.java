@@ -60,6 +60,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
@@ -167,7 +168,7 @@ class DatabaseServiceBookmarkTest
         when( facade.getDependencyResolver() ).thenReturn( dependencyResolver );
 
         var tx = mock( InternalTransaction.class );
-        when( facade.beginTransaction( any(), any(), any() ) ).thenReturn( tx );
+        when( facade.beginTransaction( any(), any(), any(), anyBoolean() ) ).thenReturn( tx );
 
         var queryService = mock( GraphDatabaseQueryService.class );
         when( queryService.getDependencyResolver() ).thenReturn( dependencyResolver );
@@ -426,7 +426,8 @@ public interface Status
         // transient errors
         TransactionMemoryLimit( TransientError,
                 "There is not enough memory to perform the current task. Please try increasing " +
-                        "'dbms.tx_state.max_off_heap_memory' in the neo4j configuration (normally in 'conf/neo4j.conf' or, if you " +
+                        "'dbms.tx_state.max_off_heap_memory' or 'dbms.tx_state.max_off_heap_memory_per_transaction' " +
+                        "in the neo4j configuration (normally in 'conf/neo4j.conf' or, if you " +
                         "you are using Neo4j Desktop, found through the user interface), and then restart the database." ),
         OutOfMemoryError( TransientError,
                 "There is not enough memory to perform the current task. Please try increasing " +
@@ -735,6 +735,114 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void writingToPageMustMarkItForNextFlush() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+                MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8 ) )
+        {
+            assertEquals( 0, pagedFile.dirtyPages[0].get( 0 ) );
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+            assertEquals( 0b10, pagedFile.dirtyPages[0].get( 0 ) );
+
+            pagedFile.flushAndForce();
+            assertEquals( 0, pagedFile.dirtyPages[0].get( 0 ) );
+        }
+    }
+
+    @Test
+    void flushMustOnlyVisitPagesMarkedDirty() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, tracer, PageCursorTracerSupplier.NULL );
+                MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK | PF_NO_GROW ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+            // Pretend only the second page was written to. The first page is then not visited by the flush.
+            pagedFile.dirtyPages[0].set( 0, 0b10 );
+            pagedFile.flushAndForce();
+            assertEquals( 8, tracer.bytesWritten() );
+
+            ByteBuffer buf = readIntoBuffer( "a" );
+            assertThat( buf.getLong(), is( x ) );
+            assertThat( buf.getLong(), is( 0L ) );
+        }
+    }
+
+    @Test
+    void pagesWrittenAfterFlushMustBeFlushedByNextFlush() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, tracer, PageCursorTracerSupplier.NULL );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+            pagedFile.flushAndForce();
+            assertEquals( 1, tracer.flushes() );
+            pagedFile.flushAndForce();
+            assertEquals( 1, tracer.flushes() );
+
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+            pagedFile.flushAndForce();
+            assertEquals( 2, tracer.flushes() );
+
+            ByteBuffer buf = readIntoBuffer( "a" );
+            assertThat( buf.getLong(), is( 0L ) );
+            assertThat( buf.getLong(), is( 0L ) );
+        }
+    }
+
+    @Test
+    void prefetchMustLoadPageInTheBackground() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+                MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8 ) )
+        {
+            assertFalse( pagedFile.isResident( 1 ) );
+
+            pagedFile.prefetch( 1 );
+            assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+            {
+                while ( !pagedFile.isResident( 1 ) )
+                {
+                    Thread.sleep( 1 );
+                }
+            } );
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( y, cursor.getLong() );
+            }
+
+            // Pages beyond the end of the file are ignored, rather than growing the file
+            pagedFile.prefetch( 2 );
+            assertFalse( pagedFile.isResident( 2 ) );
+            assertEquals( 1, pagedFile.getLastPageId() );
+        }
+    }
+
     private static class FlushRendezvousTracer extends DefaultPageCacheTracer
     {
         private final CountDownLatch latch;
@@ -178,6 +178,20 @@ public abstract class DbmsRule extends ExternalResource implements GraphDatabase
         return getGraphDatabaseAPI().beginTransaction( type, loginContext, connectionInfo, timeout, unit );
     }
 
+    @Override
+    public InternalTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo connectionInfo,
+            boolean readOnly )
+    {
+        return getGraphDatabaseAPI().beginTransaction( type, loginContext, connectionInfo, readOnly );
+    }
+
+    @Override
+    public InternalTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo connectionInfo, long timeout,
+            TimeUnit unit, boolean readOnly )
+    {
+        return getGraphDatabaseAPI().beginTransaction( type, loginContext, connectionInfo, timeout, unit, readOnly );
+    }
+
     @Override
     public Transaction beginTx()
     {
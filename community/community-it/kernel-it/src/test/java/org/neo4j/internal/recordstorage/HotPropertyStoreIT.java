@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.configuration.GraphDatabaseSettings.hot_property_keys;
+
+@PageCacheExtension
+class HotPropertyStoreIT
+{
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private PageCache pageCache;
+
+    @Test
+    void shouldReadPropertiesFromColumnWhichIsKeptInSyncWithPropertyChains()
+    {
+        DatabaseLayout databaseLayout = Neo4jLayout.of( testDirectory.homeDir() ).databaseLayout( DEFAULT_DATABASE_NAME );
+        int propertyKey;
+        List<Long> nodes = new ArrayList<>();
+        Map<Long,Object> expected = new HashMap<>();
+
+        // given nodes which got the property before it had a column
+        DatabaseManagementService managementService = startDbms( databaseLayout, List.of( "age" ) );
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < 10; i++ )
+            {
+                Node node = tx.createNode();
+                node.setProperty( "name", "Node " + i );
+                node.setProperty( "age", i );
+                nodes.add( node.getId() );
+                expected.put( node.getId(), i );
+            }
+            tx.commit();
+        }
+        managementService.shutdown();
+
+        // when the column is added and some of the values change
+        managementService = startDbms( databaseLayout, List.of( "age" ) );
+        db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            propertyKey = ((GraphDatabaseAPI) db).getDependencyResolver().resolveDependency( RecordStorageEngine.class )
+                    .testAccessNeoStores().getPropertyKeyTokenStore().getTokens().stream()
+                    .filter( token -> token.name().equals( "age" ) ).findFirst().orElseThrow().id();
+            assertEquals( expected, ages( tx ) );
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.getNodeById( nodes.get( 1 ) ).setProperty( "age", 100L );
+            tx.getNodeById( nodes.get( 2 ) ).setProperty( "age", 2.5 );
+            tx.getNodeById( nodes.get( 3 ) ).setProperty( "age", "three" );
+            tx.getNodeById( nodes.get( 4 ) ).removeProperty( "age" );
+            tx.getNodeById( nodes.get( 5 ) ).delete();
+            tx.commit();
+        }
+        expected.put( nodes.get( 1 ), 100L );
+        expected.put( nodes.get( 2 ), 2.5 );
+        expected.put( nodes.get( 3 ), "three" );
+        expected.remove( nodes.get( 4 ) );
+        expected.remove( nodes.get( 5 ) );
+        Map<Long,Object> withAge = new HashMap<>( expected );
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.createNode();
+            node.setProperty( "age", true );
+            withAge.put( node.getId(), true );
+            tx.commit();
+        }
+
+        // then
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( withAge, ages( tx ) );
+            tx.commit();
+        }
+        managementService.shutdown();
+        try ( HotPropertyStore store = new HotPropertyStore( databaseLayout, fileSystem, pageCache );
+              HotPropertyStore.Reader reader = store.newReader() )
+        {
+            assertNull( reader.read( propertyKey, nodes.get( 0 ) ) );
+            assertEquals( Values.longValue( 100 ), reader.read( propertyKey, nodes.get( 1 ) ) );
+            assertEquals( Values.doubleValue( 2.5 ), reader.read( propertyKey, nodes.get( 2 ) ) );
+            assertNull( reader.read( propertyKey, nodes.get( 3 ) ) );
+            assertNull( reader.read( propertyKey, nodes.get( 4 ) ) );
+            assertNull( reader.read( propertyKey, nodes.get( 5 ) ) );
+        }
+
+        // and when no longer configured
+        managementService = startDbms( databaseLayout, List.of() );
+        try ( Transaction tx = managementService.database( DEFAULT_DATABASE_NAME ).beginTx() )
+        {
+            assertEquals( withAge, ages( tx ) );
+            tx.commit();
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+        assertFalse( fileSystem.fileExists( databaseLayout.file( HotPropertyStore.FILE_NAME_PREFIX + propertyKey ) ) );
+    }
+
+    private static DatabaseManagementService startDbms( DatabaseLayout databaseLayout, List<String> hotPropertyKeys )
+    {
+        return new TestDatabaseManagementServiceBuilder( databaseLayout ).setConfig( hot_property_keys, hotPropertyKeys ).build();
+    }
+
+    private static Map<Long,Object> ages( Transaction tx )
+    {
+        Map<Long,Object> ages = new HashMap<>();
+        try ( Result result = tx.execute( "MATCH (n) WHERE exists(n.age) RETURN id(n) AS id, n.age AS age" ) )
+        {
+            result.forEachRemaining( row -> ages.put( (Long) row.get( "id" ), row.get( "age" ) ) );
+        }
+        for ( Node node : tx.getAllNodes() )
+        {
+            assertEquals( ages.get( node.getId() ), node.getProperty( "age", null ) );
+        }
+        assertTrue( ages.size() > 0 );
+        return ages;
+    }
+}
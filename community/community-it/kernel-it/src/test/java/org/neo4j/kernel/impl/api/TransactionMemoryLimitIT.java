@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+
+import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCause;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.configuration.GraphDatabaseSettings.TransactionStateMemoryAllocation.OFF_HEAP;
+import static org.neo4j.configuration.GraphDatabaseSettings.tx_state_max_off_heap_memory_per_transaction;
+import static org.neo4j.configuration.GraphDatabaseSettings.tx_state_memory_allocation;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+
+@DbmsExtension( configurationCallback = "configure" )
+class TransactionMemoryLimitIT
+{
+    @Inject
+    private GraphDatabaseAPI database;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( tx_state_memory_allocation, OFF_HEAP );
+        builder.setConfig( tx_state_max_off_heap_memory_per_transaction, mebiBytes( 8 ) );
+    }
+
+    @Test
+    void mustFailTransactionExceedingItsMemoryLimitWithoutAffectingOthers()
+    {
+        try ( Transaction transaction = database.beginTx() )
+        {
+            RuntimeException failure = assertThrows( RuntimeException.class, () ->
+            {
+                for ( int i = 0; i < 1_000_000; i++ )
+                {
+                    transaction.createNode().setProperty( "key", i );
+                }
+            } );
+            Throwable rootCause = getRootCause( failure );
+            assertEquals( Status.General.TransactionMemoryLimit, ((Status.HasStatus) rootCause).status() );
+        }
+
+        try ( Transaction transaction = database.beginTx() )
+        {
+            for ( int i = 0; i < 1_000; i++ )
+            {
+                transaction.createNode().setProperty( "key", i );
+            }
+            transaction.commit();
+        }
+        try ( Transaction transaction = database.beginTx() )
+        {
+            assertEquals( 1_000, transaction.getAllNodes().stream().count() );
+        }
+    }
+}
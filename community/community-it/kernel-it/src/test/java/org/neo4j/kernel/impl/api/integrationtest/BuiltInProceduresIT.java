@@ -51,10 +51,12 @@ import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.security.AnonymousContext;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode;
+import org.neo4j.kernel.impl.transaction.stats.CommitStage;
 import org.neo4j.kernel.impl.util.DefaultValueMapper;
 import org.neo4j.kernel.internal.Version;
 import org.neo4j.monitoring.Monitors;
 import org.neo4j.values.AnyValue;
+import org.neo4j.values.storable.NumberValue;
 import org.neo4j.values.storable.Values;
 import org.neo4j.values.virtual.ListValue;
 import org.neo4j.values.virtual.VirtualValues;
@@ -98,6 +100,28 @@ class BuiltInProceduresIT extends CommunityProcedureITBase
         assertThat( asList( stream ), contains( equalTo( new AnyValue[]{stringValue( "MyLabel" )} ) ) );
     }
 
+    @Test
+    void commitLatencyMustListAllCommitStages() throws Throwable
+    {
+        // Given
+        KernelTransaction transaction = newTransaction( AnonymousContext.write() );
+        transaction.dataWrite().nodeCreate();
+        commit();
+
+        // When
+        RawIterator<AnyValue[],ProcedureException> stream =
+                procs().procedureCallRead( procs().procedureGet( procedureName( "db", "commitLatency" ) ).id(), new AnyValue[0],
+                        ProcedureCallContext.EMPTY );
+
+        // Then
+        List<AnyValue[]> rows = asList( stream );
+        assertThat( rows.size(), equalTo( CommitStage.values().length ) );
+        for ( AnyValue[] row : rows )
+        {
+            assertThat( ((NumberValue) row[1]).longValue(), greaterThan( 0L ) );
+        }
+    }
+
     @Test
     @Timeout( value = 6, unit = MINUTES )
     void listAllLabelsMustNotBlockOnConstraintCreatingTransaction() throws Throwable
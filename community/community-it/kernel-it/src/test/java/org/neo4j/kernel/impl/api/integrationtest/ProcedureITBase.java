@@ -57,6 +57,11 @@ public interface ProcedureITBase
                         "() :: (name :: STRING?, type :: STRING?, createStatement :: STRING?, dropStatement :: STRING?)",
                         "List all statements for creating and dropping existing indexes and constraints.",
                         stringArray( "reader", "editor", "publisher", "architect", "admin" ), "READ" ),
+                proc( "db.commitLatency",
+                        "() :: (stage :: STRING?, count :: INTEGER?, meanMicros :: INTEGER?, p50Micros :: INTEGER?, p90Micros :: INTEGER?, " +
+                                "p99Micros :: INTEGER?, p999Micros :: INTEGER?, maxMicros :: INTEGER?)",
+                        "List the latency of the stages of committing a transaction to this database, in microseconds.",
+                        stringArray( "reader", "editor", "publisher", "architect", "admin" ), "READ" ),
                 proc( "db.awaitIndex", "(indexName :: STRING?, timeOutSeconds = 300 :: INTEGER?) :: VOID",
                         "Wait for an index to come online (for example: CALL db.awaitIndex(\"MyIndex\", 300)).",
                         stringArray( "reader", "editor", "publisher", "architect", "admin" ), "READ" ),
@@ -44,6 +44,7 @@ import org.neo4j.values.storable.Values;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -445,6 +446,48 @@ public abstract class PropertyCursorTestBase<G extends KernelAPIReadTestSupport>
         }
     }
 
+    @Test
+    void shouldBulkReadNodeProperties()
+    {
+        // given
+        int intProp = token.propertyKey( INT_PROP );
+        int shortStringProp = token.propertyKey( SHORT_STRING_PROP );
+        long[] nodes = {allPropsNodeId, bareNodeId, shortStringPropNodeId, intPropNodeId, allPropsNodeId, 1_000_000};
+        Value[][] values = new Value[2][nodes.length];
+
+        // when
+        read.nodesGetProperties( nodes, new int[]{intProp, shortStringProp}, values );
+
+        // then
+        assertArrayEquals( new Value[]{Values.intValue( 13 ), Values.NO_VALUE, Values.NO_VALUE, Values.intValue( 13 ), Values.intValue( 13 ),
+                Values.NO_VALUE}, values[0] );
+        assertArrayEquals( new Value[]{Values.stringValue( "hello" ), Values.NO_VALUE, Values.stringValue( "hello" ), Values.NO_VALUE,
+                Values.stringValue( "hello" ), Values.NO_VALUE}, values[1] );
+
+        // and when reading a single property
+        Value[][] single = new Value[1][nodes.length];
+        read.nodesGetProperties( nodes, new int[]{shortStringProp}, single );
+        assertArrayEquals( values[1], single[0] );
+    }
+
+    @Test
+    void shouldBulkReadRelationshipProperties()
+    {
+        // given
+        int longProp = token.propertyKey( LONG_PROP );
+        int pointProp = token.propertyKey( POINT_PROP );
+        long[] relationships = {pointPropRelId, allPropsRelId, bareRelId, longPropRelId, 1_000_000};
+        Value[][] values = new Value[2][relationships.length];
+
+        // when
+        read.relationshipsGetProperties( relationships, new int[]{longProp, pointProp}, values );
+
+        // then
+        assertArrayEquals( new Value[]{Values.NO_VALUE, Values.longValue( Long.MAX_VALUE ), Values.NO_VALUE, Values.longValue( Long.MAX_VALUE ),
+                Values.NO_VALUE}, values[0] );
+        assertArrayEquals( new Value[]{pointValue, pointValue, Values.NO_VALUE, Values.NO_VALUE, Values.NO_VALUE}, values[1] );
+    }
+
     private void assertAccessSingleNodeProperty( long nodeId, Object expectedValue, ValueGroup expectedValueType )
     {
         // given
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.recordstorage.RecordStorageEngine;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.Inject;
+
+import static org.apache.commons.lang3.StringUtils.repeat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DbmsExtension
+class StoreCompactionIT
+{
+    private static final Label LABEL = Label.label( "Label" );
+
+    @Inject
+    private GraphDatabaseAPI database;
+
+    @Test
+    void shouldCompactFragmentedPropertyChainsWithoutChangingTheirData()
+    {
+        // given two nodes whose property chains got interleaved, and partly removed, by many small transactions
+        try ( Transaction tx = database.beginTx() )
+        {
+            tx.schema().indexFor( LABEL ).on( "key1" ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = database.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 1, TimeUnit.MINUTES );
+            tx.commit();
+        }
+        long[] nodeIds = new long[2];
+        try ( Transaction tx = database.beginTx() )
+        {
+            nodeIds[0] = tx.createNode( LABEL ).getId();
+            nodeIds[1] = tx.createNode( LABEL ).getId();
+            tx.commit();
+        }
+        Map<String,Object> expected = new HashMap<>();
+        for ( int i = 0; i < 20; i++ )
+        {
+            Object value = i % 3 == 0 ? repeat( "value", i + 10 ) : (Object) i;
+            for ( long nodeId : nodeIds )
+            {
+                try ( Transaction tx = database.beginTx() )
+                {
+                    tx.getNodeById( nodeId ).setProperty( "key" + i, value );
+                    tx.commit();
+                }
+            }
+            expected.put( "key" + i, value );
+        }
+        for ( int i = 0; i < 20; i += 4 )
+        {
+            for ( long nodeId : nodeIds )
+            {
+                try ( Transaction tx = database.beginTx() )
+                {
+                    tx.getNodeById( nodeId ).removeProperty( "key" + i );
+                    tx.commit();
+                }
+            }
+            expected.remove( "key" + i );
+        }
+
+        // when
+        database.getDependencyResolver().resolveDependency( StoreCompaction.class ).run();
+
+        // then
+        for ( long nodeId : nodeIds )
+        {
+            assertConsecutive( propertyChain( nodeId ) );
+        }
+        try ( Transaction tx = database.beginTx() )
+        {
+            for ( long nodeId : nodeIds )
+            {
+                assertEquals( expected, tx.getNodeById( nodeId ).getAllProperties() );
+            }
+            List<Long> indexed = new ArrayList<>();
+            tx.findNodes( LABEL, "key1", 1 ).forEachRemaining( node -> indexed.add( node.getId() ) );
+            assertEquals( List.of( nodeIds[0], nodeIds[1] ), indexed );
+            tx.commit();
+        }
+
+        // and when writing to the node afterwards
+        try ( Transaction tx = database.beginTx() )
+        {
+            Node node = tx.getNodeById( nodeIds[0] );
+            node.setProperty( "key1", 100 );
+            node.removeProperty( "key2" );
+            tx.commit();
+        }
+        try ( Transaction tx = database.beginTx() )
+        {
+            assertEquals( 100, tx.getNodeById( nodeIds[0] ).getProperty( "key1" ) );
+            assertEquals( nodeIds[0], tx.findNode( LABEL, "key1", 100 ).getId() );
+            tx.commit();
+        }
+    }
+
+    private List<PropertyRecord> propertyChain( long nodeId )
+    {
+        NeoStores neoStores = database.getDependencyResolver().resolveDependency( RecordStorageEngine.class ).testAccessNeoStores();
+        List<PropertyRecord> chain = new ArrayList<>();
+        long nextProp = neoStores.getNodeStore().getRecord( nodeId, neoStores.getNodeStore().newRecord(), RecordLoad.NORMAL ).getNextProp();
+        while ( nextProp != Record.NO_NEXT_PROPERTY.intValue() )
+        {
+            PropertyRecord record = neoStores.getPropertyStore().getRecord( nextProp, neoStores.getPropertyStore().newRecord(), RecordLoad.NORMAL );
+            chain.add( record );
+            nextProp = record.getNextProp();
+        }
+        return chain;
+    }
+
+    private static void assertConsecutive( List<PropertyRecord> chain )
+    {
+        assertTrue( chain.size() > 1 );
+        for ( int i = 1; i < chain.size(); i++ )
+        {
+            assertEquals( chain.get( 0 ).getId() + i, chain.get( i ).getId(), "Property chain " + chain );
+        }
+    }
+}
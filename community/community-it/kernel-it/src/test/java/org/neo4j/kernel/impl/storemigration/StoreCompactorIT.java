@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storemigration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.batchinsert.internal.TransactionLogsInitializer;
+import org.neo4j.configuration.Config;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.batchimport.staging.ExecutionMonitors;
+import org.neo4j.internal.kernel.api.TokenRead;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.logging.internal.NullLogService;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.apache.commons.lang3.StringUtils.repeat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+@PageCacheExtension
+class StoreCompactorIT
+{
+    private static final Label PERSON = Label.label( "Person" );
+    private static final Label HUB = Label.label( "Hub" );
+    private static final RelationshipType KNOWS = RelationshipType.withName( "KNOWS" );
+    private static final RelationshipType LINKS = RelationshipType.withName( "LINKS" );
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private PageCache pageCache;
+
+    @Test
+    void shouldCopyAllDataIntoDenseIdsKeepingTokensAndSchema() throws Exception
+    {
+        // given a store with tokens created in a different order than they are used, deleted entities and a dense node
+        DatabaseLayout fromLayout = Neo4jLayout.of( testDirectory.homeDir( "from" ) ).databaseLayout( DEFAULT_DATABASE_NAME );
+        DatabaseLayout toLayout = Neo4jLayout.of( testDirectory.homeDir( "to" ) ).databaseLayout( DEFAULT_DATABASE_NAME );
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( fromLayout ).build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.createNode( Label.label( "Unused" ) ).setProperty( "unused", true );
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.getAllNodes().forEach( Node::delete );
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().indexFor( PERSON ).on( "name" ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node hub = tx.createNode( HUB );
+            hub.setProperty( "uid", -1 );
+            Node previous = null;
+            for ( int i = 0; i < 200; i++ )
+            {
+                Node node = tx.createNode( PERSON );
+                node.setProperty( "uid", i );
+                node.setProperty( "name", "Person " + i );
+                if ( i % 7 == 0 )
+                {
+                    node.setProperty( "bio", repeat( "bio of " + i, 20 ) );
+                }
+                if ( previous != null )
+                {
+                    previous.createRelationshipTo( node, KNOWS ).setProperty( "since", i );
+                }
+                hub.createRelationshipTo( node, LINKS );
+                previous = node;
+            }
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( Node node : tx.getAllNodes() )
+            {
+                Object uid = node.getProperty( "uid" );
+                if ( uid instanceof Integer && (Integer) uid % 3 == 0 )
+                {
+                    node.getRelationships().forEach( Relationship::delete );
+                    node.delete();
+                }
+            }
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 1, TimeUnit.MINUTES );
+            tx.commit();
+        }
+        Map<String,Integer> tokens = tokens( db );
+        Set<String> nodes = describeNodes( db );
+        Set<String> relationships = describeRelationships( db );
+        managementService.shutdown();
+
+        // when
+        compact( fromLayout, toLayout );
+
+        // then
+        managementService = new TestDatabaseManagementServiceBuilder( toLayout ).build();
+        try
+        {
+            db = managementService.database( DEFAULT_DATABASE_NAME );
+            assertEquals( tokens, tokens( db ) );
+            assertEquals( nodes, describeNodes( db ) );
+            assertEquals( relationships, describeRelationships( db ) );
+            try ( Transaction tx = db.beginTx() )
+            {
+                long nodeCount = 0;
+                for ( Node node : tx.getAllNodes() )
+                {
+                    assertTrue( node.getId() < nodes.size(), "Node id " + node.getId() + " not dense" );
+                    nodeCount++;
+                }
+                assertEquals( nodes.size(), nodeCount );
+                long relationshipCount = 0;
+                for ( Relationship relationship : tx.getAllRelationships() )
+                {
+                    assertTrue( relationship.getId() < relationships.size(), "Relationship id " + relationship.getId() + " not dense" );
+                    relationshipCount++;
+                }
+                assertEquals( relationships.size(), relationshipCount );
+                tx.commit();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.schema().awaitIndexesOnline( 1, TimeUnit.MINUTES );
+                assertEquals( 100, tx.findNode( PERSON, "name", "Person 100" ).getProperty( "uid" ) );
+                tx.commit();
+            }
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldCompactEmptyStore() throws Exception
+    {
+        DatabaseLayout fromLayout = Neo4jLayout.of( testDirectory.homeDir( "from" ) ).databaseLayout( DEFAULT_DATABASE_NAME );
+        DatabaseLayout toLayout = Neo4jLayout.of( testDirectory.homeDir( "to" ) ).databaseLayout( DEFAULT_DATABASE_NAME );
+        new TestDatabaseManagementServiceBuilder( fromLayout ).build().shutdown();
+
+        compact( fromLayout, toLayout );
+
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( toLayout ).build();
+        try ( Transaction tx = managementService.database( DEFAULT_DATABASE_NAME ).beginTx() )
+        {
+            assertEquals( 0, tx.getAllNodes().stream().count() );
+            tx.commit();
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
+    private void compact( DatabaseLayout fromLayout, DatabaseLayout toLayout ) throws Exception
+    {
+        try ( JobScheduler jobScheduler = new ThreadPoolJobScheduler() )
+        {
+            new StoreCompactor( fileSystem, pageCache, Config.defaults(), NullLogService.getInstance(), jobScheduler )
+                    .compact( fromLayout, toLayout, ExecutionMonitors.invisible(), TransactionLogsInitializer.INSTANCE );
+        }
+    }
+
+    private static Map<String,Integer> tokens( GraphDatabaseService db )
+    {
+        Map<String,Integer> tokens = new HashMap<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            TokenRead tokenRead = ((InternalTransaction) tx).kernelTransaction().tokenRead();
+            tokenRead.labelsGetAllTokens().forEachRemaining( token -> tokens.put( "label:" + token.name(), token.id() ) );
+            tokenRead.propertyKeyGetAllTokens().forEachRemaining( token -> tokens.put( "key:" + token.name(), token.id() ) );
+            tokenRead.relationshipTypesGetAllTokens().forEachRemaining( token -> tokens.put( "type:" + token.name(), token.id() ) );
+            tx.commit();
+        }
+        return tokens;
+    }
+
+    private static Set<String> describeNodes( GraphDatabaseService db )
+    {
+        Set<String> nodes = new HashSet<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( Node node : tx.getAllNodes() )
+            {
+                Set<String> labels = new TreeSet<>();
+                node.getLabels().forEach( label -> labels.add( label.name() ) );
+                nodes.add( labels + " " + new TreeMap<>( node.getAllProperties() ) );
+            }
+            tx.commit();
+        }
+        return nodes;
+    }
+
+    private static Set<String> describeRelationships( GraphDatabaseService db )
+    {
+        List<String> relationships = new ArrayList<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( Relationship relationship : tx.getAllRelationships() )
+            {
+                relationships.add( relationship.getStartNode().getProperty( "uid" ) + "-" + relationship.getType().name() + "->" +
+                        relationship.getEndNode().getProperty( "uid" ) + " " + new TreeMap<>( relationship.getAllProperties() ) );
+            }
+            tx.commit();
+        }
+        Set<String> unique = new HashSet<>( relationships );
+        assertEquals( relationships.size(), unique.size() );
+        return unique;
+    }
+}
@@ -403,6 +403,14 @@ class QueryExecutionLocksIT
             delegate.acquireExclusiveLabelLock( ids );
         }
 
+        @Override
+        public void acquireExclusiveLocksInOrder( long[] nodeIds, long[] relationshipIds )
+        {
+            record( true, true, ResourceTypes.NODE, nodeIds );
+            record( true, true, ResourceTypes.RELATIONSHIP, relationshipIds );
+            delegate.acquireExclusiveLocksInOrder( nodeIds, relationshipIds );
+        }
+
         @Override
         public void releaseExclusiveNodeLock( long... ids )
         {
@@ -149,7 +149,9 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     @Description( "Whether to allow an upgrade in case the current version of the database starts against an older version." )
     public static final Setting<Boolean> allow_upgrade = newBuilder( "dbms.allow_upgrade", BOOL, false ).build();
 
-    @Description( "Database record format. Valid values: `standard`, `high_limit`. " +
+    @Description( "Database record format. Valid values: `standard`, `compact`, `high_limit`. " +
+            "The `compact` format has the same limits as `standard`, but stores relationships in less space when the records they point to " +
+            "are close to them. " +
             "The `high_limit` format is available for Enterprise Edition only. " +
             "It is required if you have a graph that is larger than 34 billion nodes, 34 billion relationships, or 68 billion properties. " +
             "A change of the record format is irreversible. " +
@@ -575,10 +577,11 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     @Description( "Configures the general policy for when check-points should occur. The default policy is the " +
             "'periodic' check-point policy, as specified by the 'dbms.checkpoint.interval.tx' and " +
             "'dbms.checkpoint.interval.time' settings. " +
-            "The Neo4j Enterprise Edition provides two alternative policies: " +
-            "The first is the 'continuous' check-point policy, which will ignore those settings and run the " +
-            "check-point process all the time. " +
-            "The second is the 'volumetric' check-point policy, which makes a best-effort at check-pointing " +
+            "The 'continuous' check-point policy will ignore those settings and run the check-point process all " +
+            "the time, flushing dirty pages at a steady rate derived from 'dbms.checkpoint.recovery_target' " +
+            "instead of in periodic bursts. " +
+            "The Neo4j Enterprise Edition additionally provides the 'volumetric' check-point policy, " +
+            "which makes a best-effort at check-pointing " +
             "often enough so that the database doesn't get too far behind on deleting old transaction logs in " +
             "accordance with the 'dbms.tx_log.rotation.retention_policy' setting." )
     public static final Setting<CheckpointPolicy> check_point_policy =
@@ -621,6 +624,15 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Integer> check_point_iops_limit =
             newBuilder( "dbms.checkpoint.iops.limit", INT, 300 ).dynamic().build();
 
+    @Description( "Configures the targeted upper bound on recovery time when the 'continuous' check-point policy is used. " +
+            "The continuous check-pointer paces its flushing so that every check-point completes within half of this " +
+            "duration. The rate is derived from how much has been written to the transaction log since the previous " +
+            "check-point started and how much time is left, and is re-evaluated while the check-point runs. A shorter target means more " +
+            "I/O bandwidth is spent on check-pointing, while a longer target spreads the flushing out more thinly. " +
+            "This setting is ignored if a limit has been set with 'dbms.checkpoint.iops.limit' in editions that honour it." )
+    public static final Setting<Duration> check_point_recovery_target =
+            newBuilder( "dbms.checkpoint.recovery_target", DURATION, ofMinutes( 1 ) ).addConstraint( min( ofSeconds( 1 ) ) ).build();
+
     // Index sampling
     @Description( "Enable or disable background index sampling" )
     public static final Setting<Boolean> index_background_sampling_enabled =
@@ -1107,6 +1119,30 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Long> tx_state_max_off_heap_memory =
             newBuilder( "dbms.tx_state.max_off_heap_memory", BYTES, BYTES.parse("2G") ).addConstraint( min( 0L ) ).build();
 
+    @Description( "The maximum amount of off-heap memory that a single transaction can use to store its transaction state data, including " +
+            "transaction state kept in files because of dbms.tx_state.off_heap.spill_threshold. A transaction that needs more than this fails, " +
+            "leaving other transactions unaffected. Zero means 'unlimited'. Used when dbms.tx_state.memory_allocation is set to 'OFF_HEAP'." )
+    public static final Setting<Long> tx_state_max_off_heap_memory_per_transaction =
+            newBuilder( "dbms.tx_state.max_off_heap_memory_per_transaction", BYTES, 0L ).addConstraint( min( 0L ) ).build();
+
+    @Description( "The amount of off-heap memory a single transaction can use for its transaction state before any further transaction state " +
+            "is kept in a memory mapped temporary file in the directory given by dbms.tx_state.off_heap.spill_directory. Transaction state " +
+            "that would exceed dbms.tx_state.max_off_heap_memory is then also kept in that file, rather than failing the transaction. " +
+            "Zero means that transaction state is never kept in files. Used when dbms.tx_state.memory_allocation is set to 'OFF_HEAP'." )
+    public static final Setting<Long> tx_state_off_heap_spill_threshold =
+            newBuilder( "dbms.tx_state.off_heap.spill_threshold", BYTES, 0L ).addConstraint( min( 0L ) ).build();
+
+    @Description( "The maximum amount of transaction state that can be kept in files because of dbms.tx_state.off_heap.spill_threshold; " +
+            "it's a total amount shared across all active transactions. A transaction that needs more than this fails. " +
+            "Zero means 'unlimited'." )
+    public static final Setting<Long> tx_state_off_heap_max_spill_size =
+            newBuilder( "dbms.tx_state.off_heap.max_spill_size", BYTES, BYTES.parse( "8G" ) ).addConstraint( min( 0L ) ).build();
+
+    @Description( "Path of the directory that transaction state is kept in because of dbms.tx_state.off_heap.spill_threshold. " +
+            "The file in it is deleted as soon as it is created, so the directory looks empty while transaction state is kept there." )
+    public static final Setting<Path> tx_state_off_heap_spill_directory =
+            newBuilder( "dbms.tx_state.off_heap.spill_directory", PATH, Path.of( "tx-state" ) ).setDependency( data_directory ).immutable().build();
+
     @Description( "Defines the maximum size of an off-heap memory block that can be cached to speed up allocations for transaction state data. " +
                   "The value must be a power of 2." )
     public static final Setting<Long> tx_state_off_heap_max_cacheable_block_size =
@@ -1145,6 +1181,73 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Boolean> consistency_check_on_apply =
             newBuilder( "unsupported.dbms.storage.consistency_check_on_apply", BOOL, Boolean.FALSE ).build();
 
+    @Internal
+    @Description( "Let concurrently committing transactions share a single pass of applying their changes to the store." )
+    public static final Setting<Boolean> batched_store_apply =
+            newBuilder( "unsupported.dbms.storage.batched_apply", BOOL, Boolean.TRUE ).build();
+
+    @Internal
+    @Description( "Number of node and relationship ids that each transaction leases from the id generators at a time, to be handed out " +
+            "without contending with other transactions. Ids left unused in a lease are given back when the transaction is disposed of. " +
+            "A value of 0 makes every id allocation go to the id generators directly." )
+    public static final Setting<Integer> id_lease_size =
+            newBuilder( "unsupported.dbms.storage.id_lease_size", INT, 0 ).addConstraint( range( 0, 1024 ) ).build();
+
+    @Internal
+    @Description( "Prefer free relationship ids on the same or neighbouring pages as the first relationship of the start node, " +
+            "so that relationship chains end up close together in the store. Takes precedence over the id lease for such relationships." )
+    public static final Setting<Boolean> relationship_id_locality =
+            newBuilder( "unsupported.dbms.storage.relationship_id_locality", BOOL, Boolean.FALSE ).build();
+
+    @Internal
+    @Description( "Max number of indexes that a batch of committed index updates is applied to at the same time. Each index gets its own " +
+            "job on a dedicated thread pool, and the committing thread applies the updates itself whenever that many jobs are already running. " +
+            "A value of 1 applies the updates to one index after the other on the committing thread." )
+    public static final Setting<Integer> index_update_parallelism =
+            newBuilder( "unsupported.dbms.index.update_parallelism", INT, 1 ).addConstraint( range( 1, 256 ) ).build();
+
+    @Internal
+    @Description( "How often a background job looks for fragmented data in the store and rewrites it so that data which is read together " +
+            "is placed together again, one node at a time in small transactions of their own. The job continues where the previous run " +
+            "stopped and holds back on IO according to the IO limit of the database. A value of 0 disables the job." )
+    public static final Setting<Duration> store_compaction_interval =
+            newBuilder( "unsupported.dbms.storage.compaction_interval", DURATION, Duration.ZERO ).build();
+
+    @Internal
+    @Description( "Max number of nodes that each run of the store compaction job looks at per kind of rewrite, " +
+            "see `unsupported.dbms.storage.compaction_interval`." )
+    public static final Setting<Integer> store_compaction_nodes_per_run =
+            newBuilder( "unsupported.dbms.storage.compaction_nodes_per_run", INT, 10_000 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "Names of node property keys whose numeric and boolean values are additionally stored in a fixed-width column per " +
+            "property key, indexed by node id, so that reading such a property does not need to walk the property chain of the node. " +
+            "Property keys that don't exist when the database starts get their column when the database is started the next time." )
+    public static final Setting<List<String>> hot_property_keys =
+            newBuilder( "unsupported.dbms.storage.hot_property_keys", listOf( STRING ), emptyList() ).build();
+
+    @Internal
+    @Description( "Let relationship traversals hint the page cache about the next relationship record of the chain and the record of the " +
+            "neighbour node, so that the page cache can start loading their pages in the background while the current relationship " +
+            "is processed. Mostly useful for deep traversals over stores that are much larger than the page cache." )
+    public static final Setting<Boolean> relationship_traversal_prefetch =
+            newBuilder( "unsupported.dbms.storage.relationship_traversal_prefetch", BOOL, false ).build();
+
+    @Internal
+    @Description( "Number of decoded node records, and also of relationship records, to keep in a cache in front of the page cache for " +
+            "lookups of single nodes and relationships by id. The cache is invalidated as transactions are applied. " +
+            "Rounded up to the nearest power of two. A value of 0 disables the cache." )
+    public static final Setting<Integer> record_read_cache_size =
+            newBuilder( "unsupported.dbms.storage.record_read_cache_size", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Let the store compaction job, see `unsupported.dbms.storage.compaction_interval`, convert nodes to dense nodes once they reach " +
+            "`dbms.relationship_grouping_threshold` relationships of more than one type or direction, and back again once their degree has " +
+            "dropped below half of it. Transactions then only convert nodes themselves at four times the threshold, " +
+            "which avoids the latency of doing so in the transaction that happens to add the relationship that takes a node over the threshold." )
+    public static final Setting<Boolean> dense_node_background_conversion =
+            newBuilder( "unsupported.dbms.storage.dense_node_background_conversion", BOOL, false ).build();
+
     /**
      * Default settings for server. The default values are assumes to be default for embedded deployments through the code.
      * This map contains default server settings that you can pass to the builders.
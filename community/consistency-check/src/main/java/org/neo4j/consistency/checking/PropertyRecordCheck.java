@@ -73,6 +73,7 @@ public class PropertyRecordCheck
             switch ( type )
             {
             case STRING:
+            case COMPRESSED_STRING:
                 engine.comparativeCheck( records.string( block.getSingleValueLong() ),
                                          DynamicReference.string( block ) );
                 break;
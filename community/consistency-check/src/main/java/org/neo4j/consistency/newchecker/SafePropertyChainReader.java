@@ -142,6 +142,7 @@ class SafePropertyChainReader implements AutoCloseable
                             switch ( type )
                             {
                             case STRING:
+                            case COMPRESSED_STRING:
                                 dynamicRecords.clear();
                                 if ( safeLoadDynamicRecordChain( record -> dynamicRecords.add( record.clone() ), stringReader, seenDynamicRecordIds,
                                         block.getSingleValueLong(), stringStoreBlockSize, NO_DYNAMIC_HANDLER,
@@ -151,7 +152,8 @@ class SafePropertyChainReader implements AutoCloseable
                                         record -> reporter.forDynamicBlock( RecordType.STRING_PROPERTY, record ).recordNotFullReferencesNext(),
                                         record -> reporter.forDynamicBlock( RecordType.STRING_PROPERTY, record ).invalidLength() ) )
                                 {
-                                    value = Values.stringValue( propertyStore.getStringFor( dynamicRecords ) );
+                                    value = Values.stringValue( type == PropertyType.STRING ? propertyStore.getStringFor( dynamicRecords )
+                                                                                            : propertyStore.getCompressedStringFor( dynamicRecords ) );
                                 }
                                 break;
                             case ARRAY:
@@ -116,7 +116,7 @@ public final class CursorUtils
                 return Values.NO_VALUE;
             }
         }
-        nodeCursor.properties( propertyCursor );
+        nodeCursor.properties( propertyCursor, prop );
         while ( propertyCursor.next() )
         {
             if ( propertyCursor.propertyKey() == prop )
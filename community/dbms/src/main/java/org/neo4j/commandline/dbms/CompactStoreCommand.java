@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.commandline.dbms;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.neo4j.batchinsert.internal.TransactionLogsInitializer;
+import org.neo4j.cli.AbstractCommand;
+import org.neo4j.cli.CommandFailedException;
+import org.neo4j.cli.ExecutionContext;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.ConfigUtils;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.internal.batchimport.staging.ExecutionMonitors;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.storemigration.StoreCompactor;
+import org.neo4j.kernel.impl.util.Validators;
+import org.neo4j.kernel.internal.locker.FileLockException;
+import org.neo4j.logging.internal.NullLogService;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.lang.String.format;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.internal.helpers.Strings.joinAsLines;
+import static org.neo4j.kernel.impl.pagecache.ConfigurableStandalonePageCacheFactory.createPageCache;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+import static org.neo4j.kernel.recovery.Recovery.isRecoveryRequired;
+import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Option;
+
+@Command(
+        name = "compact-store",
+        header = "Copy a database into a new, compacted database.",
+        description = "Copy a database into a new database where all data is rewritten from scratch, to get rid of fragmentation " +
+                "caused by updates and deletes. Nodes get new ids in the order they are reached when traversing the graph, and the " +
+                "relationships of each node are stored next to each other. Token ids and schema are kept. Indexes are rebuilt when the " +
+                "new database is started. It is not possible to compact a database that is mounted in a running Neo4j server."
+)
+public class CompactStoreCommand extends AbstractCommand
+{
+    @Option( names = "--from-database", description = "Name of the database to copy.", defaultValue = DEFAULT_DATABASE_NAME )
+    private String fromDatabase;
+    @Option( names = "--to-database", required = true, description = "Name of the database to create. Must not exist." )
+    private String toDatabase;
+
+    public CompactStoreCommand( ExecutionContext ctx )
+    {
+        super( ctx );
+    }
+
+    @Override
+    public void execute()
+    {
+        Config config = buildConfig();
+        Neo4jLayout neo4jLayout = Neo4jLayout.of( config );
+        DatabaseLayout fromLayout = neo4jLayout.databaseLayout( fromDatabase );
+        DatabaseLayout toLayout = neo4jLayout.databaseLayout( toDatabase );
+
+        try
+        {
+            Validators.CONTAINS_EXISTING_DATABASE.validate( fromLayout.databaseDirectory() );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new CommandFailedException( "Database does not exist: " + fromDatabase, e );
+        }
+        if ( ctx.fs().fileExists( toLayout.databaseDirectory() ) || ctx.fs().fileExists( toLayout.getTransactionLogsDirectory() ) )
+        {
+            throw new CommandFailedException( "Database already exists: " + toDatabase );
+        }
+
+        try ( Closeable ignored = LockChecker.checkDatabaseLock( fromLayout );
+              JobScheduler jobScheduler = createInitialisedScheduler();
+              PageCache pageCache = createPageCache( ctx.fs(), config, jobScheduler ) )
+        {
+            checkDbState( fromLayout, config );
+            new StoreCompactor( ctx.fs(), pageCache, config, NullLogService.getInstance(), jobScheduler )
+                    .compact( fromLayout, toLayout, ExecutionMonitors.defaultVisible(), TransactionLogsInitializer.INSTANCE );
+            ctx.out().println( format( "Database '%s' compacted into '%s'.", fromDatabase, toDatabase ) );
+        }
+        catch ( FileLockException e )
+        {
+            throw new CommandFailedException( "The database is in use. Stop database '" + fromDatabase + "' and try again.", e );
+        }
+        catch ( CommandFailedException e )
+        {
+            throw e;
+        }
+        catch ( IOException e )
+        {
+            throw new CommandFailedException( format( "Unable to compact database: %s: %s", e.getClass().getSimpleName(), e.getMessage() ), e );
+        }
+        catch ( Exception e )
+        {
+            throw new CommandFailedException( "Failed to compact database '" + fromDatabase + "': " + e.getMessage(), e );
+        }
+    }
+
+    private Config buildConfig()
+    {
+        Config cfg = Config.newBuilder()
+                .fromFileNoThrow( ctx.confDir().resolve( Config.DEFAULT_CONFIG_FILE_NAME ) )
+                .set( GraphDatabaseSettings.neo4j_home, ctx.homeDir() ).build();
+        ConfigUtils.disableAllConnectors( cfg );
+        return cfg;
+    }
+
+    private static void checkDbState( DatabaseLayout databaseLayout, Config config )
+    {
+        boolean recoveryRequired;
+        try
+        {
+            recoveryRequired = isRecoveryRequired( databaseLayout, config );
+        }
+        catch ( Exception e )
+        {
+            throw new CommandFailedException( "Failure when checking for recovery state: " + e.getMessage(), e );
+        }
+        if ( recoveryRequired )
+        {
+            throw new CommandFailedException( joinAsLines( "Active logical log detected, this might be a source of inconsistencies.",
+                    "Please recover database before running the compaction.",
+                    "To perform recovery please start database and perform clean shutdown." ) );
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.commandline.dbms;
+
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+import org.neo4j.cli.ExecutionContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class CompactStoreCommandTest
+{
+    @Test
+    void printUsageHelp()
+    {
+        final var baos = new ByteArrayOutputStream();
+        final var command = new CompactStoreCommand( new ExecutionContext( Path.of( "." ), Path.of( "." ) ) );
+        try ( var out = new PrintStream( baos ) )
+        {
+            CommandLine.usage( command, new PrintStream( out ) );
+        }
+        assertThat( baos.toString().trim(), equalTo( String.format(
+                "Copy a database into a new, compacted database.%n" +
+                "%n" +
+                "USAGE%n" +
+                "%n" +
+                "compact-store [--verbose] [--from-database=<fromDatabase>]%n" +
+                "              --to-database=<toDatabase>%n" +
+                "%n" +
+                "DESCRIPTION%n" +
+                "%n" +
+                "Copy a database into a new database where all data is rewritten from scratch,%n" +
+                "to get rid of fragmentation caused by updates and deletes. Nodes get new ids in%n" +
+                "the order they are reached when traversing the graph, and the relationships of%n" +
+                "each node are stored next to each other. Token ids and schema are kept. Indexes%n" +
+                "are rebuilt when the new database is started. It is not possible to compact a%n" +
+                "database that is mounted in a running Neo4j server.%n" +
+                "%n" +
+                "OPTIONS%n" +
+                "%n" +
+                "      --verbose   Enable verbose output.%n" +
+                "      --from-database=<fromDatabase>%n" +
+                "                  Name of the database to copy.%n" +
+                "                    Default: neo4j%n" +
+                "      --to-database=<toDatabase>%n" +
+                "                  Name of the database to create. Must not exist."
+        ) ) );
+    }
+}
@@ -64,6 +64,31 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
      */
     void clearCache();
 
+    /**
+     * Gives back ids that were handed out by {@link #nextIdBatch(int)}, but that ended up not being used.
+     * The ids of the given batch must not have been marked in any way, i.e. they have never been written to the store.
+     * @param ids the unused ids to release so that they can be allocated again.
+     */
+    void releaseIds( IdRange ids );
+
+    /**
+     * Like {@link #nextId()}, but prefers to hand out a free id in the given range, e.g. to place a record close to related records.
+     * This is best-effort: if no free id in the range can be found cheaply then this falls back to {@link #nextId()}.
+     * @param preferredFromId low end of the preferred range (inclusive).
+     * @param preferredToId high end of the preferred range (exclusive).
+     * @return a new id, preferably in the given range.
+     */
+    long nextId( long preferredFromId, long preferredToId );
+
+    /**
+     * Like {@link #nextIdBatch(int)}, but all ids are taken from high id, so that they are guaranteed to be consecutive.
+     * This is for placing records that are read together next to each other in the store, at the expense of not reusing free ids.
+     * Ids that end up not being used can be given back using {@link #releaseIds(IdRange)}.
+     * @param size number of ids to allocate.
+     * @return a range of {@code size} consecutive ids, w/o any reused ids.
+     */
+    IdRange nextConsecutiveIdBatch( int size );
+
     interface Marker extends AutoCloseable
     {
         void markUsed( long id );
@@ -94,6 +119,18 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
             return delegate.nextIdBatch( size );
         }
 
+        @Override
+        public long nextId( long preferredFromId, long preferredToId )
+        {
+            return delegate.nextId( preferredFromId, preferredToId );
+        }
+
+        @Override
+        public IdRange nextConsecutiveIdBatch( int size )
+        {
+            return delegate.nextConsecutiveIdBatch( size );
+        }
+
         @Override
         public void setHighId( long id )
         {
@@ -166,6 +203,12 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
             delegate.clearCache();
         }
 
+        @Override
+        public void releaseIds( IdRange ids )
+        {
+            delegate.releaseIds( ids );
+        }
+
         @Override
         public boolean consistencyCheck( ReporterFactory reporterFactory )
         {
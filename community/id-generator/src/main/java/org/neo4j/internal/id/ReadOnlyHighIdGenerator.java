@@ -89,6 +89,24 @@ class ReadOnlyHighIdGenerator implements IdGenerator
         // no-op
     }
 
+    @Override
+    public long nextId( long preferredFromId, long preferredToId )
+    {
+        throw new UnsupportedOperationException( "Should not be required" );
+    }
+
+    @Override
+    public IdRange nextConsecutiveIdBatch( int size )
+    {
+        throw new UnsupportedOperationException( "Should not be required" );
+    }
+
+    @Override
+    public void releaseIds( IdRange ids )
+    {
+        throw new UnsupportedOperationException( "Should not be required" );
+    }
+
     @Override
     public void maintenance()
     {
@@ -116,6 +116,69 @@ class FreeIdScanner implements Closeable
         return false;
     }
 
+    /**
+     * Looks for a free id in the given range, outside of the cache, and reserves it if found. This is a best-effort operation which
+     * gives up right away if a scan is currently running. It also won't look at tree entries which an ongoing (paused) scan hasn't
+     * passed yet, since that scan may already have read them and could then also pick the same id.
+     *
+     * @param fromId low end of the id range (inclusive).
+     * @param toId high end of the id range (exclusive).
+     * @return a reserved free id in the given range, or {@link IndexedIdGenerator#NO_ID} if none could be found.
+     */
+    long tryReserveFreeIdInRange( long fromId, long toId )
+    {
+        if ( fromId >= toId || !atLeastOneIdOnFreelist.get() || !lock.tryLock() )
+        {
+            return IndexedIdGenerator.NO_ID;
+        }
+
+        try
+        {
+            long fromRangeIdx = fromId / idsPerEntry;
+            long toRangeIdx = (toId - 1) / idsPerEntry;
+            if ( scanner != null )
+            {
+                toRangeIdx = Math.min( toRangeIdx, scanner.key().getIdRangeIdx() - 1 );
+            }
+            if ( toRangeIdx < fromRangeIdx )
+            {
+                return IndexedIdGenerator.NO_ID;
+            }
+
+            try ( Seeker<IdRangeKey,IdRange> seeker = tree.seek( new IdRangeKey( fromRangeIdx ), new IdRangeKey( toRangeIdx + 1 ) ) )
+            {
+                while ( seeker.next() )
+                {
+                    long baseId = seeker.key().getIdRangeIdx() * idsPerEntry;
+                    IdRange range = seeker.value();
+                    boolean differentGeneration = generation != range.getGeneration();
+                    for ( int i = 0; i < idsPerEntry; i++ )
+                    {
+                        long id = baseId + i;
+                        IdState state = range.getState( i );
+                        if ( id >= fromId && id < toId && (state == FREE || (differentGeneration && state == DELETED)) )
+                        {
+                            try ( ReservedMarker marker = markerSupplier.get() )
+                            {
+                                marker.markReserved( id );
+                            }
+                            return id;
+                        }
+                    }
+                }
+            }
+            return IndexedIdGenerator.NO_ID;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
     void clearCache()
     {
         lock.lock();
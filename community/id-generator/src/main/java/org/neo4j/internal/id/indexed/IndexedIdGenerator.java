@@ -19,14 +19,12 @@
  */
 package org.neo4j.internal.id.indexed;
 
-import org.eclipse.collections.api.list.primitive.MutableLongList;
-import org.eclipse.collections.impl.factory.primitive.LongLists;
-
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -99,6 +97,13 @@ public class IndexedIdGenerator implements IdGenerator
         void clearingCache();
 
         void clearedCache();
+
+        /**
+         * Called when an allocation had to fall back to high id even though there were ids on the freelist, because the cache was empty
+         * and a refill of it was either in progress by another thread or didn't find anything in time. Frequent calls to this means
+         * that the {@link FreeIdScanner} can't keep up with the allocation rate.
+         */
+        void refillStalled();
     }
 
     public static final Monitor NO_MONITOR = new Monitor()
@@ -183,6 +188,11 @@ public class IndexedIdGenerator implements IdGenerator
         {
         }
 
+        @Override
+        public void refillStalled()
+        {
+        }
+
         @Override
         public void close()
         {
@@ -413,6 +423,7 @@ public class IndexedIdGenerator implements IdGenerator
         // to prioritise performance and so we don't just sit here waiting for an ongoing scan to find IDs (fast as it may be, although it can be I/O bound)
         // so we allocate from highId instead. This make highId slide a little even if there actually are free ids available,
         // but this should be a fairly rare event.
+        noteCacheMiss();
         do
         {
             id = highId.getAndIncrement();
@@ -423,44 +434,120 @@ public class IndexedIdGenerator implements IdGenerator
         return id;
     }
 
+    @Override
+    public long nextId( long preferredFromId, long preferredToId )
+    {
+        assertNotReadOnly();
+        long id = scanner.tryReserveFreeIdInRange( Math.max( 0, preferredFromId ), Math.min( preferredToId, highId.get() ) );
+        if ( id != NO_ID )
+        {
+            monitor.allocatedFromReused( id );
+            return id;
+        }
+        return nextId();
+    }
+
+    /**
+     * Hands out a batch of ids, where the cached (reused) ids end up as {@link org.neo4j.internal.id.IdRange#getDefragIds() defragmented ids}
+     * and the rest is taken from high id as one consecutive range, using a single update of high id regardless of batch size.
+     * Callers that lease batches like this should {@link #releaseIds(org.neo4j.internal.id.IdRange) release} the ids they didn't end up using.
+     */
     @Override
     public org.neo4j.internal.id.IdRange nextIdBatch( int size )
     {
-        long prev = -1;
-        long startOfRange = -1;
-        int rangeLength = 0;
-        MutableLongList other = null;
-        for ( int i = 0; i < size; i++ )
+        assertNotReadOnly();
+        maintenance();
+
+        long[] reusedIds = EMPTY_LONG_ARRAY;
+        int reusedCount = 0;
+        while ( reusedCount < size )
         {
-            long id = nextId();
-            if ( other != null )
+            long id = cache.takeOrDefault( NO_ID );
+            if ( id == NO_ID )
             {
-                other.add( id );
+                break;
             }
-            else
+            if ( reusedCount == 0 )
             {
-                if ( i == 0 )
-                {
-                    prev = id;
-                    startOfRange = id;
-                    rangeLength = 1;
-                }
-                else
-                {
-                    if ( id == prev + 1 )
-                    {
-                        prev = id;
-                        rangeLength++;
-                    }
-                    else
-                    {
-                        other = LongLists.mutable.empty();
-                        other.add( id );
-                    }
-                }
+                reusedIds = new long[size];
             }
+            reusedIds[reusedCount++] = id;
+            monitor.allocatedFromReused( id );
+        }
+        if ( reusedCount < reusedIds.length )
+        {
+            reusedIds = Arrays.copyOf( reusedIds, reusedCount );
+        }
+
+        int rangeLength = size - reusedCount;
+        long rangeStart = 0;
+        if ( rangeLength > 0 )
+        {
+            noteCacheMiss();
+            rangeStart = allocateFromHighId( rangeLength );
+        }
+        return new org.neo4j.internal.id.IdRange( reusedIds, rangeStart, rangeLength );
+    }
+
+    @Override
+    public org.neo4j.internal.id.IdRange nextConsecutiveIdBatch( int size )
+    {
+        assertNotReadOnly();
+        return new org.neo4j.internal.id.IdRange( EMPTY_LONG_ARRAY, allocateFromHighId( size ), size );
+    }
+
+    private long allocateFromHighId( int rangeLength )
+    {
+        long rangeStart;
+        do
+        {
+            rangeStart = highId.getAndAdd( rangeLength );
+            IdValidator.assertIdWithinMaxCapacity( idType, rangeStart + rangeLength - 1, maxId );
+        }
+        while ( IdValidator.hasReservedIdInRange( rangeStart, rangeStart + rangeLength ) );
+        for ( int i = 0; i < rangeLength; i++ )
+        {
+            monitor.allocatedFromHigh( rangeStart + i );
+        }
+        return rangeStart;
+    }
+
+    @Override
+    public void releaseIds( org.neo4j.internal.id.IdRange ids )
+    {
+        assertNotReadOnly();
+        if ( ids.totalSize() == 0 )
+        {
+            return;
+        }
+
+        try ( IdRangeMarker marker = lockAndInstantiateMarker( false ) )
+        {
+            // Ids that came from the cache were marked as reserved by the scanner, so they just need to be unreserved to be free again
+            for ( long id : ids.getDefragIds() )
+            {
+                marker.markUnreserved( id );
+            }
+            // Ids that came from high id have never been written, so they go straight to deleted and free
+            for ( int i = 0; i < ids.getRangeLength(); i++ )
+            {
+                long id = ids.getRangeStart() + i;
+                marker.markDeleted( id );
+                marker.markFree( id );
+            }
+        }
+    }
+
+    /**
+     * Notes a cache miss which may also be a refill stall, i.e. when there are free ids on the freelist that the scanner hasn't yet managed
+     * to place in the cache, which in turn makes high id slide.
+     */
+    private void noteCacheMiss()
+    {
+        if ( atLeastOneIdOnFreelist.get() )
+        {
+            monitor.refillStalled();
         }
-        return new org.neo4j.internal.id.IdRange( other != null ? other.toArray() : EMPTY_LONG_ARRAY, startOfRange, rangeLength );
     }
 
     @Override
@@ -212,6 +212,12 @@ public class LoggingIndexedIdGeneratorMonitor implements IndexedIdGenerator.Moni
         putTypeOnly( Type.CLEARED_CACHE );
     }
 
+    @Override
+    public synchronized void refillStalled()
+    {
+        putTypeOnly( Type.REFILL_STALLED );
+    }
+
     @Override
     public synchronized void close()
     {
@@ -405,6 +411,7 @@ public class LoggingIndexedIdGeneratorMonitor implements IndexedIdGenerator.Moni
                 {
                 case CLEARING_CACHE:
                 case CLEARED_CACHE:
+                case REFILL_STALLED:
                 case CLOSED:
                     dumper.type( type, time );
                     break;
@@ -538,7 +545,8 @@ public class LoggingIndexedIdGeneratorMonitor implements IndexedIdGenerator.Moni
         BRIDGED( "BR" ),
         CHECKPOINT( "Checkpoint" ),
         CLEARING_CACHE( "ClearCacheStart" ),
-        CLEARED_CACHE( "ClearCacheEnd" );
+        CLEARED_CACHE( "ClearCacheEnd" ),
+        REFILL_STALLED( "RS" );
 
         byte id;
         String shortName;
@@ -59,6 +59,7 @@ import org.neo4j.test.rule.RandomRule;
 import org.neo4j.test.rule.TestDirectory;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -67,6 +68,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -431,6 +433,161 @@ class IndexedIdGeneratorTest
         }
     }
 
+    @Test
+    void shouldAllocateBatchFromCacheAndThenAsOneRangeFromHighId() throws IOException
+    {
+        // given
+        freelist.start( NO_FREE_IDS );
+        long reusable = freelist.nextId();
+        long highIdBefore = freelist.nextId() + 1;
+        markUsed( reusable );
+        markDeleted( reusable );
+        markFree( reusable );
+
+        // when
+        org.neo4j.internal.id.IdRange batch = freelist.nextIdBatch( 10 );
+
+        // then
+        assertArrayEquals( new long[]{reusable}, batch.getDefragIds() );
+        assertEquals( highIdBefore, batch.getRangeStart() );
+        assertEquals( 9, batch.getRangeLength() );
+        assertEquals( highIdBefore + 9, freelist.getHighId() );
+    }
+
+    @Test
+    void shouldAllocateConsecutiveBatchFromHighIdEvenWhenThereAreFreeIds() throws IOException
+    {
+        // given
+        freelist.start( NO_FREE_IDS );
+        long reusable = freelist.nextId();
+        long highIdBefore = freelist.nextId() + 1;
+        markUsed( reusable );
+        markDeleted( reusable );
+        markFree( reusable );
+
+        // when
+        org.neo4j.internal.id.IdRange batch = freelist.nextConsecutiveIdBatch( 10 );
+
+        // then
+        assertEquals( 0, batch.getDefragIds().length );
+        assertEquals( highIdBefore, batch.getRangeStart() );
+        assertEquals( 10, batch.getRangeLength() );
+        assertEquals( highIdBefore + 10, freelist.getHighId() );
+        assertEquals( reusable, freelist.nextId() );
+    }
+
+    @Test
+    void shouldNotAllocateBatchAcrossReservedMaxIntId() throws IOException
+    {
+        // given
+        freelist.start( NO_FREE_IDS );
+        freelist.setHighId( IdValidator.INTEGER_MINUS_ONE - 5 );
+
+        // when
+        org.neo4j.internal.id.IdRange batch = freelist.nextIdBatch( 10 );
+
+        // then
+        assertFalse( IdValidator.hasReservedIdInRange( batch.getRangeStart(), batch.getRangeStart() + batch.getRangeLength() ) );
+        assertEquals( 10, batch.getRangeLength() );
+    }
+
+    @Test
+    void shouldReallocateReleasedIds() throws IOException
+    {
+        // given
+        freelist.start( NO_FREE_IDS );
+        long reusable = freelist.nextId();
+        freelist.nextId();
+        markUsed( reusable );
+        markDeleted( reusable );
+        markFree( reusable );
+        org.neo4j.internal.id.IdRange batch = freelist.nextIdBatch( 4 );
+        long highId = freelist.getHighId();
+
+        // when
+        freelist.releaseIds( batch );
+
+        // then
+        MutableLongList reallocated = new LongArrayList();
+        for ( int i = 0; i < batch.totalSize(); i++ )
+        {
+            reallocated.add( freelist.nextId() );
+        }
+        MutableLongList expected = LongArrayList.newListWith( batch.getDefragIds() );
+        for ( int i = 0; i < batch.getRangeLength(); i++ )
+        {
+            expected.add( batch.getRangeStart() + i );
+        }
+        assertEquals( expected.sortThis(), reallocated.sortThis() );
+        assertEquals( highId, freelist.getHighId() );
+    }
+
+    @Test
+    void shouldReportRefillStallWhenAllocatingFromHighIdWithIdsOnFreelist() throws IOException
+    {
+        // given
+        stop();
+        IndexedIdGenerator.Monitor monitor = mock( IndexedIdGenerator.Monitor.class );
+        freelist = new IndexedIdGenerator( pageCache, file, immediate(), IdType.LABEL_TOKEN, false, () -> 0, MAX_ID, false, monitor );
+        freelist.start( NO_FREE_IDS );
+        freelist.nextIdBatch( 2 );
+        verify( monitor, never() ).refillStalled();
+        long id = freelist.nextId();
+        markUsed( id );
+        markDeleted( id );
+        markFree( id );
+
+        // when the cache cannot satisfy the whole batch while the freelist is known to have had free ids
+        freelist.nextIdBatch( 2 );
+
+        // then
+        verify( monitor ).refillStalled();
+    }
+
+    @Test
+    void shouldPreferFreeIdInRange() throws IOException
+    {
+        // given
+        freelist.start( NO_FREE_IDS );
+        for ( int i = 0; i < IDS_PER_ENTRY * 3; i++ )
+        {
+            markUsed( freelist.nextId() );
+        }
+        long farAway = 10;
+        long near = IDS_PER_ENTRY * 2 + 5;
+        for ( long id : new long[]{farAway, near} )
+        {
+            markDeleted( id );
+            markFree( id );
+        }
+
+        // when
+        long id = freelist.nextId( IDS_PER_ENTRY * 2, IDS_PER_ENTRY * 3 );
+
+        // then
+        assertEquals( near, id );
+        assertEquals( farAway, freelist.nextId() );
+    }
+
+    @Test
+    void shouldFallBackToRegularAllocationIfNoFreeIdInRange() throws IOException
+    {
+        // given
+        freelist.start( NO_FREE_IDS );
+        for ( int i = 0; i < IDS_PER_ENTRY * 3; i++ )
+        {
+            markUsed( freelist.nextId() );
+        }
+        markDeleted( 10 );
+        markFree( 10 );
+
+        // when
+        long id = freelist.nextId( IDS_PER_ENTRY * 2, IDS_PER_ENTRY * 3 );
+
+        // then
+        assertEquals( 10, id );
+    }
+
     @Test
     void shouldUseHighIdSupplierOnCreatingNewFile()
     {
@@ -97,6 +97,8 @@ class LoggingIndexedIdGeneratorMonitorTest
             clock.forward( timeStep, MILLISECONDS );
             monitor.clearedCache();
             clock.forward( timeStep, MILLISECONDS );
+            monitor.refillStalled();
+            clock.forward( timeStep, MILLISECONDS );
         }
 
         // then
@@ -118,6 +120,7 @@ class LoggingIndexedIdGeneratorMonitorTest
         verify( dumper ).typeAndId( LoggingIndexedIdGeneratorMonitor.Type.NORMALIZED, time += timeStep, 13 );
         verify( dumper ).type( LoggingIndexedIdGeneratorMonitor.Type.CLEARING_CACHE, time += timeStep);
         verify( dumper ).type( LoggingIndexedIdGeneratorMonitor.Type.CLEARED_CACHE, time += timeStep);
+        verify( dumper ).type( LoggingIndexedIdGeneratorMonitor.Type.REFILL_STALLED, time += timeStep);
         verify( dumper ).type( LoggingIndexedIdGeneratorMonitor.Type.CLOSED, time += timeStep);
     }
 
@@ -136,6 +136,17 @@ public interface PagedFile extends AutoCloseable
      */
     PageCursor io( long pageId, int pf_flags ) throws IOException;
 
+    /**
+     * Hint that the page with the given file-page-id is likely to be accessed soon.
+     * <p>
+     * Implementations may start loading the page into memory in the background, so that a later page fault on it
+     * is avoided or at least overlapped with other work, or they may ignore the hint altogether. This method never
+     * blocks on IO and never fails, pages beyond the end of the file are ignored.
+     *
+     * @param pageId The file-page-id of the page that is about to be accessed.
+     */
+    void prefetch( long pageId );
+
     /**
      * Get the size of the file-pages, in bytes.
      */
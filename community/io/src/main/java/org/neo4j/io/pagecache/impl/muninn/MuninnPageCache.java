@@ -39,6 +39,7 @@ import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
@@ -55,6 +56,8 @@ import org.neo4j.scheduler.JobScheduler;
 
 import static java.lang.String.format;
 import static org.neo4j.internal.helpers.Numbers.isPowerOfTwo;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.util.FeatureToggles.flag;
 import static org.neo4j.util.FeatureToggles.getInteger;
 
@@ -126,6 +129,12 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // This is how many prefetches, as hinted through PagedFile.prefetch, that can be queued up or running at the same
+    // time. Hints beyond this are dropped, since the readers that gave them are likely to fault the pages in themselves
+    // before a prefetcher gets around to it anyway.
+    private static final int maxPrefetchesInFlight = getInteger(
+            MuninnPageCache.class, "maxPrefetchesInFlight", 32 );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -192,6 +201,9 @@ public class MuninnPageCache implements PageCache
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
+    // Number of page prefetches that are scheduled but not yet completed.
+    private final AtomicInteger prefetchesInFlight = new AtomicInteger();
+
     // Only used by ensureThreadsInitialised while holding the monitor lock on this MuninnPageCache instance.
     private boolean threadsInitialised;
 
@@ -1042,6 +1054,43 @@ public class MuninnPageCache implements PageCache
         while ( !compareAndSetFreelistHead( current, freePage ) );
     }
 
+    /**
+     * Load the given page of the given file in the background, unless too many prefetches are in flight already.
+     */
+    void prefetch( MuninnPagedFile file, long filePageId )
+    {
+        if ( closed || prefetchesInFlight.incrementAndGet() > maxPrefetchesInFlight )
+        {
+            prefetchesInFlight.decrementAndGet();
+            return;
+        }
+
+        try
+        {
+            scheduler.schedule( Group.PAGE_CACHE_PREFETCH, () ->
+            {
+                try ( PageCursor cursor = file.io( filePageId, PF_SHARED_READ_LOCK | PF_NO_GROW ) )
+                {
+                    cursor.next();
+                }
+                catch ( IOException e )
+                {
+                    // The file was unmapped, or the page could not be read. Either way, whoever actually needs the
+                    // page will get to deal with that when faulting it in themselves.
+                }
+                finally
+                {
+                    prefetchesInFlight.decrementAndGet();
+                }
+            } );
+        }
+        catch ( Exception e )
+        {
+            // The scheduler is shutting down, so the hint is of no use to anyone.
+            prefetchesInFlight.decrementAndGet();
+        }
+    }
+
     void clearEvictorException()
     {
         if ( evictorException != null )
@@ -24,6 +24,7 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.pagecache.IOLimiter;
@@ -53,6 +54,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final long translationTableChunkSizeMask = translationTableChunkSize - 1;
     private static final int translationTableChunkArrayBase = UnsafeUtil.arrayBaseOffset( int[].class );
     private static final int translationTableChunkArrayScale = UnsafeUtil.arrayIndexScale( int[].class );
+    private static final int dirtyPageWordsPerChunk = Math.max( 1, translationTableChunkSize >>> 6 );
 
     private static final long headerStateOffset =
             UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "headerState" );
@@ -71,6 +73,15 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
     volatile int[][] translationTable;
 
+    // This is a bitmap of the file pages that may have been modified since they were last visited by a flush, with one
+    // bit per translation table entry, and one AtomicLongArray per translation table chunk. Write cursors set the bit
+    // of their page after they have released their write lock, and flushes clear a word of bits before they look at
+    // the pages it covers. A set bit therefore does not mean that the page is dirty, but a dirty page will always have
+    // its bit set. This allows flushes to only visit the pages that have actually been written to, instead of sweeping
+    // the entire translation table. The outer array is always assigned before the translation table when expanding,
+    // so anyone who can see a translation table chunk can also see its dirty page bitmap.
+    volatile AtomicLongArray[] dirtyPages;
+
     final PageSwapper swapper;
     final int swapperId;
     private final CursorFactory cursorFactory;
@@ -157,10 +168,13 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
         int initialChunks = 1 + computeChunkId( lastPageId );
         int[][] tt = new int[initialChunks][];
+        AtomicLongArray[] dp = new AtomicLongArray[initialChunks];
         for ( int i = 0; i < initialChunks; i++ )
         {
             tt[i] = newChunk();
+            dp[i] = newDirtyPageChunk();
         }
+        dirtyPages = dp;
         translationTable = tt;
 
         initialiseLastPageId( lastPageId );
@@ -209,6 +223,27 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
+    @Override
+    public void prefetch( long pageId )
+    {
+        long state = getHeaderState();
+        if ( pageId < 0 || refCountOf( state ) == 0 || pageId > (state & headerStateLastPageIdMask) || isResident( pageId ) )
+        {
+            return;
+        }
+        pageCache.prefetch( this, pageId );
+    }
+
+    /**
+     * @return {@code true} if the given page is currently bound to a page in memory, so accessing it will not fault.
+     */
+    boolean isResident( long filePageId )
+    {
+        int[][] tt = translationTable;
+        int chunkId = computeChunkId( filePageId );
+        return chunkId < tt.length && UnsafeUtil.getIntVolatile( tt[chunkId], computeChunkOffset( filePageId ) ) != UNMAPPED_TTE;
+    }
+
     @Override
     public int pageSize()
     {
@@ -385,76 +420,110 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long[] pages = new long[translationTableChunkSize];
         long[] flushStamps = forClosing ? null : new long[translationTableChunkSize];
         long[] bufferAddresses = new long[translationTableChunkSize];
-        long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
         long limiterStamp = IOLimiter.INITIAL_STAMP;
         int[][] tt = this.translationTable;
-        for ( int[] chunk : tt )
+        AtomicLongArray[] dp = this.dirtyPages;
+        for ( int chunkId = 0; chunkId < tt.length; chunkId++ )
         {
             // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
             // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
             // TODO garbage to the file.
+            int[] chunk = tt[chunkId];
+            AtomicLongArray dirtyChunk = dp[chunkId];
+            long chunkStartPageId = ((long) chunkId) << translationTableChunkSizePower;
             int pagesGrabbed = 0;
-            chunkLoop:
-            for ( int i = 0; i < chunk.length; i++ )
+            try
             {
-                filePageId++;
-                long offset = computeChunkOffset( filePageId );
-
-                // We might race with eviction, but we also mustn't miss a dirty page, so we loop until we succeed
-                // in getting a lock on all available pages.
-                for (;;)
+                for ( int word = 0; word < dirtyPageWordsPerChunk; word++ )
                 {
-                    int pageId = UnsafeUtil.getIntVolatile( chunk, offset );
-                    if ( pageId != UNMAPPED_TTE )
+                    // When closing we sweep every page regardless, since no page may be left dirty after unmapping.
+                    long dirtyBits = forClosing ? -1L : dirtyChunk.getAndSet( word, 0 );
+                    if ( dirtyBits == 0 )
                     {
-                        long pageRef = deref( pageId );
-                        long stamp = tryOptimisticReadLock( pageRef );
-                        if ( (!isModified( pageRef )) && validateReadLock( pageRef, stamp ) )
+                        if ( pagesGrabbed > 0 )
                         {
-                            break;
+                            vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
+                            limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                            pagesGrabbed = 0;
                         }
-
-                        long flushStamp = 0;
-                        if ( !(forClosing ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
-                        {
-                            continue;
-                        }
-                        if ( isBoundTo( pageRef, swapperId, filePageId ) && isModified( pageRef ) )
+                        continue;
+                    }
+                    int wordStartIndex = word << 6;
+                    int wordEndIndex = Math.min( wordStartIndex + Long.SIZE, chunk.length );
+                    chunkLoop:
+                    for ( int i = wordStartIndex; i < wordEndIndex; i++ )
+                    {
+                        if ( (dirtyBits & (1L << (i - wordStartIndex))) != 0 )
                         {
-                            // The page is still bound to the expected file and file page id after we locked it,
-                            // so we didn't race with eviction and faulting, and the page is dirty.
-                            // So we add it to our IO vector.
-                            pages[pagesGrabbed] = pageRef;
-                            if ( !forClosing )
+                            long filePageId = chunkStartPageId + i;
+                            long offset = computeChunkOffset( filePageId );
+
+                            // We might race with eviction, but we also mustn't miss a dirty page, so we loop until we
+                            // succeed in getting a lock on all available pages.
+                            for (;;)
                             {
-                                flushStamps[pagesGrabbed] = flushStamp;
+                                int pageId = UnsafeUtil.getIntVolatile( chunk, offset );
+                                if ( pageId != UNMAPPED_TTE )
+                                {
+                                    long pageRef = deref( pageId );
+                                    long stamp = tryOptimisticReadLock( pageRef );
+                                    if ( (!isModified( pageRef )) && validateReadLock( pageRef, stamp ) )
+                                    {
+                                        break;
+                                    }
+
+                                    long flushStamp = 0;
+                                    if ( !(forClosing ? tryExclusiveLock( pageRef ) :
+                                           ((flushStamp = tryFlushLock( pageRef )) != 0)) )
+                                    {
+                                        continue;
+                                    }
+                                    if ( isBoundTo( pageRef, swapperId, filePageId ) && isModified( pageRef ) )
+                                    {
+                                        // The page is still bound to the expected file and file page id after we
+                                        // locked it, so we didn't race with eviction and faulting, and the page is
+                                        // dirty. So we add it to our IO vector.
+                                        pages[pagesGrabbed] = pageRef;
+                                        if ( !forClosing )
+                                        {
+                                            flushStamps[pagesGrabbed] = flushStamp;
+                                        }
+                                        bufferAddresses[pagesGrabbed] = getAddress( pageRef );
+                                        pagesGrabbed++;
+                                        continue chunkLoop;
+                                    }
+                                    else if ( forClosing )
+                                    {
+                                        unlockExclusive( pageRef );
+                                    }
+                                    else
+                                    {
+                                        unlockFlush( pageRef, flushStamp, false );
+                                    }
+                                }
+                                break;
                             }
-                            bufferAddresses[pagesGrabbed] = getAddress( pageRef );
-                            pagesGrabbed++;
-                            continue chunkLoop;
-                        }
-                        else if ( forClosing )
-                        {
-                            unlockExclusive( pageRef );
                         }
-                        else
+                        if ( pagesGrabbed > 0 )
                         {
-                            unlockFlush( pageRef, flushStamp, false );
+                            vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
+                            limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                            pagesGrabbed = 0;
                         }
                     }
-                    break;
                 }
                 if ( pagesGrabbed > 0 )
                 {
                     vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
                     limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
-                    pagesGrabbed = 0;
                 }
             }
-            if ( pagesGrabbed > 0 )
+            catch ( Throwable e )
             {
-                vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
-                limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                // We have already cleared the dirty bits of pages in this chunk that we might not have flushed.
+                // Mark the whole chunk as possibly dirty, so the next flush will visit all of its pages again.
+                markChunkPossiblyDirty( dirtyChunk );
+                throw e;
             }
         }
 
@@ -723,12 +792,17 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         {
             int newLength = computeNewRootTableLength( maxChunkId );
             int[][] ntt = new int[newLength][];
+            AtomicLongArray[] dp = dirtyPages;
+            AtomicLongArray[] ndp = new AtomicLongArray[newLength];
             System.arraycopy( tt, 0, ntt, 0, tt.length );
+            System.arraycopy( dp, 0, ndp, 0, dp.length );
             for ( int i = tt.length; i < ntt.length; i++ )
             {
                 ntt[i] = newChunk();
+                ndp[i] = newDirtyPageChunk();
             }
             tt = ntt;
+            dirtyPages = ndp;
             translationTable = tt;
         }
         return tt;
@@ -741,6 +815,39 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return chunk;
     }
 
+    private static AtomicLongArray newDirtyPageChunk()
+    {
+        return new AtomicLongArray( dirtyPageWordsPerChunk );
+    }
+
+    private static void markChunkPossiblyDirty( AtomicLongArray dirtyChunk )
+    {
+        for ( int word = 0; word < dirtyPageWordsPerChunk; word++ )
+        {
+            dirtyChunk.set( word, -1L );
+        }
+    }
+
+    /**
+     * Record that the given file page may have been modified, so that the next flush will visit it.
+     * This must be called <em>after</em> the write lock on the page has been released.
+     * The file page must be within the bounds of the translation table, which is always the case for pinned pages.
+     *
+     * @param filePageId The id of the file page that was written to.
+     */
+    void markPageDirty( long filePageId )
+    {
+        AtomicLongArray dirtyChunk = dirtyPages[computeChunkId( filePageId )];
+        int index = (int) (filePageId & translationTableChunkSizeMask);
+        int word = index >>> 6;
+        long bit = 1L << (index & 63);
+        long bits = dirtyChunk.get( word );
+        if ( (bits & bit) == 0 )
+        {
+            dirtyChunk.getAndAccumulate( word, bit, ( current, mask ) -> current | mask );
+        }
+    }
+
     private int computeNewRootTableLength( int maxChunkId )
     {
         // Grow by approx. 10% but always by at least one full chunk.
@@ -40,6 +40,9 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         if ( pinnedPageRef != 0 )
         {
             pinEvent.done();
+            // The current page id is not reliable here, since the cursor may have been rewound, but the page binding
+            // cannot change while we hold the write lock.
+            long filePageId = pagedFile.getFilePageId( pinnedPageRef );
             // Mark the page as dirty *after* our write access, to make sure it's dirty even if it was concurrently
             // flushed. Unlocking the write-locked page will mark it as dirty for us.
             if ( eagerFlush )
@@ -50,6 +53,7 @@ final class MuninnWritePageCursor extends MuninnPageCursor
             {
                 pagedFile.unlockWrite( pinnedPageRef );
             }
+            pagedFile.markPageDirty( filePageId );
         }
         clearPageCursorState();
     }
@@ -30,6 +30,17 @@ public interface Locks
 
     void acquireExclusiveLabelLock( long... ids );
 
+    /**
+     * Acquires exclusive locks on all the given nodes and relationships up front, with a single call to the lock client per
+     * resource type. Ids are locked in ascending order and nodes are locked before relationships, which is the same order
+     * that is used when locking the nodes of a relationship. Transactions that declare their writes this way before making
+     * them can therefore not deadlock with each other, no matter how their batches overlap.
+     *
+     * @param nodeIds ids of the nodes to lock, in any order and possibly with duplicates.
+     * @param relationshipIds ids of the relationships to lock, in any order and possibly with duplicates.
+     */
+    void acquireExclusiveLocksInOrder( long[] nodeIds, long[] relationshipIds );
+
     void releaseExclusiveNodeLock( long... ids );
 
     void releaseExclusiveRelationshipLock( long... ids );
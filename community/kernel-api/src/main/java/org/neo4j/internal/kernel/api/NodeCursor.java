@@ -38,6 +38,15 @@ public interface NodeCursor extends Cursor
 
     void properties( PropertyCursor cursor );
 
+    /**
+     * Initializes the given cursor for reading the property with the given key of this node. The cursor may skip other
+     * properties of the node, but is not required to, so callers still need to check {@link PropertyCursor#propertyKey()}.
+     */
+    default void properties( PropertyCursor cursor, int propertyKey )
+    {
+        properties( cursor );
+    }
+
     long relationshipGroupReference();
 
     long allRelationshipsReference();
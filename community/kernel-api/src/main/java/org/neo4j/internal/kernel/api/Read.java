@@ -149,6 +149,20 @@ public interface Read
      */
     boolean nodeExists( long reference );
 
+    /**
+     * Reads a number of properties of many nodes in one call, which lets the implementation read the underlying
+     * records in storage order rather than in the order of {@code nodeReferences}.
+     * <p>
+     * The result is columnar: {@code target[k][i]} is set to the value of property {@code propertyKeys[k]} of node
+     * {@code nodeReferences[i]}, including changes in the transaction state, or to {@link Values#NO_VALUE} if the node
+     * doesn't exist, doesn't have that property or the property isn't readable in the current security context.
+     *
+     * @param nodeReferences references of the nodes to read, may contain duplicates.
+     * @param propertyKeys ids of the property keys to read.
+     * @param target array of {@code propertyKeys.length} columns, each of at least {@code nodeReferences.length} values.
+     */
+    void nodesGetProperties( long[] nodeReferences, int[] propertyKeys, Value[][] target );
+
     /**
      * The number of nodes in the graph, including anything changed in the transaction state.
      *
@@ -299,6 +313,16 @@ public interface Read
      */
     boolean relationshipExists( long reference );
 
+    /**
+     * Reads a number of properties of many relationships in one call, see
+     * {@link #nodesGetProperties(long[], int[], Value[][])}.
+     *
+     * @param relationshipReferences references of the relationships to read, may contain duplicates.
+     * @param propertyKeys ids of the property keys to read.
+     * @param target array of {@code propertyKeys.length} columns, each of at least {@code relationshipReferences.length} values.
+     */
+    void relationshipsGetProperties( long[] relationshipReferences, int[] propertyKeys, Value[][] target );
+
     void allRelationshipsScan( RelationshipScanCursor cursor );
 
     Scan<RelationshipScanCursor> allRelationshipsScan();
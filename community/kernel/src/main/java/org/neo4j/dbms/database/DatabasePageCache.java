@@ -154,6 +154,12 @@ public class DatabasePageCache implements PageCache
             return delegate.io( pageId, pf_flags );
         }
 
+        @Override
+        public void prefetch( long pageId )
+        {
+            delegate.prefetch( pageId );
+        }
+
         @Override
         public int pageSize()
         {
@@ -51,6 +51,20 @@ public interface Kernel
     KernelTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, long timeout )
             throws TransactionFailureException;
 
+    /**
+     * Creates and returns a new {@link KernelTransaction} with custom timeout in milliseconds, which can be started as a read-only transaction.
+     * A read-only transaction refuses all writes, doesn't allocate a lock client unless it asks for a lock and skips the commit process.
+     *
+     * @param type the type of the new transaction: implicit (internally created) or explicit (created by the user)
+     * @param loginContext transaction login context
+     * @param clientInfo transaction client info
+     * @param timeout transaction timeout in milliseconds
+     * @param readOnly whether or not to start a read-only transaction. Transactions started in a login context that allows no writes
+     * are read-only regardless.
+     */
+    KernelTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, long timeout,
+            boolean readOnly ) throws TransactionFailureException;
+
     /**
      * Begin new transaction.
      *
@@ -83,6 +83,7 @@ import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.transaction.monitor.KernelTransactionMonitor;
 import org.neo4j.kernel.impl.api.transaction.monitor.KernelTransactionMonitorScheduler;
 import org.neo4j.kernel.impl.constraints.ConstraintSemantics;
+import org.neo4j.kernel.impl.context.SnapshotReader;
 import org.neo4j.kernel.impl.factory.AccessCapability;
 import org.neo4j.kernel.impl.factory.AccessCapabilityFactory;
 import org.neo4j.kernel.impl.factory.DatabaseInfo;
@@ -96,6 +97,8 @@ import org.neo4j.kernel.impl.pagecache.PageCacheStartMetricsReporter;
 import org.neo4j.kernel.impl.pagecache.PageCacheStopMetricsReporter;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
+import org.neo4j.kernel.impl.store.compaction.StoreCompaction;
+import org.neo4j.kernel.impl.store.compaction.StoreCompactionScheduler;
 import org.neo4j.kernel.impl.store.stats.DatabaseEntityCounters;
 import org.neo4j.kernel.impl.storemigration.DatabaseMigratorFactory;
 import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
@@ -103,6 +106,7 @@ import org.neo4j.kernel.impl.transaction.log.LogVersionUpgradeChecker;
 import org.neo4j.kernel.impl.transaction.log.LoggingLogFileMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.RawTransactionLogReader;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
@@ -166,6 +170,7 @@ import org.neo4j.util.VisibleForTesting;
 
 import static java.lang.String.format;
 import static org.neo4j.configuration.GraphDatabaseSettings.fail_on_corrupted_log_files;
+import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
 import static org.neo4j.function.Predicates.alwaysTrue;
 import static org.neo4j.function.ThrowingAction.executeAll;
@@ -336,6 +341,8 @@ public class Database extends LifecycleAdapter
             databaseDependencies.satisfyDependency( idController );
             databaseDependencies.satisfyDependency( lockService );
             databaseDependencies.satisfyDependency( versionContextSupplier );
+            databaseDependencies.satisfyDependency(
+                    new SnapshotReader( versionContextSupplier, databaseConfig.get( GraphDatabaseSettings.snapshot_query_retries ) ) );
             databaseDependencies.satisfyDependency( databaseTracer );
             databaseDependencies.satisfyDependency( lockTracer );
 
@@ -388,7 +395,7 @@ public class Database extends LifecycleAdapter
 
             storageEngine = storageEngineFactory.instantiate( fs, databaseLayout, databaseConfig, databasePageCache, tokenHolders, databaseSchemaState,
                     constraintSemantics, indexProviderMap, lockService, idGeneratorFactory, idController, databaseHealth, internalLogProvider,
-                    recoveryCleanupWorkCollector, !storageExists );
+                    recoveryCleanupWorkCollector, scheduler, !storageExists );
 
             life.add( storageEngine );
             life.add( storageEngine.schemaAndTokensLifecycle() );
@@ -600,21 +607,30 @@ public class Database extends LifecycleAdapter
                 logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth ) );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors, true );
+        final RawTransactionLogReader rawTransactionLogReader =
+                life.add( new RawTransactionLogReader( logFiles, transactionMetadataCache, logEntryReader ) );
 
         CheckPointThreshold threshold = CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider );
+        // Log files are rotated at roughly the rotation threshold, so this grows with the bytes appended to the log
+        long logRotationThreshold = config.get( logical_log_rotation_threshold );
+        IOLimiter checkPointIOLimiter = threshold.ioLimiter( ioLimiter, () ->
+        {
+            long[] lastClosed = transactionIdStore.getLastClosedTransaction();
+            return lastClosed[1] * logRotationThreshold + lastClosed[2];
+        } );
 
         final CheckPointerImpl checkPointer =
                 new CheckPointerImpl( transactionIdStore, threshold, forceOperation, logPruning, appender, databaseHealth, logProvider, databaseTracer,
-                        ioLimiter, storeCopyCheckPointMutex );
+                        checkPointIOLimiter, storeCopyCheckPointMutex );
 
         long recurringPeriod = threshold.checkFrequencyMillis();
-        CheckPointScheduler checkPointScheduler = new CheckPointScheduler( checkPointer, ioLimiter, scheduler,
+        CheckPointScheduler checkPointScheduler = new CheckPointScheduler( checkPointer, checkPointIOLimiter, scheduler,
                 recurringPeriod, databaseHealth );
 
         life.add( checkPointer );
         life.add( checkPointScheduler );
 
-        return new DatabaseTransactionLogModule( logicalTransactionStore, logFiles, logRotation, checkPointer, appender );
+        return new DatabaseTransactionLogModule( logicalTransactionStore, logFiles, logRotation, checkPointer, appender, rawTransactionLogReader );
     }
 
     private DatabaseKernelModule buildKernel( LogFiles logFiles, TransactionAppender appender,
@@ -649,6 +665,7 @@ public class Database extends LifecycleAdapter
                         databaseDependencies, databaseTracer, pageCursorTracerSupplier, lockTracer, leaseService ) );
 
         buildTransactionMonitor( kernelTransactions, databaseConfig );
+        buildStoreCompaction( storageEngine, transactionCommitProcess, transactionIdStore, databaseAvailabilityGuard, databaseConfig );
 
         KernelImpl kernel = new KernelImpl( kernelTransactions, databaseHealth, transactionStats, globalProcedures, databaseConfig, storageEngine );
 
@@ -709,6 +726,20 @@ public class Database extends LifecycleAdapter
         life.add( transactionMonitorScheduler );
     }
 
+    private void buildStoreCompaction( StorageEngine storageEngine, TransactionCommitProcess transactionCommitProcess,
+            TransactionIdStore transactionIdStore, AvailabilityGuard databaseAvailabilityGuard, Config config )
+    {
+        if ( readOnly )
+        {
+            return;
+        }
+        StoreCompaction storeCompaction = new StoreCompaction( storageEngine, transactionCommitProcess, transactionIdStore, locks, leaseService,
+                databaseAvailabilityGuard, ioLimiter, pageCursorTracerSupplier, clock, config.get( GraphDatabaseSettings.store_compaction_nodes_per_run ),
+                databaseLogService );
+        databaseDependencies.satisfyDependency( storeCompaction );
+        life.add( new StoreCompactionScheduler( storeCompaction, scheduler, config.get( GraphDatabaseSettings.store_compaction_interval ).toMillis() ) );
+    }
+
     @Override
     public synchronized void stop()
     {
@@ -21,6 +21,7 @@ package org.neo4j.kernel.database;
 
 import org.neo4j.collection.Dependencies;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.RawTransactionLogReader;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointer;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
@@ -33,12 +34,14 @@ class DatabaseTransactionLogModule
     private final LogRotation logRotation;
     private final CheckPointer checkPointer;
     private final TransactionAppender appender;
+    private final RawTransactionLogReader rawTransactionLogReader;
 
     DatabaseTransactionLogModule( LogicalTransactionStore logicalTransactionStore,
             LogFiles logFiles, LogRotation logRotation,
-            CheckPointer checkPointer, TransactionAppender appender )
+            CheckPointer checkPointer, TransactionAppender appender, RawTransactionLogReader rawTransactionLogReader )
     {
         this.logicalTransactionStore = logicalTransactionStore;
+        this.rawTransactionLogReader = rawTransactionLogReader;
         this.logFiles = logFiles;
         this.logRotation = logRotation;
         this.checkPointer = checkPointer;
@@ -61,6 +64,7 @@ class DatabaseTransactionLogModule
                                           logFiles,
                                           logicalTransactionStore,
                                           logRotation,
-                                          appender );
+                                          appender,
+                                          rawTransactionLogReader );
     }
 }
@@ -95,9 +95,16 @@ public class KernelImpl extends LifecycleAdapter implements Kernel
     @Override
     public KernelTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo connectionInfo, long timeout )
             throws TransactionFailureException
+    {
+        return beginTransaction( type, loginContext, connectionInfo, timeout, false );
+    }
+
+    @Override
+    public KernelTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo connectionInfo, long timeout,
+            boolean readOnly ) throws TransactionFailureException
     {
         health.assertHealthy( TransactionFailureException.class );
-        KernelTransaction transaction = transactions.newInstance( type, loginContext, connectionInfo, timeout );
+        KernelTransaction transaction = transactions.newInstance( type, loginContext, connectionInfo, timeout, readOnly );
         transactionMonitor.transactionStarted();
         return transaction;
     }
@@ -21,9 +21,12 @@ package org.neo4j.kernel.impl.api;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -64,6 +67,7 @@ import org.neo4j.internal.schema.IndexPrototype;
 import org.neo4j.internal.schema.SchemaState;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.SilentTokenNameLookup;
@@ -75,6 +79,7 @@ import org.neo4j.kernel.api.txstate.TxStateHolder;
 import org.neo4j.kernel.database.NamedDatabaseId;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.stats.IndexStatisticsStore;
+import org.neo4j.kernel.impl.api.security.RestrictedAccessMode;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.state.TxState;
 import org.neo4j.kernel.impl.api.transaction.trace.TraceProvider;
@@ -91,9 +96,12 @@ import org.neo4j.kernel.impl.newapi.DefaultPooledCursors;
 import org.neo4j.kernel.impl.newapi.IndexTxStateUpdater;
 import org.neo4j.kernel.impl.newapi.KernelToken;
 import org.neo4j.kernel.impl.newapi.Operations;
+import org.neo4j.kernel.impl.newapi.SharedCursorPool;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.tracing.CommandCreationEvent;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
@@ -178,11 +186,14 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private final Statistics statistics;
     private TransactionEvent transactionEvent;
     private Type type;
+    private boolean readOnly;
+    private final Set<VersionContext> boundVersionContexts = Collections.newSetFromMap( new IdentityHashMap<>() );
     private long transactionId;
     private long commitTime;
     private ClientConnectionInfo clientInfo;
     private volatile int reuseCount;
     private volatile Map<String,Object> userMetaData;
+    private final DefaultPooledCursors cursors;
     private final AllStoreHolder allStoreHolder;
     private final Operations operations;
     private InternalTransaction internalTransaction;
@@ -208,7 +219,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             VersionContextSupplier versionContextSupplier, CollectionsFactorySupplier collectionsFactorySupplier,
             ConstraintSemantics constraintSemantics, SchemaState schemaState, TokenHolders tokenHolders, IndexingService indexingService,
             LabelScanStore labelScanStore, IndexStatisticsStore indexStatisticsStore, Dependencies dependencies,
-            NamedDatabaseId namedDatabaseId, LeaseService leaseService )
+            NamedDatabaseId namedDatabaseId, LeaseService leaseService, SharedCursorPool sharedCursorPool )
     {
         this.eventListeners = eventListeners;
         this.constraintIndexCreator = constraintIndexCreator;
@@ -229,7 +240,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.statistics = new Statistics( this, cpuClockRef, heapAllocationRef );
         this.userMetaData = emptyMap();
         this.constraintSemantics = constraintSemantics;
-        DefaultPooledCursors cursors = new DefaultPooledCursors( storageReader );
+        this.cursors = new DefaultPooledCursors( storageReader, sharedCursorPool );
         this.allStoreHolder =
                 new AllStoreHolder( storageReader, this, cursors, globalProcedures, schemaState, indexingService, labelScanStore, indexStatisticsStore,
                         dependencies );
@@ -256,8 +267,23 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
      */
     public KernelTransactionImplementation initialize( long lastCommittedTx, long lastTimeStamp, StatementLocks statementLocks, Type type,
             SecurityContext frozenSecurityContext, long transactionTimeout, long userTransactionId, ClientConnectionInfo clientInfo )
+    {
+        return initialize( lastCommittedTx, lastTimeStamp, statementLocks, type, frozenSecurityContext, transactionTimeout, userTransactionId,
+                clientInfo, false );
+    }
+
+    /**
+     * Reset this transaction to a vanilla state, turning it into a logically new transaction.
+     *
+     * @param startReadOnly whether or not to start this transaction as a read-only transaction, which refuses all writes.
+     * It is read-only as well if the given security context allows no writes, see {@link #isReadOnly(SecurityContext)}.
+     */
+    public KernelTransactionImplementation initialize( long lastCommittedTx, long lastTimeStamp, StatementLocks statementLocks, Type type,
+            SecurityContext frozenSecurityContext, long transactionTimeout, long userTransactionId, ClientConnectionInfo clientInfo,
+            boolean startReadOnly )
     {
         this.type = type;
+        this.readOnly = startReadOnly || isReadOnly( frozenSecurityContext );
         this.statementLocks = statementLocks;
         this.userTransactionId = userTransactionId;
         this.leaseClient = leaseService.newClient();
@@ -275,7 +301,10 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.lastTransactionTimestampWhenStarted = lastTimeStamp;
         this.transactionEvent = transactionTracer.beginTransaction();
         assert transactionEvent != null : "transactionEvent was null!";
-        this.securityContext = frozenSecurityContext;
+        // Writes are refused the same way as for a security context that only allows reads, also when running procedures
+        this.securityContext = startReadOnly
+                               ? frozenSecurityContext.withMode( new RestrictedAccessMode( frozenSecurityContext.mode(), AccessMode.Static.READ ) )
+                               : frozenSecurityContext;
         this.transactionId = NOT_COMMITTED_TRANSACTION_ID;
         this.commitTime = NOT_COMMITTED_TRANSACTION_COMMIT_TIME;
         this.clientInfo = clientInfo;
@@ -450,10 +479,26 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     public KernelStatement acquireStatement()
     {
         assertOpen();
+        bindVersionContext();
         currentStatement.acquire();
         return currentStatement;
     }
 
+    /**
+     * Version contexts are thread-local, while a transaction may run its statements on other threads than the one that started it,
+     * e.g. when served by Bolt. The context of a thread is therefore initialized the first time that thread runs a statement of this
+     * transaction, so that its reads are tracked against what was closed at that point, see SnapshotReader. Later statements on the same
+     * thread leave it as it is, so that a reader which initialized it itself sees what all of its statements have read.
+     */
+    private void bindVersionContext()
+    {
+        VersionContext versionContext = versionContextSupplier.getVersionContext();
+        if ( boundVersionContexts.add( versionContext ) )
+        {
+            versionContext.initRead();
+        }
+    }
+
     @Override
     public IndexDescriptor indexUniqueCreate( IndexPrototype prototype )
     {
@@ -668,6 +713,15 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
 
     private long commitTransaction() throws KernelException
     {
+        if ( readOnly && txState == null )
+        {
+            // Nothing has been written, not even by a procedure running with elevated privileges, so there's no need
+            // to involve any of the commit machinery
+            transactionId = READ_ONLY;
+            afterCommit( null );
+            return READ_ONLY;
+        }
+
         boolean success = false;
         long txId = READ_ONLY;
         TransactionListenersState listenersState = null;
@@ -683,23 +737,29 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             // Convert changes into commands and commit
             if ( hasChanges() )
             {
-                forceThawLocks();
+                try ( CommitLocksEvent commitLocksEvent = commitEvent.beginCommitLocks() )
+                {
+                    forceThawLocks();
 
-                // grab all optimistic locks now, locks can't be deferred any further
-                statementLocks.prepareForCommit( currentStatement.lockTracer() );
+                    // grab all optimistic locks now, locks can't be deferred any further
+                    statementLocks.prepareForCommit( currentStatement.lockTracer() );
+                }
                 // use pessimistic locks for the rest of the commit process, locks can't be deferred any further
                 Locks.Client commitLocks = statementLocks.pessimistic();
 
                 // Gather up commands from the various sources
                 Collection<StorageCommand> extractedCommands = new ArrayList<>();
-                storageEngine.createCommands(
-                        extractedCommands,
-                        txState,
-                        storageReader,
-                        commandCreationContext,
-                        commitLocks,
-                        lastTransactionIdWhenStarted,
-                        this::enforceConstraints );
+                try ( CommandCreationEvent commandCreationEvent = commitEvent.beginCommandCreation() )
+                {
+                    storageEngine.createCommands(
+                            extractedCommands,
+                            txState,
+                            storageReader,
+                            commandCreationContext,
+                            commitLocks,
+                            lastTransactionIdWhenStarted,
+                            this::enforceConstraints );
+                }
 
                 /* Here's the deal: we track a quick-to-access hasChanges in transaction state which is true
                  * if there are any changes imposed by this transaction. Some changes made inside a transaction undo
@@ -897,6 +957,28 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         return currentStatement.lockTracer();
     }
 
+    /**
+     * A transaction is read-only when it is started as one, but also when it is started in a security context that allows neither data
+     * nor schema writes. Such transactions don't allocate a lock client until they need one and skip the commit process.
+     *
+     * @param securityContext the security context the transaction is started in.
+     * @return whether or not a transaction started in the given security context is read-only.
+     */
+    static boolean isReadOnly( SecurityContext securityContext )
+    {
+        AccessMode mode = securityContext.mode();
+        return mode != null && !mode.allowsWrites() && !mode.allowsSchemaWrites();
+    }
+
+    /**
+     * @return {@code true} if this transaction was started as a read-only transaction, or in a security context that allows no writes,
+     * see {@link #isReadOnly(SecurityContext)}.
+     */
+    public boolean isReadOnly()
+    {
+        return readOnly;
+    }
+
     private void assertAllowsWrites()
     {
         AccessMode accessMode = securityContext().mode();
@@ -973,6 +1055,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             statementLocks = null;
             terminationReason = null;
             type = null;
+            readOnly = false;
+            boundVersionContexts.clear();
             securityContext = null;
             transactionEvent = null;
             txState = null;
@@ -1060,6 +1144,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
 
     public void dispose()
     {
+        cursors.dispose();
         storageReader.close();
         commandCreationContext.close();
     }
@@ -55,8 +55,10 @@ import org.neo4j.kernel.impl.api.index.stats.IndexStatisticsStore;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.constraints.ConstraintSemantics;
 import org.neo4j.kernel.impl.factory.AccessCapability;
+import org.neo4j.kernel.impl.locking.ReadOnlyStatementLocks;
 import org.neo4j.kernel.impl.locking.StatementLocks;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
+import org.neo4j.kernel.impl.newapi.SharedCursorPool;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
 import org.neo4j.kernel.impl.util.MonotonicCounter;
@@ -136,6 +138,8 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<IdC
     private final ConstraintSemantics constraintSemantics;
     private final AtomicInteger activeTransactionCounter = new AtomicInteger();
     private final TokenHoldersIdLookup tokenHoldersIdLookup;
+    // Cursors released by disposed transactions, picked up by transactions that need more cursors than they have pooled.
+    private final SharedCursorPool sharedCursorPool = new SharedCursorPool( SharedCursorPool.DEFAULT_CAPACITY );
 
     /**
      * Kernel transactions component status. True when stopped, false when started.
@@ -190,6 +194,12 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<IdC
     }
 
     public KernelTransaction newInstance( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, long timeout )
+    {
+        return newInstance( type, loginContext, clientInfo, timeout, false );
+    }
+
+    public KernelTransaction newInstance( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, long timeout,
+            boolean readOnly )
     {
         assertCurrentThreadIsNotBlockingNewTransactions();
         SecurityContext securityContext = loginContext.authorize( tokenHoldersIdLookup, namedDatabaseId.name() );
@@ -204,9 +214,11 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<IdC
                 assertRunning();
                 TransactionId lastCommittedTransaction = transactionIdStore.getLastCommittedTransaction();
                 KernelTransactionImplementation tx = localTxPool.acquire();
-                StatementLocks statementLocks = statementLocksFactory.newInstance();
+                StatementLocks statementLocks = readOnly || KernelTransactionImplementation.isReadOnly( securityContext )
+                                                ? new ReadOnlyStatementLocks( statementLocksFactory )
+                                                : statementLocksFactory.newInstance();
                 tx.initialize( lastCommittedTransaction.transactionId(), lastCommittedTransaction.commitTimestamp(),
-                        statementLocks, type, securityContext, timeout, userTransactionIdCounter.incrementAndGet(), clientInfo );
+                        statementLocks, type, securityContext, timeout, userTransactionIdCounter.incrementAndGet(), clientInfo, readOnly );
                 return tx;
             }
             finally
@@ -259,6 +271,7 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<IdC
         terminateTransactions();
         localTxPool.close();
         globalTxPool.close();
+        sharedCursorPool.clear();
     }
 
     public void terminateTransactions()
@@ -397,7 +410,7 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<IdC
                             transactionTracer, lockTracer, pageCursorTracerSupplier, storageEngine, accessCapability,
                             versionContextSupplier, collectionsFactorySupplier, constraintSemantics,
                             schemaState, tokenHolders, indexingService, labelScanStore, indexStatisticsStore,
-                            databaseDependendies, namedDatabaseId, leaseService );
+                            databaseDependendies, namedDatabaseId, leaseService, sharedCursorPool );
             this.transactions.add( tx );
             return tx;
         }
@@ -40,6 +40,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -51,6 +54,7 @@ import org.neo4j.exceptions.KernelException;
 import org.neo4j.exceptions.UnderlyingStorageException;
 import org.neo4j.function.ThrowingConsumer;
 import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
@@ -74,6 +78,8 @@ import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.register.Register.DoubleLongRegister;
 import org.neo4j.register.Registers;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.IndexUpdateListener;
@@ -123,6 +129,10 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
     private final SchemaState schemaState;
     private final IndexPopulationJobController populationJobController;
     private final Map<Long,IndexProxy> indexesToDropAfterCompletedRecovery = new HashMap<>();
+    private final JobScheduler scheduler;
+    private final int updateParallelism;
+    // Permits for index update jobs running on the scheduler, the committing thread itself is the last worker
+    private final Semaphore updateJobPermits;
 
     enum State
     {
@@ -149,6 +159,16 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
         void populationCancelled();
 
         void populationJobCompleted( long peakDirectMemoryUsage );
+
+        /**
+         * Called when a batch of committed updates has been applied to an index. Only called when updates are applied
+         * to indexes in parallel, see {@link GraphDatabaseSettings#index_update_parallelism}.
+         *
+         * @param descriptor the index the updates were applied to.
+         * @param updates number of updates applied.
+         * @param applyTimeNanos time it took to apply the updates, including opening and closing the updater.
+         */
+        void indexUpdatesApplied( IndexDescriptor descriptor, int updates, long applyTimeNanos );
     }
 
     public static class MonitorAdapter implements Monitor
@@ -190,6 +210,11 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
         public void populationJobCompleted( long peakDirectMemoryUsage )
         {   // Do nothing
         }
+
+        @Override
+        public void indexUpdatesApplied( IndexDescriptor descriptor, int updates, long applyTimeNanos )
+        {   // Do nothing
+        }
     }
 
     public static final Monitor NO_MONITOR = new MonitorAdapter();
@@ -210,7 +235,8 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
             LogProvider userLogProvider,
             Monitor monitor,
             IndexStatisticsStore indexStatisticsStore,
-            boolean readOnly )
+            boolean readOnly,
+            int updateParallelism )
     {
         this.indexProxyCreator = indexProxyCreator;
         this.providerMap = providerMap;
@@ -228,6 +254,9 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
         this.userLog = userLogProvider.getLog( getClass() );
         this.indexStatisticsStore = indexStatisticsStore;
         this.readOnly = readOnly;
+        this.scheduler = scheduler;
+        this.updateParallelism = updateParallelism;
+        this.updateJobPermits = new Semaphore( updateParallelism - 1 );
     }
 
     /**
@@ -592,6 +621,12 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
 
     private void apply( Iterable<IndexEntryUpdate<IndexDescriptor>> updates, IndexUpdateMode updateMode ) throws KernelException
     {
+        if ( updateParallelism > 1 && updateMode == IndexUpdateMode.ONLINE )
+        {
+            applyInParallel( updates, updateMode );
+            return;
+        }
+
         try ( IndexUpdaterMap updaterMap = indexMapRef.createIndexUpdaterMap( updateMode ) )
         {
             for ( IndexEntryUpdate<IndexDescriptor> indexUpdate : updates )
@@ -634,6 +669,94 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
         populationStarter.startPopulation();
     }
 
+    /**
+     * Applies the updates of each index as one job, where jobs for different indexes run in parallel on the scheduler.
+     * Each job opens, uses and closes the updater of its index on one and the same thread, since updaters may hold
+     * on to thread bound resources, like the read lock of a {@link FlippableIndexProxy}. If all permits for update jobs
+     * are taken the committing thread applies the updates itself, which is what keeps commits from queueing up more
+     * work than the update threads can keep up with.
+     */
+    private void applyInParallel( Iterable<IndexEntryUpdate<IndexDescriptor>> updates, IndexUpdateMode updateMode ) throws KernelException
+    {
+        Map<IndexDescriptor,List<IndexEntryUpdate<IndexDescriptor>>> updatesPerIndex = new HashMap<>();
+        for ( IndexEntryUpdate<IndexDescriptor> update : updates )
+        {
+            updatesPerIndex.computeIfAbsent( update.indexKey(), index -> new ArrayList<>() ).add( update );
+        }
+
+        IndexMap indexMap = indexMapRef.indexMapSnapshot();
+        List<IndexUpdatesJob> jobs = new ArrayList<>( updatesPerIndex.size() );
+        for ( Map.Entry<IndexDescriptor,List<IndexEntryUpdate<IndexDescriptor>>> entry : updatesPerIndex.entrySet() )
+        {
+            IndexProxy indexProxy = indexMap.getIndexProxy( entry.getKey() );
+            if ( indexProxy == null )
+            {
+                continue;
+            }
+            IndexUpdatesJob job = new IndexUpdatesJob( indexProxy, updateMode, entry.getValue() );
+            jobs.add( job );
+            if ( updateJobPermits.tryAcquire() )
+            {
+                try
+                {
+                    job.handle = scheduler.schedule( Group.INDEX_UPDATE_APPLY, job );
+                    continue;
+                }
+                catch ( RejectedExecutionException e )
+                {
+                    updateJobPermits.release();
+                }
+            }
+            job.apply();
+        }
+
+        Throwable applyFailure = null;
+        boolean interrupted = false;
+        for ( IndexUpdatesJob job : jobs )
+        {
+            while ( job.handle != null )
+            {
+                try
+                {
+                    job.handle.waitTermination();
+                    job.handle = null;
+                }
+                catch ( InterruptedException e )
+                {
+                    // The job has our updates in its hands, so we can't leave before it's done with them
+                    interrupted = true;
+                }
+                catch ( ExecutionException e )
+                {
+                    job.failure = Exceptions.chain( job.failure, e.getCause() );
+                    job.handle = null;
+                }
+            }
+            applyFailure = Exceptions.chain( applyFailure, job.failure );
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if ( applyFailure instanceof KernelException )
+        {
+            throw (KernelException) applyFailure;
+        }
+        if ( applyFailure instanceof RuntimeException )
+        {
+            throw (RuntimeException) applyFailure;
+        }
+        if ( applyFailure instanceof Error )
+        {
+            throw (Error) applyFailure;
+        }
+        if ( applyFailure != null )
+        {
+            throw new UnderlyingStorageException( applyFailure );
+        }
+    }
+
     private void processUpdate( IndexUpdaterMap updaterMap, IndexEntryUpdate<IndexDescriptor> indexUpdate ) throws IndexEntryConflictException
     {
         IndexUpdater updater = updaterMap.getUpdater( indexUpdate.indexKey() );
@@ -872,6 +995,53 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
         }
     }
 
+    private final class IndexUpdatesJob implements Runnable
+    {
+        private final IndexProxy indexProxy;
+        private final IndexUpdateMode updateMode;
+        private final List<IndexEntryUpdate<IndexDescriptor>> updates;
+        private volatile JobHandle handle;
+        private volatile Throwable failure;
+
+        IndexUpdatesJob( IndexProxy indexProxy, IndexUpdateMode updateMode, List<IndexEntryUpdate<IndexDescriptor>> updates )
+        {
+            this.indexProxy = indexProxy;
+            this.updateMode = updateMode;
+            this.updates = updates;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                apply();
+            }
+            finally
+            {
+                updateJobPermits.release();
+            }
+        }
+
+        void apply()
+        {
+            long startTime = System.nanoTime();
+            try ( IndexUpdater updater = indexProxy.newUpdater( updateMode ) )
+            {
+                for ( IndexEntryUpdate<IndexDescriptor> update : updates )
+                {
+                    updater.process( update );
+                }
+            }
+            catch ( Throwable t )
+            {
+                failure = t;
+                return;
+            }
+            monitor.indexUpdatesApplied( indexProxy.getDescriptor(), updates.size(), System.nanoTime() - startTime );
+        }
+    }
+
     private final class IndexPopulationStarter implements Function<IndexMap,IndexMap>
     {
         private final boolean verifyBeforeFlipping;
@@ -19,10 +19,20 @@
  */
 package org.neo4j.kernel.impl.api.tracer;
 
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.stats.CommitLatencyMonitor;
+import org.neo4j.kernel.impl.transaction.stats.CommitStage;
+import org.neo4j.kernel.impl.transaction.stats.LatencyHistogram;
+import org.neo4j.kernel.impl.transaction.stats.SlowCommitTrace;
+import org.neo4j.kernel.impl.transaction.tracing.CommandCreationEvent;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
@@ -34,6 +44,9 @@ import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 
+import org.neo4j.time.Clocks;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 
 /**
@@ -41,18 +54,43 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FO
  */
 public class DefaultTracer implements DatabaseTracer
 {
+    private static final CommitStage[] COMMIT_STAGES = CommitStage.values();
+    /**
+     * Commits slower than this percentile of all commits so far are traced, as long as they are also slower than
+     * {@link #MIN_SLOW_COMMIT_NANOS}.
+     */
+    private static final double SLOW_COMMIT_PERCENTILE = 99.9;
+    private static final long MIN_SLOW_COMMIT_NANOS = MILLISECONDS.toNanos( 10 );
+    private static final int SLOW_COMMIT_THRESHOLD_UPDATE_INTERVAL = 1024;
+    private static final int MAX_SLOW_COMMIT_TRACES = 32;
+
     private final AtomicLong appendedBytes = new AtomicLong();
+    private final Clock clock;
+    private final CommitLatencyMonitor commitLatencyMonitor;
+    private final LatencyHistogram[] commitLatencies = new LatencyHistogram[COMMIT_STAGES.length];
+    private final AtomicLong tracedCommits = new AtomicLong();
+    private final ArrayDeque<SlowCommitTrace> slowCommits = new ArrayDeque<>( MAX_SLOW_COMMIT_TRACES );
+    private volatile long slowCommitThresholdNanos = MIN_SLOW_COMMIT_NANOS;
 
     private final CountingLogRotateEvent countingLogRotateEvent = new CountingLogRotateEvent();
     private final LogFileCreateEvent logFileCreateEvent = () -> appendedBytes.addAndGet( CURRENT_FORMAT_LOG_HEADER_SIZE );
     private final CountingLogCheckPointEvent logCheckPointEvent = new CountingLogCheckPointEvent( this::appendLogBytes );
-    private final LogAppendEvent logAppendEvent = new DefaultLogAppendEvent();
-    private final CommitEvent commitEvent = new DefaultCommitEvent();
+    private final ThreadLocal<DefaultCommitEvent> commitEvents = ThreadLocal.withInitial( DefaultCommitEvent::new );
     private final TransactionEvent transactionEvent = new DefaultTransactionEvent();
 
     public DefaultTracer()
     {
-        //empty
+        this( Clocks.systemClock(), CommitLatencyMonitor.NONE );
+    }
+
+    public DefaultTracer( Clock clock, CommitLatencyMonitor commitLatencyMonitor )
+    {
+        this.clock = clock;
+        this.commitLatencyMonitor = commitLatencyMonitor;
+        for ( int i = 0; i < commitLatencies.length; i++ )
+        {
+            commitLatencies[i] = new LatencyHistogram();
+        }
     }
 
     @Override
@@ -85,6 +123,21 @@ public class DefaultTracer implements DatabaseTracer
         return countingLogRotateEvent.lastLogRotationTimeMillis();
     }
 
+    @Override
+    public LatencyHistogram commitLatency( CommitStage stage )
+    {
+        return commitLatencies[stage.ordinal()];
+    }
+
+    @Override
+    public List<SlowCommitTrace> slowCommits()
+    {
+        synchronized ( slowCommits )
+        {
+            return new ArrayList<>( slowCommits );
+        }
+    }
+
     @Override
     public long numberOfCheckPoints()
     {
@@ -124,6 +177,50 @@ public class DefaultTracer implements DatabaseTracer
         return logFileCreateEvent;
     }
 
+    private CommitEvent beginCommit()
+    {
+        // Commit events are reused by the committing thread, unless it starts committing another transaction
+        // from within a commit, which is rare enough to not be worth avoiding the allocation for.
+        DefaultCommitEvent commitEvent = commitEvents.get();
+        if ( commitEvent.inUse )
+        {
+            commitEvent = new DefaultCommitEvent();
+        }
+        commitEvent.begin();
+        return commitEvent;
+    }
+
+    private void commitCompleted( long[] stageNanos, int passedStages )
+    {
+        for ( CommitStage stage : COMMIT_STAGES )
+        {
+            if ( (passedStages & (1 << stage.ordinal())) != 0 )
+            {
+                commitLatencies[stage.ordinal()].record( stageNanos[stage.ordinal()] );
+            }
+        }
+
+        long totalNanos = stageNanos[CommitStage.TOTAL.ordinal()];
+        if ( tracedCommits.incrementAndGet() % SLOW_COMMIT_THRESHOLD_UPDATE_INTERVAL == 0 )
+        {
+            long percentileNanos = commitLatencies[CommitStage.TOTAL.ordinal()].valueAtPercentile( SLOW_COMMIT_PERCENTILE );
+            slowCommitThresholdNanos = Math.max( MIN_SLOW_COMMIT_NANOS, percentileNanos );
+        }
+        if ( totalNanos >= slowCommitThresholdNanos )
+        {
+            SlowCommitTrace trace = new SlowCommitTrace( clock.millis(), stageNanos.clone() );
+            synchronized ( slowCommits )
+            {
+                if ( slowCommits.size() == MAX_SLOW_COMMIT_TRACES )
+                {
+                    slowCommits.removeFirst();
+                }
+                slowCommits.addLast( trace );
+            }
+            commitLatencyMonitor.slowCommit( trace );
+        }
+    }
+
     private class DefaultTransactionEvent implements TransactionEvent
     {
 
@@ -140,7 +237,7 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public CommitEvent beginCommitEvent()
         {
-            return commitEvent;
+            return beginCommit();
         }
 
         @Override
@@ -159,28 +256,121 @@ public class DefaultTracer implements DatabaseTracer
         }
     }
 
+    /**
+     * Times the stages of a single commit, and hands the timings over to the tracer when the commit completes.
+     * Only commits that have appended to the transaction log are recorded, since read only commits would otherwise
+     * drown out the latencies of the commits that actually do work.
+     */
     private class DefaultCommitEvent implements CommitEvent
     {
+        private final long[] stageNanos = new long[COMMIT_STAGES.length];
+        private final StageEvent lockAcquisition = new StageEvent( this, CommitStage.LOCK_ACQUISITION );
+        private final StageEvent commandCreation = new StageEvent( this, CommitStage.COMMAND_CREATION );
+        private final StageEvent logSerialization = new StageEvent( this, CommitStage.LOG_SERIALIZATION );
+        private final StageEvent logForceWait = new StageEvent( this, CommitStage.LOG_FORCE_WAIT );
+        private final StageEvent logForce = new StageEvent( this, CommitStage.LOG_FORCE );
+        private final StageEvent storeApply = new StageEvent( this, CommitStage.STORE_APPLY );
+        private final DefaultLogAppendEvent logAppend = new DefaultLogAppendEvent( this );
+        private long startNanos;
+        private int passedStages;
+        private boolean inUse;
+
+        void begin()
+        {
+            inUse = true;
+            passedStages = 0;
+            startNanos = System.nanoTime();
+        }
+
+        void stageCompleted( CommitStage stage, long nanos )
+        {
+            int stageBit = 1 << stage.ordinal();
+            // A stage can be passed more than once per commit, e.g. when a batch forces the log repeatedly
+            stageNanos[stage.ordinal()] = (passedStages & stageBit) == 0 ? nanos : stageNanos[stage.ordinal()] + nanos;
+            passedStages |= stageBit;
+        }
+
         @Override
         public void close()
         {
+            inUse = false;
+            if ( (passedStages & (1 << CommitStage.LOG_APPEND.ordinal())) != 0 )
+            {
+                stageCompleted( CommitStage.TOTAL, System.nanoTime() - startNanos );
+                commitCompleted( stageNanos, passedStages );
+            }
+        }
+
+        @Override
+        public CommitLocksEvent beginCommitLocks()
+        {
+            return lockAcquisition.begin();
+        }
+
+        @Override
+        public CommandCreationEvent beginCommandCreation()
+        {
+            return commandCreation.begin();
         }
 
         @Override
         public LogAppendEvent beginLogAppend()
         {
-            return logAppendEvent;
+            return logAppend.begin();
         }
 
         @Override
         public StoreApplyEvent beginStoreApply()
         {
-            return StoreApplyEvent.NULL;
+            return storeApply.begin();
+        }
+    }
+
+    /**
+     * Reusable event for the commit stages that only have a beginning and an end.
+     */
+    private static class StageEvent implements CommitLocksEvent, CommandCreationEvent, SerializeTransactionEvent, LogForceWaitEvent,
+            LogForceEvent, StoreApplyEvent
+    {
+        private final DefaultCommitEvent commitEvent;
+        private final CommitStage stage;
+        private long startNanos;
+
+        StageEvent( DefaultCommitEvent commitEvent, CommitStage stage )
+        {
+            this.commitEvent = commitEvent;
+            this.stage = stage;
+        }
+
+        StageEvent begin()
+        {
+            startNanos = System.nanoTime();
+            return this;
+        }
+
+        @Override
+        public void close()
+        {
+            commitEvent.stageCompleted( stage, System.nanoTime() - startNanos );
         }
     }
 
     private class DefaultLogAppendEvent implements LogAppendEvent
     {
+        private final DefaultCommitEvent commitEvent;
+        private long startNanos;
+
+        DefaultLogAppendEvent( DefaultCommitEvent commitEvent )
+        {
+            this.commitEvent = commitEvent;
+        }
+
+        DefaultLogAppendEvent begin()
+        {
+            startNanos = System.nanoTime();
+            return this;
+        }
+
         @Override
         public void appendToLogFile( LogPosition logPositionBeforeAppend, LogPosition logPositionAfterAppend )
         {
@@ -190,6 +380,7 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public void close()
         {
+            commitEvent.stageCompleted( CommitStage.LOG_APPEND, System.nanoTime() - startNanos );
         }
 
         @Override
@@ -207,19 +398,19 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public SerializeTransactionEvent beginSerializeTransaction()
         {
-            return SerializeTransactionEvent.NULL;
+            return commitEvent.logSerialization.begin();
         }
 
         @Override
         public LogForceWaitEvent beginLogForceWait()
         {
-            return LogForceWaitEvent.NULL;
+            return commitEvent.logForceWait.begin();
         }
 
         @Override
         public LogForceEvent beginLogForce()
         {
-            return LogForceEvent.NULL;
+            return commitEvent.logForce.begin();
         }
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.context;
+
+import org.neo4j.function.ThrowingSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
+
+import static org.neo4j.util.Preconditions.requirePositive;
+
+/**
+ * Runs reads against a stable snapshot of the data they access, for readers that don't go through the snapshot
+ * query execution engine, e.g. procedures or embedded code using the core or kernel API directly.
+ * <p>
+ * A read is considered stable if no page it accessed was modified by a transaction that closed after the read
+ * started, which is tracked by the page cache through the {@link VersionContext} of the reading thread.
+ * Reads that turn out to have seen such modifications are retried, each time against the latest closed transaction,
+ * until either one attempt is stable or the given number of attempts have been made.
+ * <p>
+ * Snapshots are only tracked when the database runs with a {@link TransactionVersionContextSupplier},
+ * otherwise every read is considered stable.
+ */
+public class SnapshotReader
+{
+    private final VersionContextSupplier versionContextSupplier;
+    private final int maxAttempts;
+
+    public SnapshotReader( VersionContextSupplier versionContextSupplier, int maxAttempts )
+    {
+        this.versionContextSupplier = versionContextSupplier;
+        this.maxAttempts = requirePositive( maxAttempts );
+    }
+
+    /**
+     * Runs the given read until it has seen a stable snapshot. The read must not have any side effects, since it
+     * may be run multiple times, and it must run on the calling thread.
+     *
+     * @param read the read to run.
+     * @param <T> type of the result of the read.
+     * @param <E> type of exception the read may throw.
+     * @return the result of the first read attempt which saw a stable snapshot.
+     * @throws UnstableSnapshotException if no read attempt saw a stable snapshot.
+     * @throws E if the read itself failed.
+     */
+    public <T, E extends Exception> T read( ThrowingSupplier<T,E> read ) throws UnstableSnapshotException, E
+    {
+        VersionContext versionContext = versionContextSupplier.getVersionContext();
+        for ( int attempt = 1; ; attempt++ )
+        {
+            versionContext.initRead();
+            T result = read.get();
+            if ( !versionContext.isDirty() )
+            {
+                return result;
+            }
+            if ( attempt == maxAttempts )
+            {
+                throw new UnstableSnapshotException( "Unable to get clean data snapshot after %d attempts.", attempt );
+            }
+        }
+    }
+}
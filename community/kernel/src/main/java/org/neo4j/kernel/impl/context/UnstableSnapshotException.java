@@ -17,14 +17,18 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package org.neo4j.cypher.internal.javacompat;
+package org.neo4j.kernel.impl.context;
 
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.kernel.api.exceptions.Status;
 
-class UnstableSnapshotException extends KernelException
+/**
+ * Thrown when a read could not be done against a stable snapshot of the data it accessed, because concurrent
+ * transactions kept modifying it.
+ */
+public class UnstableSnapshotException extends KernelException
 {
-    UnstableSnapshotException( String message, Object... parameters )
+    public UnstableSnapshotException( String message, Object... parameters )
     {
         super( Status.Transaction.Outdated, message, parameters );
     }
@@ -310,7 +310,7 @@ public class NodeEntity implements Node, RelationshipFactory<Relationship>
             return defaultValue;
         }
         singleNode( transaction, nodes );
-        nodes.properties( properties );
+        nodes.properties( properties, propertyKey );
         while ( properties.next() )
         {
             if ( propertyKey == properties.propertyKey() )
@@ -441,7 +441,7 @@ public class NodeEntity implements Node, RelationshipFactory<Relationship>
         NodeCursor nodes = transaction.ambientNodeCursor();
         PropertyCursor properties = transaction.ambientPropertyCursor();
         singleNode( transaction, nodes );
-        nodes.properties( properties );
+        nodes.properties( properties, propertyKey );
         while ( properties.next() )
         {
             if ( propertyKey == properties.propertyKey() )
@@ -475,7 +475,7 @@ public class NodeEntity implements Node, RelationshipFactory<Relationship>
         NodeCursor nodes = transaction.ambientNodeCursor();
         PropertyCursor properties = transaction.ambientPropertyCursor();
         singleNode( transaction, nodes );
-        nodes.properties( properties );
+        nodes.properties( properties, propertyKey );
         while ( properties.next() )
         {
             if ( propertyKey == properties.propertyKey() )
@@ -116,14 +116,27 @@ public class GraphDatabaseFacade implements GraphDatabaseAPI
     @Override
     public InternalTransaction beginTransaction( Type type, LoginContext loginContext, ClientConnectionInfo clientInfo )
     {
-        return beginTransactionInternal( type, loginContext, clientInfo, config.get( transaction_timeout ).toMillis() );
+        return beginTransactionInternal( type, loginContext, clientInfo, config.get( transaction_timeout ).toMillis(), false );
     }
 
     @Override
     public InternalTransaction beginTransaction( Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, long timeout,
             TimeUnit unit )
     {
-        return beginTransactionInternal( type, loginContext, clientInfo, unit.toMillis( timeout ) );
+        return beginTransactionInternal( type, loginContext, clientInfo, unit.toMillis( timeout ), false );
+    }
+
+    @Override
+    public InternalTransaction beginTransaction( Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, boolean readOnly )
+    {
+        return beginTransactionInternal( type, loginContext, clientInfo, config.get( transaction_timeout ).toMillis(), readOnly );
+    }
+
+    @Override
+    public InternalTransaction beginTransaction( Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, long timeout,
+            TimeUnit unit, boolean readOnly )
+    {
+        return beginTransactionInternal( type, loginContext, clientInfo, unit.toMillis( timeout ), readOnly );
     }
 
     @Override
@@ -160,9 +173,11 @@ public class GraphDatabaseFacade implements GraphDatabaseAPI
         return transformedResult;
     }
 
-    private InternalTransaction beginTransactionInternal( Type type, LoginContext loginContext, ClientConnectionInfo connectionInfo, long timeoutMillis )
+    private InternalTransaction beginTransactionInternal( Type type, LoginContext loginContext, ClientConnectionInfo connectionInfo, long timeoutMillis,
+            boolean readOnly )
     {
-        var kernelTransaction = beginKernelTransaction( type, loginContext, connectionInfo, timeoutMillis );
+        var kernelTransaction = readOnly ? beginReadOnlyKernelTransaction( type, loginContext, connectionInfo, timeoutMillis )
+                                         : beginKernelTransaction( type, loginContext, connectionInfo, timeoutMillis );
         return new TransactionImpl( database.getTokenHolders(), contextFactory, availabilityGuard, database.getExecutionEngine(), kernelTransaction );
     }
 
@@ -191,6 +206,19 @@ public class GraphDatabaseFacade implements GraphDatabaseAPI
         }
     }
 
+    private KernelTransaction beginReadOnlyKernelTransaction( Type type, LoginContext loginContext, ClientConnectionInfo connectionInfo, long timeout )
+    {
+        try
+        {
+            availabilityGuard.assertDatabaseAvailable();
+            return database.getKernel().beginTransaction( type, loginContextTransformer.apply( loginContext ), connectionInfo, timeout, true );
+        }
+        catch ( UnavailableException | TransactionFailureException e )
+        {
+            throw new org.neo4j.graphdb.TransactionFailureException( e.getMessage(), e );
+        }
+    }
+
     @Override
     public String databaseName()
     {
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.lock.LockTracer;
+
+/**
+ * StatementLocks implementation for read-only transactions. Most read-only transactions never take a single lock,
+ * so the real {@link StatementLocks}, and with it the {@link Locks.Client}, is only created when a lock client
+ * is asked for the first time.
+ * <p>
+ * Reads happen on the transaction thread, but {@link #stop()} can be called concurrently by a thread terminating
+ * the transaction, which is why creating the real locks and stopping them are synchronized.
+ */
+public class ReadOnlyStatementLocks implements StatementLocks
+{
+    private final StatementLocksFactory statementLocksFactory;
+    private LeaseClient leaseClient;
+    private volatile StatementLocks realStatementLocks;
+    private boolean stopped;
+
+    public ReadOnlyStatementLocks( StatementLocksFactory statementLocksFactory )
+    {
+        this.statementLocksFactory = statementLocksFactory;
+    }
+
+    @Override
+    public void initialize( LeaseClient leaseClient )
+    {
+        this.leaseClient = leaseClient;
+    }
+
+    @Override
+    public Locks.Client pessimistic()
+    {
+        return realStatementLocks().pessimistic();
+    }
+
+    @Override
+    public Locks.Client optimistic()
+    {
+        return realStatementLocks().optimistic();
+    }
+
+    @Override
+    public void prepareForCommit( LockTracer lockTracer )
+    {
+        StatementLocks locks = realStatementLocks;
+        if ( locks != null )
+        {
+            locks.prepareForCommit( lockTracer );
+        }
+    }
+
+    @Override
+    public synchronized void stop()
+    {
+        stopped = true;
+        if ( realStatementLocks != null )
+        {
+            realStatementLocks.stop();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        StatementLocks locks = realStatementLocks;
+        if ( locks != null )
+        {
+            locks.close();
+        }
+    }
+
+    @Override
+    public Stream<? extends ActiveLock> activeLocks()
+    {
+        StatementLocks locks = realStatementLocks;
+        return locks != null ? locks.activeLocks() : Stream.empty();
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        StatementLocks locks = realStatementLocks;
+        return locks != null ? locks.activeLockCount() : 0;
+    }
+
+    /**
+     * @return whether or not the real locks have been created, i.e. whether or not this transaction has asked for a lock client.
+     */
+    public boolean isAllocated()
+    {
+        return realStatementLocks != null;
+    }
+
+    private StatementLocks realStatementLocks()
+    {
+        StatementLocks locks = realStatementLocks;
+        return locks != null ? locks : allocate();
+    }
+
+    private synchronized StatementLocks allocate()
+    {
+        if ( realStatementLocks == null )
+        {
+            StatementLocks locks = statementLocksFactory.newInstance();
+            locks.initialize( leaseClient );
+            if ( stopped )
+            {
+                locks.stop();
+            }
+            realStatementLocks = locks;
+        }
+        return realStatementLocks;
+    }
+}
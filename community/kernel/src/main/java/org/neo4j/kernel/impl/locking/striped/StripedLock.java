@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.lock.ResourceType;
+
+/**
+ * A shared/exclusive lock on a single resource, where the whole lock state lives in one {@code long} lock word
+ * that is only ever changed with compare-and-set.
+ * <p>
+ * The lock word layout is:
+ * <pre>
+ *  bit  63     : deleted - the lock has been unlinked from its table and must not be used anymore
+ *  bit  62     : exclusive - the lock is held exclusively
+ *  bits 32..61 : number of threads waiting for this lock
+ *  bits  0..31 : number of clients holding this lock shared
+ * </pre>
+ * A lock can only be deleted when its lock word is zero, i.e. when nobody holds it or waits for it. Clients that
+ * find a deleted lock simply look the resource up again.
+ * <p>
+ * Holders are additionally recorded outside of the lock word, but only so that the deadlock detector can build the
+ * wait-for graph. They are not consulted when deciding whether a lock can be granted.
+ */
+final class StripedLock
+{
+    static final int ACQUIRED = 0;
+    static final int BLOCKED = 1;
+    static final int DELETED = 2;
+
+    private static final long DELETED_BIT = 1L << 63;
+    private static final long EXCLUSIVE_BIT = 1L << 62;
+    private static final int WAITER_SHIFT = 32;
+    private static final long ONE_WAITER = 1L << WAITER_SHIFT;
+    private static final long WAITER_MASK = ((1L << 30) - 1) << WAITER_SHIFT;
+    private static final long SHARED_MASK = 0xFFFF_FFFFL;
+
+    private static final AtomicLongFieldUpdater<StripedLock> STATE =
+            AtomicLongFieldUpdater.newUpdater( StripedLock.class, "state" );
+
+    private final ResourceType resourceType;
+    private final long resourceId;
+    private final Set<StripedLockClient> sharedHolders = ConcurrentHashMap.newKeySet();
+    private final Queue<Thread> waitingThreads = new ConcurrentLinkedQueue<>();
+    @SuppressWarnings( "unused" ) // accessed through STATE
+    private volatile long state;
+    private volatile StripedLockClient exclusiveHolder;
+
+    StripedLock( ResourceType resourceType, long resourceId )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+    }
+
+    ResourceType resourceType()
+    {
+        return resourceType;
+    }
+
+    long resourceId()
+    {
+        return resourceId;
+    }
+
+    /**
+     * @return {@link #ACQUIRED}, {@link #BLOCKED} if another client holds this lock exclusively,
+     * or {@link #DELETED} if this lock instance must be looked up again.
+     */
+    int tryAcquireShared( StripedLockClient client )
+    {
+        long current;
+        do
+        {
+            current = state;
+            if ( (current & DELETED_BIT) != 0 )
+            {
+                return DELETED;
+            }
+            if ( (current & EXCLUSIVE_BIT) != 0 && exclusiveHolder != client )
+            {
+                return BLOCKED;
+            }
+        }
+        while ( !STATE.compareAndSet( this, current, current + 1 ) );
+        sharedHolders.add( client );
+        return ACQUIRED;
+    }
+
+    /**
+     * @param holdsShared whether or not the given client already holds this lock shared, which is what allows
+     * upgrading a shared lock to an exclusive one.
+     * @return {@link #ACQUIRED}, {@link #BLOCKED} if any other client holds this lock, or {@link #DELETED} if this lock
+     * instance must be looked up again.
+     */
+    int tryAcquireExclusive( StripedLockClient client, boolean holdsShared )
+    {
+        long ownShared = holdsShared ? 1 : 0;
+        long current;
+        do
+        {
+            current = state;
+            if ( (current & DELETED_BIT) != 0 )
+            {
+                return DELETED;
+            }
+            if ( (current & EXCLUSIVE_BIT) != 0 || (current & SHARED_MASK) != ownShared )
+            {
+                return BLOCKED;
+            }
+        }
+        while ( !STATE.compareAndSet( this, current, current | EXCLUSIVE_BIT ) );
+        exclusiveHolder = client;
+        return ACQUIRED;
+    }
+
+    /**
+     * @return {@code true} if this lock is now free and should be unlinked from its table.
+     */
+    boolean releaseShared( StripedLockClient client )
+    {
+        sharedHolders.remove( client );
+        return afterRelease( STATE.decrementAndGet( this ) );
+    }
+
+    /**
+     * @return {@code true} if this lock is now free and should be unlinked from its table.
+     */
+    boolean releaseExclusive()
+    {
+        exclusiveHolder = null;
+        return afterRelease( STATE.addAndGet( this, -EXCLUSIVE_BIT ) );
+    }
+
+    private boolean afterRelease( long newState )
+    {
+        if ( (newState & WAITER_MASK) != 0 )
+        {
+            for ( Thread waiter : waitingThreads )
+            {
+                LockSupport.unpark( waiter );
+            }
+            return false;
+        }
+        return tryDelete();
+    }
+
+    /**
+     * Registers the given thread as waiting for this lock, which prevents this lock from being deleted until
+     * {@link #removeWaiter(Thread)} is called.
+     *
+     * @return {@code false} if this lock has already been deleted and must be looked up again.
+     */
+    boolean addWaiter( Thread thread )
+    {
+        // Enqueue before announcing ourselves in the lock word, so that a releaser that sees the waiter count
+        // is guaranteed to also find us in the queue.
+        waitingThreads.add( thread );
+        long current;
+        do
+        {
+            current = state;
+            if ( (current & DELETED_BIT) != 0 )
+            {
+                waitingThreads.remove( thread );
+                return false;
+            }
+        }
+        while ( !STATE.compareAndSet( this, current, current + ONE_WAITER ) );
+        return true;
+    }
+
+    /**
+     * @return {@code true} if this lock is now free and should be unlinked from its table.
+     */
+    boolean removeWaiter( Thread thread )
+    {
+        waitingThreads.remove( thread );
+        return STATE.addAndGet( this, -ONE_WAITER ) == 0 && tryDelete();
+    }
+
+    private boolean tryDelete()
+    {
+        return STATE.compareAndSet( this, 0, DELETED_BIT );
+    }
+
+    boolean isHeld()
+    {
+        long current = state;
+        return (current & DELETED_BIT) == 0 && (current & (EXCLUSIVE_BIT | SHARED_MASK)) != 0;
+    }
+
+    boolean isDeleted()
+    {
+        return (state & DELETED_BIT) != 0;
+    }
+
+    /**
+     * Calls the given visitor with every client that currently prevents {@code waiter} from getting this lock.
+     *
+     * @return {@code true} as soon as the visitor returns {@code true}.
+     */
+    boolean anyBlocker( StripedLockClient waiter, boolean exclusive, BlockerVisitor visitor )
+    {
+        StripedLockClient holder = exclusiveHolder;
+        if ( holder != null && holder != waiter && visitor.visit( holder ) )
+        {
+            return true;
+        }
+        if ( exclusive )
+        {
+            for ( StripedLockClient sharedHolder : sharedHolders )
+            {
+                if ( sharedHolder != waiter && visitor.visit( sharedHolder ) )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    String describe()
+    {
+        long current = state;
+        return String.format( "%s[%s(%d), exclusive=%s, shared=%d, waiting=%d]", getClass().getSimpleName(), resourceType, resourceId,
+                (current & EXCLUSIVE_BIT) != 0, current & SHARED_MASK, (current & WAITER_MASK) >>> WAITER_SHIFT );
+    }
+
+    @Override
+    public String toString()
+    {
+        return describe();
+    }
+
+    interface BlockerVisitor
+    {
+        boolean visit( StripedLockClient blocker );
+    }
+}
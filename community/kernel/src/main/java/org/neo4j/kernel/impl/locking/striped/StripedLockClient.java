@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.ResourceTypes;
+
+import static java.lang.String.format;
+
+/**
+ * Lock client of the {@link StripedLockManager}.
+ * <p>
+ * Re-entrant acquisitions are counted locally, so the shared lock word of a resource is only touched the first time
+ * this client locks it and the last time it releases it. When a lock cannot be granted right away the client
+ * registers itself as waiting for that lock and checks the wait-for graph for a cycle leading back to itself. That
+ * check is repeated every time the client wakes up without having been granted the lock, and never happens on the
+ * uncontended path.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 50 );
+    private static final long DEADLOCK_VERIFICATION_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 1 );
+
+    private final StripedLockManager manager;
+    private final int id;
+    private final MutableIntObjectMap<MutableLongIntMap> sharedLocks = new IntObjectHashMap<>();
+    private final MutableIntObjectMap<MutableLongIntMap> exclusiveLocks = new IntObjectHashMap<>();
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    // Read by other clients when they look for deadlocks, written by the thread of this client while it waits.
+    private volatile StripedLock waitingFor;
+    private volatile boolean waitingForExclusive;
+    private volatile Thread waitingThread;
+
+    StripedLockClient( StripedLockManager manager, int id )
+    {
+        this.manager = manager;
+        this.id = id;
+    }
+
+    @Override
+    public void initialize( LeaseClient leaseClient )
+    {
+        // we don't need lease here
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        acquire( tracer, resourceType, false, resourceIds );
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        acquire( tracer, resourceType, true, resourceIds );
+    }
+
+    private void acquire( LockTracer tracer, ResourceType resourceType, boolean exclusive, long[] resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = exclusive ? localExclusive( resourceType ) : localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( localLocks.containsKey( resourceId ) )
+                {
+                    localLocks.addToValue( resourceId, 1 );
+                }
+                else if ( lock( tracer, resourceType, resourceId, exclusive ) )
+                {
+                    localLocks.put( resourceId, 1 );
+                }
+                else
+                {
+                    throw new LockClientStoppedException( this );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        return tryLock( resourceType, resourceId, true );
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        return tryLock( resourceType, resourceId, false );
+    }
+
+    private boolean tryLock( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = exclusive ? localExclusive( resourceType ) : localShared( resourceType );
+            if ( localLocks.containsKey( resourceId ) )
+            {
+                localLocks.addToValue( resourceId, 1 );
+                return true;
+            }
+            int result;
+            do
+            {
+                StripedLock lock = manager.lockFor( resourceType, resourceId );
+                result = attempt( lock, exclusive );
+                if ( result == StripedLock.DELETED )
+                {
+                    manager.unlink( lock );
+                }
+            }
+            while ( result == StripedLock.DELETED );
+            if ( result == StripedLock.ACQUIRED )
+            {
+                localLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        return reEnter( resourceType, resourceId, false );
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        return reEnter( resourceType, resourceId, true );
+    }
+
+    private boolean reEnter( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = exclusive ? localExclusive( resourceType ) : localShared( resourceType );
+            if ( localLocks.containsKey( resourceId ) )
+            {
+                localLocks.addToValue( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        release( resourceType, false, resourceIds );
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        release( resourceType, true, resourceIds );
+    }
+
+    private void release( ResourceType resourceType, boolean exclusive, long[] resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = exclusive ? localExclusive( resourceType ) : localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( !localLocks.containsKey( resourceId ) )
+                {
+                    throw new IllegalStateException( format( "%s does not hold %s lock on %s(%d)", this,
+                            exclusive ? "exclusive" : "shared", resourceType, resourceId ) );
+                }
+                if ( localLocks.addToValue( resourceId, -1 ) == 0 )
+                {
+                    localLocks.remove( resourceId );
+                    unlock( resourceType, resourceId, exclusive );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        // closing client to prevent any new client to come
+        if ( stateHolder.stopClient() )
+        {
+            // wake up and terminate waiters
+            terminateWaiterAndWaitForClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        terminateWaiterAndWaitForClientsToLeave();
+        releaseLocks();
+    }
+
+    private void terminateWaiterAndWaitForClientsToLeave()
+    {
+        LockSupport.unpark( waitingThread );
+        while ( stateHolder.hasActiveClients() )
+        {
+            LockSupport.unpark( waitingThread );
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        }
+    }
+
+    private synchronized void releaseLocks()
+    {
+        exclusiveLocks.forEachKeyValue( ( typeId, locks ) ->
+                locks.forEachKey( resourceId -> unlock( ResourceTypes.fromId( typeId ), resourceId, true ) ) );
+        sharedLocks.forEachKeyValue( ( typeId, locks ) ->
+                locks.forEachKey( resourceId -> unlock( ResourceTypes.fromId( typeId ), resourceId, false ) ) );
+        exclusiveLocks.clear();
+        sharedLocks.clear();
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return id;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        collectActiveLocks( exclusiveLocks, locks, ActiveLock.Factory.EXCLUSIVE_LOCK );
+        collectActiveLocks( sharedLocks, locks, ActiveLock.Factory.SHARED_LOCK );
+        return locks.stream();
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        return exclusiveLocks.sumOfInt( MutableLongIntMap::size ) + sharedLocks.sumOfInt( MutableLongIntMap::size );
+    }
+
+    private static void collectActiveLocks( MutableIntObjectMap<MutableLongIntMap> localLocks, List<ActiveLock> locks,
+            ActiveLock.Factory activeLock )
+    {
+        localLocks.forEachKeyValue( ( typeId, resources ) ->
+        {
+            ResourceType resourceType = ResourceTypes.fromId( typeId );
+            resources.forEachKey( resourceId -> locks.add( activeLock.create( resourceType, resourceId ) ) );
+        } );
+    }
+
+    /**
+     * Acquires the lock word of the given resource, waiting for it if needed.
+     *
+     * @return {@code true} if the lock was acquired, or {@code false} if this client was stopped while waiting.
+     */
+    private boolean lock( LockTracer tracer, ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        LockWaitEvent waitEvent = null;
+        try
+        {
+            while ( true )
+            {
+                StripedLock lock = manager.lockFor( resourceType, resourceId );
+                int result = attempt( lock, exclusive );
+                if ( result == StripedLock.ACQUIRED )
+                {
+                    return true;
+                }
+                if ( result == StripedLock.DELETED )
+                {
+                    manager.unlink( lock );
+                    continue;
+                }
+
+                if ( waitEvent == null )
+                {
+                    waitEvent = tracer.waitForLock( exclusive, resourceType, resourceId );
+                }
+                Thread thread = Thread.currentThread();
+                if ( !lock.addWaiter( thread ) )
+                {
+                    manager.unlink( lock );
+                    continue;
+                }
+                try
+                {
+                    return await( lock, exclusive );
+                }
+                finally
+                {
+                    if ( lock.removeWaiter( thread ) )
+                    {
+                        manager.unlink( lock );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            if ( waitEvent != null )
+            {
+                waitEvent.close();
+            }
+        }
+    }
+
+    /**
+     * Waits for a lock that this client is registered as a waiter of. A registered waiter keeps the lock from being
+     * deleted, so the lock word can only answer {@link StripedLock#ACQUIRED} or {@link StripedLock#BLOCKED} here.
+     */
+    private boolean await( StripedLock lock, boolean exclusive )
+    {
+        long timeoutMillis = manager.lockAcquisitionTimeoutMillis();
+        long deadline = timeoutMillis > 0 ? manager.clock().millis() + timeoutMillis : Long.MAX_VALUE;
+        waitingThread = Thread.currentThread();
+        waitingForExclusive = exclusive;
+        waitingFor = lock;
+        try
+        {
+            boolean suspectDeadlock = false;
+            while ( attempt( lock, exclusive ) != StripedLock.ACQUIRED )
+            {
+                if ( stateHolder.isStopped() )
+                {
+                    return false;
+                }
+                assertNotExpired( lock, deadline );
+                if ( waitsForItself( lock, exclusive ) )
+                {
+                    // A cycle in the wait-for graph is only trusted once it has been seen twice in a row, since the
+                    // graph is read without any synchronization with the clients in it.
+                    if ( suspectDeadlock )
+                    {
+                        throw new DeadlockDetectedException( format( "%s can't acquire %s lock on %s(%d) since it would wait for itself, " +
+                                "through the clients holding that lock.", this, exclusive ? "exclusive" : "shared",
+                                lock.resourceType(), lock.resourceId() ) );
+                    }
+                    suspectDeadlock = true;
+                    LockSupport.parkNanos( this, DEADLOCK_VERIFICATION_PARK_NANOS );
+                    continue;
+                }
+                suspectDeadlock = false;
+                park( deadline );
+            }
+            return true;
+        }
+        finally
+        {
+            waitingFor = null;
+            waitingThread = null;
+        }
+    }
+
+    private void park( long deadline )
+    {
+        long parkNanos = MAX_PARK_NANOS;
+        if ( deadline != Long.MAX_VALUE )
+        {
+            long remainingMillis = deadline - manager.clock().millis();
+            parkNanos = Math.max( 0, Math.min( parkNanos, TimeUnit.MILLISECONDS.toNanos( remainingMillis ) ) );
+        }
+        LockSupport.parkNanos( this, parkNanos );
+    }
+
+    private void assertNotExpired( StripedLock lock, long deadline )
+    {
+        if ( deadline != Long.MAX_VALUE && deadline < manager.clock().millis() )
+        {
+            throw new LockAcquisitionTimeoutException( lock.resourceType(), lock.resourceId(), manager.lockAcquisitionTimeoutMillis() );
+        }
+    }
+
+    /**
+     * Walks the wait-for graph, starting from the clients that keep this client from getting the given lock, and
+     * following whatever lock each of those clients is waiting for in turn.
+     */
+    private boolean waitsForItself( StripedLock lock, boolean exclusive )
+    {
+        Set<StripedLockClient> visited = new HashSet<>();
+        return leadsTo( this, lock, exclusive, this, visited );
+    }
+
+    private static boolean leadsTo( StripedLockClient target, StripedLock lock, boolean exclusive, StripedLockClient waiter,
+            Set<StripedLockClient> visited )
+    {
+        return lock.anyBlocker( waiter, exclusive, blocker ->
+        {
+            if ( blocker == target )
+            {
+                return true;
+            }
+            if ( !visited.add( blocker ) )
+            {
+                return false;
+            }
+            StripedLock next = blocker.waitingFor;
+            return next != null && leadsTo( target, next, blocker.waitingForExclusive, blocker, visited );
+        } );
+    }
+
+    private int attempt( StripedLock lock, boolean exclusive )
+    {
+        return exclusive ? lock.tryAcquireExclusive( this, holdsShared( lock.resourceType(), lock.resourceId() ) )
+                         : lock.tryAcquireShared( this );
+    }
+
+    private boolean holdsShared( ResourceType resourceType, long resourceId )
+    {
+        MutableLongIntMap localLocks = sharedLocks.get( resourceType.typeId() );
+        return localLocks != null && localLocks.containsKey( resourceId );
+    }
+
+    private void unlock( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        // A held lock can not be deleted, so it must still be in the table.
+        StripedLock lock = manager.existingLock( resourceType, resourceId );
+        if ( exclusive ? lock.releaseExclusive() : lock.releaseShared( this ) )
+        {
+            manager.unlink( lock );
+        }
+    }
+
+    private MutableLongIntMap localShared( ResourceType resourceType )
+    {
+        return sharedLocks.getIfAbsentPut( resourceType.typeId(), LongIntHashMap::new );
+    }
+
+    private MutableLongIntMap localExclusive( ResourceType resourceType )
+    {
+        return exclusiveLocks.getIfAbsentPut( resourceType.typeId(), LongIntHashMap::new );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), getLockSessionId() );
+    }
+}
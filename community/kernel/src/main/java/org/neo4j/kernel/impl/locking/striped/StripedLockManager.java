@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.ResourceType;
+
+/**
+ * A {@link Locks} implementation that never takes a global monitor on the acquire and release paths.
+ * <p>
+ * Resources are spread over a number of concurrent hash tables per resource type, and each lock is a
+ * {@link StripedLock} whose state is changed with compare-and-set only. Clients that are granted a lock straight away
+ * never touch anything but the table stripe and the lock word of that resource. Deadlock detection only runs when a
+ * client actually has to wait, see {@link StripedLockClient}.
+ */
+public class StripedLockManager implements Locks
+{
+    private static final int STRIPES = 64;
+    private static final int STRIPE_MASK = STRIPES - 1;
+
+    private final ResourceType[] resourceTypes;
+    private final Map<Long,StripedLock>[][] lockTables;
+    private final Clock clock;
+    private final long lockAcquisitionTimeoutMillis;
+    private final AtomicInteger clientIds = new AtomicInteger();
+    private volatile boolean closed;
+
+    @SuppressWarnings( "unchecked" )
+    public StripedLockManager( Config config, Clock clock, ResourceType... resourceTypes )
+    {
+        this.clock = clock;
+        this.lockAcquisitionTimeoutMillis = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toMillis();
+        int maxTypeId = 0;
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            maxTypeId = Math.max( maxTypeId, resourceType.typeId() );
+        }
+        this.resourceTypes = new ResourceType[maxTypeId + 1];
+        this.lockTables = new Map[maxTypeId + 1][];
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            this.resourceTypes[resourceType.typeId()] = resourceType;
+            Map<Long,StripedLock>[] stripes = new Map[STRIPES];
+            for ( int i = 0; i < STRIPES; i++ )
+            {
+                stripes[i] = new ConcurrentHashMap<>();
+            }
+            this.lockTables[resourceType.typeId()] = stripes;
+        }
+    }
+
+    @Override
+    public Client newClient()
+    {
+        // As with the community lock manager, clients are pooled along with their transactions,
+        // so this volatile read is not on any hot path.
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( this, clientIds.incrementAndGet() );
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            if ( resourceType == null )
+            {
+                continue;
+            }
+            for ( Map<Long,StripedLock> stripe : lockTables[resourceType.typeId()] )
+            {
+                for ( StripedLock lock : stripe.values() )
+                {
+                    if ( lock.isHeld() )
+                    {
+                        visitor.visit( lock.resourceType(), lock.resourceId(), lock.describe(), 0, System.identityHashCode( lock ) );
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+
+    /**
+     * @return the lock for the given resource, creating it if needed. The returned lock may have been deleted
+     * concurrently, which callers notice from {@link StripedLock#DELETED} and handle by calling {@link #unlink(StripedLock)}
+     * and looking it up again.
+     */
+    StripedLock lockFor( ResourceType resourceType, long resourceId )
+    {
+        return stripe( resourceType, resourceId ).computeIfAbsent( resourceId, id -> new StripedLock( resourceType, id ) );
+    }
+
+    /**
+     * @return the lock for the given resource, or {@code null} if nobody holds or waits for it.
+     */
+    StripedLock existingLock( ResourceType resourceType, long resourceId )
+    {
+        return stripe( resourceType, resourceId ).get( resourceId );
+    }
+
+    void unlink( StripedLock lock )
+    {
+        stripe( lock.resourceType(), lock.resourceId() ).remove( lock.resourceId(), lock );
+    }
+
+    Clock clock()
+    {
+        return clock;
+    }
+
+    long lockAcquisitionTimeoutMillis()
+    {
+        return lockAcquisitionTimeoutMillis;
+    }
+
+    private Map<Long,StripedLock> stripe( ResourceType resourceType, long resourceId )
+    {
+        Map<Long,StripedLock>[] stripes = lockTables[resourceType.typeId()];
+        if ( stripes == null )
+        {
+            throw new IllegalArgumentException( "Unknown resource type " + resourceType );
+        }
+        return stripes[stripeOf( resourceId )];
+    }
+
+    private static int stripeOf( long resourceId )
+    {
+        long hash = resourceId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & STRIPE_MASK;
+    }
+}
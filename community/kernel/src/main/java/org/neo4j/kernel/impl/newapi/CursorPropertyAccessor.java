@@ -60,7 +60,7 @@ class CursorPropertyAccessor implements NodePropertyAccessor, AutoCloseable
             throw new EntityNotFoundException( EntityType.NODE, nodeId );
         }
 
-        nodeCursor.properties( propertyCursor );
+        nodeCursor.properties( propertyCursor, propertyKeyId );
         while ( propertyCursor.next() )
         {
             if ( propertyCursor.propertyKey() == propertyKeyId )
@@ -49,7 +49,7 @@ class DefaultNodeCursor extends TraceableCursor implements NodeCursor
     private long single;
     private AccessMode accessMode;
 
-    private final CursorPool<DefaultNodeCursor> pool;
+    private CursorPool<DefaultNodeCursor> pool;
 
     DefaultNodeCursor( CursorPool<DefaultNodeCursor> pool, StorageNodeCursor storeCursor )
     {
@@ -57,6 +57,14 @@ class DefaultNodeCursor extends TraceableCursor implements NodeCursor
         this.storeCursor = storeCursor;
     }
 
+    /**
+     * Hands this cursor over to another pool, which is where it will be returned when closed.
+     */
+    void setPool( CursorPool<DefaultNodeCursor> pool )
+    {
+        this.pool = pool;
+    }
+
     void scan( Read read )
     {
         storeCursor.scan();
@@ -196,6 +204,12 @@ class DefaultNodeCursor extends TraceableCursor implements NodeCursor
         ((DefaultPropertyCursor) cursor).initNode( nodeReference(), propertiesReference(), read, read );
     }
 
+    @Override
+    public void properties( PropertyCursor cursor, int propertyKey )
+    {
+        ((DefaultPropertyCursor) cursor).initNodeProperty( nodeReference(), propertiesReference(), propertyKey, read, read );
+    }
+
     @Override
     public long relationshipGroupReference()
     {
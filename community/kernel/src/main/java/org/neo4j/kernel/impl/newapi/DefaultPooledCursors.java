@@ -28,10 +28,14 @@ import org.neo4j.storageengine.api.StorageReader;
 
 /**
  * Cursor factory which pools 1 cursor of each kind. Not thread-safe at all.
+ * <p>
+ * Cursors backed by storage cursors are kept between transactions and cursors of those kinds which don't fit in this pool
+ * are handed over to a {@link SharedCursorPool}, which is also where new cursors are taken from before creating new ones.
  */
 public class DefaultPooledCursors extends DefaultCursors implements CursorFactory
 {
     private final StorageReader storageReader;
+    private final SharedCursorPool sharedPool;
     private DefaultNodeCursor nodeCursor;
     private FullAccessNodeCursor fullAccessNodeCursor;
     private DefaultRelationshipScanCursor relationshipScanCursor;
@@ -44,10 +48,25 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     private DefaultNodeLabelIndexCursor nodeLabelIndexCursor;
     private DefaultRelationshipIndexCursor relationshipIndexCursor;
 
+    private final CursorPool<DefaultNodeCursor> nodeCursorPool = this::accept;
+    private final CursorPool<DefaultNodeCursor> fullAccessNodeCursorPool = this::acceptFullAccess;
+    private final CursorPool<DefaultRelationshipScanCursor> relationshipScanCursorPool = this::accept;
+    private final CursorPool<DefaultRelationshipScanCursor> fullAccessRelationshipScanCursorPool = this::acceptFullAccess;
+    private final CursorPool<DefaultRelationshipTraversalCursor> relationshipTraversalCursorPool = this::accept;
+    private final CursorPool<DefaultPropertyCursor> propertyCursorPool = this::accept;
+    private final CursorPool<DefaultPropertyCursor> fullAccessPropertyCursorPool = this::acceptFullAccess;
+    private final CursorPool<DefaultRelationshipGroupCursor> relationshipGroupCursorPool = this::accept;
+
     public DefaultPooledCursors( StorageReader storageReader )
+    {
+        this( storageReader, SharedCursorPool.NO_SHARING );
+    }
+
+    public DefaultPooledCursors( StorageReader storageReader, SharedCursorPool sharedPool )
     {
         super( new ArrayList<>() );
         this.storageReader = storageReader;
+        this.sharedPool = sharedPool;
     }
 
     @Override
@@ -55,7 +74,13 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     {
         if ( nodeCursor == null )
         {
-            return trace( new DefaultNodeCursor( this::accept, storageReader.allocateNodeCursor() ) );
+            DefaultNodeCursor shared = sharedPool.nodeCursors.poll();
+            if ( shared != null )
+            {
+                shared.setPool( nodeCursorPool );
+                return trace( shared );
+            }
+            return trace( new DefaultNodeCursor( nodeCursorPool, storageReader.allocateNodeCursor() ) );
         }
 
         try
@@ -73,6 +98,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         if ( nodeCursor != null )
         {
             nodeCursor.release();
+            sharedPool.nodeCursors.offer( nodeCursor );
         }
         nodeCursor = cursor;
     }
@@ -82,7 +108,13 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     {
         if ( fullAccessNodeCursor == null )
         {
-            return trace( new FullAccessNodeCursor( this::acceptFullAccess, storageReader.allocateNodeCursor() ) );
+            FullAccessNodeCursor shared = sharedPool.fullAccessNodeCursors.poll();
+            if ( shared != null )
+            {
+                shared.setPool( fullAccessNodeCursorPool );
+                return trace( shared );
+            }
+            return trace( new FullAccessNodeCursor( fullAccessNodeCursorPool, storageReader.allocateNodeCursor() ) );
         }
 
         try
@@ -100,6 +132,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         if ( fullAccessNodeCursor != null )
         {
             fullAccessNodeCursor.release();
+            sharedPool.fullAccessNodeCursors.offer( fullAccessNodeCursor );
         }
         fullAccessNodeCursor = (FullAccessNodeCursor) cursor;
     }
@@ -109,7 +142,13 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     {
         if ( relationshipScanCursor == null )
         {
-            return trace( new DefaultRelationshipScanCursor( this::accept, storageReader.allocateRelationshipScanCursor() ) );
+            DefaultRelationshipScanCursor shared = sharedPool.relationshipScanCursors.poll();
+            if ( shared != null )
+            {
+                shared.setPool( relationshipScanCursorPool );
+                return trace( shared );
+            }
+            return trace( new DefaultRelationshipScanCursor( relationshipScanCursorPool, storageReader.allocateRelationshipScanCursor() ) );
         }
 
         try
@@ -127,6 +166,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         if ( relationshipScanCursor != null )
         {
             relationshipScanCursor.release();
+            sharedPool.relationshipScanCursors.offer( relationshipScanCursor );
         }
         relationshipScanCursor = cursor;
     }
@@ -136,7 +176,13 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     {
         if ( fullAccessRelationshipScanCursor == null )
         {
-            return trace( new FullAccessRelationshipScanCursor( this::accept, storageReader.allocateRelationshipScanCursor() ) );
+            FullAccessRelationshipScanCursor shared = sharedPool.fullAccessRelationshipScanCursors.poll();
+            if ( shared != null )
+            {
+                shared.setPool( fullAccessRelationshipScanCursorPool );
+                return trace( shared );
+            }
+            return trace( new FullAccessRelationshipScanCursor( fullAccessRelationshipScanCursorPool, storageReader.allocateRelationshipScanCursor() ) );
         }
 
         try
@@ -149,13 +195,14 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         }
     }
 
-    public void accept( FullAccessRelationshipScanCursor cursor )
+    public void acceptFullAccess( DefaultRelationshipScanCursor cursor )
     {
         if ( fullAccessRelationshipScanCursor != null )
         {
             fullAccessRelationshipScanCursor.release();
+            sharedPool.fullAccessRelationshipScanCursors.offer( fullAccessRelationshipScanCursor );
         }
-        fullAccessRelationshipScanCursor = cursor;
+        fullAccessRelationshipScanCursor = (FullAccessRelationshipScanCursor) cursor;
     }
 
     @Override
@@ -163,7 +210,13 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     {
         if ( relationshipTraversalCursor == null )
         {
-            return trace( new DefaultRelationshipTraversalCursor( this::accept, storageReader.allocateRelationshipTraversalCursor() ) );
+            DefaultRelationshipTraversalCursor shared = sharedPool.relationshipTraversalCursors.poll();
+            if ( shared != null )
+            {
+                shared.setPool( relationshipTraversalCursorPool );
+                return trace( shared );
+            }
+            return trace( new DefaultRelationshipTraversalCursor( relationshipTraversalCursorPool, storageReader.allocateRelationshipTraversalCursor() ) );
         }
 
         try
@@ -181,6 +234,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         if ( relationshipTraversalCursor != null )
         {
             relationshipTraversalCursor.release();
+            sharedPool.relationshipTraversalCursors.offer( relationshipTraversalCursor );
         }
         relationshipTraversalCursor = cursor;
     }
@@ -190,7 +244,13 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     {
         if ( propertyCursor == null )
         {
-            return trace( new DefaultPropertyCursor( this::accept, storageReader.allocatePropertyCursor() ) );
+            DefaultPropertyCursor shared = sharedPool.propertyCursors.poll();
+            if ( shared != null )
+            {
+                shared.setPool( propertyCursorPool );
+                return trace( shared );
+            }
+            return trace( new DefaultPropertyCursor( propertyCursorPool, storageReader.allocatePropertyCursor() ) );
         }
 
         try
@@ -208,6 +268,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         if ( propertyCursor != null )
         {
             propertyCursor.release();
+            sharedPool.propertyCursors.offer( propertyCursor );
         }
         propertyCursor = cursor;
     }
@@ -217,7 +278,13 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     {
         if ( fullAccessPropertyCursor == null )
         {
-            return trace( new FullAccessPropertyCursor( this::acceptFullAccess, storageReader.allocatePropertyCursor() ) );
+            FullAccessPropertyCursor shared = sharedPool.fullAccessPropertyCursors.poll();
+            if ( shared != null )
+            {
+                shared.setPool( fullAccessPropertyCursorPool );
+                return trace( shared );
+            }
+            return trace( new FullAccessPropertyCursor( fullAccessPropertyCursorPool, storageReader.allocatePropertyCursor() ) );
         }
 
         try
@@ -235,6 +302,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         if ( fullAccessPropertyCursor != null )
         {
             fullAccessPropertyCursor.release();
+            sharedPool.fullAccessPropertyCursors.offer( fullAccessPropertyCursor );
         }
         fullAccessPropertyCursor = (FullAccessPropertyCursor) cursor;
     }
@@ -244,7 +312,13 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
     {
         if ( relationshipGroupCursor == null )
         {
-            return trace( new DefaultRelationshipGroupCursor( this::accept, storageReader.allocateRelationshipGroupCursor() ) );
+            DefaultRelationshipGroupCursor shared = sharedPool.relationshipGroupCursors.poll();
+            if ( shared != null )
+            {
+                shared.setPool( relationshipGroupCursorPool );
+                return trace( shared );
+            }
+            return trace( new DefaultRelationshipGroupCursor( relationshipGroupCursorPool, storageReader.allocateRelationshipGroupCursor() ) );
         }
 
         try
@@ -262,6 +336,7 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         if ( relationshipGroupCursor != null )
         {
             relationshipGroupCursor.release();
+            sharedPool.relationshipGroupCursors.offer( relationshipGroupCursor );
         }
         relationshipGroupCursor = cursor;
     }
@@ -347,42 +422,43 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
         relationshipIndexCursor = cursor;
     }
 
+    /**
+     * Releases resources held by pooled cursors when a transaction is done with them. Cursors backed by storage cursors are kept,
+     * but won't hold on to any page cursors.
+     */
     public void release()
     {
         if ( nodeCursor != null )
         {
             nodeCursor.release();
-            nodeCursor = null;
         }
         if ( fullAccessNodeCursor != null )
         {
             fullAccessNodeCursor.release();
-            fullAccessNodeCursor = null;
         }
         if ( relationshipScanCursor != null )
         {
             relationshipScanCursor.release();
-            relationshipScanCursor = null;
+        }
+        if ( fullAccessRelationshipScanCursor != null )
+        {
+            fullAccessRelationshipScanCursor.release();
         }
         if ( relationshipTraversalCursor != null )
         {
             relationshipTraversalCursor.release();
-            relationshipTraversalCursor = null;
         }
         if ( propertyCursor != null )
         {
             propertyCursor.release();
-            propertyCursor = null;
         }
         if ( fullAccessPropertyCursor != null )
         {
             fullAccessPropertyCursor.release();
-            fullAccessPropertyCursor = null;
         }
         if ( relationshipGroupCursor != null )
         {
             relationshipGroupCursor.release();
-            relationshipGroupCursor = null;
         }
         if ( nodeValueIndexCursor != null )
         {
@@ -394,5 +470,59 @@ public class DefaultPooledCursors extends DefaultCursors implements CursorFactor
             nodeLabelIndexCursor.release();
             nodeLabelIndexCursor = null;
         }
+        if ( relationshipIndexCursor != null )
+        {
+            relationshipIndexCursor.release();
+            relationshipIndexCursor = null;
+        }
+    }
+
+    /**
+     * Called when the transaction owning this factory is disposed of. Hands over all pooled cursors that can be shared
+     * to the {@link SharedCursorPool}, so that they can be used by other transactions.
+     */
+    public void dispose()
+    {
+        release();
+        if ( nodeCursor != null )
+        {
+            sharedPool.nodeCursors.offer( nodeCursor );
+            nodeCursor = null;
+        }
+        if ( fullAccessNodeCursor != null )
+        {
+            sharedPool.fullAccessNodeCursors.offer( fullAccessNodeCursor );
+            fullAccessNodeCursor = null;
+        }
+        if ( relationshipScanCursor != null )
+        {
+            sharedPool.relationshipScanCursors.offer( relationshipScanCursor );
+            relationshipScanCursor = null;
+        }
+        if ( fullAccessRelationshipScanCursor != null )
+        {
+            sharedPool.fullAccessRelationshipScanCursors.offer( fullAccessRelationshipScanCursor );
+            fullAccessRelationshipScanCursor = null;
+        }
+        if ( relationshipTraversalCursor != null )
+        {
+            sharedPool.relationshipTraversalCursors.offer( relationshipTraversalCursor );
+            relationshipTraversalCursor = null;
+        }
+        if ( propertyCursor != null )
+        {
+            sharedPool.propertyCursors.offer( propertyCursor );
+            propertyCursor = null;
+        }
+        if ( fullAccessPropertyCursor != null )
+        {
+            sharedPool.fullAccessPropertyCursors.offer( fullAccessPropertyCursor );
+            fullAccessPropertyCursor = null;
+        }
+        if ( relationshipGroupCursor != null )
+        {
+            sharedPool.relationshipGroupCursors.offer( relationshipGroupCursor );
+            relationshipGroupCursor = null;
+        }
     }
 }
@@ -46,7 +46,7 @@ public class DefaultPropertyCursor extends TraceableCursor implements PropertyCu
     private Iterator<StorageProperty> txStateChangedProperties;
     private StorageProperty txStateValue;
     private AssertOpen assertOpen;
-    private final CursorPool<DefaultPropertyCursor> pool;
+    private CursorPool<DefaultPropertyCursor> pool;
     private AccessMode accessMode;
     private long nodeReference = NO_NODE;
     private long relationshipReference = NO_RELATIONSHIP;
@@ -58,12 +58,34 @@ public class DefaultPropertyCursor extends TraceableCursor implements PropertyCu
         this.storeCursor = storeCursor;
     }
 
+    /**
+     * Hands this cursor over to another pool, which is where it will be returned when closed.
+     */
+    void setPool( CursorPool<DefaultPropertyCursor> pool )
+    {
+        this.pool = pool;
+    }
+
     void initNode( long nodeReference, long reference, Read read, AssertOpen assertOpen )
     {
         assert nodeReference != NO_ID;
 
         init( read, assertOpen );
         storeCursor.initNodeProperties( reference );
+        initNodeState( nodeReference, read );
+    }
+
+    void initNodeProperty( long nodeReference, long reference, int propertyKey, Read read, AssertOpen assertOpen )
+    {
+        assert nodeReference != NO_ID;
+
+        init( read, assertOpen );
+        storeCursor.initNodeProperty( nodeReference, reference, propertyKey );
+        initNodeState( nodeReference, read );
+    }
+
+    private void initNodeState( long nodeReference, Read read )
+    {
         this.nodeReference = nodeReference;
         relationshipReference = NO_RELATIONSHIP;
 
@@ -42,7 +42,7 @@ import static org.neo4j.kernel.impl.newapi.RelationshipReferenceEncoding.encodeS
 class DefaultRelationshipGroupCursor extends TraceableCursor implements RelationshipGroupCursor
 {
     private Read read;
-    private final CursorPool<DefaultRelationshipGroupCursor> pool;
+    private CursorPool<DefaultRelationshipGroupCursor> pool;
 
     private StorageRelationshipGroupCursor storeCursor;
     private boolean hasCheckedTxState;
@@ -57,6 +57,14 @@ class DefaultRelationshipGroupCursor extends TraceableCursor implements Relation
         this.storeCursor = storeCursor;
     }
 
+    /**
+     * Hands this cursor over to another pool, which is where it will be returned when closed.
+     */
+    void setPool( CursorPool<DefaultRelationshipGroupCursor> pool )
+    {
+        this.pool = pool;
+    }
+
     void init( long nodeReference, long reference, boolean nodeIsDense, Read read )
     {
         this.nodeIsDense = nodeIsDense;
@@ -44,6 +44,14 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         this.pool = pool;
     }
 
+    /**
+     * Hands this cursor over to another pool, which is where it will be returned when closed.
+     */
+    void setPool( CursorPool<DefaultRelationshipScanCursor> pool )
+    {
+        this.pool = pool;
+    }
+
     void scan( int type, Read read )
     {
         storeCursor.scan( type );
@@ -36,7 +36,7 @@ import static org.neo4j.kernel.impl.newapi.Read.NO_ID;
 class DefaultRelationshipTraversalCursor extends DefaultRelationshipCursor<StorageRelationshipTraversalCursor>
         implements RelationshipTraversalCursor
 {
-    private final CursorPool<DefaultRelationshipTraversalCursor> pool;
+    private CursorPool<DefaultRelationshipTraversalCursor> pool;
     private LongIterator addedRelationships;
     private int type = ANY_RELATIONSHIP_TYPE;
     private RelationshipDirection direction;
@@ -49,6 +49,14 @@ class DefaultRelationshipTraversalCursor extends DefaultRelationshipCursor<Stora
         this.pool = pool;
     }
 
+    /**
+     * Hands this cursor over to another pool, which is where it will be returned when closed.
+     */
+    void setPool( CursorPool<DefaultRelationshipTraversalCursor> pool )
+    {
+        this.pool = pool;
+    }
+
     /**
      * Initializes this cursor to traverse over all relationships.
      * @param nodeReference reference to the origin node.
@@ -265,7 +265,7 @@ public class Operations implements Write, SchemaWrite
         assertNodeExists( targetNode );
 
         TransactionState txState = ktx.txState();
-        long id = commandCreationContext.reserveRelationship();
+        long id = commandCreationContext.reserveRelationship( sourceNode );
         txState.relationshipDoCreate( id, relationshipType, sourceNode, targetNode );
         return id;
     }
@@ -684,7 +684,7 @@ public class Operations implements Write, SchemaWrite
 
     private Value readNodeProperty( int propertyKey )
     {
-        nodeCursor.properties( propertyCursor );
+        nodeCursor.properties( propertyCursor, propertyKey );
 
         //Find out if the property had a value
         Value existingValue = NO_VALUE;
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.newapi;
 
+import java.util.Arrays;
+
 import org.neo4j.common.EntityType;
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.internal.index.label.LabelScan;
@@ -431,6 +433,140 @@ abstract class Read implements TxStateHolder,
         ((DefaultRelationshipScanCursor) cursor).single( reference, this );
     }
 
+    @Override
+    public final void nodesGetProperties( long[] nodeReferences, int[] propertyKeys, Value[][] target )
+    {
+        ktx.assertOpen();
+        long[] references = sortedDistinct( nodeReferences );
+        long[] propertyReferences = new long[references.length];
+        boolean[] exists = new boolean[references.length];
+        try ( DefaultNodeCursor nodeCursor = cursors.allocateNodeCursor() )
+        {
+            // Node records have a fixed size, so visiting them in id order reads every page of the node store at most once
+            for ( int i = 0; i < references.length; i++ )
+            {
+                nodeCursor.single( references[i], this );
+                if ( nodeCursor.next() )
+                {
+                    exists[i] = true;
+                    propertyReferences[i] = nodeCursor.propertiesReference();
+                }
+            }
+        }
+
+        Value[][] values = noValues( propertyKeys.length, references.length );
+        try ( DefaultPropertyCursor propertyCursor = cursors.allocatePropertyCursor() )
+        {
+            for ( int i : inPropertyChainOrder( propertyReferences, exists ) )
+            {
+                if ( propertyKeys.length == 1 )
+                {
+                    propertyCursor.initNodeProperty( references[i], propertyReferences[i], propertyKeys[0], this, this );
+                }
+                else
+                {
+                    propertyCursor.initNode( references[i], propertyReferences[i], this, this );
+                }
+                readProperties( propertyCursor, propertyKeys, values, i );
+            }
+        }
+        scatter( nodeReferences, references, values, target );
+    }
+
+    @Override
+    public final void relationshipsGetProperties( long[] relationshipReferences, int[] propertyKeys, Value[][] target )
+    {
+        ktx.assertOpen();
+        long[] references = sortedDistinct( relationshipReferences );
+        long[] propertyReferences = new long[references.length];
+        boolean[] exists = new boolean[references.length];
+        try ( DefaultRelationshipScanCursor relationshipCursor = cursors.allocateRelationshipScanCursor() )
+        {
+            for ( int i = 0; i < references.length; i++ )
+            {
+                relationshipCursor.single( references[i], this );
+                if ( relationshipCursor.next() )
+                {
+                    exists[i] = true;
+                    propertyReferences[i] = relationshipCursor.propertiesReference();
+                }
+            }
+        }
+
+        Value[][] values = noValues( propertyKeys.length, references.length );
+        try ( DefaultPropertyCursor propertyCursor = cursors.allocatePropertyCursor() )
+        {
+            for ( int i : inPropertyChainOrder( propertyReferences, exists ) )
+            {
+                propertyCursor.initRelationship( references[i], propertyReferences[i], this, this );
+                readProperties( propertyCursor, propertyKeys, values, i );
+            }
+        }
+        scatter( relationshipReferences, references, values, target );
+    }
+
+    /**
+     * @return indexes of the existing entities, ordered by the first record of their property chain. Chains of entities
+     * that were created close to each other tend to be close to each other as well, so this reads the property store
+     * mostly forwards instead of jumping around in it.
+     */
+    private static int[] inPropertyChainOrder( long[] propertyReferences, boolean[] exists )
+    {
+        Integer[] order = new Integer[propertyReferences.length];
+        int count = 0;
+        for ( int i = 0; i < propertyReferences.length; i++ )
+        {
+            if ( exists[i] )
+            {
+                order[count++] = i;
+            }
+        }
+        Arrays.sort( order, 0, count, ( a, b ) -> Long.compare( propertyReferences[a], propertyReferences[b] ) );
+        int[] result = new int[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    private static Value[][] noValues( int columns, int rows )
+    {
+        Value[][] values = new Value[columns][rows];
+        for ( Value[] column : values )
+        {
+            Arrays.fill( column, Values.NO_VALUE );
+        }
+        return values;
+    }
+
+    private static void readProperties( DefaultPropertyCursor propertyCursor, int[] propertyKeys, Value[][] values, int row )
+    {
+        while ( propertyCursor.next() )
+        {
+            int propertyKey = propertyCursor.propertyKey();
+            for ( int k = 0; k < propertyKeys.length; k++ )
+            {
+                if ( propertyKeys[k] == propertyKey )
+                {
+                    values[k][row] = propertyCursor.propertyValue();
+                }
+            }
+        }
+    }
+
+    private static void scatter( long[] references, long[] sortedReferences, Value[][] values, Value[][] target )
+    {
+        for ( int i = 0; i < references.length; i++ )
+        {
+            int row = Arrays.binarySearch( sortedReferences, references[i] );
+            for ( int k = 0; k < values.length; k++ )
+            {
+                target[k][i] = values[k][row];
+            }
+        }
+    }
+
     @Override
     public final void allRelationshipsScan( RelationshipScanCursor cursor )
     {
@@ -564,6 +700,22 @@ abstract class Read implements TxStateHolder,
         ktx.assertOpen();
     }
 
+    @Override
+    public void acquireExclusiveLocksInOrder( long[] nodeIds, long[] relationshipIds )
+    {
+        long[] sortedNodeIds = sortedDistinct( nodeIds );
+        if ( sortedNodeIds.length > 0 )
+        {
+            acquireExclusiveLock( ResourceTypes.NODE, sortedNodeIds );
+        }
+        long[] sortedRelationshipIds = sortedDistinct( relationshipIds );
+        if ( sortedRelationshipIds.length > 0 )
+        {
+            acquireExclusiveLock( ResourceTypes.RELATIONSHIP, sortedRelationshipIds );
+        }
+        ktx.assertOpen();
+    }
+
     @Override
     public void releaseExclusiveNodeLock( long... ids )
     {
@@ -652,6 +804,24 @@ abstract class Read implements TxStateHolder,
         ktx.statementLocks().pessimistic().acquireExclusive( ktx.lockTracer(), types, ids );
     }
 
+    /**
+     * @return a sorted copy of the given ids without duplicates, leaving the array of the caller untouched.
+     */
+    static long[] sortedDistinct( long[] ids )
+    {
+        long[] sorted = Arrays.copyOf( ids, ids.length );
+        Arrays.sort( sorted );
+        int distinct = 0;
+        for ( int i = 0; i < sorted.length; i++ )
+        {
+            if ( i == 0 || sorted[i] != sorted[distinct - 1] )
+            {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct == sorted.length ? sorted : Arrays.copyOf( sorted, distinct );
+    }
+
     private void releaseExclusiveLock( ResourceTypes types, long... ids )
     {
         ktx.statementLocks().pessimistic().releaseExclusive( types, ids );
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.jctools.queues.QueueFactory;
+import org.jctools.queues.spec.ConcurrentQueueSpec;
+
+import java.util.Queue;
+
+import static org.neo4j.util.Preconditions.requireNonNegative;
+
+/**
+ * Bounded pool of cursors which is shared between all transactions of a database. {@link DefaultPooledCursors} keeps one cursor
+ * of each kind for its own transaction and uses this pool for cursors that would otherwise be thrown away, i.e. when a transaction
+ * needs more than one cursor of a kind at the same time, or when the transaction object itself is disposed of.
+ * <p>
+ * Only cursors backed by storage cursors are pooled here, since those are the ones that are expensive to create. Cursors must be
+ * {@link DefaultNodeCursor#release() released} before placed in this pool, which means that pooled cursors don't hold on to any
+ * page cursors and can be picked up by any thread.
+ * <p>
+ * This class is thread safe and lock free.
+ */
+public class SharedCursorPool
+{
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * A pool which doesn't keep any cursors, for when transactions shouldn't share cursors.
+     */
+    public static final SharedCursorPool NO_SHARING = new SharedCursorPool( 0 );
+
+    final Kind<DefaultNodeCursor> nodeCursors;
+    final Kind<FullAccessNodeCursor> fullAccessNodeCursors;
+    final Kind<DefaultRelationshipScanCursor> relationshipScanCursors;
+    final Kind<FullAccessRelationshipScanCursor> fullAccessRelationshipScanCursors;
+    final Kind<DefaultRelationshipTraversalCursor> relationshipTraversalCursors;
+    final Kind<DefaultPropertyCursor> propertyCursors;
+    final Kind<FullAccessPropertyCursor> fullAccessPropertyCursors;
+    final Kind<DefaultRelationshipGroupCursor> relationshipGroupCursors;
+
+    /**
+     * @param capacity max number of cursors to keep of each kind.
+     */
+    public SharedCursorPool( int capacity )
+    {
+        requireNonNegative( capacity );
+        nodeCursors = new Kind<>( capacity );
+        fullAccessNodeCursors = new Kind<>( capacity );
+        relationshipScanCursors = new Kind<>( capacity );
+        fullAccessRelationshipScanCursors = new Kind<>( capacity );
+        relationshipTraversalCursors = new Kind<>( capacity );
+        propertyCursors = new Kind<>( capacity );
+        fullAccessPropertyCursors = new Kind<>( capacity );
+        relationshipGroupCursors = new Kind<>( capacity );
+    }
+
+    /**
+     * Drops all pooled cursors. Since pooled cursors are already released this only makes them garbage collectable.
+     */
+    public void clear()
+    {
+        nodeCursors.clear();
+        fullAccessNodeCursors.clear();
+        relationshipScanCursors.clear();
+        fullAccessRelationshipScanCursors.clear();
+        relationshipTraversalCursors.clear();
+        propertyCursors.clear();
+        fullAccessPropertyCursors.clear();
+        relationshipGroupCursors.clear();
+    }
+
+    static final class Kind<T>
+    {
+        private final Queue<T> cursors;
+
+        Kind( int capacity )
+        {
+            // jctools bounded queues needs a capacity of at least 2
+            this.cursors = capacity > 0 ? QueueFactory.newQueue( ConcurrentQueueSpec.createBoundedMpmc( Math.max( 2, capacity ) ) ) : null;
+        }
+
+        /**
+         * @return a pooled cursor, or {@code null} if there is none.
+         */
+        T poll()
+        {
+            return cursors != null ? cursors.poll() : null;
+        }
+
+        /**
+         * @param cursor a released cursor to place in this pool.
+         * @return {@code true} if the cursor was pooled, otherwise {@code false} if this pool is full.
+         */
+        boolean offer( T cursor )
+        {
+            return cursors != null && cursors.offer( cursor );
+        }
+
+        int size()
+        {
+            return cursors != null ? cursors.size() : 0;
+        }
+
+        void clear()
+        {
+            if ( cursors != null )
+            {
+                cursors.clear();
+            }
+        }
+    }
+}
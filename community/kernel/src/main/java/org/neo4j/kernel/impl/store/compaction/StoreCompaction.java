@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import java.io.Flushable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.kernel.availability.AvailabilityGuard;
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.kernel.impl.api.LeaseException;
+import org.neo4j.kernel.impl.api.LeaseService;
+import org.neo4j.kernel.impl.api.TransactionCommitProcess;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.internal.LogService;
+import org.neo4j.storageengine.api.NodeCompactionPass;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.time.SystemNanoClock;
+
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_BYTE_ARRAY;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+/**
+ * Background job that lets the {@link StorageEngine} rewrite fragmented parts of the store, by running each of its
+ * {@link StorageEngine#compactionPasses() compaction passes} over the nodes of the store.
+ * <p>
+ * Each node that gets rewritten is committed as a transaction of its own, holding an exclusive lock on that node only,
+ * so that user transactions are held up as little as possible. Each run visits a limited number of nodes per pass and each pass
+ * continues where it stopped in the previous run, starting over from the beginning of the store when reaching its end.
+ * The IO caused by the compaction is held back by the {@link IOLimiter} of the database. It is counted as the pages pinned
+ * while looking for nodes to rewrite, as seen by the {@link PageCursorTracer} of the compacting thread, plus one page
+ * dirtied per committed command.
+ */
+public class StoreCompaction implements Runnable
+{
+    private static final Flushable NO_FLUSH = () -> {};
+
+    private final List<NodeCompactionPass> passes;
+    private final TransactionCommitProcess commitProcess;
+    private final TransactionIdStore transactionIdStore;
+    private final Locks locks;
+    private final LeaseService leaseService;
+    private final AvailabilityGuard availabilityGuard;
+    private final IOLimiter ioLimiter;
+    private final PageCursorTracerSupplier pageCursorTracerSupplier;
+    private final SystemNanoClock clock;
+    private final int nodesPerRun;
+    private final Log log;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private volatile boolean stopped;
+    private final long[] nextNodeIds;
+
+    public StoreCompaction( StorageEngine storageEngine, TransactionCommitProcess commitProcess, TransactionIdStore transactionIdStore, Locks locks,
+            LeaseService leaseService, AvailabilityGuard availabilityGuard, IOLimiter ioLimiter, PageCursorTracerSupplier pageCursorTracerSupplier,
+            SystemNanoClock clock, int nodesPerRun, LogService logService )
+    {
+        this.passes = storageEngine.compactionPasses();
+        this.nextNodeIds = new long[passes.size()];
+        this.commitProcess = commitProcess;
+        this.transactionIdStore = transactionIdStore;
+        this.locks = locks;
+        this.leaseService = leaseService;
+        this.availabilityGuard = availabilityGuard;
+        this.ioLimiter = ioLimiter;
+        this.pageCursorTracerSupplier = pageCursorTracerSupplier;
+        this.clock = clock;
+        this.nodesPerRun = nodesPerRun;
+        this.log = logService.getInternalLog( StoreCompaction.class );
+    }
+
+    @Override
+    public void run()
+    {
+        runLock.lock();
+        try
+        {
+            compact();
+        }
+        catch ( LeaseException e )
+        {
+            log.debug( "Store compaction skipped since this instance no longer holds a valid lease", e );
+        }
+        catch ( Exception e )
+        {
+            log.error( "Store compaction failed, will continue in the next run", e );
+        }
+        finally
+        {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Makes an ongoing run stop after the node it currently works on and waits for that to happen.
+     * No runs will do any work after this call.
+     */
+    public void stop()
+    {
+        stopped = true;
+        runLock.lock();
+        runLock.unlock();
+    }
+
+    private void compact() throws TransactionFailureException
+    {
+        LeaseClient leaseClient = leaseService.newClient();
+        PageCursorTracer cursorTracer = pageCursorTracerSupplier.get();
+        long ioStamp = IOLimiter.INITIAL_STAMP;
+        for ( int pass = 0; pass < passes.size(); pass++ )
+        {
+            ioStamp = compact( pass, leaseClient, cursorTracer, ioStamp );
+        }
+    }
+
+    /**
+     * Runs the given pass over at most {@link #nodesPerRun} nodes.
+     *
+     * @return the IO stamp to continue limiting IO with.
+     */
+    private long compact( int pass, LeaseClient leaseClient, PageCursorTracer cursorTracer, long ioStamp ) throws TransactionFailureException
+    {
+        NodeCompactionPass compactionPass = passes.get( pass );
+        int nodesLeft = nodesPerRun;
+        while ( nodesLeft > 0 && !stopped && availabilityGuard.isAvailable() )
+        {
+            leaseClient.ensureValid();
+            long fromNodeId = nextNodeIds[pass];
+            List<StorageCommand> commands = new ArrayList<>();
+            try ( Locks.Client lockClient = locks.newClient() )
+            {
+                lockClient.initialize( leaseClient );
+                long lastTransactionIdWhenStarted = transactionIdStore.getLastCommittedTransactionId();
+                long startTimeMillis = clock.millis();
+                long pinsBefore = cursorTracer.pins();
+                nextNodeIds[pass] = compactionPass.createCompactionCommands( fromNodeId, nodesLeft, commands, lockClient );
+                // The tracer may have reported and reset its counts in the meantime, in which case this scan is not counted
+                long scanIOs = Math.max( 0, cursorTracer.pins() - pinsBefore );
+                if ( !commands.isEmpty() )
+                {
+                    PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+                    transaction.setHeader( EMPTY_BYTE_ARRAY, startTimeMillis, lastTransactionIdWhenStarted, clock.millis(), leaseClient.leaseId() );
+                    commitProcess.commit( new TransactionToApply( transaction ), CommitEvent.NULL, INTERNAL );
+                }
+                // Each command changes a single record, and so dirties at most one page
+                ioStamp = ioLimiter.maybeLimitIO( ioStamp, (int) Math.min( Integer.MAX_VALUE, scanIOs + commands.size() ), NO_FLUSH );
+            }
+            if ( nextNodeIds[pass] == -1 )
+            {
+                // Reached the end of the store, the next run starts this pass over from the beginning
+                nextNodeIds[pass] = 0;
+                return ioStamp;
+            }
+            nodesLeft -= (int) (nextNodeIds[pass] - fromNodeId);
+        }
+        return ioStamp;
+    }
+}
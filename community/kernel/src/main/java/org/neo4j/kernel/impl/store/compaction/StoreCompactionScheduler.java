@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+public class StoreCompactionScheduler extends LifecycleAdapter
+{
+    private final StoreCompaction storeCompaction;
+    private final JobScheduler scheduler;
+    private final long intervalMillis;
+    private JobHandle compactionJobHandle;
+
+    public StoreCompactionScheduler( StoreCompaction storeCompaction, JobScheduler scheduler, long intervalMillis )
+    {
+        this.storeCompaction = storeCompaction;
+        this.scheduler = scheduler;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void start()
+    {
+        if ( intervalMillis > 0 )
+        {
+            compactionJobHandle = scheduler.scheduleRecurring( Group.STORAGE_MAINTENANCE, storeCompaction, intervalMillis, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        if ( compactionJobHandle != null )
+        {
+            compactionJobHandle.cancel();
+            storeCompaction.stop();
+        }
+    }
+}
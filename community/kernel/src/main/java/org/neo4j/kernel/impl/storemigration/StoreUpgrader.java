@@ -460,7 +460,8 @@ public class StoreUpgrader
     public static class UnexpectedUpgradingStoreFormatException extends UnableToUpgradeException
     {
         static final String MESSAGE =
-                "This is an enterprise-only store. Please configure '%s' to open.";
+                "This store has a record format that can't be migrated to the configured one, e.g. an enterprise-only store. " +
+                "Please configure '%s' to open.";
 
         UnexpectedUpgradingStoreFormatException()
         {
@@ -216,7 +216,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
             logAppendEvent.appendToLogFile( logPositionBeforeCommit, logPositionAfterCommit );
 
-            transactionMetadataCache.cacheTransactionMetadata( transactionId, logPositionBeforeCommit, checksum, transaction.getTimeCommitted() );
+            transactionMetadataCache.cacheTransactionMetadata( transactionId, logPositionBeforeCommit, logPositionAfterCommit, checksum,
+                    transaction.getTimeCommitted() );
 
             return new TransactionCommitment( transactionId, checksum, transaction.getTimeCommitted(), logPositionAfterCommit, transactionIdStore );
         }
@@ -112,6 +112,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     {
         private final long startTransactionId;
         private final LogEntryReader logEntryReader;
+        private final LogPositionMarker endPositionMarker = new LogPositionMarker();
         private LogEntryStart startEntryForFoundTransaction;
         private long commitTimestamp;
         private int commitChecksum;
@@ -139,6 +140,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
                     if ( commit.getTxId() == startTransactionId )
                     {
                         startEntryForFoundTransaction = startEntry;
+                        channel.getCurrentPosition( endPositionMarker );
                         commitTimestamp = commit.getTimeWritten();
                         commitChecksum = commit.getChecksum();
                         return false;
@@ -151,18 +153,27 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
         }
 
         LogPosition getAndCacheFoundLogPosition( TransactionMetadataCache transactionMetadataCache ) throws NoSuchTransactionException
+        {
+            return getAndCacheFoundTransactionMetadata( transactionMetadataCache ).getStartPosition();
+        }
+
+        TransactionMetadataCache.TransactionMetadata getAndCacheFoundTransactionMetadata( TransactionMetadataCache transactionMetadataCache )
+                throws NoSuchTransactionException
         {
             if ( startEntryForFoundTransaction == null )
             {
                 throw new NoSuchTransactionException( startTransactionId );
             }
+            LogPosition startPosition = startEntryForFoundTransaction.getStartPosition();
+            LogPosition endPosition = endPositionMarker.newPosition();
             transactionMetadataCache.cacheTransactionMetadata(
                     startTransactionId,
-                    startEntryForFoundTransaction.getStartPosition(),
+                    startPosition,
+                    endPosition,
                     commitChecksum,
                     commitTimestamp
             );
-            return startEntryForFoundTransaction.getStartPosition();
+            return new TransactionMetadataCache.TransactionMetadata( startPosition, endPosition, commitChecksum, commitTimestamp );
         }
     }
 
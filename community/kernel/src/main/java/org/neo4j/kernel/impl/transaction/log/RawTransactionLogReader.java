@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore.LogVersionLocator;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore.TransactionPositionLocator;
+import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache.TransactionMetadata;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.util.VisibleForTesting;
+
+/**
+ * Provides the serialized bytes of committed transactions as they are in the transaction log, without deserializing
+ * any of their log entries. This is intended for consumers that only forward transactions, like log shipping and
+ * incremental backup, where {@link LogicalTransactionStore#getTransactions(long)} would spend most of its time
+ * reading commands that are written straight back out again.
+ * <p>
+ * Only transactions in log files that have been rotated, and thus will not change anymore, are available. Such log
+ * files are memory mapped on first use and the mapping is shared by all transactions in them. The bytes of a
+ * transaction are then handed out as read-only slices of that mapping. Log files too large to be mapped as a whole,
+ * which rotation allows, are never mapped as a whole. Only the byte range of the requested transaction is mapped
+ * instead, for each request. Alternatively, the bytes can be transferred
+ * straight from the log file to another channel, which lets the operating system use {@code sendfile} or similar.
+ * <p>
+ * The byte range of a transaction is looked up in the {@link TransactionMetadataCache}. Only if it is not cached, is
+ * the log file scanned for it, and the result cached.
+ * <p>
+ * Mappings of log files that have since been pruned are dropped on the next access, and all mappings are dropped when
+ * this reader is stopped. The mappings are never unmapped explicitly, since buffers handed out may still be in use,
+ * so the memory is released when the buffers are garbage collected.
+ */
+public class RawTransactionLogReader extends LifecycleAdapter
+{
+    private final LogFiles logFiles;
+    private final LogFile logFile;
+    private final TransactionMetadataCache transactionMetadataCache;
+    private final LogEntryReader logEntryReader;
+    private final long maxMappedLogFileSize;
+    private final Map<Long,MappedByteBuffer> mappedLogFiles = new ConcurrentHashMap<>();
+
+    public RawTransactionLogReader( LogFiles logFiles, TransactionMetadataCache transactionMetadataCache, LogEntryReader logEntryReader )
+    {
+        this( logFiles, transactionMetadataCache, logEntryReader, Integer.MAX_VALUE );
+    }
+
+    @VisibleForTesting
+    RawTransactionLogReader( LogFiles logFiles, TransactionMetadataCache transactionMetadataCache, LogEntryReader logEntryReader,
+            long maxMappedLogFileSize )
+    {
+        this.logFiles = logFiles;
+        this.logFile = logFiles.getLogFile();
+        this.transactionMetadataCache = transactionMetadataCache;
+        this.logEntryReader = logEntryReader;
+        this.maxMappedLogFileSize = maxMappedLogFileSize;
+    }
+
+    /**
+     * Get the bytes of the given transaction, from its start entry up to and including its commit entry.
+     *
+     * @param transactionId the id of the transaction to get.
+     * @return a read-only buffer with the serialized transaction, positioned at zero.
+     * @throws NoSuchTransactionException if the transaction cannot be found, or is not in a rotated log file.
+     * @throws IOException if the log file could not be read or mapped.
+     */
+    public ByteBuffer transaction( long transactionId ) throws IOException
+    {
+        TransactionMetadata metadata = transactionRange( transactionId );
+        long version = metadata.getStartPosition().getLogVersion();
+        long start = metadata.getStartPosition().getByteOffset();
+        long end = metadata.getEndPosition().getByteOffset();
+        MappedByteBuffer mapping = mappedLogFile( transactionId, version );
+        if ( mapping == null )
+        {
+            return mappedTransaction( version, start, end );
+        }
+        ByteBuffer buffer = mapping.duplicate();
+        buffer.limit( Math.toIntExact( end ) );
+        buffer.position( Math.toIntExact( start ) );
+        return buffer.slice();
+    }
+
+    /**
+     * Transfer the bytes of the given transaction, from its start entry up to and including its commit entry, directly
+     * from the log file to the given channel. The target channel must be in blocking mode.
+     *
+     * @param transactionId the id of the transaction to transfer.
+     * @param target the channel to write the serialized transaction to.
+     * @return the number of bytes transferred.
+     * @throws NoSuchTransactionException if the transaction cannot be found, or is not in a rotated log file.
+     * @throws IOException if the log file could not be read or the target could not be written to.
+     */
+    public long transferTransaction( long transactionId, WritableByteChannel target ) throws IOException
+    {
+        TransactionMetadata metadata = transactionRange( transactionId );
+        long position = metadata.getStartPosition().getByteOffset();
+        long length = metadata.getEndPosition().getByteOffset() - position;
+        try ( PhysicalLogVersionedStoreChannel channel = logFiles.openForVersion( metadata.getStartPosition().getLogVersion() ) )
+        {
+            FileChannel fileChannel = channel.fileChannel();
+            long remaining = length;
+            while ( remaining > 0 )
+            {
+                long transferred = fileChannel.transferTo( position, remaining, target );
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public void stop()
+    {
+        mappedLogFiles.clear();
+    }
+
+    private TransactionMetadata transactionRange( long transactionId ) throws IOException
+    {
+        TransactionMetadata metadata = transactionMetadataCache.getTransactionMetadata( transactionId );
+        if ( metadata == null || !isSpecified( metadata.getEndPosition() ) )
+        {
+            LogVersionLocator headerVisitor = new LogVersionLocator( transactionId );
+            logFiles.accept( headerVisitor );
+            TransactionPositionLocator transactionPositionLocator = new TransactionPositionLocator( transactionId, logEntryReader );
+            logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
+            metadata = transactionPositionLocator.getAndCacheFoundTransactionMetadata( transactionMetadataCache );
+        }
+        if ( metadata.getStartPosition().getLogVersion() >= logFiles.getHighestLogVersion() )
+        {
+            throw new NoSuchTransactionException( transactionId,
+                    "Transaction is in the current log file, which is still being appended to, and cannot be read raw" );
+        }
+        return metadata;
+    }
+
+    private static boolean isSpecified( LogPosition position )
+    {
+        return position != null && !LogPosition.UNSPECIFIED.equals( position );
+    }
+
+    /**
+     * @return the shared mapping of the whole log file with the given version, or {@code null} if that file is too large to be mapped as a
+     * whole.
+     */
+    private MappedByteBuffer mappedLogFile( long transactionId, long version ) throws IOException
+    {
+        MappedByteBuffer mapping = mappedLogFiles.get( version );
+        if ( mapping != null )
+        {
+            return mapping;
+        }
+        synchronized ( mappedLogFiles )
+        {
+            releasePrunedMappings();
+            mapping = mappedLogFiles.get( version );
+            if ( mapping == null )
+            {
+                if ( !logFiles.versionExists( version ) )
+                {
+                    throw new NoSuchTransactionException( transactionId, "Log file with version " + version + " has been pruned" );
+                }
+                try ( PhysicalLogVersionedStoreChannel channel = logFiles.openForVersion( version ) )
+                {
+                    FileChannel fileChannel = channel.fileChannel();
+                    long size = fileChannel.size();
+                    if ( size > maxMappedLogFileSize )
+                    {
+                        return null;
+                    }
+                    mapping = fileChannel.map( FileChannel.MapMode.READ_ONLY, 0, size );
+                }
+                mappedLogFiles.put( version, mapping );
+            }
+            return mapping;
+        }
+    }
+
+    private ByteBuffer mappedTransaction( long version, long start, long end ) throws IOException
+    {
+        try ( PhysicalLogVersionedStoreChannel channel = logFiles.openForVersion( version ) )
+        {
+            return channel.fileChannel().map( FileChannel.MapMode.READ_ONLY, start, end - start );
+        }
+    }
+
+    private void releasePrunedMappings()
+    {
+        long lowestVersion = logFiles.getLowestLogVersion();
+        mappedLogFiles.keySet().removeIf( version -> version < lowestVersion );
+    }
+}
@@ -49,25 +49,41 @@ public class TransactionMetadataCache
     }
 
     public void cacheTransactionMetadata( long txId, LogPosition position, int checksum, long timeWritten )
+    {
+        cacheTransactionMetadata( txId, position, null, checksum, timeWritten );
+    }
+
+    /**
+     * Cache the metadata of a transaction, including the position right after its commit entry,
+     * which together with the start position gives the byte range of the whole transaction in the log.
+     */
+    public void cacheTransactionMetadata( long txId, LogPosition position, LogPosition endPosition, int checksum, long timeWritten )
     {
         if ( position.getByteOffset() == -1 )
         {
             throw new RuntimeException( "StartEntry.position is " + position );
         }
 
-        TransactionMetadata result = new TransactionMetadata( position, checksum, timeWritten );
+        TransactionMetadata result = new TransactionMetadata( position, endPosition, checksum, timeWritten );
         txStartPositionCache.put( txId, result );
     }
 
     public static class TransactionMetadata
     {
         private final LogPosition startPosition;
+        private final LogPosition endPosition;
         private final int checksum;
         private final long timeWritten;
 
         public TransactionMetadata( LogPosition startPosition, int checksum, long timeWritten )
+        {
+            this( startPosition, null, checksum, timeWritten );
+        }
+
+        public TransactionMetadata( LogPosition startPosition, LogPosition endPosition, int checksum, long timeWritten )
         {
             this.startPosition = startPosition;
+            this.endPosition = endPosition;
             this.checksum = checksum;
             this.timeWritten = timeWritten;
         }
@@ -77,6 +93,14 @@ public class TransactionMetadataCache
             return startPosition;
         }
 
+        /**
+         * @return the position right after the commit entry of this transaction, or {@code null} if not known.
+         */
+        public LogPosition getEndPosition()
+        {
+            return endPosition;
+        }
+
         public int getChecksum()
         {
             return checksum;
@@ -92,6 +116,7 @@ public class TransactionMetadataCache
         {
             return "TransactionMetadata{" +
                    ", startPosition=" + startPosition +
+                   ", endPosition=" + endPosition +
                    ", checksum=" + checksum +
                    ", timeWritten=" + timeWritten +
                    '}';
@@ -111,7 +136,8 @@ public class TransactionMetadataCache
             TransactionMetadata that = (TransactionMetadata) o;
             return checksum == that.checksum &&
                    timeWritten == that.timeWritten &&
-                   Objects.equals( startPosition, that.startPosition );
+                   Objects.equals( startPosition, that.startPosition ) &&
+                   Objects.equals( endPosition, that.endPosition );
         }
 
         @Override
@@ -22,9 +22,11 @@ package org.neo4j.kernel.impl.transaction.log.checkpoint;
 import java.util.NoSuchElementException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.stream.Stream;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.time.SystemNanoClock;
@@ -73,6 +75,18 @@ public interface CheckPointThreshold
      */
     long checkFrequencyMillis();
 
+    /**
+     * Return the {@link IOLimiter} that check points triggered by this threshold should flush with.
+     *
+     * @param configuredLimiter the limiter configured for the database.
+     * @param logBytesWritten supplies a number that grows with the number of bytes written to the transaction log.
+     * @return the limiter to use, which by default is the configured one.
+     */
+    default IOLimiter ioLimiter( IOLimiter configuredLimiter, LongSupplier logBytesWritten )
+    {
+        return configuredLimiter;
+    }
+
     /**
      * Create and configure a {@link CheckPointThreshold} based on the given configurations.
      */
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * Triggers a check point as soon as there are any transactions that have not yet been check pointed. The scheduler
+ * will thus be running check points back to back, while the {@link RecoveryTargetIOLimiter} paces the flushing, so
+ * that dirty pages are written out steadily in the background rather than in bursts.
+ */
+class ContinuousCheckPointThreshold extends AbstractCheckPointThreshold
+{
+    static final long CONTINUOUS_CHECKING_FREQUENCY_MILLIS = 100;
+
+    private final Duration recoveryTarget;
+    private final SystemNanoClock clock;
+    private volatile RecoveryTargetIOLimiter ioLimiter;
+    private volatile long lastCheckPointedTransactionId;
+
+    ContinuousCheckPointThreshold( Duration recoveryTarget, SystemNanoClock clock )
+    {
+        super( "continuous threshold" );
+        this.recoveryTarget = recoveryTarget;
+        this.clock = clock;
+    }
+
+    @Override
+    public void initialize( long transactionId )
+    {
+        lastCheckPointedTransactionId = transactionId;
+    }
+
+    @Override
+    protected boolean thresholdReached( long lastCommittedTransactionId )
+    {
+        return lastCommittedTransactionId > lastCheckPointedTransactionId;
+    }
+
+    @Override
+    public void checkPointHappened( long transactionId )
+    {
+        lastCheckPointedTransactionId = transactionId;
+        RecoveryTargetIOLimiter limiter = ioLimiter;
+        if ( limiter != null )
+        {
+            limiter.checkPointCompleted();
+        }
+    }
+
+    @Override
+    public long checkFrequencyMillis()
+    {
+        return CONTINUOUS_CHECKING_FREQUENCY_MILLIS;
+    }
+
+    @Override
+    public IOLimiter ioLimiter( IOLimiter configuredLimiter, LongSupplier logBytesWritten )
+    {
+        // An explicitly configured limit takes precedence over the adaptive one.
+        if ( configuredLimiter != IOLimiter.UNLIMITED )
+        {
+            return configuredLimiter;
+        }
+        ioLimiter = new RecoveryTargetIOLimiter( recoveryTarget, clock, logBytesWritten );
+        return ioLimiter;
+    }
+}
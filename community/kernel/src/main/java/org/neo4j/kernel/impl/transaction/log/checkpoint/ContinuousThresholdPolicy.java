@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * The {@code continuous} check point threshold policy ignores the {@link GraphDatabaseSettings#check_point_interval_time}
+ * and {@link GraphDatabaseSettings#check_point_interval_tx} settings, and instead keeps check pointing whenever there
+ * are new transactions. Each check point is paced to flush what was written to the transaction log since the previous
+ * one within half of the {@link GraphDatabaseSettings#check_point_recovery_target}.
+ */
+@ServiceProvider
+public class ContinuousThresholdPolicy implements CheckPointThresholdPolicy
+{
+    @Override
+    public String getName()
+    {
+        return "continuous";
+    }
+
+    @Override
+    public CheckPointThreshold createThreshold(
+            Config config, SystemNanoClock clock, LogPruning logPruning, LogProvider logProvider )
+    {
+        return new ContinuousCheckPointThreshold( config.get( GraphDatabaseSettings.check_point_recovery_target ), clock );
+    }
+}
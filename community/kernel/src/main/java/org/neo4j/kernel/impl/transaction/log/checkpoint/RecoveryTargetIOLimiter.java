@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * An {@link IOLimiter} that paces check point flushing so that each check point is spread out over roughly half of a
+ * configured recovery time target, instead of flushing everything as fast as possible.
+ * <p>
+ * The pages a check point has to flush are the ones dirtied since the previous check point started, which is estimated
+ * from the number of bytes written to the transaction log since then and the number of IOs per log byte that previous
+ * check points needed. The rate is the remaining part of that estimate divided by the time left until the check point
+ * should be done, and is re-evaluated at the start of every {@link #QUANTUM_MILLIS} quantum, so that a burst of writes
+ * while a check point is running raises the rate right away. If a check point is still running when its time is up,
+ * the rest of it is flushed w/o any limit.
+ * <p>
+ * The stamp passed between calls to {@link #maybeLimitIO(long, int, Flushable)} encodes the start of the current
+ * quantum in its upper bits and the number of IOs performed in that quantum in its lower bits. The quantum start is
+ * relative to the start of the check point, so that it fits in those bits regardless of how long the database has been
+ * running.
+ */
+final class RecoveryTargetIOLimiter implements IOLimiter
+{
+    static final long QUANTUM_MILLIS = 100;
+    static final long MIN_IOPS = 100;
+    /**
+     * Log bytes per IO to assume until a check point has measured it. Deliberately low, since overestimating the number
+     * of IOs only makes the first check point finish early.
+     */
+    static final double DEFAULT_LOG_BYTES_PER_IO = 64;
+    private static final int IO_BITS = 32;
+    private static final long IO_MASK = (1L << IO_BITS) - 1;
+
+    private final SystemNanoClock clock;
+    private final LongSupplier logBytesWritten;
+    private final long baseNanos;
+    private final long checkPointTargetMillis;
+    private final LongAdder checkPointIOs = new LongAdder();
+    private final AtomicInteger disabledCounter = new AtomicInteger();
+    // Only changed by the thread doing check points
+    private volatile boolean checkPointInProgress;
+    private volatile long checkPointStartMillis;
+    private volatile long checkPointStartLogBytes;
+    private volatile long previousCheckPointStartLogBytes;
+    private volatile double logBytesPerIO = DEFAULT_LOG_BYTES_PER_IO;
+    private volatile long iopsLimit = Long.MAX_VALUE;
+
+    /**
+     * @param logBytesWritten supplies the number of bytes written to the transaction log so far, or any value that grows
+     * by the number of bytes written.
+     */
+    RecoveryTargetIOLimiter( Duration recoveryTarget, SystemNanoClock clock, LongSupplier logBytesWritten )
+    {
+        this.clock = clock;
+        this.logBytesWritten = logBytesWritten;
+        this.baseNanos = clock.nanos();
+        // Recovery replays the log from the start of the previous check point, which is at most two check point
+        // durations worth of transactions. Aim for each check point to take half of the recovery target.
+        this.checkPointTargetMillis = Math.max( QUANTUM_MILLIS, recoveryTarget.toMillis() / 2 );
+        this.previousCheckPointStartLogBytes = logBytesWritten.getAsLong();
+    }
+
+    @Override
+    public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+    {
+        checkPointIOs.add( recentlyCompletedIOs );
+        if ( disabledCounter.get() > 0 )
+        {
+            return previousStamp;
+        }
+
+        long now = currentMillis();
+        if ( !checkPointInProgress )
+        {
+            // The first IO after a completed check point belongs to the next one
+            checkPointStarted( now );
+        }
+        if ( previousStamp == INITIAL_STAMP )
+        {
+            return stamp( now, recentlyCompletedIOs );
+        }
+
+        long quantumStart = quantumStart( previousStamp );
+        long quantumIOs = (previousStamp & IO_MASK) + recentlyCompletedIOs;
+        long elapsed = now - quantumStart;
+        if ( elapsed >= QUANTUM_MILLIS || elapsed < 0 )
+        {
+            // Either the quantum is over, or the stamp is from a quantum of a previous check point
+            updateLimit( now );
+            return stamp( now, 0 );
+        }
+        if ( quantumIOs < iosPerQuantum() )
+        {
+            return stamp( quantumStart, quantumIOs );
+        }
+
+        // We are ahead of our budget for this quantum. Push what we have written so far out of the OS buffers,
+        // and then wait out the remainder of the quantum.
+        try
+        {
+            flushable.flush();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        long remainingMillis = QUANTUM_MILLIS - (currentMillis() - quantumStart);
+        if ( remainingMillis > 0 )
+        {
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( remainingMillis ) );
+        }
+        now = currentMillis();
+        updateLimit( now );
+        return stamp( now, 0 );
+    }
+
+    /**
+     * Called when a check point has completed, to measure how many IOs per log byte it needed.
+     */
+    void checkPointCompleted()
+    {
+        long ios = checkPointIOs.sumThenReset();
+        long logBytes = logBytesWritten.getAsLong();
+        long coveredLogBytes = logBytes - previousCheckPointStartLogBytes;
+        if ( ios > 0 && coveredLogBytes > 0 )
+        {
+            logBytesPerIO = Math.max( 1, (double) coveredLogBytes / ios );
+        }
+        // A check point that didn't do any IO found nothing dirty, so everything up until now is check pointed
+        previousCheckPointStartLogBytes = checkPointInProgress ? checkPointStartLogBytes : logBytes;
+        checkPointInProgress = false;
+        iopsLimit = Long.MAX_VALUE;
+    }
+
+    long iopsLimit()
+    {
+        return iopsLimit;
+    }
+
+    @Override
+    public void disableLimit()
+    {
+        disabledCounter.getAndIncrement();
+    }
+
+    @Override
+    public void enableLimit()
+    {
+        disabledCounter.getAndDecrement();
+    }
+
+    @Override
+    public boolean isLimited()
+    {
+        return disabledCounter.get() == 0 && iopsLimit != Long.MAX_VALUE;
+    }
+
+    private void checkPointStarted( long now )
+    {
+        checkPointStartMillis = now;
+        checkPointStartLogBytes = logBytesWritten.getAsLong();
+        checkPointInProgress = true;
+        updateLimit( now );
+    }
+
+    private void updateLimit( long now )
+    {
+        long millisLeft = checkPointStartMillis + checkPointTargetMillis - now;
+        if ( millisLeft <= 0 )
+        {
+            // Running late, get it done
+            iopsLimit = Long.MAX_VALUE;
+            return;
+        }
+        long expectedIOs = (long) ((logBytesWritten.getAsLong() - previousCheckPointStartLogBytes) / logBytesPerIO);
+        long remainingIOs = Math.max( 0, expectedIOs - checkPointIOs.sum() );
+        iopsLimit = Math.max( MIN_IOPS, remainingIOs * TimeUnit.SECONDS.toMillis( 1 ) / Math.max( QUANTUM_MILLIS, millisLeft ) );
+    }
+
+    private long iosPerQuantum()
+    {
+        long limit = iopsLimit;
+        return limit == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max( 1, limit * QUANTUM_MILLIS / TimeUnit.SECONDS.toMillis( 1 ) );
+    }
+
+    private long currentMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis( clock.nanos() - baseNanos );
+    }
+
+    private long stamp( long quantumStartMillis, long quantumIOs )
+    {
+        // Offset by one, so that a stamp for the first quantum of a check point is never mistaken for INITIAL_STAMP
+        long relativeQuantumStart = Math.min( quantumStartMillis - checkPointStartMillis + 1, IO_MASK );
+        return (relativeQuantumStart << IO_BITS) | Math.min( quantumIOs, IO_MASK );
+    }
+
+    private long quantumStart( long stamp )
+    {
+        return checkPointStartMillis + (stamp >>> IO_BITS) - 1;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+/**
+ * Notified about sampled commits that were slower than almost all other commits of the database.
+ */
+public interface CommitLatencyMonitor
+{
+    CommitLatencyMonitor NONE = trace ->
+    {
+    };
+
+    /**
+     * A commit was slower than the current slow commit threshold and was picked for tracing.
+     *
+     * @param trace time spent in the different stages of the slow commit.
+     */
+    void slowCommit( SlowCommitTrace trace );
+}
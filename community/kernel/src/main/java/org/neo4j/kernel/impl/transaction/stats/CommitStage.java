@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+/**
+ * The stages of the commit path that have their latency recorded separately. Stages may nest: the log append
+ * stage contains the serialization, force wait and force stages, and the force wait stage contains the force
+ * stage of the committer that ended up forcing the log on behalf of the others.
+ */
+public enum CommitStage
+{
+    /**
+     * Taking the locks that have been deferred until commit.
+     */
+    LOCK_ACQUISITION,
+    /**
+     * Extracting storage commands from the transaction state, including the locks taken while doing so.
+     */
+    COMMAND_CREATION,
+    /**
+     * Appending the transaction to the transaction log, up until it is durable.
+     */
+    LOG_APPEND,
+    /**
+     * Serializing and writing the commands to the transaction log buffer.
+     */
+    LOG_SERIALIZATION,
+    /**
+     * Waiting for the transaction log to be forced, either by this committer or by another.
+     */
+    LOG_FORCE_WAIT,
+    /**
+     * Forcing the transaction log to disk.
+     */
+    LOG_FORCE,
+    /**
+     * Applying the transaction to the stores and indexes.
+     */
+    STORE_APPLY,
+    /**
+     * The whole commit, from the beginning of the commit event to its end.
+     */
+    TOTAL
+}
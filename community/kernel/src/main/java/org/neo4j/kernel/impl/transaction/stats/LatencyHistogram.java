@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Long.numberOfLeadingZeros;
+
+/**
+ * A concurrent histogram of latencies in nanoseconds, with log-linear buckets in the style of HdrHistogram.
+ * <p>
+ * Every power of two is divided into {@link #SUB_BUCKETS} linear buckets, which bounds the relative error of the
+ * reported values to 1/{@value #SUB_BUCKETS}. Neither recording a value nor looking up a percentile allocates or takes
+ * any locks, so the histogram can be used directly from the commit path. Reads are not atomic with respect to concurrent
+ * recordings, which is fine for the monitoring purposes this histogram is intended for.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray( BUCKETS );
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a single latency.
+     *
+     * @param nanos the latency in nanoseconds, negative values are recorded as zero.
+     */
+    public void record( long nanos )
+    {
+        long value = Math.max( 0, nanos );
+        counts.incrementAndGet( bucketOf( value ) );
+        totalNanos.addAndGet( value );
+        if ( value > maxNanos.get() )
+        {
+            maxNanos.accumulateAndGet( value, Math::max );
+        }
+    }
+
+    /**
+     * @return the number of recorded latencies.
+     */
+    public long count()
+    {
+        long count = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            count += counts.get( i );
+        }
+        return count;
+    }
+
+    /**
+     * @return the mean of the recorded latencies in nanoseconds, or zero if nothing has been recorded.
+     */
+    public long meanNanos()
+    {
+        long count = count();
+        return count == 0 ? 0 : totalNanos.get() / count;
+    }
+
+    /**
+     * @return the highest recorded latency in nanoseconds.
+     */
+    public long maxNanos()
+    {
+        return maxNanos.get();
+    }
+
+    /**
+     * @param percentile the percentile to look up, between 0 and 100.
+     * @return the highest value of the bucket holding the latency at the given percentile, in nanoseconds, but never
+     * more than the highest recorded latency. Zero if nothing has been recorded.
+     */
+    public long valueAtPercentile( double percentile )
+    {
+        long count = count();
+        if ( count == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, (long) Math.ceil( Math.min( 100, Math.max( 0, percentile ) ) / 100 * count ) );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            // Counts only grow, so the buckets add up to at least the count the rank was taken from
+            seen += counts.get( i );
+            if ( seen >= rank )
+            {
+                return Math.min( highestValueInBucket( i ), maxNanos.get() );
+            }
+        }
+        return maxNanos.get();
+    }
+
+    static int bucketOf( long value )
+    {
+        if ( value < SUB_BUCKETS )
+        {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - numberOfLeadingZeros( value ) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    static long highestValueInBucket( int bucket )
+    {
+        if ( bucket < SUB_BUCKETS )
+        {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
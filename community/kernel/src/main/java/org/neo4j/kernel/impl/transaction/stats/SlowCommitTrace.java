@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sampled trace of a single slow commit, with the time spent in each {@link CommitStage}.
+ */
+public class SlowCommitTrace
+{
+    private final long timeMillis;
+    private final long[] stageNanos;
+
+    public SlowCommitTrace( long timeMillis, long[] stageNanos )
+    {
+        this.timeMillis = timeMillis;
+        this.stageNanos = stageNanos;
+    }
+
+    /**
+     * @return the wall clock time at which the commit completed, in milliseconds.
+     */
+    public long timeMillis()
+    {
+        return timeMillis;
+    }
+
+    /**
+     * @param stage the commit stage.
+     * @return the time spent in the given stage in nanoseconds, or zero if the commit did not pass through it.
+     */
+    public long stageNanos( CommitStage stage )
+    {
+        return stageNanos[stage.ordinal()];
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder( "SlowCommitTrace{timeMillis=" ).append( timeMillis );
+        for ( CommitStage stage : CommitStage.values() )
+        {
+            builder.append( ", " ).append( stage ).append( '=' ).append( TimeUnit.NANOSECONDS.toMicros( stageNanos( stage ) ) ).append( "us" );
+        }
+        return builder.append( '}' ).toString();
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        SlowCommitTrace that = (SlowCommitTrace) o;
+        return timeMillis == that.timeMillis && Arrays.equals( stageNanos, that.stageNanos );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Long.hashCode( timeMillis ) + Arrays.hashCode( stageNanos );
+    }
+}
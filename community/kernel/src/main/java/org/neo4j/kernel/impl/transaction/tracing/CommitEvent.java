@@ -31,6 +31,18 @@ public interface CommitEvent extends AutoCloseable
         {
         }
 
+        @Override
+        public CommitLocksEvent beginCommitLocks()
+        {
+            return CommitLocksEvent.NULL;
+        }
+
+        @Override
+        public CommandCreationEvent beginCommandCreation()
+        {
+            return CommandCreationEvent.NULL;
+        }
+
         @Override
         public LogAppendEvent beginLogAppend()
         {
@@ -50,6 +62,16 @@ public interface CommitEvent extends AutoCloseable
     @Override
     void close();
 
+    /**
+     * Begin taking the locks that must be held for the duration of the commit.
+     */
+    CommitLocksEvent beginCommitLocks();
+
+    /**
+     * Begin creating the commands of the committing transaction from its transaction state.
+     */
+    CommandCreationEvent beginCommandCreation();
+
     /**
      * Begin appending commands for the committing transaction, to the transaction log.
      */
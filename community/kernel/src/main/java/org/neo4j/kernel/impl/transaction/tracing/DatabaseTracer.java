@@ -19,6 +19,14 @@
  */
 package org.neo4j.kernel.impl.transaction.tracing;
 
+import java.util.List;
+
+import org.neo4j.kernel.impl.transaction.stats.CommitStage;
+import org.neo4j.kernel.impl.transaction.stats.LatencyHistogram;
+import org.neo4j.kernel.impl.transaction.stats.SlowCommitTrace;
+
+import static java.util.Collections.emptyList;
+
 public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
 {
     DatabaseTracer NULL = new DatabaseTracer()
@@ -82,6 +90,18 @@ public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
         {
             return 0;
         }
+
+        @Override
+        public LatencyHistogram commitLatency( CommitStage stage )
+        {
+            return new LatencyHistogram();
+        }
+
+        @Override
+        public List<SlowCommitTrace> slowCommits()
+        {
+            return emptyList();
+        }
     };
 
     LogFileCreateEvent createLogFile();
@@ -19,15 +19,23 @@
  */
 package org.neo4j.kernel.impl.transaction.tracing;
 
+import java.util.List;
+
+import org.neo4j.kernel.impl.transaction.stats.CommitLatencyCounters;
+import org.neo4j.kernel.impl.transaction.stats.CommitStage;
+import org.neo4j.kernel.impl.transaction.stats.LatencyHistogram;
+import org.neo4j.kernel.impl.transaction.stats.SlowCommitTrace;
 import org.neo4j.kernel.impl.transaction.stats.TransactionLogCounters;
 
+import static java.util.Collections.emptyList;
+
 /**
  * The TransactionTracer is the root of the tracer hierarchy that gets notified about the life of transactions. The
  * events encapsulate the entire life of each transaction, but most of the events are concerned with what goes on
  * during commit. Implementers should take great care to make their implementations as fast as possible. Note that
  * tracers are not allowed to throw exceptions.
  */
-public interface TransactionTracer extends TransactionLogCounters
+public interface TransactionTracer extends TransactionLogCounters, CommitLatencyCounters
 {
     /**
      * A TransactionTracer implementation that does nothing, other than return the NULL variants of the companion
@@ -65,6 +73,18 @@ public interface TransactionTracer extends TransactionLogCounters
         {
             return 0;
         }
+
+        @Override
+        public LatencyHistogram commitLatency( CommitStage stage )
+        {
+            return new LatencyHistogram();
+        }
+
+        @Override
+        public List<SlowCommitTrace> slowCommits()
+        {
+            return emptyList();
+        }
     };
 
     /**
@@ -45,7 +45,21 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
 
     public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator )
     {
-        this.allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator );
+        this( blockAllocator, 0 );
+    }
+
+    /**
+     * @param blockAllocator allocator shared by all transactions.
+     * @param maxTransactionMemory the most memory that the collections created by this factory may hold at any one time,
+     * or zero for no limit other than that of the shared allocator. Allocations that would exceed it fail with a
+     * {@link MemoryAllocationLimitException}, which fails the owning transaction rather than the whole database.
+     */
+    public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator, long maxTransactionMemory )
+    {
+        OffHeapBlockAllocator transactionBlockAllocator = maxTransactionMemory > 0
+                ? new CapacityLimitingBlockAllocatorDecorator( blockAllocator, maxTransactionMemory )
+                : blockAllocator;
+        this.allocator = new OffHeapMemoryAllocator( memoryTracker, transactionBlockAllocator );
     }
 
     @Override
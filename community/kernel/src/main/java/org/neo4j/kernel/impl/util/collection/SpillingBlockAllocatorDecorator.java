@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.memory.MemoryAllocationTracker;
+import org.neo4j.util.VisibleForTesting;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static org.neo4j.internal.helpers.Numbers.ceilingPowerOfTwo;
+import static org.neo4j.internal.helpers.Numbers.log2floor;
+import static org.neo4j.util.Preconditions.checkState;
+import static org.neo4j.util.Preconditions.requirePositive;
+
+/**
+ * Block allocator that hands out blocks backed by a memory mapped temporary file, instead of native memory, once the
+ * transaction state asking for a block already uses more than {@code spillThreshold} bytes of native memory.
+ * Blocks are also spilled if the decorated allocator refuses an allocation because of the global off-heap limit.
+ * <p>
+ * The transaction state collections don't know the difference, but the operating system is free to write spilled
+ * blocks out to disk under memory pressure. Very large transactions thereby stop competing with the heap and the
+ * page cache for RAM. Spilled blocks are not counted as used direct memory by the given tracker. Instead, all spilled
+ * blocks together are limited to {@code maxSpillSize} bytes, beyond which allocations fail.
+ * <p>
+ * All blocks are spilled into a single file, which grows by mapping {@link #SEGMENT_SIZE} segments at its end and is
+ * deleted as soon as it is created. Spilled blocks are power of two sized slices of these segments. Freed slices are
+ * reused by later spilled blocks of the same size. Once no block is left in the segments at the end of the file, they
+ * are unmapped and the file is truncated, so that a single very large transaction doesn't hold on to disk space and
+ * mappings after it is done. Only a first segment of the regular size is kept, for the transactions that spill next.
+ * <p>
+ * This class is thread safe.
+ */
+public class SpillingBlockAllocatorDecorator implements OffHeapBlockAllocator
+{
+    static final long SEGMENT_SIZE = ByteUnit.mebiBytes( 64 );
+    static final long MIN_SLICE_SIZE = 64;
+    /**
+     * A single mapping can't be larger than {@link Integer#MAX_VALUE}, so this is the largest power of two slice.
+     */
+    static final long MAX_SLICE_SIZE = ByteUnit.gibiBytes( 1 );
+
+    private final OffHeapBlockAllocator impl;
+    private final long spillThreshold;
+    private final long maxSpillSize;
+    private final Path spillDirectory;
+    private final AtomicLong spilledBytes = new AtomicLong();
+    // Guarded by this
+    private final LongArrayList[] freeSlices = new LongArrayList[log2floor( MAX_SLICE_SIZE ) + 1];
+    private final List<Segment> segments = new ArrayList<>();
+    private FileChannel channel;
+    private long fileSize;
+    private long segmentPosition;
+    private long segmentRemaining;
+    private boolean released;
+
+    /**
+     * @param impl allocator of native memory.
+     * @param spillThreshold native memory a transaction can use before its blocks are spilled.
+     * @param maxSpillSize max number of bytes in use by spilled blocks of all transactions together.
+     * @param spillDirectory directory to create the spill file in.
+     */
+    public SpillingBlockAllocatorDecorator( OffHeapBlockAllocator impl, long spillThreshold, long maxSpillSize, Path spillDirectory )
+    {
+        this.impl = requireNonNull( impl );
+        this.spillThreshold = requirePositive( spillThreshold );
+        this.maxSpillSize = requirePositive( maxSpillSize );
+        this.spillDirectory = requireNonNull( spillDirectory );
+        for ( int i = 0; i < freeSlices.length; i++ )
+        {
+            freeSlices[i] = new LongArrayList();
+        }
+    }
+
+    @Override
+    public MemoryBlock allocate( long size, MemoryAllocationTracker tracker )
+    {
+        boolean spillable = size <= MAX_SLICE_SIZE;
+        if ( !spillable || tracker.usedDirectMemory() + size <= spillThreshold )
+        {
+            try
+            {
+                return impl.allocate( size, tracker );
+            }
+            catch ( MemoryAllocationLimitException e )
+            {
+                if ( !spillable )
+                {
+                    throw e;
+                }
+            }
+        }
+        return spill( size );
+    }
+
+    @Override
+    public void free( MemoryBlock block, MemoryAllocationTracker tracker )
+    {
+        if ( block instanceof SpilledMemoryBlock )
+        {
+            synchronized ( this )
+            {
+                if ( !released )
+                {
+                    freeSlices[log2floor( block.unalignedSize )].add( block.unalignedAddr );
+                    segmentOf( block.unalignedAddr ).usedBytes -= block.unalignedSize;
+                    trimEmptySegments();
+                }
+            }
+            spilledBytes.addAndGet( -block.unalignedSize );
+        }
+        else
+        {
+            impl.free( block, tracker );
+        }
+    }
+
+    @Override
+    public void release()
+    {
+        try
+        {
+            releaseSpillFile();
+        }
+        finally
+        {
+            impl.release();
+        }
+    }
+
+    /**
+     * @return number of bytes currently allocated in the spill file.
+     */
+    public long spilledBytes()
+    {
+        return spilledBytes.get();
+    }
+
+    @VisibleForTesting
+    synchronized long spillFileSize()
+    {
+        return fileSize;
+    }
+
+    private MemoryBlock spill( long size )
+    {
+        long sliceSize = Math.max( MIN_SLICE_SIZE, ceilingPowerOfTwo( size ) );
+        while ( true )
+        {
+            long spilledBefore = spilledBytes.get();
+            if ( spilledBefore + sliceSize > maxSpillSize )
+            {
+                throw new MemoryAllocationLimitException( size, spilledBefore, maxSpillSize );
+            }
+            if ( spilledBytes.compareAndSet( spilledBefore, spilledBefore + sliceSize ) )
+            {
+                break;
+            }
+        }
+        try
+        {
+            return new SpilledMemoryBlock( allocateSlice( sliceSize ), size, sliceSize );
+        }
+        catch ( Throwable t )
+        {
+            spilledBytes.addAndGet( -sliceSize );
+            throw t;
+        }
+    }
+
+    private synchronized long allocateSlice( long sliceSize )
+    {
+        checkState( !released, "Allocator is already released" );
+        LongArrayList free = freeSlices[log2floor( sliceSize )];
+        if ( !free.isEmpty() )
+        {
+            long address = free.removeAtIndex( free.size() - 1 );
+            segmentOf( address ).usedBytes += sliceSize;
+            return address;
+        }
+        if ( sliceSize > segmentRemaining )
+        {
+            // Keep the tail of the current segment for smaller blocks and continue in a new segment
+            retireSegmentTail();
+            mapSegment( Math.max( SEGMENT_SIZE, sliceSize ) );
+        }
+        long address = segmentPosition;
+        segmentPosition += sliceSize;
+        segmentRemaining -= sliceSize;
+        segments.get( segments.size() - 1 ).usedBytes += sliceSize;
+        return address;
+    }
+
+    private Segment segmentOf( long address )
+    {
+        // Blocks are mostly freed from the most recently mapped segments, and there are few segments anyway
+        for ( int i = segments.size() - 1; i >= 0; i-- )
+        {
+            Segment segment = segments.get( i );
+            if ( address >= segment.address && address < segment.address + segment.size )
+            {
+                return segment;
+            }
+        }
+        throw new IllegalStateException( "Spilled block at " + address + " is not in any segment of the spill file" );
+    }
+
+    private void trimEmptySegments()
+    {
+        while ( !segments.isEmpty() )
+        {
+            int last = segments.size() - 1;
+            Segment segment = segments.get( last );
+            if ( segment.usedBytes > 0 || (last == 0 && segment.size == SEGMENT_SIZE) )
+            {
+                return;
+            }
+            for ( LongArrayList free : freeSlices )
+            {
+                free.removeIf( address -> address >= segment.address && address < segment.address + segment.size );
+            }
+            segments.remove( last );
+            UnsafeUtil.invokeCleaner( segment.buffer );
+            fileSize -= segment.size;
+            // The bump allocation always happens in the last segment, which is gone now
+            segmentPosition = 0;
+            segmentRemaining = 0;
+            try
+            {
+                channel.truncate( fileSize );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( "Unable to truncate transaction state spill file in " + spillDirectory, e );
+            }
+        }
+    }
+
+    private void retireSegmentTail()
+    {
+        while ( segmentRemaining >= MIN_SLICE_SIZE )
+        {
+            long sliceSize = Math.min( Long.highestOneBit( segmentRemaining ), MAX_SLICE_SIZE );
+            freeSlices[log2floor( sliceSize )].add( segmentPosition );
+            segmentPosition += sliceSize;
+            segmentRemaining -= sliceSize;
+        }
+    }
+
+    private void mapSegment( long segmentSize )
+    {
+        try
+        {
+            if ( channel == null )
+            {
+                // The file is deleted right away where the platform allows it, and otherwise when the channel is closed
+                Files.createDirectories( spillDirectory );
+                Path file = Files.createTempFile( spillDirectory, "tx-state-", ".spill" );
+                channel = FileChannel.open( file, READ, WRITE, DELETE_ON_CLOSE );
+            }
+            // Mapping beyond the end of the file grows it
+            MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_WRITE, fileSize, segmentSize );
+            Segment segment = new Segment( buffer, UnsafeUtil.getDirectByteBufferAddress( buffer ), segmentSize );
+            segments.add( segment );
+            fileSize += segmentSize;
+            segmentPosition = segment.address;
+            segmentRemaining = segmentSize;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to spill " + segmentSize + " bytes of transaction state to " + spillDirectory, e );
+        }
+    }
+
+    private synchronized void releaseSpillFile()
+    {
+        released = true;
+        for ( LongArrayList free : freeSlices )
+        {
+            free.clear();
+        }
+        for ( Segment segment : segments )
+        {
+            UnsafeUtil.invokeCleaner( segment.buffer );
+        }
+        segments.clear();
+        segmentRemaining = 0;
+        if ( channel != null )
+        {
+            try
+            {
+                channel.close();
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( "Unable to close transaction state spill file in " + spillDirectory, e );
+            }
+            finally
+            {
+                channel = null;
+            }
+        }
+    }
+
+    private static class Segment
+    {
+        final MappedByteBuffer buffer;
+        final long address;
+        final long size;
+        // Bytes of this segment handed out in blocks that are not freed yet, guarded by the allocator
+        long usedBytes;
+
+        Segment( MappedByteBuffer buffer, long address, long size )
+        {
+            this.buffer = buffer;
+            this.address = address;
+            this.size = size;
+        }
+    }
+
+    private static class SpilledMemoryBlock extends MemoryBlock
+    {
+        SpilledMemoryBlock( long addr, long size, long sliceSize )
+        {
+            super( addr, size, addr, sliceSize );
+        }
+    }
+}
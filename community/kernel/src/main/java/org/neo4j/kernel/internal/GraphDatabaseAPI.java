@@ -86,4 +86,27 @@ public interface GraphDatabaseAPI extends GraphDatabaseService
      */
     InternalTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, long timeout,
             TimeUnit unit );
+
+    /**
+     * Begin internal transaction with specified type and access mode, which can be started as a read-only transaction
+     * @param type transaction type
+     * @param loginContext transaction login context
+     * @param clientInfo transaction client info
+     * @param readOnly whether or not to start a read-only transaction, which refuses all writes
+     * @return internal transaction
+     */
+    InternalTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, boolean readOnly );
+
+    /**
+     * Begin internal transaction with specified type, access mode and timeout, which can be started as a read-only transaction
+     * @param type transaction type
+     * @param loginContext transaction login context
+     * @param clientInfo transaction client info
+     * @param timeout transaction timeout
+     * @param unit time unit of timeout argument
+     * @param readOnly whether or not to start a read-only transaction, which refuses all writes
+     * @return internal transaction
+     */
+    InternalTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, long timeout,
+            TimeUnit unit, boolean readOnly );
 }
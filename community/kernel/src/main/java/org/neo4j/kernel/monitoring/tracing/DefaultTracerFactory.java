@@ -25,6 +25,7 @@ import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
+import org.neo4j.kernel.impl.transaction.stats.CommitLatencyMonitor;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.logging.Log;
 import org.neo4j.monitoring.Monitors;
@@ -54,4 +55,10 @@ public class DefaultTracerFactory implements TracerFactory
     {
         return new DefaultTracer();
     }
+
+    @Override
+    public DatabaseTracer createDatabaseTracer( Clock clock, Monitors monitors )
+    {
+        return new DefaultTracer( clock, monitors.newMonitor( CommitLatencyMonitor.class ) );
+    }
 }
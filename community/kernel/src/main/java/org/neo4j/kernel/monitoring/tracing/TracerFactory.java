@@ -61,6 +61,18 @@ public interface TracerFactory extends NamedService
      */
     DatabaseTracer createDatabaseTracer( Clock clock );
 
+    /**
+     * Create a new DatabaseTracer instance, that can report what it observes through the given monitors.
+     *
+     * @param clock system clock
+     * @param monitors the monitoring manager
+     * @return The created instance.
+     */
+    default DatabaseTracer createDatabaseTracer( Clock clock, Monitors monitors )
+    {
+        return createDatabaseTracer( clock );
+    }
+
     /**
      * Create a new LockTracer instance.
      *
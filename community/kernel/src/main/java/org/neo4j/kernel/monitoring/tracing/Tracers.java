@@ -106,6 +106,7 @@ public class Tracers
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final TracerFactory tracersFactory;
     private final SystemNanoClock clock;
+    private final Monitors monitors;
 
     /**
      * Create a Tracers subsystem with the desired implementation, if it can be found and created.
@@ -121,6 +122,7 @@ public class Tracers
             SystemNanoClock clock )
     {
         this.clock = clock;
+        this.monitors = monitors;
         this.tracersFactory = createTracersFactory( desiredImplementationName, msgLog );
         this.pageCursorTracerSupplier = tracersFactory.createPageCursorTracerSupplier();
         this.pageCacheTracer = tracersFactory.createPageCacheTracer( monitors, jobScheduler, clock, msgLog );
@@ -143,7 +145,7 @@ public class Tracers
 
     public DatabaseTracer getDatabaseTracer()
     {
-        return tracersFactory.createDatabaseTracer( clock );
+        return tracersFactory.createDatabaseTracer( clock, monitors );
     }
 
     private static TracerFactory createTracersFactory( String desiredImplementationName, Log msgLog )
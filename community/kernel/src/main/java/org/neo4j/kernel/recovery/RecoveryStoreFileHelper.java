@@ -45,6 +45,8 @@ class RecoveryStoreFileHelper
         storeFiles.remove( databaseLayout.countStore() );
         storeFiles.remove( databaseLayout.indexStatisticsStore() );
         storeFiles.remove( databaseLayout.labelScanStore() );
+        // the string compression dictionary only exists in formats that compress strings, the property store of those refuses to open without it
+        storeFiles.remove( databaseLayout.propertyStringDictionary() );
         return collectStoreFilesInfo( fileSystem, storeFiles );
     }
 
@@ -44,6 +44,7 @@ import org.neo4j.kernel.impl.factory.GraphDatabaseFacade;
 import org.neo4j.kernel.impl.locking.NoOpClient;
 import org.neo4j.kernel.impl.locking.SimpleStatementLocks;
 import org.neo4j.kernel.impl.locking.StatementLocks;
+import org.neo4j.kernel.impl.newapi.SharedCursorPool;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.internal.event.DatabaseTransactionEventListeners;
 import org.neo4j.lock.LockTracer;
@@ -94,7 +95,7 @@ public class KernelTransactionFactory
                         new CanWrite(), EmptyVersionContextSupplier.EMPTY, ON_HEAP,
                         new StandardConstraintSemantics(), mock( SchemaState.class ), mockedTokenHolders(),
                         mock( IndexingService.class ), mock( LabelScanStore.class ), mock( IndexStatisticsStore.class ), dependencies,
-                        new TestDatabaseIdRepository().defaultDatabase(), LeaseService.NO_LEASES );
+                        new TestDatabaseIdRepository().defaultDatabase(), LeaseService.NO_LEASES, SharedCursorPool.NO_SHARING );
 
         StatementLocks statementLocks = new SimpleStatementLocks( new NoOpClient() );
 
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -40,11 +41,14 @@ import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.internal.kernel.api.security.LoginContext;
 import org.neo4j.internal.kernel.api.security.SecurityContext;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.api.security.AnonymousContext;
 import org.neo4j.kernel.api.txstate.TransactionState;
 import org.neo4j.kernel.impl.api.transaction.trace.TransactionInitializationTrace;
+import org.neo4j.kernel.impl.context.TransactionVersionContextSupplier;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.NoOpClient;
 import org.neo4j.kernel.impl.locking.SimpleStatementLocks;
@@ -81,6 +85,7 @@ import static org.neo4j.internal.helpers.collection.MapUtil.map;
 import static org.neo4j.internal.kernel.api.connectioninfo.ClientConnectionInfo.EMBEDDED_CONNECTION;
 import static org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
 
 class KernelTransactionImplementationTest extends KernelTransactionTestBase
 {
@@ -345,6 +350,96 @@ class KernelTransactionImplementationTest extends KernelTransactionTestBase
         verifyExtraInteractionWithTheMonitor( transactionMonitor, isWriteTx );
     }
 
+    @Test
+    void shouldInitializeVersionContextOfThreadRunningStatementsWhenTransactionMovesBetweenThreads() throws Exception
+    {
+        // given a transaction started on this thread
+        AtomicLong lastClosedTransactionId = new AtomicLong( BASE_TX_ID );
+        versionContextSupplier = new TransactionVersionContextSupplier();
+        versionContextSupplier.init( lastClosedTransactionId::get );
+        KernelTransactionImplementation transaction = newTransaction( AUTH_DISABLED );
+        lastClosedTransactionId.set( BASE_TX_ID + 5 );
+
+        // when running a statement on another thread
+        var executorService = Executors.newSingleThreadExecutor();
+        try
+        {
+            Future<Long> readVersion = executorService.submit( () ->
+            {
+                try ( Statement ignored = transaction.acquireStatement() )
+                {
+                    return versionContextSupplier.getVersionContext().lastClosedTransactionId();
+                }
+            } );
+
+            // then reads on that thread are tracked against what was closed when the statement started
+            assertEquals( BASE_TX_ID + 5, readVersion.get( 1, TimeUnit.MINUTES ) );
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldKeepVersionContextBetweenStatementsOnSameThread()
+    {
+        // given
+        versionContextSupplier = new TransactionVersionContextSupplier();
+        versionContextSupplier.init( () -> BASE_TX_ID );
+        KernelTransactionImplementation transaction = newTransaction( AUTH_DISABLED );
+        VersionContext versionContext = versionContextSupplier.getVersionContext();
+        try ( Statement ignored = transaction.acquireStatement() )
+        {
+            versionContext.markAsDirty();
+        }
+
+        // when
+        try ( Statement ignored = transaction.acquireStatement() )
+        {
+            // then what the previous statement read is still accounted for
+            assertTrue( versionContext.isDirty() );
+        }
+    }
+
+    @Test
+    void shouldKeepVersionContextOfThreadThatRunsStatementsAgainAfterOtherThread() throws Exception
+    {
+        // given a statement on this thread that has read something
+        versionContextSupplier = new TransactionVersionContextSupplier();
+        versionContextSupplier.init( () -> BASE_TX_ID );
+        KernelTransactionImplementation transaction = newTransaction( AUTH_DISABLED );
+        VersionContext versionContext = versionContextSupplier.getVersionContext();
+        try ( Statement ignored = transaction.acquireStatement() )
+        {
+            versionContext.markAsDirty();
+        }
+
+        // and a statement on another thread
+        var executorService = Executors.newSingleThreadExecutor();
+        try
+        {
+            executorService.submit( () ->
+            {
+                try ( Statement ignored = transaction.acquireStatement() )
+                {
+                    return null;
+                }
+            } ).get( 1, TimeUnit.MINUTES );
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+
+        // when
+        try ( Statement ignored = transaction.acquireStatement() )
+        {
+            // then what the first statement on this thread read is still accounted for
+            assertTrue( versionContext.isDirty() );
+        }
+    }
+
     @ParameterizedTest
     @MethodSource( "parameters" )
     void shouldAllowTerminatingFromADifferentThread( String name, boolean isWriteTx, Consumer<KernelTransaction> transactionInitializer ) throws Exception
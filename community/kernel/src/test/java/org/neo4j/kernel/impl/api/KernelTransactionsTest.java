@@ -42,6 +42,7 @@ import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.graphdb.DatabaseShutdownException;
 import org.neo4j.graphdb.security.AuthorizationExpiredException;
+import org.neo4j.graphdb.security.AuthorizationViolationException;
 import org.neo4j.internal.id.IdController;
 import org.neo4j.internal.index.label.LabelScanStore;
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
@@ -117,7 +118,10 @@ import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.neo4j.internal.helpers.collection.Iterators.asSet;
 import static org.neo4j.internal.kernel.api.connectioninfo.ClientConnectionInfo.EMBEDDED_CONNECTION;
@@ -550,6 +554,90 @@ class KernelTransactionsTest
         assertEquals( 0, kernelTransactions.getNumberOfActiveTransactions() );
     }
 
+    @Test
+    void shouldNotAllocateLockClientForReadOnlyTransactions() throws Throwable
+    {
+        // given
+        Locks locks = mock( Locks.class );
+        when( locks.newClient() ).thenReturn( mock( Locks.Client.class ) );
+        KernelTransactions transactions = newKernelTransactions( locks, mockedStorageEngine(), mock( TransactionCommitProcess.class ), false,
+                Config.defaults() );
+
+        // when
+        try ( KernelTransaction tx = transactions.newInstance( explicit, AnonymousContext.read(), EMBEDDED_CONNECTION, 0L ) )
+        {
+            assertTrue( ((KernelTransactionImplementation) tx).isReadOnly() );
+            tx.commit();
+        }
+
+        // then
+        verify( locks, never() ).newClient();
+    }
+
+    @Test
+    void shouldStartReadOnlyTransactionWhenAskedToRegardlessOfAccessMode() throws Throwable
+    {
+        // given
+        Locks locks = mock( Locks.class );
+        when( locks.newClient() ).thenReturn( mock( Locks.Client.class ) );
+        TransactionCommitProcess commitProcess = mock( TransactionCommitProcess.class );
+        KernelTransactions transactions = newKernelTransactions( locks, mockedStorageEngine(), commitProcess, false, Config.defaults() );
+
+        // when
+        try ( KernelTransaction tx = transactions.newInstance( explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, 0L, true ) )
+        {
+            // then
+            assertTrue( ((KernelTransactionImplementation) tx).isReadOnly() );
+            assertThrows( AuthorizationViolationException.class, () -> tx.dataWrite().nodeCreate() );
+            assertThrows( AuthorizationViolationException.class, () -> tx.schemaWrite() );
+            tx.commit();
+        }
+        verify( locks, never() ).newClient();
+        verifyZeroInteractions( commitProcess );
+    }
+
+    @Test
+    void shouldAllocateLockClientWhenReadOnlyTransactionNeedsLocks() throws Throwable
+    {
+        // given
+        Locks locks = mock( Locks.class );
+        Locks.Client client = mock( Locks.Client.class );
+        when( locks.newClient() ).thenReturn( client );
+        KernelTransactions transactions = newKernelTransactions( locks, mockedStorageEngine(), mock( TransactionCommitProcess.class ), false,
+                Config.defaults() );
+
+        // when
+        try ( KernelTransaction tx = transactions.newInstance( explicit, AnonymousContext.read(), EMBEDDED_CONNECTION, 0L ) )
+        {
+            assertSame( client, ((KernelTransactionImplementation) tx).statementLocks().optimistic() );
+            tx.commit();
+        }
+
+        // then
+        verify( locks, times( 1 ) ).newClient();
+        verify( client ).close();
+    }
+
+    @Test
+    void shouldAllocateLockClientForWriteTransactions() throws Throwable
+    {
+        // given
+        Locks locks = mock( Locks.class );
+        when( locks.newClient() ).thenReturn( mock( Locks.Client.class ) );
+        KernelTransactions transactions = newKernelTransactions( locks, mockedStorageEngine(), mock( TransactionCommitProcess.class ), false,
+                Config.defaults() );
+
+        // when
+        try ( KernelTransaction tx = transactions.newInstance( explicit, AnonymousContext.write(), EMBEDDED_CONNECTION, 0L ) )
+        {
+            assertFalse( ((KernelTransactionImplementation) tx).isReadOnly() );
+            tx.commit();
+        }
+
+        // then
+        verify( locks, times( 1 ) ).newClient();
+    }
+
     @Test
     void trackNumberOfActiveTransactionFromMultipleThreads() throws Throwable
     {
@@ -755,6 +843,14 @@ class KernelTransactionsTest
         return new TestKernelTransactionHandle( tx );
     }
 
+    private static StorageEngine mockedStorageEngine()
+    {
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        when( storageEngine.newReader() ).thenReturn( mock( StorageReader.class ) );
+        when( storageEngine.newCommandCreationContext() ).thenReturn( mock( CommandCreationContext.class ) );
+        return storageEngine;
+    }
+
     private static KernelTransaction getKernelTransaction( KernelTransactions transactions )
     {
         return transactions.newInstance( implicit, AnonymousContext.access(), EMBEDDED_CONNECTION, 0L );
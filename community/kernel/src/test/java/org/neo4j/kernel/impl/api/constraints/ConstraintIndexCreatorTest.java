@@ -348,6 +348,13 @@ class ConstraintIndexCreatorTest
             return remember( createTransaction() );
         }
 
+        @Override
+        public KernelTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo clientInfo, long timeout,
+                boolean readOnly )
+        {
+            return remember( createTransaction() );
+        }
+
         @Override
         public KernelTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, ClientConnectionInfo connectionInfo )
         {
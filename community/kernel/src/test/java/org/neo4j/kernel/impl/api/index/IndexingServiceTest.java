@@ -44,6 +44,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -140,6 +143,7 @@ import static org.neo4j.common.TokenNameLookup.idTokenNameLookup;
 import static org.neo4j.configuration.GraphDatabaseSettings.SchemaIndex.NATIVE30;
 import static org.neo4j.configuration.GraphDatabaseSettings.SchemaIndex.NATIVE_BTREE10;
 import static org.neo4j.configuration.GraphDatabaseSettings.default_schema_provider;
+import static org.neo4j.configuration.GraphDatabaseSettings.index_update_parallelism;
 import static org.neo4j.configuration.GraphDatabaseSettings.multi_threaded_schema_index_population_enabled;
 import static org.neo4j.internal.helpers.collection.Iterators.asCollection;
 import static org.neo4j.internal.helpers.collection.Iterators.asResourceIterator;
@@ -808,6 +812,62 @@ class IndexingServiceTest
         verify( updater2 ).close();
     }
 
+    @Test
+    void shouldApplyUpdatesToIndexesInParallelWithUpdaterConfinedToOneThread() throws Exception
+    {
+        // Given
+        IndexDescriptor index1 = storeIndex( 1, 24, propertyKeyId, PROVIDER_DESCRIPTOR );
+        IndexDescriptor index2 = storeIndex( 2, 42, propertyKeyId, PROVIDER_DESCRIPTOR );
+        Map<IndexDescriptor,Integer> appliedUpdates = new ConcurrentHashMap<>();
+        IndexingService.Monitor monitor = new IndexingService.MonitorAdapter()
+        {
+            @Override
+            public void indexUpdatesApplied( IndexDescriptor descriptor, int updates, long applyTimeNanos )
+            {
+                appliedUpdates.put( descriptor, updates );
+            }
+        };
+        IndexingService indexing = newIndexingServiceWithMockedDependencies( populator, accessor, withData(), monitor, 4 );
+
+        Set<Thread> threads1 = ConcurrentHashMap.newKeySet();
+        Set<Thread> threads2 = ConcurrentHashMap.newKeySet();
+        IndexAccessor accessor1 = threadRecordingAccessor( threads1 );
+        IndexAccessor accessor2 = threadRecordingAccessor( threads2 );
+        when( indexProvider.getOnlineAccessor( eq( index1 ), any( IndexSamplingConfig.class ) ) ).thenReturn( accessor1 );
+        when( indexProvider.getOnlineAccessor( eq( index2 ), any( IndexSamplingConfig.class ) ) ).thenReturn( accessor2 );
+
+        life.start();
+        indexing.createIndexes( index1 );
+        indexing.createIndexes( index2 );
+        waitForIndexesToComeOnline( indexing, index1, index2 );
+
+        // When
+        indexing.applyUpdates( asList(
+                add( 1, "foo", index1 ),
+                add( 2, "bar", index2 ),
+                add( 3, "baz", index1 ) ) );
+
+        // Then
+        assertEquals( 2, appliedUpdates.get( index1 ) );
+        assertEquals( 1, appliedUpdates.get( index2 ) );
+        assertEquals( 1, threads1.size() );
+        assertEquals( 1, threads2.size() );
+    }
+
+    private static IndexAccessor threadRecordingAccessor( Set<Thread> threads ) throws Exception
+    {
+        IndexUpdater updater = mock( IndexUpdater.class );
+        doAnswer( invocation -> threads.add( Thread.currentThread() ) ).when( updater ).process( any() );
+        doAnswer( invocation -> threads.add( Thread.currentThread() ) ).when( updater ).close();
+        IndexAccessor accessor = mock( IndexAccessor.class );
+        when( accessor.newUpdater( any( IndexUpdateMode.class ) ) ).thenAnswer( invocation ->
+        {
+            threads.add( Thread.currentThread() );
+            return updater;
+        } );
+        return accessor;
+    }
+
     private void waitForIndexesToComeOnline( IndexingService indexing, IndexDescriptor... index )
             throws IndexNotFoundKernelException
     {
@@ -1380,7 +1440,7 @@ class IndexingServiceTest
         IndexingService indexingService =
                 new IndexingService( indexProxyCreator, indexProviderMap, indexMapReference, mock( IndexStoreView.class ), schemaRules, samplingController,
                         idTokenNameLookup, scheduler, null, multiPopulatorFactory, logProvider, logProvider, monitor, mock( IndexStatisticsStore.class ),
-                        false );
+                        false, 1 );
         // and where index population starts
         indexingService.init();
 
@@ -1516,6 +1576,12 @@ class IndexingServiceTest
 
     private IndexingService newIndexingServiceWithMockedDependencies(
             IndexPopulator populator, IndexAccessor accessor, DataUpdates data, IndexingService.Monitor monitor, IndexDescriptor... rules ) throws IOException
+    {
+        return newIndexingServiceWithMockedDependencies( populator, accessor, data, monitor, 1, rules );
+    }
+
+    private IndexingService newIndexingServiceWithMockedDependencies( IndexPopulator populator, IndexAccessor accessor, DataUpdates data,
+            IndexingService.Monitor monitor, int updateParallelism, IndexDescriptor... rules ) throws IOException
     {
         when( indexProvider.getInitialState( any( IndexDescriptor.class ) ) ).thenReturn( ONLINE );
         when( indexProvider.getProviderDescriptor() ).thenReturn( PROVIDER_DESCRIPTOR );
@@ -1529,6 +1595,7 @@ class IndexingServiceTest
 
         Config config = Config.newBuilder()
                 .set( multi_threaded_schema_index_population_enabled, false )
+                .set( index_update_parallelism, updateParallelism )
                 .set( default_schema_provider, PROVIDER_DESCRIPTOR.name() ).build();
 
         DefaultIndexProviderMap providerMap = life.add( new DefaultIndexProviderMap( buildIndexDependencies( indexProvider, fulltextProvider() ), config ) );
@@ -1689,7 +1756,7 @@ class IndexingServiceTest
                 indexMapReference, mock( IndexStoreView.class ), Collections.emptyList(),
                 mock( IndexSamplingController.class ), nameLookup,
                 mock( JobScheduler.class ), mock( SchemaState.class ), mock( MultiPopulatorFactory.class ),
-                internalLogProvider, userLogProvider, IndexingService.NO_MONITOR, mock( IndexStatisticsStore.class ), false );
+                internalLogProvider, userLogProvider, IndexingService.NO_MONITOR, mock( IndexStatisticsStore.class ), false, 1 );
     }
 
     private static DependencyResolver buildIndexDependencies( Object... providers )
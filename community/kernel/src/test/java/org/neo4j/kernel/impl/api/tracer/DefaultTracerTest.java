@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.tracer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.stats.CommitStage;
+import org.neo4j.kernel.impl.transaction.stats.SlowCommitTrace;
+import org.neo4j.kernel.impl.transaction.tracing.CommandCreationEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.time.Clocks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DefaultTracerTest
+{
+    private final List<SlowCommitTrace> monitoredSlowCommits = new ArrayList<>();
+    private final DefaultTracer tracer = new DefaultTracer( Clocks.fakeClock(), monitoredSlowCommits::add );
+
+    @Test
+    void mustRecordLatencyOfAllStagesOfWritingCommit()
+    {
+        commit( 0 );
+
+        for ( CommitStage stage : CommitStage.values() )
+        {
+            assertEquals( 1, tracer.commitLatency( stage ).count(), stage.name() );
+        }
+    }
+
+    @Test
+    void mustNotRecordLatencyOfCommitsThatDoNotAppendToTheLog()
+    {
+        try ( CommitEvent commitEvent = tracer.beginTransaction().beginCommitEvent() )
+        {
+            commitEvent.beginCommitLocks().close();
+        }
+
+        for ( CommitStage stage : CommitStage.values() )
+        {
+            assertEquals( 0, tracer.commitLatency( stage ).count(), stage.name() );
+        }
+    }
+
+    @Test
+    void mustReuseCommitEventsOfCommittingThread()
+    {
+        CommitEvent first;
+        try ( CommitEvent commitEvent = tracer.beginTransaction().beginCommitEvent() )
+        {
+            first = commitEvent;
+        }
+        try ( CommitEvent commitEvent = tracer.beginTransaction().beginCommitEvent() )
+        {
+            assertSame( first, commitEvent );
+        }
+    }
+
+    @Test
+    void nestedCommitsMustBeRecordedSeparately()
+    {
+        try ( CommitEvent commitEvent = tracer.beginTransaction().beginCommitEvent() )
+        {
+            commit( 0 );
+            try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+            {
+                logAppendEvent.appendToLogFile( new LogPosition( 0, 0 ), new LogPosition( 0, 10 ) );
+            }
+        }
+
+        assertEquals( 2, tracer.commitLatency( CommitStage.TOTAL ).count() );
+        assertEquals( 1, tracer.commitLatency( CommitStage.STORE_APPLY ).count() );
+        assertEquals( 20, tracer.appendedBytes() );
+    }
+
+    @Test
+    void mustTraceSlowCommits()
+    {
+        commit( 0 );
+        commit( TimeUnit.MILLISECONDS.toNanos( 20 ) );
+
+        List<SlowCommitTrace> slowCommits = tracer.slowCommits();
+        assertEquals( 1, slowCommits.size() );
+        assertEquals( slowCommits, monitoredSlowCommits );
+        SlowCommitTrace trace = slowCommits.get( 0 );
+        assertTrue( trace.stageNanos( CommitStage.STORE_APPLY ) >= TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        assertTrue( trace.stageNanos( CommitStage.TOTAL ) >= trace.stageNanos( CommitStage.STORE_APPLY ) );
+    }
+
+    private void commit( long storeApplyNanos )
+    {
+        try ( CommitEvent commitEvent = tracer.beginTransaction().beginCommitEvent() )
+        {
+            try ( CommitLocksEvent ignored = commitEvent.beginCommitLocks() )
+            {
+                // locking
+            }
+            try ( CommandCreationEvent ignored = commitEvent.beginCommandCreation() )
+            {
+                // command creation
+            }
+            try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+            {
+                try ( SerializeTransactionEvent ignored = logAppendEvent.beginSerializeTransaction() )
+                {
+                    logAppendEvent.appendToLogFile( new LogPosition( 0, 0 ), new LogPosition( 0, 10 ) );
+                }
+                try ( LogForceWaitEvent ignored = logAppendEvent.beginLogForceWait();
+                      LogForceEvent ignored2 = logAppendEvent.beginLogForce() )
+                {
+                    // forcing
+                }
+            }
+            try ( StoreApplyEvent ignored = commitEvent.beginStoreApply() )
+            {
+                busyWait( storeApplyNanos );
+            }
+        }
+    }
+
+    private static void busyWait( long nanos )
+    {
+        long end = System.nanoTime() + nanos;
+        while ( System.nanoTime() < end )
+        {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotReaderTest
+{
+    private final AtomicLong lastClosedTxId = new AtomicLong( 10 );
+    private final TransactionVersionContextSupplier versionContextSupplier = new TransactionVersionContextSupplier();
+
+    @Test
+    void shouldReturnResultOfStableRead() throws Exception
+    {
+        // given
+        versionContextSupplier.init( lastClosedTxId::get );
+        SnapshotReader reader = new SnapshotReader( versionContextSupplier, 3 );
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        int result = reader.read( attempts::incrementAndGet );
+
+        // then
+        assertEquals( 1, result );
+        assertEquals( 1, attempts.get() );
+    }
+
+    @Test
+    void shouldRetryReadAgainstLatestClosedTransactionUntilStable() throws Exception
+    {
+        // given
+        versionContextSupplier.init( lastClosedTxId::get );
+        SnapshotReader reader = new SnapshotReader( versionContextSupplier, 5 );
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        long snapshotTxId = reader.read( () ->
+        {
+            VersionContext versionContext = versionContextSupplier.getVersionContext();
+            if ( attempts.incrementAndGet() < 3 )
+            {
+                // a concurrent transaction closes and modifies a page we are reading
+                lastClosedTxId.incrementAndGet();
+                versionContext.markAsDirty();
+            }
+            return versionContext.lastClosedTransactionId();
+        } );
+
+        // then
+        assertEquals( 3, attempts.get() );
+        assertEquals( 12, snapshotTxId );
+    }
+
+    @Test
+    void shouldGiveUpWhenNoAttemptIsStable()
+    {
+        // given
+        versionContextSupplier.init( lastClosedTxId::get );
+        SnapshotReader reader = new SnapshotReader( versionContextSupplier, 4 );
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        assertThrows( UnstableSnapshotException.class, () -> reader.read( () ->
+        {
+            attempts.incrementAndGet();
+            versionContextSupplier.getVersionContext().markAsDirty();
+            return null;
+        } ) );
+
+        // then
+        assertEquals( 4, attempts.get() );
+    }
+
+    @Test
+    void shouldReadOnceWhenSnapshotsAreNotTracked() throws Exception
+    {
+        // given
+        SnapshotReader reader = new SnapshotReader( EmptyVersionContextSupplier.EMPTY, 4 );
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        reader.read( () ->
+        {
+            EmptyVersionContextSupplier.EMPTY.getVersionContext().markAsDirty();
+            return attempts.incrementAndGet();
+        } );
+
+        // then
+        assertEquals( 1, attempts.get() );
+    }
+}
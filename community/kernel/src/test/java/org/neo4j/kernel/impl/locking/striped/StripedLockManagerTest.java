@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.LockCountVisitor;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.actors.Actor;
+import org.neo4j.test.extension.actors.ActorsExtension;
+import org.neo4j.time.Clocks;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.lock.ResourceTypes.NODE;
+
+@ActorsExtension
+class StripedLockManagerTest
+{
+    private static final int RESOURCES = 4;
+
+    @Inject
+    private Actor actor;
+
+    private final StripedLockManager locks = new StripedLockManager( Config.defaults(), Clocks.systemClock(), ResourceTypes.values() );
+
+    @AfterEach
+    void tearDown()
+    {
+        locks.close();
+    }
+
+    @Test
+    void mustGrantExclusiveLocksToOneClientAtATime() throws Throwable
+    {
+        long[] counters = new long[RESOURCES];
+        int threads = 8;
+        int iterations = 2_000;
+        Race race = new Race();
+        race.addContestants( threads, () ->
+        {
+            try ( Locks.Client client = locks.newClient() )
+            {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for ( int i = 0; i < iterations; i++ )
+                {
+                    int resource = random.nextInt( RESOURCES );
+                    boolean upgrade = random.nextBoolean();
+                    if ( upgrade )
+                    {
+                        client.acquireShared( LockTracer.NONE, NODE, resource );
+                    }
+                    try
+                    {
+                        client.acquireExclusive( LockTracer.NONE, NODE, resource );
+                    }
+                    catch ( DeadlockDetectedException e )
+                    {
+                        // Two clients upgrading the same shared lock is a genuine deadlock, one of them has to give up.
+                        client.releaseShared( NODE, resource );
+                        i--;
+                        continue;
+                    }
+                    long value = counters[resource];
+                    Thread.yield();
+                    counters[resource] = value + 1;
+                    client.releaseExclusive( NODE, resource );
+                    if ( upgrade )
+                    {
+                        client.releaseShared( NODE, resource );
+                    }
+                }
+            }
+        } );
+
+        race.go();
+
+        long total = 0;
+        for ( long counter : counters )
+        {
+            total += counter;
+        }
+        assertEquals( (long) threads * iterations, total );
+        assertNoLocksLeftBehind();
+    }
+
+    @Test
+    void mustUnlinkLocksWhenNoLongerHeldOrWaitedFor() throws Exception
+    {
+        Locks.Client holder = locks.newClient();
+        Locks.Client waiter = locks.newClient();
+        holder.acquireExclusive( LockTracer.NONE, NODE, 1 );
+        holder.acquireShared( LockTracer.NONE, NODE, 2 );
+        holder.acquireShared( LockTracer.NONE, NODE, 2 );
+
+        Future<Void> waiting = actor.submit( () -> waiter.acquireShared( LockTracer.NONE, NODE, 1 ) );
+        actor.untilWaitingIn( StripedLockClient.class.getDeclaredMethod( "park", long.class ) );
+        holder.releaseExclusive( NODE, 1 );
+        waiting.get();
+        holder.releaseShared( NODE, 2 );
+        waiter.releaseShared( NODE, 1 );
+
+        // One re-entrant shared hold of resource 2 remains
+        LockCountVisitor visitor = new LockCountVisitor();
+        locks.accept( visitor );
+        assertEquals( 1, visitor.getLockCount() );
+        assertNull( locks.existingLock( NODE, 1 ) );
+
+        holder.close();
+        waiter.close();
+        assertNoLocksLeftBehind();
+    }
+
+    @Test
+    void mustDetectDeadlockBetweenClientsUpgradingTheSameSharedLock() throws Exception
+    {
+        try ( Locks.Client clientA = locks.newClient();
+              Locks.Client clientB = locks.newClient() )
+        {
+            clientA.acquireShared( LockTracer.NONE, NODE, 1 );
+            clientB.acquireShared( LockTracer.NONE, NODE, 1 );
+
+            Future<Void> upgradeA = actor.submit( () -> clientA.acquireExclusive( LockTracer.NONE, NODE, 1 ) );
+            actor.untilWaitingIn( StripedLockClient.class.getDeclaredMethod( "park", long.class ) );
+
+            DeadlockDetectedException deadlock = assertThrows( DeadlockDetectedException.class,
+                    () -> clientB.acquireExclusive( LockTracer.NONE, NODE, 1 ) );
+            assertThat( deadlock.getMessage(), containsString( clientB.toString() ) );
+
+            // Once the deadlocked client lets go of its shared lock the other one gets to upgrade
+            clientB.releaseShared( NODE, 1 );
+            upgradeA.get();
+        }
+        assertNoLocksLeftBehind();
+    }
+
+    private void assertNoLocksLeftBehind()
+    {
+        LockCountVisitor visitor = new LockCountVisitor();
+        locks.accept( visitor );
+        assertEquals( 0, visitor.getLockCount() );
+        for ( long resource = 0; resource < RESOURCES; resource++ )
+        {
+            assertNull( locks.existingLock( NODE, resource ), "lock on node " + resource + " was not unlinked" );
+        }
+    }
+}
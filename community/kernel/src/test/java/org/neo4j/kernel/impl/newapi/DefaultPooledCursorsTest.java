@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.internal.util.reflection.FieldSetter;
+
+import org.neo4j.internal.kernel.api.security.SecurityContext;
+import org.neo4j.kernel.impl.api.KernelTransactionImplementation;
+import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StorageReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DefaultPooledCursorsTest
+{
+    private final SharedCursorPool sharedPool = new SharedCursorPool( 4 );
+    private Read read;
+
+    @BeforeEach
+    void setUp() throws NoSuchFieldException
+    {
+        read = mock( Read.class );
+        KernelTransactionImplementation ktx = mock( KernelTransactionImplementation.class );
+        FieldSetter.setField( read, Read.class.getDeclaredField( "ktx" ), ktx );
+        when( ktx.securityContext() ).thenReturn( SecurityContext.AUTH_DISABLED );
+    }
+
+    @Test
+    void shouldKeepPooledCursorsBetweenTransactions()
+    {
+        // given
+        DefaultPooledCursors cursors = new DefaultPooledCursors( storageReader(), sharedPool );
+        DefaultNodeCursor cursor = cursors.allocateNodeCursor();
+        use( cursor );
+
+        // when
+        cursors.release();
+
+        // then
+        assertSame( cursor, cursors.allocateNodeCursor() );
+    }
+
+    @Test
+    void shouldHandOverPooledCursorsToOtherTransactionsWhenDisposed()
+    {
+        // given
+        DefaultPooledCursors first = new DefaultPooledCursors( storageReader(), sharedPool );
+        DefaultNodeCursor cursor = first.allocateNodeCursor();
+        use( cursor );
+
+        // when
+        first.dispose();
+        StorageReader secondReader = storageReader();
+        DefaultPooledCursors second = new DefaultPooledCursors( secondReader, sharedPool );
+
+        // then
+        assertSame( cursor, second.allocateNodeCursor() );
+        verify( secondReader, never() ).allocateNodeCursor();
+        assertEquals( 0, sharedPool.nodeCursors.size() );
+    }
+
+    @Test
+    void shouldShareCursorsWhichDoNotFitInOwnPool()
+    {
+        // given
+        DefaultPooledCursors first = new DefaultPooledCursors( storageReader(), sharedPool );
+        DefaultNodeCursor cursor1 = first.allocateNodeCursor();
+        DefaultNodeCursor cursor2 = first.allocateNodeCursor();
+        assertNotSame( cursor1, cursor2 );
+
+        // when
+        use( cursor1 );
+        use( cursor2 );
+
+        // then
+        assertEquals( 1, sharedPool.nodeCursors.size() );
+        DefaultPooledCursors second = new DefaultPooledCursors( storageReader(), sharedPool );
+        assertSame( cursor1, second.allocateNodeCursor() );
+        assertSame( cursor2, first.allocateNodeCursor() );
+    }
+
+    @Test
+    void shouldReturnSharedCursorToTheFactoryThatTookIt()
+    {
+        // given
+        DefaultPooledCursors first = new DefaultPooledCursors( storageReader(), sharedPool );
+        use( first.allocateNodeCursor() );
+        first.dispose();
+        DefaultPooledCursors second = new DefaultPooledCursors( storageReader(), sharedPool );
+        DefaultNodeCursor cursor = second.allocateNodeCursor();
+
+        // when
+        use( cursor );
+
+        // then
+        assertSame( cursor, second.allocateNodeCursor() );
+        assertEquals( 0, sharedPool.nodeCursors.size() );
+    }
+
+    @Test
+    void shouldReleaseStorageCursorsBeforeSharingThem()
+    {
+        // given
+        StorageReader storageReader = storageReader();
+        DefaultPooledCursors cursors = new DefaultPooledCursors( storageReader, sharedPool );
+        DefaultNodeCursor cursor = cursors.allocateNodeCursor();
+        StorageNodeCursor storeCursor = storageReader.allocateNodeCursor();
+        use( cursor );
+
+        // when
+        cursors.dispose();
+
+        // then
+        verify( storeCursor, times( 1 ) ).close();
+    }
+
+    @Test
+    void shouldNotShareCursorsWithoutSharedPool()
+    {
+        // given
+        DefaultPooledCursors first = new DefaultPooledCursors( storageReader() );
+        use( first.allocateNodeCursor() );
+        first.dispose();
+
+        // when
+        StorageReader secondReader = storageReader();
+        new DefaultPooledCursors( secondReader ).allocateNodeCursor();
+
+        // then
+        verify( secondReader, times( 1 ) ).allocateNodeCursor();
+    }
+
+    private void use( DefaultNodeCursor cursor )
+    {
+        cursor.single( 0, read );
+        cursor.close();
+    }
+
+    private static StorageReader storageReader()
+    {
+        StorageReader storageReader = mock( StorageReader.class );
+        StorageNodeCursor storeCursor = mock( StorageNodeCursor.class );
+        when( storageReader.allocateNodeCursor() ).thenReturn( storeCursor );
+        return storageReader;
+    }
+}
@@ -97,6 +97,7 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.containsStringIgnoringCase;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -279,6 +280,33 @@ class OperationsTest
         highLowIdOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    void shouldAcquireDeclaredLocksSortedWithOneCallPerResourceType()
+    {
+        // WHEN
+        long[] nodeIds = {7, 2, 9, 2, 4};
+        long[] relationshipIds = {30, 10, 20};
+        allStoreHolder.acquireExclusiveLocksInOrder( nodeIds, relationshipIds );
+
+        // THEN
+        InOrder lockingOrder = inOrder( locks );
+        lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 2, 4, 7, 9 );
+        lockingOrder.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, 10, 20, 30 );
+        lockingOrder.verifyNoMoreInteractions();
+        assertArrayEquals( new long[]{7, 2, 9, 2, 4}, nodeIds );
+    }
+
+    @Test
+    void shouldNotCallLockClientForEmptyDeclaredLocks()
+    {
+        // WHEN
+        allStoreHolder.acquireExclusiveLocksInOrder( EMPTY_LONG_ARRAY, new long[]{5} );
+
+        // THEN
+        verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, 5 );
+        verifyNoMoreInteractions( locks );
+    }
+
     @Test
     void shouldAcquireEntityWriteLockBeforeAddingLabelToNode() throws Exception
     {
@@ -1102,7 +1130,7 @@ class OperationsTest
         // then
         InOrder inOrder = inOrder( ktx, commandCreationContext );
         inOrder.verify( ktx ).txState();
-        inOrder.verify( commandCreationContext ).reserveRelationship();
+        inOrder.verify( commandCreationContext ).reserveRelationship( 0 );
         inOrder.verifyNoMoreInteractions();
     }
 
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.availability.AvailabilityGuard;
+import org.neo4j.kernel.impl.api.LeaseService;
+import org.neo4j.kernel.impl.api.TransactionCommitProcess;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.logging.internal.NullLogService;
+import org.neo4j.storageengine.api.NodeCompactionPass;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.time.Clocks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+class StoreCompactionTest
+{
+    private static final int NODES_PER_RUN = 10;
+
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final NodeCompactionPass pass = mock( NodeCompactionPass.class );
+    private final NodeCompactionPass otherPass = mock( NodeCompactionPass.class );
+    private final TransactionCommitProcess commitProcess = mock( TransactionCommitProcess.class );
+    private final Locks locks = mock( Locks.class );
+    private final AvailabilityGuard availabilityGuard = mock( AvailabilityGuard.class );
+    private final IOLimiter ioLimiter = mock( IOLimiter.class );
+    private final PageCursorTracer cursorTracer = mock( PageCursorTracer.class );
+    private final AtomicLong pins = new AtomicLong();
+    private StoreCompaction compaction;
+
+    @BeforeEach
+    void setUp()
+    {
+        when( storageEngine.compactionPasses() ).thenReturn( List.of( pass ) );
+        compaction = newStoreCompaction();
+        when( locks.newClient() ).thenReturn( mock( Locks.Client.class ) );
+        when( availabilityGuard.isAvailable() ).thenReturn( true );
+        when( cursorTracer.pins() ).thenAnswer( invocation -> pins.get() );
+    }
+
+    @Test
+    void shouldCommitEachRewrittenNodeInTransactionOfItsOwn() throws Exception
+    {
+        // given nodes 2 and 5 are fragmented, of 7 nodes in total
+        storeWithNodes( 7, 2, 5 );
+
+        // when
+        compaction.run();
+
+        // then
+        verify( commitProcess, times( 2 ) ).commit( any(), any(), eq( INTERNAL ) );
+    }
+
+    @Test
+    void shouldLimitIOOfPagesPinnedWhileScanningAndPagesDirtiedByCommit()
+    {
+        // given nodes 2 and 5 are fragmented, of 7 nodes in total, and visiting a node pins one page
+        storeWithNodes( 7, 2, 5 );
+
+        // when
+        compaction.run();
+
+        // then three scans, visiting 3, 3 and 1 nodes, where the first two commit a command each
+        ArgumentCaptor<Integer> ios = ArgumentCaptor.forClass( Integer.class );
+        verify( ioLimiter, times( 3 ) ).maybeLimitIO( anyLong(), ios.capture(), any() );
+        assertEquals( List.of( 4, 4, 1 ), ios.getAllValues() );
+    }
+
+    @Test
+    void shouldContinueWhereThePreviousRunStopped()
+    {
+        // given
+        storeWithNodes( 25 );
+
+        // when
+        compaction.run();
+        compaction.run();
+        compaction.run();
+
+        // then
+        verify( pass ).createCompactionCommands( eq( 0L ), eq( NODES_PER_RUN ), any(), any() );
+        verify( pass ).createCompactionCommands( eq( 10L ), eq( NODES_PER_RUN ), any(), any() );
+        verify( pass ).createCompactionCommands( eq( 20L ), eq( NODES_PER_RUN ), any(), any() );
+    }
+
+    @Test
+    void shouldRunEachPassOverTheStoreOnItsOwn() throws Exception
+    {
+        // given node 2 needs the first pass and node 7 the other one
+        when( storageEngine.compactionPasses() ).thenReturn( List.of( pass, otherPass ) );
+        compaction = newStoreCompaction();
+        storeWithNodes( pass, 25, 2 );
+        storeWithNodes( otherPass, 25, 7 );
+
+        // when
+        compaction.run();
+        compaction.run();
+
+        // then each pass continues from its own position
+        verify( pass ).createCompactionCommands( eq( 0L ), eq( NODES_PER_RUN ), any(), any() );
+        verify( pass ).createCompactionCommands( eq( 3L ), eq( NODES_PER_RUN - 3 ), any(), any() );
+        verify( pass ).createCompactionCommands( eq( 10L ), eq( NODES_PER_RUN ), any(), any() );
+        verify( otherPass ).createCompactionCommands( eq( 0L ), eq( NODES_PER_RUN ), any(), any() );
+        verify( otherPass ).createCompactionCommands( eq( 8L ), eq( NODES_PER_RUN - 8 ), any(), any() );
+        verify( otherPass ).createCompactionCommands( eq( 10L ), eq( NODES_PER_RUN ), any(), any() );
+        verify( commitProcess, times( 2 ) ).commit( any(), any(), eq( INTERNAL ) );
+    }
+
+    @Test
+    void shouldStartOverWhenReachingTheEndOfTheStore()
+    {
+        // given
+        storeWithNodes( 5 );
+
+        // when
+        compaction.run();
+        compaction.run();
+
+        // then
+        verify( pass, times( 2 ) ).createCompactionCommands( eq( 0L ), eq( NODES_PER_RUN ), any(), any() );
+    }
+
+    @Test
+    void shouldNotCompactWhenDatabaseIsUnavailable()
+    {
+        // given
+        storeWithNodes( 5, 1 );
+        when( availabilityGuard.isAvailable() ).thenReturn( false );
+
+        // when
+        compaction.run();
+
+        // then
+        verifyZeroInteractions( pass, commitProcess );
+    }
+
+    @Test
+    void shouldNotCompactAfterStop() throws Exception
+    {
+        // given
+        storeWithNodes( 5, 1 );
+
+        // when
+        compaction.stop();
+        compaction.run();
+
+        // then
+        verify( pass, never() ).createCompactionCommands( anyLong(), anyInt(), any(), any() );
+        verifyZeroInteractions( commitProcess );
+    }
+
+    private StoreCompaction newStoreCompaction()
+    {
+        return new StoreCompaction( storageEngine, commitProcess, mock( TransactionIdStore.class ), locks, LeaseService.NO_LEASES,
+                availabilityGuard, ioLimiter, () -> cursorTracer, Clocks.nanoClock(), NODES_PER_RUN, NullLogService.getInstance() );
+    }
+
+    private void storeWithNodes( long highId, long... fragmentedNodes )
+    {
+        storeWithNodes( pass, highId, fragmentedNodes );
+    }
+
+    /**
+     * Makes the given mocked pass behave like a pass over a store with {@code highId} nodes, where the given nodes are fragmented.
+     */
+    @SuppressWarnings( "unchecked" )
+    private void storeWithNodes( NodeCompactionPass pass, long highId, long... fragmentedNodes )
+    {
+        when( pass.createCompactionCommands( anyLong(), anyInt(), any(), any() ) ).thenAnswer( invocation ->
+        {
+            long nodeId = invocation.getArgument( 0 );
+            int maxNodesToVisit = invocation.getArgument( 1 );
+            Collection<StorageCommand> target = invocation.getArgument( 2 );
+            for ( int visited = 0; visited < maxNodesToVisit && nodeId < highId; visited++, nodeId++ )
+            {
+                pins.incrementAndGet();
+                for ( long fragmentedNode : fragmentedNodes )
+                {
+                    if ( fragmentedNode == nodeId )
+                    {
+                        target.add( mock( StorageCommand.class ) );
+                        return nodeId + 1;
+                    }
+                }
+            }
+            return nodeId < highId ? nodeId : -1;
+        } );
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Collections;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.monitoring.DatabaseHealth;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_START;
+import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
+
+@Neo4jLayoutExtension
+class RawTransactionLogReaderTest
+{
+    @Inject
+    private DefaultFileSystemAbstraction fileSystem;
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    private final LifeSupport life = new LifeSupport();
+    private final TransactionMetadataCache metadataCache = new TransactionMetadataCache();
+    private LogFiles logFiles;
+    private TransactionAppender appender;
+    private RawTransactionLogReader reader;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        TransactionIdStore transactionIdStore = new SimpleTransactionIdStore();
+        logFiles = LogFilesBuilder.builder( databaseLayout, fileSystem )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( new SimpleLogVersionRepository() )
+                .withLogEntryReader( logEntryReader() )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+        life.add( logFiles );
+        appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, metadataCache, transactionIdStore,
+                mock( DatabaseHealth.class ) ) );
+        reader = life.add( new RawTransactionLogReader( logFiles, metadataCache, logEntryReader() ) );
+        life.start();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        life.shutdown();
+    }
+
+    @Test
+    void shouldProvideBytesOfTransactionInRotatedLogFile() throws IOException
+    {
+        appendTransaction();
+        appendTransaction();
+        logFiles.getLogFile().rotate();
+
+        ByteBuffer first = reader.transaction( BASE_TX_ID + 1 );
+        ByteBuffer second = reader.transaction( BASE_TX_ID + 2 );
+
+        assertTrue( first.isReadOnly() );
+        assertEquals( TX_START, first.get( 1 ) );
+        assertEquals( TX_START, second.get( 1 ) );
+        assertEquals( first.remaining(), second.remaining() );
+        TransactionMetadataCache.TransactionMetadata metadata = metadataCache.getTransactionMetadata( BASE_TX_ID + 1 );
+        assertEquals( metadata.getEndPosition().getByteOffset() - metadata.getStartPosition().getByteOffset(), first.remaining() );
+    }
+
+    @Test
+    void shouldLocateTransactionNotInMetadataCache() throws IOException
+    {
+        appendTransaction();
+        logFiles.getLogFile().rotate();
+        byte[] cached = bytesOf( reader.transaction( BASE_TX_ID + 1 ) );
+
+        metadataCache.clear();
+
+        assertArrayEquals( cached, bytesOf( reader.transaction( BASE_TX_ID + 1 ) ) );
+    }
+
+    @Test
+    void shouldTransferSameBytesAsMapped() throws IOException
+    {
+        appendTransaction();
+        appendTransaction();
+        logFiles.getLogFile().rotate();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long transferred = reader.transferTransaction( BASE_TX_ID + 2, Channels.newChannel( out ) );
+
+        byte[] mapped = bytesOf( reader.transaction( BASE_TX_ID + 2 ) );
+        assertEquals( mapped.length, transferred );
+        assertArrayEquals( mapped, out.toByteArray() );
+    }
+
+    @Test
+    void shouldMapOnlyTransactionOfLogFileTooLargeToMapAsWhole() throws IOException
+    {
+        appendTransaction();
+        appendTransaction();
+        logFiles.getLogFile().rotate();
+        RawTransactionLogReader rangeReader = life.add( new RawTransactionLogReader( logFiles, metadataCache, logEntryReader(), 1 ) );
+
+        ByteBuffer second = rangeReader.transaction( BASE_TX_ID + 2 );
+
+        assertTrue( second.isReadOnly() );
+        assertEquals( 0, second.position() );
+        assertArrayEquals( bytesOf( reader.transaction( BASE_TX_ID + 2 ) ), bytesOf( second ) );
+    }
+
+    @Test
+    void shouldNotProvideTransactionInCurrentLogFile() throws IOException
+    {
+        appendTransaction();
+
+        assertThrows( NoSuchTransactionException.class, () -> reader.transaction( BASE_TX_ID + 1 ) );
+    }
+
+    @Test
+    void shouldThrowForUnknownTransaction() throws IOException
+    {
+        appendTransaction();
+        logFiles.getLogFile().rotate();
+
+        assertThrows( NoSuchTransactionException.class, () -> reader.transaction( BASE_TX_ID + 5 ) );
+    }
+
+    private void appendTransaction() throws IOException
+    {
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( Collections.singletonList( new TestCommand() ) );
+        transaction.setHeader( new byte[]{1, 2, 5}, 1, BASE_TX_ID, 2, -1 );
+        appender.append( new TransactionToApply( transaction ), LogAppendEvent.NULL );
+    }
+
+    private static byte[] bytesOf( ByteBuffer buffer )
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get( bytes );
+        return bytes;
+    }
+}
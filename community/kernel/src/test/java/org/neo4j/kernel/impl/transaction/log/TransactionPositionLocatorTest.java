@@ -70,6 +70,7 @@ class TransactionPositionLocatorTest
         verify( metadataCache ).cacheTransactionMetadata(
                 txId,
                 startPosition,
+                LogPosition.UNSPECIFIED,
                 commit.getChecksum(),
                 commit.getTimeWritten()
         );
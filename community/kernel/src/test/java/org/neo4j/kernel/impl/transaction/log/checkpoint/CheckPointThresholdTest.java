@@ -21,9 +21,13 @@ package org.neo4j.kernel.impl.transaction.log.checkpoint;
 
 import org.junit.jupiter.api.Test;
 
+import org.neo4j.io.pagecache.IOLimiter;
+
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold.DEFAULT_CHECKING_FREQUENCY_MILLIS;
@@ -224,4 +228,55 @@ class CheckPointThresholdTest extends CheckPointThresholdTestSupport
         withIntervalTime( "100ms" );
         assertThat( createThreshold().checkFrequencyMillis(), is( 100L ) );
     }
+
+    @Test
+    void continuousPolicyMustTriggerWhenThereAreNewTransactions()
+    {
+        withPolicy( "continuous" );
+        CheckPointThreshold threshold = createThreshold();
+        threshold.initialize( 2 );
+
+        assertFalse( threshold.isCheckPointingNeeded( 2, notTriggered ) );
+        assertTrue( threshold.isCheckPointingNeeded( 3, triggered ) );
+        verifyTriggered( "continuous" );
+        verifyNoMoreTriggers();
+    }
+
+    @Test
+    void continuousPolicyMustNotTriggerAgainUntilNewTransactionsAfterCheckPoint()
+    {
+        withPolicy( "continuous" );
+        CheckPointThreshold threshold = createThreshold();
+        threshold.initialize( 2 );
+
+        threshold.checkPointHappened( 3 );
+        assertFalse( threshold.isCheckPointingNeeded( 3, notTriggered ) );
+        assertTrue( threshold.isCheckPointingNeeded( 4, triggered ) );
+        verifyTriggered( "continuous" );
+        verifyNoMoreTriggers();
+    }
+
+    @Test
+    void continuousPolicyMustSuggestHighSchedulingFrequency()
+    {
+        withPolicy( "continuous" );
+        assertThat( createThreshold().checkFrequencyMillis(), is( ContinuousCheckPointThreshold.CONTINUOUS_CHECKING_FREQUENCY_MILLIS ) );
+    }
+
+    @Test
+    void continuousPolicyMustProvideAdaptiveLimiterOnlyWhenNoLimitIsConfigured()
+    {
+        withPolicy( "continuous" );
+        CheckPointThreshold threshold = createThreshold();
+        IOLimiter configured = ( previousStamp, recentlyCompletedIOs, flushable ) -> previousStamp;
+
+        assertThat( threshold.ioLimiter( IOLimiter.UNLIMITED, () -> 0 ), instanceOf( RecoveryTargetIOLimiter.class ) );
+        assertThat( threshold.ioLimiter( configured, () -> 0 ), sameInstance( configured ) );
+    }
+
+    @Test
+    void periodicPolicyMustUseConfiguredLimiter()
+    {
+        assertThat( createThreshold().ioLimiter( IOLimiter.UNLIMITED, () -> 0 ), sameInstance( IOLimiter.UNLIMITED ) );
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Flushable;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.kernel.impl.transaction.log.checkpoint.RecoveryTargetIOLimiter.MIN_IOPS;
+import static org.neo4j.kernel.impl.transaction.log.checkpoint.RecoveryTargetIOLimiter.QUANTUM_MILLIS;
+
+class RecoveryTargetIOLimiterTest
+{
+    private final AtomicInteger flushes = new AtomicInteger();
+    private final Flushable flushable = flushes::incrementAndGet;
+    private final AtomicLong logBytes = new AtomicLong();
+    private FakeClock clock;
+    private RecoveryTargetIOLimiter limiter;
+
+    @BeforeEach
+    void setUp()
+    {
+        clock = Clocks.fakeClock();
+        // 20 second recovery target, so each check point should take at most 10 seconds
+        limiter = new RecoveryTargetIOLimiter( Duration.ofSeconds( 20 ), clock, logBytes::get );
+    }
+
+    @Test
+    void mustNotLimitOutsideOfCheckPoint()
+    {
+        assertFalse( limiter.isLimited() );
+        logBytes.set( 6_400_000 );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        assertTrue( limiter.isLimited() );
+        limiter.checkPointCompleted();
+        assertFalse( limiter.isLimited() );
+    }
+
+    @Test
+    void mustDeriveRateFromLogBytesAndTimeLeft()
+    {
+        // With the default of 64 log bytes per IO, this is 100.000 IOs to do in 10 seconds.
+        logBytes.set( 6_400_000 );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        assertEquals( 10_000, limiter.iopsLimit() );
+        assertTrue( limiter.isLimited() );
+    }
+
+    @Test
+    void mustNeverGoBelowMinimumRate()
+    {
+        logBytes.set( 64 );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        assertEquals( MIN_IOPS, limiter.iopsLimit() );
+    }
+
+    @Test
+    void mustFlushBurstAfterIdlePeriodWithinRecoveryTarget()
+    {
+        // An almost idle check point, which measures 64 log bytes per IO
+        logBytes.set( 6_400 );
+        long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        limiter.maybeLimitIO( stamp, 100, flushable );
+        clock.forward( 1, SECONDS );
+        limiter.checkPointCompleted();
+
+        // A burst of writes, 1.000.000 IOs worth, must be flushed within 10 seconds, not at the rate of the idle one
+        logBytes.addAndGet( 64_000_000 );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        assertEquals( 100_000, limiter.iopsLimit() );
+    }
+
+    @Test
+    void mustCalibrateLogBytesPerIOFromCompletedCheckPoint()
+    {
+        logBytes.set( 1_000_000 );
+        long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        limiter.maybeLimitIO( stamp, 1_000, flushable );
+        limiter.checkPointCompleted();
+
+        // 1.000 log bytes per IO, so 10.000 IOs to do in 10 seconds
+        logBytes.addAndGet( 10_000_000 );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        assertEquals( 1_000, limiter.iopsLimit() );
+    }
+
+    @Test
+    void mustReevaluateRateDuringCheckPoint()
+    {
+        logBytes.set( 6_400_000 );
+        long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        assertEquals( 10_000, limiter.iopsLimit() );
+
+        // More written to the log while the check point runs, with 9 seconds left
+        logBytes.addAndGet( 51_200_000 );
+        clock.forward( 1, SECONDS );
+        limiter.maybeLimitIO( stamp, 0, flushable );
+        assertEquals( 100_000, limiter.iopsLimit() );
+    }
+
+    @Test
+    void mustLiftLimitWhenCheckPointIsLate()
+    {
+        logBytes.set( 6_400_000 );
+        long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        assertTrue( limiter.isLimited() );
+
+        clock.forward( 10, SECONDS );
+        stamp = limiter.maybeLimitIO( stamp, 0, flushable );
+        assertFalse( limiter.isLimited() );
+        limiter.maybeLimitIO( stamp, 1_000_000, flushable );
+        assertEquals( 0, flushes.get() );
+    }
+
+    @Test
+    void mustFlushWhenQuantumBudgetIsExceeded()
+    {
+        long iosPerQuantum = MIN_IOPS * QUANTUM_MILLIS / 1000;
+
+        long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        stamp = limiter.maybeLimitIO( stamp, (int) iosPerQuantum - 1, flushable );
+        assertEquals( 0, flushes.get() );
+        limiter.maybeLimitIO( stamp, 1, flushable );
+        assertEquals( 1, flushes.get() );
+    }
+
+    @Test
+    void mustStartNewQuantumWhenTimePasses()
+    {
+        long iosPerQuantum = MIN_IOPS * QUANTUM_MILLIS / 1000;
+
+        long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        stamp = limiter.maybeLimitIO( stamp, (int) iosPerQuantum - 1, flushable );
+        clock.forward( QUANTUM_MILLIS, MILLISECONDS );
+        stamp = limiter.maybeLimitIO( stamp, 1, flushable );
+        limiter.maybeLimitIO( stamp, (int) iosPerQuantum - 1, flushable );
+        assertEquals( 0, flushes.get() );
+    }
+
+    @Test
+    void mustKeepLimitingWhenUptimeExceedsStampBits()
+    {
+        long iosPerQuantum = MIN_IOPS * QUANTUM_MILLIS / 1000;
+        clock.forward( (1L << 32) + 1_000, MILLISECONDS );
+
+        long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        stamp = limiter.maybeLimitIO( stamp, (int) iosPerQuantum - 1, flushable );
+        assertEquals( 0, flushes.get() );
+        limiter.maybeLimitIO( stamp, 1, flushable );
+        assertEquals( 1, flushes.get() );
+    }
+
+    @Test
+    void mustNotLimitWhileDisabled()
+    {
+        long stamp = limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 0, flushable );
+        limiter.disableLimit();
+        try
+        {
+            assertFalse( limiter.isLimited() );
+            limiter.maybeLimitIO( stamp, 100_000, flushable );
+            assertEquals( 0, flushes.get() );
+        }
+        finally
+        {
+            limiter.enableLimit();
+        }
+        assertTrue( limiter.isLimited() );
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest
+{
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void emptyHistogramMustReportZeros()
+    {
+        assertEquals( 0, histogram.count() );
+        assertEquals( 0, histogram.meanNanos() );
+        assertEquals( 0, histogram.maxNanos() );
+        assertEquals( 0, histogram.valueAtPercentile( 99 ) );
+    }
+
+    @Test
+    void mustTrackCountMeanAndMax()
+    {
+        histogram.record( 100 );
+        histogram.record( 200 );
+        histogram.record( 600 );
+
+        assertEquals( 3, histogram.count() );
+        assertEquals( 300, histogram.meanNanos() );
+        assertEquals( 600, histogram.maxNanos() );
+    }
+
+    @Test
+    void negativeLatenciesMustBeRecordedAsZero()
+    {
+        histogram.record( -10 );
+
+        assertEquals( 1, histogram.count() );
+        assertEquals( 0, histogram.maxNanos() );
+        assertEquals( 0, histogram.valueAtPercentile( 100 ) );
+    }
+
+    @Test
+    void percentilesMustBeWithinBucketPrecision()
+    {
+        for ( int i = 1; i <= 1000; i++ )
+        {
+            histogram.record( i * 1000L );
+        }
+
+        assertWithinPrecision( 500_000, histogram.valueAtPercentile( 50 ) );
+        assertWithinPrecision( 990_000, histogram.valueAtPercentile( 99 ) );
+        assertEquals( 1_000_000, histogram.valueAtPercentile( 100 ) );
+        assertWithinPrecision( 1000, histogram.valueAtPercentile( 0 ) );
+    }
+
+    @Test
+    void bucketsMustCoverAllPositiveLongs()
+    {
+        long previousHighest = -1;
+        for ( int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++ )
+        {
+            long highest = LatencyHistogram.highestValueInBucket( bucket );
+            assertEquals( bucket, LatencyHistogram.bucketOf( highest ) );
+            assertEquals( bucket, LatencyHistogram.bucketOf( previousHighest + 1 ) );
+            previousHighest = highest;
+        }
+        assertEquals( Long.MAX_VALUE, previousHighest );
+    }
+
+    private static void assertWithinPrecision( long expected, long actual )
+    {
+        long tolerance = expected / LatencyHistogram.SUB_BUCKETS;
+        assertTrue( Math.abs( expected - actual ) <= tolerance, "Expected " + actual + " to be within " + tolerance + " of " + expected );
+    }
+}
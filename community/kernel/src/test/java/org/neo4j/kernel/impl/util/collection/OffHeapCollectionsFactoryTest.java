@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapCollectionsFactoryTest
+{
+    private final CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+
+    @AfterEach
+    void tearDown()
+    {
+        blockAllocator.release();
+    }
+
+    @Test
+    void mustFailAllocationsExceedingTransactionMemoryLimit()
+    {
+        OffHeapCollectionsFactory limited = new OffHeapCollectionsFactory( blockAllocator, 64 * 1024 );
+        OffHeapCollectionsFactory other = new OffHeapCollectionsFactory( blockAllocator, 64 * 1024 );
+        try
+        {
+            MutableLongSet set = limited.newLongSet();
+            assertThrows( MemoryAllocationLimitException.class, () ->
+            {
+                for ( long i = 0; i < 100_000; i++ )
+                {
+                    set.add( i );
+                }
+            } );
+
+            // Other transactions are not affected by the limit being reached
+            MutableLongSet otherSet = other.newLongSet();
+            assertDoesNotThrow( () ->
+            {
+                for ( long i = 0; i < 1_000; i++ )
+                {
+                    otherSet.add( i );
+                }
+            } );
+        }
+        finally
+        {
+            limited.release();
+            other.release();
+        }
+        assertEquals( 0, limited.getMemoryTracker().usedDirectMemory() );
+        assertEquals( 0, other.getMemoryTracker().usedDirectMemory() );
+    }
+
+    @Test
+    void mustAllowReuseOfMemoryLimitAfterRelease()
+    {
+        OffHeapCollectionsFactory factory = new OffHeapCollectionsFactory( blockAllocator, 64 * 1024 );
+        try
+        {
+            for ( int round = 0; round < 3; round++ )
+            {
+                MutableLongSet set = factory.newLongSet();
+                for ( long i = 0; i < 1_000; i++ )
+                {
+                    set.add( i );
+                }
+                factory.release();
+            }
+        }
+        finally
+        {
+            factory.release();
+        }
+    }
+}
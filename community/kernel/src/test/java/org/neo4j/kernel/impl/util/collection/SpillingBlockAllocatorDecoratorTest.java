@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator.MemoryBlock;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestDirectoryExtension
+class SpillingBlockAllocatorDecoratorTest
+{
+    @Inject
+    private TestDirectory testDirectory;
+
+    private final CachingOffHeapBlockAllocator nativeAllocator = new CachingOffHeapBlockAllocator();
+    private final LocalMemoryTracker tracker = new LocalMemoryTracker();
+
+    private SpillingBlockAllocatorDecorator allocator;
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( allocator != null )
+        {
+            allocator.release();
+        }
+        nativeAllocator.release();
+    }
+
+    @Test
+    void mustSpillAllocationsThatWouldExceedThreshold()
+    {
+        allocator = spilling( nativeAllocator, 1024, Long.MAX_VALUE );
+
+        MemoryBlock inMemory = allocator.allocate( 512, tracker );
+        assertEquals( 0, allocator.spilledBytes() );
+        long usedDirectMemory = tracker.usedDirectMemory();
+
+        MemoryBlock spilled = allocator.allocate( 1024, tracker );
+        assertEquals( 1024, allocator.spilledBytes() );
+        assertEquals( usedDirectMemory, tracker.usedDirectMemory() );
+
+        allocator.free( spilled, tracker );
+        allocator.free( inMemory, tracker );
+        assertEquals( 0, allocator.spilledBytes() );
+        assertEquals( 0, tracker.usedDirectMemory() );
+    }
+
+    @Test
+    void mustSpillWhenDecoratedAllocatorRunsOutOfCapacity()
+    {
+        CapacityLimitingBlockAllocatorDecorator limited = new CapacityLimitingBlockAllocatorDecorator( nativeAllocator, 1024 );
+        allocator = spilling( limited, Long.MAX_VALUE, Long.MAX_VALUE );
+
+        MemoryBlock inMemory = allocator.allocate( 1024, tracker );
+        MemoryBlock spilled = allocator.allocate( 1024, tracker );
+        assertEquals( 1024, allocator.spilledBytes() );
+
+        allocator.free( spilled, tracker );
+        allocator.free( inMemory, tracker );
+        assertEquals( 0, allocator.spilledBytes() );
+    }
+
+    @Test
+    void spilledMemoryMustBeUsableByTransactionStateCollections()
+    {
+        allocator = spilling( nativeAllocator, 1, Long.MAX_VALUE );
+        MutableLinearProbeLongHashSet set = new MutableLinearProbeLongHashSet( new OffHeapMemoryAllocator( tracker, allocator ) );
+        // Memory mapped blocks are not known to the native access checks
+        boolean nativeAccessChecks = UnsafeUtil.exchangeNativeAccessCheckEnabled( false );
+        try
+        {
+            for ( long i = 0; i < 10_000; i++ )
+            {
+                set.add( i * 7 );
+            }
+            assertEquals( 10_000, set.size() );
+            assertEquals( 0, tracker.usedDirectMemory() );
+            assertTrue( allocator.spilledBytes() > 0 );
+            assertTrue( set.contains( 7 * 9_999 ) );
+            assertFalse( set.contains( 1 ) );
+        }
+        finally
+        {
+            set.close();
+            UnsafeUtil.exchangeNativeAccessCheckEnabled( nativeAccessChecks );
+        }
+        assertEquals( 0, allocator.spilledBytes() );
+    }
+
+    @Test
+    void mustNotLeaveSpillFilesBehind()
+    {
+        allocator = spilling( nativeAllocator, 1, Long.MAX_VALUE );
+        MemoryBlock spilled = allocator.allocate( 4096, tracker );
+
+        assertArrayEquals( new String[0], spillDirectory().toFile().list() );
+        allocator.free( spilled, tracker );
+    }
+
+    @Test
+    void mustRequirePositiveThreshold()
+    {
+        assertThrows( IllegalArgumentException.class, () -> new SpillingBlockAllocatorDecorator( nativeAllocator, 0, Long.MAX_VALUE, spillDirectory() ) );
+    }
+
+    @Test
+    void mustSpillManyBlocksIntoOneSegmentOfOneFile()
+    {
+        allocator = spilling( nativeAllocator, 1, Long.MAX_VALUE );
+        List<MemoryBlock> blocks = new ArrayList<>();
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            blocks.add( allocator.allocate( 4096, tracker ) );
+        }
+
+        assertEquals( 1_000 * 4096, allocator.spilledBytes() );
+        assertEquals( SpillingBlockAllocatorDecorator.SEGMENT_SIZE, allocator.spillFileSize() );
+        blocks.forEach( block -> allocator.free( block, tracker ) );
+        assertEquals( 0, allocator.spilledBytes() );
+    }
+
+    @Test
+    void mustReuseFreedSlices()
+    {
+        allocator = spilling( nativeAllocator, 1, Long.MAX_VALUE );
+        MemoryBlock first = allocator.allocate( 4096, tracker );
+        allocator.free( first, tracker );
+
+        MemoryBlock second = allocator.allocate( 4096, tracker );
+
+        assertEquals( first.addr, second.addr );
+        allocator.free( second, tracker );
+    }
+
+    @Test
+    void mustRoundSpilledBlocksUpToPowerOfTwo()
+    {
+        allocator = spilling( nativeAllocator, 1, Long.MAX_VALUE );
+        MemoryBlock block = allocator.allocate( 1000, tracker );
+
+        assertEquals( 1000, block.size );
+        assertEquals( 1024, allocator.spilledBytes() );
+        allocator.free( block, tracker );
+    }
+
+    @Test
+    void mustMapBlocksLargerThanSegmentOnTheirOwn()
+    {
+        allocator = spilling( nativeAllocator, 1, Long.MAX_VALUE );
+        MemoryBlock small = allocator.allocate( 4096, tracker );
+        MemoryBlock large = allocator.allocate( SpillingBlockAllocatorDecorator.SEGMENT_SIZE * 2, tracker );
+
+        assertEquals( SpillingBlockAllocatorDecorator.SEGMENT_SIZE * 3, allocator.spillFileSize() );
+        // The rest of the first segment is still used for small blocks
+        MemoryBlock another = allocator.allocate( 4096, tracker );
+        assertEquals( SpillingBlockAllocatorDecorator.SEGMENT_SIZE * 3, allocator.spillFileSize() );
+
+        allocator.free( another, tracker );
+        allocator.free( large, tracker );
+        allocator.free( small, tracker );
+    }
+
+    @Test
+    void mustTrimTrailingSegmentsOnceTheyAreEmpty()
+    {
+        allocator = spilling( nativeAllocator, 1, Long.MAX_VALUE );
+        MemoryBlock small = allocator.allocate( 4096, tracker );
+        MemoryBlock large = allocator.allocate( SpillingBlockAllocatorDecorator.SEGMENT_SIZE * 2, tracker );
+        assertEquals( SpillingBlockAllocatorDecorator.SEGMENT_SIZE * 3, allocator.spillFileSize() );
+
+        allocator.free( large, tracker );
+        assertEquals( SpillingBlockAllocatorDecorator.SEGMENT_SIZE, allocator.spillFileSize() );
+
+        // The first segment is kept, also when it is empty
+        allocator.free( small, tracker );
+        assertEquals( SpillingBlockAllocatorDecorator.SEGMENT_SIZE, allocator.spillFileSize() );
+        MemoryBlock another = allocator.allocate( SpillingBlockAllocatorDecorator.SEGMENT_SIZE * 2, tracker );
+        assertEquals( SpillingBlockAllocatorDecorator.SEGMENT_SIZE * 3, allocator.spillFileSize() );
+        allocator.free( another, tracker );
+    }
+
+    @Test
+    void mustTrimFirstSegmentLargerThanRegularSegmentOnceItIsEmpty()
+    {
+        allocator = spilling( nativeAllocator, 1, Long.MAX_VALUE );
+        MemoryBlock large = allocator.allocate( SpillingBlockAllocatorDecorator.SEGMENT_SIZE * 2, tracker );
+        assertEquals( SpillingBlockAllocatorDecorator.SEGMENT_SIZE * 2, allocator.spillFileSize() );
+
+        allocator.free( large, tracker );
+        assertEquals( 0, allocator.spillFileSize() );
+
+        MemoryBlock small = allocator.allocate( 4096, tracker );
+        assertEquals( SpillingBlockAllocatorDecorator.SEGMENT_SIZE, allocator.spillFileSize() );
+        allocator.free( small, tracker );
+    }
+
+    @Test
+    void mustCreateMissingSpillDirectory()
+    {
+        Path directory = spillDirectory().resolve( "missing" );
+        allocator = new SpillingBlockAllocatorDecorator( nativeAllocator, 1, Long.MAX_VALUE, directory );
+
+        MemoryBlock spilled = allocator.allocate( 4096, tracker );
+
+        assertTrue( directory.toFile().isDirectory() );
+        allocator.free( spilled, tracker );
+    }
+
+    @Test
+    void mustFailWhenSpillLimitIsExceeded()
+    {
+        allocator = spilling( nativeAllocator, 1, 8192 );
+        MemoryBlock first = allocator.allocate( 4096, tracker );
+        MemoryBlock second = allocator.allocate( 4096, tracker );
+
+        assertThrows( MemoryAllocationLimitException.class, () -> allocator.allocate( 4096, tracker ) );
+        assertEquals( 8192, allocator.spilledBytes() );
+
+        allocator.free( first, tracker );
+        MemoryBlock third = allocator.allocate( 4096, tracker );
+        allocator.free( second, tracker );
+        allocator.free( third, tracker );
+    }
+
+    private SpillingBlockAllocatorDecorator spilling( OffHeapBlockAllocator impl, long spillThreshold, long maxSpillSize )
+    {
+        return new SpillingBlockAllocatorDecorator( impl, spillThreshold, maxSpillSize, spillDirectory() );
+    }
+
+    private Path spillDirectory()
+    {
+        return testDirectory.directory( "spill" ).toPath();
+    }
+}
@@ -45,6 +45,8 @@ public enum DatabaseFile
 
     PROPERTY_STRING_STORE( DatabaseFileNames.PROPERTY_STRING_STORE ),
 
+    PROPERTY_STRING_DICTIONARY( DatabaseFileNames.PROPERTY_STRING_DICTIONARY, false ),
+
     PROPERTY_KEY_TOKEN_STORE( DatabaseFileNames.PROPERTY_KEY_TOKEN_STORE ),
 
     PROPERTY_KEY_TOKEN_NAMES_STORE( DatabaseFileNames.PROPERTY_KEY_TOKEN_NAMES_STORE ),
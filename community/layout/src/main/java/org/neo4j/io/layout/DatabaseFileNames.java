@@ -41,6 +41,7 @@ final class DatabaseFileNames
     static final String PROPERTY_STORE = "neostore.propertystore.db";
     static final String PROPERTY_ARRAY_STORE = "neostore.propertystore.db.arrays";
     static final String PROPERTY_STRING_STORE = "neostore.propertystore.db.strings";
+    static final String PROPERTY_STRING_DICTIONARY = "neostore.propertystore.db.strings.dictionary";
     static final String PROPERTY_KEY_TOKEN_STORE = "neostore.propertystore.db.index";
     static final String PROPERTY_KEY_TOKEN_NAMES_STORE = "neostore.propertystore.db.index.keys";
 
@@ -120,6 +120,11 @@ public class DatabaseLayout
         return file( DatabaseFile.PROPERTY_STRING_STORE.getName() );
     }
 
+    public File propertyStringDictionary()
+    {
+        return file( DatabaseFile.PROPERTY_STRING_DICTIONARY.getName() );
+    }
+
     public File relationshipStore()
     {
         return file( DatabaseFile.RELATIONSHIP_STORE.getName() );
@@ -61,6 +61,7 @@ import org.neo4j.kernel.impl.util.collection.CapacityLimitingBlockAllocatorDecor
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.SpillingBlockAllocatorDecorator;
 import org.neo4j.kernel.impl.util.watcher.DefaultFileSystemWatcherService;
 import org.neo4j.kernel.impl.util.watcher.FileSystemWatcherService;
 import org.neo4j.kernel.info.JvmChecker;
@@ -403,8 +404,15 @@ public class GlobalModule
             {
                 sharedBlockAllocator = allocator;
             }
-            life.add( onShutdown( sharedBlockAllocator::release ) );
-            return () -> new OffHeapCollectionsFactory( sharedBlockAllocator );
+            final long spillThreshold = config.get( GraphDatabaseSettings.tx_state_off_heap_spill_threshold );
+            final long maxSpillSize = config.get( GraphDatabaseSettings.tx_state_off_heap_max_spill_size );
+            final OffHeapBlockAllocator blockAllocator = spillThreshold > 0
+                    ? new SpillingBlockAllocatorDecorator( sharedBlockAllocator, spillThreshold, maxSpillSize > 0 ? maxSpillSize : Long.MAX_VALUE,
+                            config.get( GraphDatabaseSettings.tx_state_off_heap_spill_directory ) )
+                    : sharedBlockAllocator;
+            life.add( onShutdown( blockAllocator::release ) );
+            final long maxTransactionMemory = config.get( GraphDatabaseSettings.tx_state_max_off_heap_memory_per_transaction );
+            return () -> new OffHeapCollectionsFactory( blockAllocator, maxTransactionMemory );
         default:
             throw new IllegalArgumentException( "Unknown transaction state memory allocation value: " + allocation );
         }
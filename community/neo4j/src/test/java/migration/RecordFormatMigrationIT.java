@@ -27,9 +27,12 @@ import java.io.File;
 import org.neo4j.dbms.DatabaseStateService;
 import org.neo4j.dbms.api.DatabaseManagementService;
 import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.recordstorage.RecordStorageEngine;
+import org.neo4j.kernel.impl.store.format.compact.CompactV4_0;
 import org.neo4j.kernel.impl.store.format.standard.Standard;
 import org.neo4j.kernel.impl.store.format.standard.StandardV3_4;
 import org.neo4j.kernel.impl.store.format.standard.StandardV4_0;
@@ -48,6 +51,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
 import static org.neo4j.configuration.GraphDatabaseSettings.allow_upgrade;
 import static org.neo4j.configuration.GraphDatabaseSettings.record_format;
+import static org.neo4j.graphdb.RelationshipType.withName;
 
 @TestDirectoryExtension
 class RecordFormatMigrationIT
@@ -184,6 +188,48 @@ class RecordFormatMigrationIT
         }
     }
 
+    @Test
+    void migrateStandardStoreToCompactFormat()
+    {
+        DatabaseManagementService managementService = startManagementService( StandardV4_0.NAME );
+        GraphDatabaseAPI database = getDefaultDatabase( managementService );
+        try ( Transaction transaction = database.beginTx() )
+        {
+            Node hub = transaction.createNode();
+            for ( int i = 0; i < 100; i++ )
+            {
+                hub.createRelationshipTo( transaction.createNode(), withName( "LINK" ) ).setProperty( "i", i );
+            }
+            transaction.commit();
+        }
+        managementService.shutdown();
+
+        managementService = startDatabaseServiceWithUpgrade( databaseDirectory, CompactV4_0.NAME );
+        database = getDefaultDatabase( managementService );
+        try
+        {
+            RecordStorageEngine storageEngine = database.getDependencyResolver().resolveDependency( RecordStorageEngine.class );
+            assertEquals( CompactV4_0.NAME, storageEngine.testAccessNeoStores().getRecordFormats().name() );
+            try ( Transaction transaction = database.beginTx() )
+            {
+                Node hub = transaction.getNodeById( 0 );
+                assertEquals( 100, hub.getDegree( withName( "LINK" ), Direction.OUTGOING ) );
+                long sum = 0;
+                for ( Relationship relationship : hub.getRelationships() )
+                {
+                    sum += (int) relationship.getProperty( "i" );
+                }
+                assertEquals( 99 * 100 / 2, sum );
+                hub.createRelationshipTo( transaction.createNode(), withName( "LINK" ) );
+                transaction.commit();
+            }
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
     private Throwable assertDefaultDatabaseFailed( GraphDatabaseAPI database )
     {
         assertThrows( Throwable.class, database::beginTx );
@@ -27,6 +27,7 @@ import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.kernel.impl.locking.LocksFactory;
 import org.neo4j.kernel.impl.locking.community.CommunityLocksFactory;
+import org.neo4j.kernel.impl.locking.striped.StripedLocksFactory;
 import org.neo4j.lock.ResourceTypes;
 import org.neo4j.logging.internal.NullLogService;
 import org.neo4j.time.Clocks;
@@ -75,6 +76,16 @@ class EditionLocksFactoriesTest
         assertThat( lockFactory, instanceOf( CommunityLocksFactory.class ) );
     }
 
+    @Test
+    void createStripedLocksFactoryWhenSpecified()
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.lock_manager, "striped" );
+
+        LocksFactory lockFactory = createLockFactory( config, NullLogService.getInstance() );
+
+        assertThat( lockFactory, instanceOf( StripedLocksFactory.class ) );
+    }
+
     @Test
     void failToCreateWhenConfiguredFactoryNotFound()
     {
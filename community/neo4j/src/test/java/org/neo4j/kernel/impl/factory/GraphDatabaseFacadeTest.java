@@ -83,4 +83,21 @@ class GraphDatabaseFacadeTest
         long timeout = Config.defaults().get( GraphDatabaseSettings.transaction_timeout ).toMillis();
         verify( kernel ).beginTransaction( KernelTransaction.Type.explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, timeout );
     }
+
+    @Test
+    void beginReadOnlyTransaction() throws TransactionFailureException
+    {
+        graphDatabaseFacade.beginTransaction( KernelTransaction.Type.explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, true );
+
+        long timeout = Config.defaults().get( GraphDatabaseSettings.transaction_timeout ).toMillis();
+        verify( kernel ).beginTransaction( KernelTransaction.Type.explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, timeout, true );
+    }
+
+    @Test
+    void beginReadOnlyTransactionWithCustomTimeout() throws TransactionFailureException
+    {
+        graphDatabaseFacade.beginTransaction( KernelTransaction.Type.explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, 10, TimeUnit.MILLISECONDS, true );
+
+        verify( kernel ).beginTransaction( KernelTransaction.Type.explicit, AUTH_DISABLED, EMBEDDED_CONNECTION, 10L, true );
+    }
 }
@@ -57,6 +57,9 @@ import org.neo4j.kernel.api.procedure.SystemProcedure;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
+import org.neo4j.kernel.impl.transaction.stats.CommitStage;
+import org.neo4j.kernel.impl.transaction.stats.LatencyHistogram;
+import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.procedure.Admin;
 import org.neo4j.procedure.Context;
@@ -395,6 +398,15 @@ public class BuiltInProcedures
                 .clearQueryCaches();
     }
 
+    @SystemProcedure
+    @Description( "List the latency of the stages of committing a transaction to this database, in microseconds." )
+    @Procedure( name = "db.commitLatency", mode = READ )
+    public Stream<CommitLatencyResult> commitLatency()
+    {
+        DatabaseTracer databaseTracer = resolver.resolveDependency( DatabaseTracer.class );
+        return Arrays.stream( CommitStage.values() ).map( stage -> new CommitLatencyResult( stage, databaseTracer.commitLatency( stage ) ) );
+    }
+
     @SystemProcedure
     @Procedure( name = "db.schema.nodeTypeProperties", mode = Mode.READ )
     @Description( "Show the derived property schema of the nodes in tabular form." )
@@ -539,6 +551,30 @@ public class BuiltInProcedures
         }
     }
 
+    public static class CommitLatencyResult
+    {
+        public final String stage;
+        public final long count;
+        public final long meanMicros;
+        public final long p50Micros;
+        public final long p90Micros;
+        public final long p99Micros;
+        public final long p999Micros;
+        public final long maxMicros;
+
+        private CommitLatencyResult( CommitStage stage, LatencyHistogram histogram )
+        {
+            this.stage = stage.name();
+            this.count = histogram.count();
+            this.meanMicros = TimeUnit.NANOSECONDS.toMicros( histogram.meanNanos() );
+            this.p50Micros = TimeUnit.NANOSECONDS.toMicros( histogram.valueAtPercentile( 50 ) );
+            this.p90Micros = TimeUnit.NANOSECONDS.toMicros( histogram.valueAtPercentile( 90 ) );
+            this.p99Micros = TimeUnit.NANOSECONDS.toMicros( histogram.valueAtPercentile( 99 ) );
+            this.p999Micros = TimeUnit.NANOSECONDS.toMicros( histogram.valueAtPercentile( 99.9 ) );
+            this.maxMicros = TimeUnit.NANOSECONDS.toMicros( histogram.maxNanos() );
+        }
+    }
+
     public static class BooleanResult
     {
         public BooleanResult( Boolean success )
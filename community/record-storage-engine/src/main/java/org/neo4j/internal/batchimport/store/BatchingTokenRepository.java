@@ -35,6 +35,7 @@ import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
 import org.neo4j.kernel.impl.store.record.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.store.record.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.store.record.TokenRecord;
+import org.neo4j.token.api.NamedToken;
 
 import static java.lang.Math.max;
 import static java.lang.Math.toIntExact;
@@ -60,6 +61,18 @@ public abstract class BatchingTokenRepository<RECORD extends TokenRecord>
         this.recordInstantiator = recordInstantiator;
         this.highId = (int)store.getHighId();
         this.highestCreatedId = highId - 1;
+        // Tokens already in the store, e.g. copied from another store, are looked up by name like any created token
+        for ( NamedToken token : store.getTokens() )
+        {
+            if ( token.isInternal() )
+            {
+                tokens.putIfAbsent( token.name(), token.id() );
+            }
+            else
+            {
+                tokens.put( token.name(), token.id() );
+            }
+        }
     }
 
     /**
@@ -21,6 +21,8 @@ package org.neo4j.internal.recordstorage;
 
 import org.neo4j.internal.schema.SchemaRule;
 import org.neo4j.internal.schema.SchemaState;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.token.TokenHolders;
 import org.neo4j.token.api.NamedToken;
 
@@ -29,12 +31,17 @@ class BridgingCacheAccess implements CacheAccessBackDoor
     private final SchemaCache schemaCache;
     private final SchemaState schemaState;
     private final TokenHolders tokenHolders;
+    private final RecordReadCache<NodeRecord> nodeCache;
+    private final RecordReadCache<RelationshipRecord> relationshipCache;
 
-    BridgingCacheAccess( SchemaCache schemaCache, SchemaState schemaState, TokenHolders tokenHolders )
+    BridgingCacheAccess( SchemaCache schemaCache, SchemaState schemaState, TokenHolders tokenHolders,
+            RecordReadCache<NodeRecord> nodeCache, RecordReadCache<RelationshipRecord> relationshipCache )
     {
         this.schemaCache = schemaCache;
         this.schemaState = schemaState;
         this.tokenHolders = tokenHolders;
+        this.nodeCache = nodeCache;
+        this.relationshipCache = relationshipCache;
     }
 
     @Override
@@ -67,4 +74,22 @@ class BridgingCacheAccess implements CacheAccessBackDoor
     {
         tokenHolders.propertyKeyTokens().addToken( propertyKey );
     }
+
+    @Override
+    public void removeNodeFromCache( long nodeId )
+    {
+        if ( nodeCache != null )
+        {
+            nodeCache.invalidate( nodeId );
+        }
+    }
+
+    @Override
+    public void removeRelationshipFromCache( long relationshipId )
+    {
+        if ( relationshipCache != null )
+        {
+            relationshipCache.invalidate( relationshipId );
+        }
+    }
 }
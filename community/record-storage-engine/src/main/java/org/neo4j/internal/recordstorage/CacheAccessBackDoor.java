@@ -33,4 +33,8 @@ public interface CacheAccessBackDoor
     void addLabelToken( NamedToken labelId );
 
     void addPropertyKeyToken( NamedToken index );
+
+    void removeNodeFromCache( long nodeId );
+
+    void removeRelationshipFromCache( long relationshipId );
 }
@@ -26,17 +26,25 @@ public class CacheInvalidationBatchTransactionApplier extends BatchTransactionAp
 {
     private final NeoStores neoStores;
     private final CacheAccessBackDoor cacheAccess;
+    private final boolean updateTokens;
 
     public CacheInvalidationBatchTransactionApplier( NeoStores neoStores,
             CacheAccessBackDoor cacheAccess )
+    {
+        this( neoStores, cacheAccess, true );
+    }
+
+    public CacheInvalidationBatchTransactionApplier( NeoStores neoStores,
+            CacheAccessBackDoor cacheAccess, boolean updateTokens )
     {
         this.neoStores = neoStores;
         this.cacheAccess = cacheAccess;
+        this.updateTokens = updateTokens;
     }
 
     @Override
     public TransactionApplier startTx( CommandsToApply transaction )
     {
-        return new CacheInvalidationTransactionApplier( neoStores, cacheAccess );
+        return new CacheInvalidationTransactionApplier( neoStores, cacheAccess, updateTokens );
     }
 }
@@ -20,7 +20,9 @@
 package org.neo4j.internal.recordstorage;
 
 import org.neo4j.internal.recordstorage.Command.LabelTokenCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
 import org.neo4j.internal.recordstorage.Command.PropertyKeyTokenCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
 import org.neo4j.internal.recordstorage.Command.RelationshipTypeTokenCommand;
 import org.neo4j.kernel.impl.store.LabelTokenStore;
 import org.neo4j.kernel.impl.store.NeoStores;
@@ -34,21 +36,45 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
     private final RelationshipTypeTokenStore relationshipTypeTokenStore;
     private final LabelTokenStore labelTokenStore;
     private final PropertyKeyTokenStore propertyKeyTokenStore;
+    private final boolean updateTokens;
 
+    /**
+     * @param updateTokens whether or not to add created tokens to the token holders. Records are removed from the
+     * record read caches regardless.
+     */
     public CacheInvalidationTransactionApplier( NeoStores neoStores,
-                                                CacheAccessBackDoor cacheAccess )
+                                                CacheAccessBackDoor cacheAccess,
+                                                boolean updateTokens )
     {
         this.cacheAccess = cacheAccess;
+        this.updateTokens = updateTokens;
         this.relationshipTypeTokenStore = neoStores.getRelationshipTypeTokenStore();
         this.labelTokenStore = neoStores.getLabelTokenStore();
         this.propertyKeyTokenStore = neoStores.getPropertyKeyTokenStore();
     }
 
+    @Override
+    public boolean visitNodeCommand( NodeCommand command )
+    {
+        cacheAccess.removeNodeFromCache( command.getKey() );
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipCommand( RelationshipCommand command )
+    {
+        cacheAccess.removeRelationshipFromCache( command.getKey() );
+        return false;
+    }
+
     @Override
     public boolean visitRelationshipTypeTokenCommand( RelationshipTypeTokenCommand command )
     {
-        NamedToken type = relationshipTypeTokenStore.getToken( command.tokenId() );
-        cacheAccess.addRelationshipTypeToken( type );
+        if ( updateTokens )
+        {
+            NamedToken type = relationshipTypeTokenStore.getToken( command.tokenId() );
+            cacheAccess.addRelationshipTypeToken( type );
+        }
 
         return false;
     }
@@ -56,8 +82,11 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
     @Override
     public boolean visitLabelTokenCommand( LabelTokenCommand command )
     {
-        NamedToken labelId = labelTokenStore.getToken( command.tokenId() );
-        cacheAccess.addLabelToken( labelId );
+        if ( updateTokens )
+        {
+            NamedToken labelId = labelTokenStore.getToken( command.tokenId() );
+            cacheAccess.addLabelToken( labelId );
+        }
 
         return false;
     }
@@ -65,8 +94,11 @@ public class CacheInvalidationTransactionApplier extends TransactionApplier.Adap
     @Override
     public boolean visitPropertyKeyTokenCommand( PropertyKeyTokenCommand command )
     {
-        NamedToken index = propertyKeyTokenStore.getToken( command.tokenId() );
-        cacheAccess.addPropertyKeyToken( index );
+        if ( updateTokens )
+        {
+            NamedToken index = propertyKeyTokenStore.getToken( command.tokenId() );
+            cacheAccess.addPropertyKeyToken( index );
+        }
 
         return false;
     }
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.Collection;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.store.MetaDataStore;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.RelationshipGroupStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.ResourceLocker;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.storageengine.api.NodeCompactionPass;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * Moves nodes between the sparse and the dense representation of their relationships in the background, so that the transaction
+ * that happens to add the relationship which takes a node over the dense node threshold doesn't have to relink all relationships
+ * of that node. Transactions still convert nodes themselves, but only at {@link #INLINE_CONVERSION_FACTOR} times the threshold,
+ * which keeps sparse chains from growing w/o bounds if the background job is disabled or falls behind.
+ * <p>
+ * A sparse node is converted once it has at least as many relationships as the threshold, but only if its relationships are of more
+ * than one type or direction. Relationships of one type and direction would all end up in the same chain of a single group,
+ * so a traversal wouldn't skip any of them. Only the most recent relationships of a node, as many as the threshold, are looked at
+ * for this, and a node that is left sparse for this reason is remembered together with its degree, so that its chain isn't read again
+ * in later passes until its degree has changed. A dense node is converted back when its degree has dropped below half the threshold,
+ * which leaves room for some relationships to come and go w/o the node being converted back and forth.
+ * <p>
+ * Instances are not thread-safe.
+ */
+class DenseNodeConverter implements NodeCompactionPass
+{
+    static final int INLINE_CONVERSION_FACTOR = 4;
+
+    /**
+     * Guards against following a chain that is concurrently being changed for ever, since it is read w/o locks
+     * when looking for candidates.
+     */
+    private static final int MAX_CHAIN_LENGTH = 1 << 16;
+
+    private final NodeStore nodeStore;
+    private final RelationshipStore relationshipStore;
+    private final RelationshipGroupStore groupStore;
+    private final MetaDataStore metaDataStore;
+    private final IntegrityValidator integrityValidator;
+    private final RecordStorageCommandCreationContext commandCreationContext;
+    private final int denseNodeThreshold;
+    private final NodeRecord node;
+    private final RelationshipRecord relationship;
+    private final RelationshipGroupRecord group;
+    /**
+     * Degree of each sparse node that is over the threshold but has relationships of a single type and direction only,
+     * as of when that was found out.
+     */
+    private final MutableLongIntMap singleTypeDegrees = new LongIntHashMap();
+
+    DenseNodeConverter( NeoStores neoStores, IntegrityValidator integrityValidator, int denseNodeThreshold )
+    {
+        this.nodeStore = neoStores.getNodeStore();
+        this.relationshipStore = neoStores.getRelationshipStore();
+        this.groupStore = neoStores.getRelationshipGroupStore();
+        this.metaDataStore = neoStores.getMetaDataStore();
+        this.integrityValidator = integrityValidator;
+        this.commandCreationContext = new RecordStorageCommandCreationContext( neoStores, denseNodeThreshold );
+        this.denseNodeThreshold = denseNodeThreshold;
+        this.node = nodeStore.newRecord();
+        this.relationship = relationshipStore.newRecord();
+        this.group = groupStore.newRecord();
+    }
+
+    /**
+     * @return the dense node threshold that transactions should convert nodes at themselves, given the configured threshold.
+     */
+    static int inlineConversionThreshold( int denseNodeThreshold )
+    {
+        return (int) Math.min( Integer.MAX_VALUE, (long) denseNodeThreshold * INLINE_CONVERSION_FACTOR );
+    }
+
+    @Override
+    public long createCompactionCommands( long fromNodeId, int maxNodesToVisit, Collection<StorageCommand> target, ResourceLocker locks )
+    {
+        long highId = nodeStore.getHighId();
+        long nodeId = fromNodeId;
+        for ( int visited = 0; visited < maxNodesToVisit && nodeId < highId; visited++, nodeId++ )
+        {
+            if ( needsConversion( nodeId ) )
+            {
+                locks.acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, nodeId );
+                createCommands( nodeId, target, locks );
+                return nodeId + 1;
+            }
+        }
+        return nodeId < highId ? nodeId : -1;
+    }
+
+    /**
+     * Reads the node with the given id, and some of its relationships, w/o locking it.
+     *
+     * @return {@code true} if the node is in use and should be converted to the other representation.
+     */
+    boolean needsConversion( long nodeId )
+    {
+        nodeStore.getRecord( nodeId, node, RecordLoad.CHECK );
+        if ( !node.inUse() || node.isDense() )
+        {
+            singleTypeDegrees.remove( nodeId );
+        }
+        if ( !node.inUse() )
+        {
+            return false;
+        }
+        return node.isDense() ? shouldBecomeSparse() : shouldBecomeDense();
+    }
+
+    /**
+     * Creates the commands that convert the node with the given id, if it {@link #needsConversion(long) needs conversion}.
+     * The node must be exclusively locked by the caller.
+     */
+    void createCommands( long nodeId, Collection<StorageCommand> target, ResourceLocker locks )
+    {
+        // The node may have changed before the caller got the lock, so look at it again
+        if ( !needsConversion( nodeId ) )
+        {
+            return;
+        }
+        TransactionRecordState recordState = commandCreationContext.createTransactionRecordState(
+                integrityValidator, metaDataStore.getLastCommittedTransactionId(), locks );
+        if ( node.isDense() )
+        {
+            recordState.nodeConvertToSparse( nodeId );
+        }
+        else
+        {
+            recordState.nodeConvertToDense( nodeId );
+        }
+        try
+        {
+            recordState.extractCommands( target );
+        }
+        catch ( TransactionFailureException e )
+        {
+            // Only fails on constraints created after the given last committed transaction, and that is read right before
+            throw new IllegalStateException( "Unable to convert node " + nodeId, e );
+        }
+    }
+
+    private boolean shouldBecomeDense()
+    {
+        long relId = node.getNextRel();
+        if ( relId == Record.NO_NEXT_RELATIONSHIP.intValue() || !loadRelationship( relId ) )
+        {
+            return false;
+        }
+        int degree = RelationshipCreator.relCount( node.getId(), relationship );
+        if ( degree < denseNodeThreshold )
+        {
+            singleTypeDegrees.remove( node.getId() );
+            return false;
+        }
+        if ( singleTypeDegrees.getIfAbsent( node.getId(), -1 ) == degree )
+        {
+            // Nothing has been added to or removed from the chain since it was last found to hold a single type and direction
+            return false;
+        }
+
+        // New relationships are added first in the chain, so this looks at the most recent ones
+        int firstType = relationship.getType();
+        DirectionWrapper firstDirection = direction();
+        for ( int visited = 1; visited < denseNodeThreshold; visited++ )
+        {
+            relId = node.getId() == relationship.getFirstNode() ? relationship.getFirstNextRel() : relationship.getSecondNextRel();
+            if ( relId == Record.NO_NEXT_RELATIONSHIP.intValue() || !loadRelationship( relId ) )
+            {
+                // Changed concurrently, this node will be visited again in a later pass
+                return false;
+            }
+            if ( relationship.getType() != firstType || direction() != firstDirection )
+            {
+                singleTypeDegrees.remove( node.getId() );
+                return true;
+            }
+        }
+        singleTypeDegrees.put( node.getId(), degree );
+        return false;
+    }
+
+    private boolean shouldBecomeSparse()
+    {
+        long degree = 0;
+        long groupId = node.getNextRel();
+        for ( int visited = 0; groupId != Record.NO_NEXT_RELATIONSHIP.intValue(); visited++ )
+        {
+            groupStore.getRecord( groupId, group, RecordLoad.CHECK );
+            if ( visited == MAX_CHAIN_LENGTH || !group.inUse() || group.getOwningNode() != node.getId() )
+            {
+                // Changed concurrently, this node will be visited again in a later pass
+                return false;
+            }
+            for ( DirectionWrapper direction : DirectionWrapper.values() )
+            {
+                long relId = direction.getNextRel( group );
+                if ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+                {
+                    if ( !loadRelationship( relId ) )
+                    {
+                        return false;
+                    }
+                    degree += RelationshipCreator.relCount( node.getId(), relationship );
+                }
+            }
+            if ( degree >= denseNodeThreshold / 2 )
+            {
+                return false;
+            }
+            groupId = group.getNext();
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the relationship with the given id is in use and connected to {@link #node}.
+     */
+    private boolean loadRelationship( long relId )
+    {
+        relationshipStore.getRecord( relId, relationship, RecordLoad.CHECK );
+        return relationship.inUse() && (relationship.getFirstNode() == node.getId() || relationship.getSecondNode() == node.getId());
+    }
+
+    private DirectionWrapper direction()
+    {
+        return DirectionIdentifier.wrapDirection( relationship, node );
+    }
+}
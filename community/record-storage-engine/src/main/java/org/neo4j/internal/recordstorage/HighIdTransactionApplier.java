@@ -81,6 +81,7 @@ public class HighIdTransactionApplier extends TransactionApplier.Adapter
             switch ( block.getType() )
             {
             case STRING:
+            case COMPRESSED_STRING:
                 track( propertyStore.getStringStore(), block.getValueRecords() );
                 break;
             case ARRAY:
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.token.api.TokenHolder;
+import org.neo4j.values.storable.BooleanValue;
+import org.neo4j.values.storable.ByteValue;
+import org.neo4j.values.storable.CharValue;
+import org.neo4j.values.storable.DoubleValue;
+import org.neo4j.values.storable.FloatValue;
+import org.neo4j.values.storable.IntValue;
+import org.neo4j.values.storable.LongValue;
+import org.neo4j.values.storable.ShortValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.token.api.TokenConstants.NO_TOKEN;
+
+/**
+ * Keeps the values of a few node property keys in fixed-width columns, one file per property key where the slot of a node is
+ * at its node id, so that the value of such a property can be read w/o walking the property chain of the node.
+ * <p>
+ * The property chain is the source of truth and a slot only holds a value if it is a number, boolean or char. An empty slot
+ * means that the value, if any, must be read from the property chain. This means that a column which is added to an existing
+ * store starts out empty and gets values as the property is set on nodes. Columns are updated when transactions are applied,
+ * see {@link HotPropertyTransactionApplier}, and flushed together with the record stores.
+ * <p>
+ * Columns are added and removed according to the configured property keys in {@link #configure(Collection, TokenHolder)},
+ * before any transactions are applied. A column which exists on disk has been kept up to date since it was added, tools which
+ * change the record stores w/o applying transactions must therefore {@link #deleteColumns(FileSystemAbstraction, DatabaseLayout) delete} them.
+ */
+public class HotPropertyStore implements AutoCloseable
+{
+    static final String FILE_NAME_PREFIX = "neostore.hotproperty.";
+
+    private static final int SLOT_SIZE = Byte.BYTES + Long.BYTES;
+    private static final byte EMPTY = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte BYTE = 2;
+    private static final byte SHORT = 3;
+    private static final byte CHAR = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+
+    private final DatabaseLayout databaseLayout;
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final int slotsPerPage;
+    private volatile PagedFile[] columns = new PagedFile[0];
+
+    HotPropertyStore( DatabaseLayout databaseLayout, FileSystemAbstraction fs, PageCache pageCache )
+    {
+        this.databaseLayout = databaseLayout;
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.slotsPerPage = pageCache.pageSize() / SLOT_SIZE;
+        try
+        {
+            for ( File file : columnFiles( fs, databaseLayout ) )
+            {
+                addColumn( Integer.parseInt( file.getName().substring( FILE_NAME_PREFIX.length() ) ), file );
+            }
+        }
+        catch ( IOException e )
+        {
+            close();
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Adds columns for the given property keys which don't have one yet and removes columns of property keys not among them.
+     * Names of property keys which don't exist yet are ignored.
+     */
+    void configure( Collection<String> propertyKeyNames, TokenHolder propertyKeyTokens ) throws IOException
+    {
+        boolean[] configured = new boolean[columns.length];
+        for ( String name : propertyKeyNames )
+        {
+            int propertyKey = propertyKeyTokens.getIdByName( name );
+            if ( propertyKey == NO_TOKEN )
+            {
+                continue;
+            }
+            if ( column( propertyKey ) == null )
+            {
+                addColumn( propertyKey, columnFile( propertyKey ) );
+            }
+            configured = Arrays.copyOf( configured, Math.max( configured.length, propertyKey + 1 ) );
+            configured[propertyKey] = true;
+        }
+        PagedFile[] current = columns;
+        for ( int propertyKey = 0; propertyKey < current.length; propertyKey++ )
+        {
+            if ( current[propertyKey] != null && !configured[propertyKey] )
+            {
+                removeColumn( propertyKey );
+            }
+        }
+    }
+
+    boolean hasColumns()
+    {
+        for ( PagedFile column : columns )
+        {
+            if ( column != null )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean hasColumn( int propertyKey )
+    {
+        return column( propertyKey ) != null;
+    }
+
+    /**
+     * Places the given value in the slot of the given node in the column of the given property key, or empties the slot if the value
+     * can not be kept in a column.
+     */
+    void write( int propertyKey, long nodeId, Value value ) throws IOException
+    {
+        PagedFile column = column( propertyKey );
+        if ( column == null )
+        {
+            return;
+        }
+        byte type = typeOf( value );
+        int flags = type == EMPTY ? PF_SHARED_WRITE_LOCK | PF_NO_GROW : PF_SHARED_WRITE_LOCK;
+        long pageId = nodeId / slotsPerPage;
+        try ( PageCursor cursor = column.io( pageId, flags ) )
+        {
+            if ( cursor.next() )
+            {
+                int offset = offset( nodeId );
+                cursor.putByte( offset, type );
+                cursor.putLong( offset + Byte.BYTES, type == EMPTY ? 0 : bitsOf( type, value ) );
+            }
+        }
+    }
+
+    void clear( int propertyKey, long nodeId ) throws IOException
+    {
+        write( propertyKey, nodeId, Values.NO_VALUE );
+    }
+
+    void flush( IOLimiter limiter ) throws IOException
+    {
+        for ( PagedFile column : columns )
+        {
+            if ( column != null )
+            {
+                column.flushAndForce( limiter );
+            }
+        }
+    }
+
+    /**
+     * @return a new {@link Reader}, meant to be used by a single thread.
+     */
+    Reader newReader()
+    {
+        return new Reader();
+    }
+
+    @Override
+    public void close()
+    {
+        IOUtils.closeAllUnchecked( columns );
+        columns = new PagedFile[0];
+    }
+
+    /**
+     * Deletes all columns of the store in the given layout.
+     */
+    public static void deleteColumns( FileSystemAbstraction fs, DatabaseLayout databaseLayout )
+    {
+        for ( File file : columnFiles( fs, databaseLayout ) )
+        {
+            fs.deleteFile( file );
+        }
+    }
+
+    private static File[] columnFiles( FileSystemAbstraction fs, DatabaseLayout databaseLayout )
+    {
+        File[] files = fs.listFiles( databaseLayout.databaseDirectory(), ( dir, name ) -> name.startsWith( FILE_NAME_PREFIX ) );
+        return files == null ? new File[0] : files;
+    }
+
+    private File columnFile( int propertyKey )
+    {
+        return databaseLayout.file( FILE_NAME_PREFIX + propertyKey );
+    }
+
+    private PagedFile column( int propertyKey )
+    {
+        PagedFile[] current = columns;
+        return propertyKey < current.length ? current[propertyKey] : null;
+    }
+
+    private synchronized void addColumn( int propertyKey, File file ) throws IOException
+    {
+        PagedFile[] updated = Arrays.copyOf( columns, Math.max( columns.length, propertyKey + 1 ) );
+        updated[propertyKey] = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE );
+        columns = updated;
+    }
+
+    private synchronized void removeColumn( int propertyKey ) throws IOException
+    {
+        PagedFile[] updated = columns.clone();
+        PagedFile column = updated[propertyKey];
+        updated[propertyKey] = null;
+        columns = updated;
+        column.close();
+        fs.deleteFile( columnFile( propertyKey ) );
+    }
+
+    private int offset( long nodeId )
+    {
+        return (int) (nodeId % slotsPerPage) * SLOT_SIZE;
+    }
+
+    private static byte typeOf( Value value )
+    {
+        if ( value instanceof BooleanValue )
+        {
+            return BOOLEAN;
+        }
+        if ( value instanceof ByteValue )
+        {
+            return BYTE;
+        }
+        if ( value instanceof ShortValue )
+        {
+            return SHORT;
+        }
+        if ( value instanceof CharValue )
+        {
+            return CHAR;
+        }
+        if ( value instanceof IntValue )
+        {
+            return INT;
+        }
+        if ( value instanceof LongValue )
+        {
+            return LONG;
+        }
+        if ( value instanceof FloatValue )
+        {
+            return FLOAT;
+        }
+        if ( value instanceof DoubleValue )
+        {
+            return DOUBLE;
+        }
+        return EMPTY;
+    }
+
+    private static long bitsOf( byte type, Value value )
+    {
+        switch ( type )
+        {
+        case BOOLEAN:
+            return ((BooleanValue) value).booleanValue() ? 1 : 0;
+        case BYTE:
+            return ((ByteValue) value).value();
+        case SHORT:
+            return ((ShortValue) value).value();
+        case CHAR:
+            return ((CharValue) value).value();
+        case INT:
+            return ((IntValue) value).value();
+        case LONG:
+            return ((LongValue) value).value();
+        case FLOAT:
+            return Float.floatToIntBits( ((FloatValue) value).value() );
+        case DOUBLE:
+            return Double.doubleToLongBits( ((DoubleValue) value).value() );
+        default:
+            throw new IllegalArgumentException( "Unexpected type " + type );
+        }
+    }
+
+    private static Value valueOf( byte type, long bits )
+    {
+        switch ( type )
+        {
+        case BOOLEAN:
+            return Values.booleanValue( bits == 1 );
+        case BYTE:
+            return Values.byteValue( (byte) bits );
+        case SHORT:
+            return Values.shortValue( (short) bits );
+        case CHAR:
+            return Values.charValue( (char) bits );
+        case INT:
+            return Values.intValue( (int) bits );
+        case LONG:
+            return Values.longValue( bits );
+        case FLOAT:
+            return Values.floatValue( Float.intBitsToFloat( (int) bits ) );
+        case DOUBLE:
+            return Values.doubleValue( Double.longBitsToDouble( bits ) );
+        default:
+            // Either an empty slot or one which was being written to when we read it, either way the property chain has the answer
+            return null;
+        }
+    }
+
+    /**
+     * Reads values from the columns, keeping one {@link PageCursor} open per column that has been read from.
+     */
+    class Reader implements AutoCloseable
+    {
+        private PageCursor[] cursors = new PageCursor[0];
+
+        /**
+         * @return the value of the given property of the given node, or {@code null} if it isn't in a column and needs to be read
+         * from the property chain of the node.
+         */
+        Value read( int propertyKey, long nodeId )
+        {
+            PagedFile column = column( propertyKey );
+            if ( column == null )
+            {
+                return null;
+            }
+            try
+            {
+                PageCursor cursor = cursor( propertyKey, column );
+                if ( !cursor.next( nodeId / slotsPerPage ) )
+                {
+                    return null;
+                }
+                int offset = offset( nodeId );
+                byte type;
+                long bits;
+                do
+                {
+                    type = cursor.getByte( offset );
+                    bits = cursor.getLong( offset + Byte.BYTES );
+                }
+                while ( cursor.shouldRetry() );
+                return valueOf( type, bits );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        private PageCursor cursor( int propertyKey, PagedFile column ) throws IOException
+        {
+            if ( propertyKey >= cursors.length )
+            {
+                cursors = Arrays.copyOf( cursors, propertyKey + 1 );
+            }
+            if ( cursors[propertyKey] == null )
+            {
+                cursors[propertyKey] = column.io( 0, PF_SHARED_READ_LOCK );
+            }
+            return cursors[propertyKey];
+        }
+
+        @Override
+        public void close()
+        {
+            IOUtils.closeAllUnchecked( cursors );
+            cursors = new PageCursor[0];
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+/**
+ * Keeps the columns of {@link HotPropertyStore} in sync with the property records of a transaction. A property can move from one
+ * record to another within a transaction, so all slots of properties in the before state of the records are emptied before
+ * the values of properties in the after state are written, when the transaction has been visited.
+ */
+public class HotPropertyTransactionApplier extends TransactionApplier.Adapter
+{
+    private final HotPropertyStore hotPropertyStore;
+    private final List<PropertyBlock> removedBlocks = new ArrayList<>();
+    private final List<PropertyBlock> addedBlocks = new ArrayList<>();
+    private final MutableLongList removedNodes = LongLists.mutable.empty();
+    private final MutableLongList addedNodes = LongLists.mutable.empty();
+
+    public HotPropertyTransactionApplier( HotPropertyStore hotPropertyStore )
+    {
+        this.hotPropertyStore = hotPropertyStore;
+    }
+
+    @Override
+    public boolean visitPropertyCommand( PropertyCommand command )
+    {
+        PropertyRecord after = command.getAfter();
+        if ( !after.isNodeSet() )
+        {
+            // A relationship property or one which only changed its place in the chain
+            return false;
+        }
+        long nodeId = after.getNodeId();
+        collect( command.getBefore(), nodeId, removedBlocks, removedNodes );
+        if ( after.inUse() )
+        {
+            collect( after, nodeId, addedBlocks, addedNodes );
+        }
+        return false;
+    }
+
+    private void collect( PropertyRecord record, long nodeId, List<PropertyBlock> blocks, MutableLongList nodes )
+    {
+        for ( PropertyBlock block : record )
+        {
+            if ( hotPropertyStore.hasColumn( block.getKeyIndexId() ) )
+            {
+                blocks.add( block );
+                nodes.add( nodeId );
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        for ( int i = 0; i < removedBlocks.size(); i++ )
+        {
+            hotPropertyStore.clear( removedBlocks.get( i ).getKeyIndexId(), removedNodes.get( i ) );
+        }
+        for ( int i = 0; i < addedBlocks.size(); i++ )
+        {
+            PropertyBlock block = addedBlocks.get( i );
+            hotPropertyStore.write( block.getKeyIndexId(), addedNodes.get( i ), fixedWidthValue( block ) );
+        }
+    }
+
+    private static Value fixedWidthValue( PropertyBlock block )
+    {
+        PropertyType type = block.getType();
+        if ( type == null )
+        {
+            return Values.NO_VALUE;
+        }
+        switch ( type )
+        {
+        case BOOL:
+        case BYTE:
+        case SHORT:
+        case CHAR:
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+            // None of these read anything from the store
+            return type.value( block, null );
+        default:
+            return Values.NO_VALUE;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.neo4j.internal.id.IdRange;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.ResourceLocker;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.storageengine.api.NodeCompactionPass;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * Rewrites fragmented node property chains so that their property records end up next to each other, in chain order,
+ * and with their property blocks packed into as few records as possible. A property chain gets fragmented over time
+ * as properties are added and removed, since new records are prepended to the chain using whatever ids are free at the time.
+ * <p>
+ * Only the property records are rewritten, the property blocks are moved as they are and so any dynamic string and array
+ * records they point to are kept, which is also why no index updates are generated from the produced commands.
+ * <p>
+ * Relationship chains are left alone since relationship ids are visible to users and so relationship records cannot be moved.
+ * <p>
+ * Instances are not thread-safe.
+ */
+class PropertyChainCompactor implements NodeCompactionPass
+{
+    /**
+     * Guards against following a chain that is concurrently being changed for ever, since it is read w/o locks
+     * when looking for candidates.
+     */
+    static final int MAX_CHAIN_LENGTH = 1 << 16;
+
+    private final NodeStore nodeStore;
+    private final PropertyStore propertyStore;
+    private final NodeRecord node;
+    private final List<PropertyRecord> chain = new ArrayList<>();
+
+    PropertyChainCompactor( NodeStore nodeStore, PropertyStore propertyStore )
+    {
+        this.nodeStore = nodeStore;
+        this.propertyStore = propertyStore;
+        this.node = nodeStore.newRecord();
+    }
+
+    @Override
+    public long createCompactionCommands( long fromNodeId, int maxNodesToVisit, Collection<StorageCommand> target, ResourceLocker locks )
+    {
+        long highId = nodeStore.getHighId();
+        long nodeId = fromNodeId;
+        for ( int visited = 0; visited < maxNodesToVisit && nodeId < highId; visited++, nodeId++ )
+        {
+            if ( loadFragmentedChain( nodeId ) )
+            {
+                locks.acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, nodeId );
+                // The chain may have changed before we got the lock, so look at it again
+                if ( loadFragmentedChain( nodeId ) )
+                {
+                    createCommands( target );
+                }
+                return nodeId + 1;
+            }
+        }
+        return nodeId < highId ? nodeId : -1;
+    }
+
+    /**
+     * Loads the node with the given id and its property chain into {@link #node} and {@link #chain}.
+     *
+     * @return {@code true} if the node is in use and its property chain would benefit from being compacted.
+     */
+    private boolean loadFragmentedChain( long nodeId )
+    {
+        chain.clear();
+        nodeStore.getRecord( nodeId, node, RecordLoad.CHECK );
+        if ( !node.inUse() )
+        {
+            return false;
+        }
+
+        long nextProp = node.getNextProp();
+        while ( nextProp != Record.NO_NEXT_PROPERTY.intValue() )
+        {
+            if ( chain.size() == MAX_CHAIN_LENGTH )
+            {
+                return false;
+            }
+            PropertyRecord record = propertyStore.getRecord( nextProp, propertyStore.newRecord(), RecordLoad.CHECK );
+            if ( !record.inUse() )
+            {
+                // Changed concurrently, this node will be visited again in a later pass
+                return false;
+            }
+            chain.add( record );
+            nextProp = record.getNextProp();
+        }
+        return isFragmented( chain );
+    }
+
+    static boolean isFragmented( List<PropertyRecord> chain )
+    {
+        if ( chain.size() < 2 )
+        {
+            return false;
+        }
+        long firstId = chain.get( 0 ).getId();
+        for ( int i = 1; i < chain.size(); i++ )
+        {
+            if ( chain.get( i ).getId() != firstId + i )
+            {
+                return true;
+            }
+        }
+        return pack( chain ).size() < chain.size();
+    }
+
+    /**
+     * Distributes the property blocks of the given chain over as few records as possible, keeping the order of the blocks.
+     */
+    private static List<List<PropertyBlock>> pack( List<PropertyRecord> chain )
+    {
+        List<List<PropertyBlock>> packed = new ArrayList<>();
+        List<PropertyBlock> current = null;
+        int currentSize = 0;
+        for ( PropertyRecord record : chain )
+        {
+            for ( PropertyBlock block : record )
+            {
+                if ( current == null || currentSize + block.getSize() > PropertyType.getPayloadSize() )
+                {
+                    current = new ArrayList<>();
+                    currentSize = 0;
+                    packed.add( current );
+                }
+                current.add( block );
+                currentSize += block.getSize();
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Creates commands which write the blocks of {@link #chain} into new, consecutive records and deletes the old records.
+     * Commands for the created records are added before the command for the node, which in turn is added before
+     * the commands for the deleted records, so that the chain is complete at all times during application.
+     */
+    private void createCommands( Collection<StorageCommand> target )
+    {
+        List<List<PropertyBlock>> packed = pack( chain );
+        IdRange ids = propertyStore.getIdGenerator().nextConsecutiveIdBatch( packed.size() );
+        long firstId = ids.getRangeStart();
+        for ( int i = 0; i < packed.size(); i++ )
+        {
+            long id = firstId + i;
+            PropertyRecord created = new PropertyRecord( id, node );
+            created.setInUse( true );
+            created.setCreated();
+            created.setPrevProp( i == 0 ? Record.NO_PREVIOUS_PROPERTY.intValue() : id - 1 );
+            created.setNextProp( i == packed.size() - 1 ? Record.NO_NEXT_PROPERTY.intValue() : id + 1 );
+            for ( PropertyBlock block : packed.get( i ) )
+            {
+                created.addPropertyBlock( block );
+            }
+            propertyStore.prepareForCommit( created );
+            target.add( new Command.PropertyCommand( new PropertyRecord( id, node ), created ) );
+        }
+
+        NodeRecord nodeAfter = node.clone();
+        nodeAfter.setNextProp( firstId );
+        nodeStore.prepareForCommit( nodeAfter );
+        target.add( new Command.NodeCommand( node.clone(), nodeAfter ) );
+
+        for ( PropertyRecord before : chain )
+        {
+            // Only the record itself is deleted, the dynamic records of its blocks now belong to the created records
+            PropertyRecord after = before.clone();
+            after.clearPropertyBlocks();
+            after.setInUse( false );
+            after.setChanged( node );
+            target.add( new Command.PropertyCommand( before, after ) );
+        }
+    }
+}
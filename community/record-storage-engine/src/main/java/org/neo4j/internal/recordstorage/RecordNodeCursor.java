@@ -35,6 +35,7 @@ import static java.lang.Math.min;
 public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
 {
     private final NodeStore read;
+    private final RecordReadCache<NodeRecord> cache;
     private PageCursor pageCursor;
     private long next;
     private long highMark;
@@ -43,9 +44,18 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
     private boolean batched;
 
     RecordNodeCursor( NodeStore read )
+    {
+        this( read, null );
+    }
+
+    /**
+     * @param cache {@link RecordReadCache} to look up nodes read with {@link #single(long)} in, or {@code null} to always read them from the store.
+     */
+    RecordNodeCursor( NodeStore read, RecordReadCache<NodeRecord> cache )
     {
         super( NO_ID );
         this.read = read;
+        this.cache = cache;
     }
 
     @Override
@@ -188,6 +198,20 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
             return false;
         }
 
+        if ( cache != null && isSingle() )
+        {
+            long reference = next;
+            next = NO_ID;
+            if ( !cache.get( reference, this ) )
+            {
+                long stamp = cache.stamp( reference );
+                node( this, reference, pageCursor );
+                cache.put( reference, stamp, this );
+            }
+            nextStoreReference = NO_ID;
+            return inUse();
+        }
+
         do
         {
             if ( nextStoreReference == next )
@@ -54,6 +54,11 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
     private static final int INITIAL_POSITION = -1;
 
     private final PropertyStore read;
+    private final HotPropertyStore hotPropertyStore;
+    private HotPropertyStore.Reader hotPropertyReader;
+    private int hotPropertyKey;
+    private Value hotPropertyValue;
+    private boolean hotPropertyVisited;
     private long next;
     private int block;
     public ByteBuffer buffer;
@@ -63,9 +68,15 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
     private boolean open;
 
     RecordPropertyCursor( PropertyStore read )
+    {
+        this( read, null );
+    }
+
+    RecordPropertyCursor( PropertyStore read, HotPropertyStore hotPropertyStore )
     {
         super( NO_ID );
         this.read = read;
+        this.hotPropertyStore = hotPropertyStore;
     }
 
     @Override
@@ -74,6 +85,27 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
         init( reference );
     }
 
+    @Override
+    public void initNodeProperty( long nodeId, long reference, int propertyKey )
+    {
+        init( reference );
+        if ( reference != NO_ID && hotPropertyStore != null && hotPropertyStore.hasColumn( propertyKey ) )
+        {
+            if ( hotPropertyReader == null )
+            {
+                hotPropertyReader = hotPropertyStore.newReader();
+            }
+            Value value = hotPropertyReader.read( propertyKey, nodeId );
+            if ( value != null )
+            {
+                // The value is in its column, so there's no need to look at the property chain at all
+                hotPropertyKey = propertyKey;
+                hotPropertyValue = value;
+                hotPropertyVisited = false;
+            }
+        }
+    }
+
     @Override
     public void initRelationshipProperties( long reference )
     {
@@ -90,6 +122,7 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
         {
             clear();
         }
+        hotPropertyValue = null;
 
         //Set to high value to force a read
         this.block = Integer.MAX_VALUE;
@@ -109,6 +142,12 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
     @Override
     public boolean next()
     {
+        if ( hotPropertyValue != null )
+        {
+            boolean visited = hotPropertyVisited;
+            hotPropertyVisited = true;
+            return !visited;
+        }
         while ( true )
         {
             //Figure out number of blocks of record
@@ -163,18 +202,27 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
         {
             open = false;
             clear();
+            hotPropertyValue = null;
         }
     }
 
     @Override
     public int propertyKey()
     {
+        if ( hotPropertyValue != null )
+        {
+            return hotPropertyKey;
+        }
         return PropertyBlock.keyIndexId( currentBlock() );
     }
 
     @Override
     public ValueGroup propertyType()
     {
+        if ( hotPropertyValue != null )
+        {
+            return hotPropertyValue.valueGroup();
+        }
         PropertyType type = type();
         if ( type == null )
         {
@@ -194,6 +242,7 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
         case STRING:
         case CHAR:
         case SHORT_STRING:
+        case COMPRESSED_STRING:
             return ValueGroup.TEXT;
         case TEMPORAL:
         case GEOMETRY:
@@ -214,6 +263,10 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
     @Override
     public Value propertyValue()
     {
+        if ( hotPropertyValue != null )
+        {
+            return hotPropertyValue;
+        }
         return readValue();
     }
 
@@ -248,6 +301,8 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
             return readShortArray();
         case STRING:
             return readLongString();
+        case COMPRESSED_STRING:
+            return readCompressedString();
         case ARRAY:
             return readLongArray();
         case GEOMETRY:
@@ -289,6 +344,16 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
         return string( this, reference, stringPage );
     }
 
+    private TextValue readCompressedString()
+    {
+        long reference = PropertyBlock.fetchLong( currentBlock() );
+        if ( stringPage == null )
+        {
+            stringPage = stringPage( reference );
+        }
+        return compressedString( this, reference, stringPage );
+    }
+
     private Value readShortArray()
     {
         Bits bits = Bits.bits( MAX_BYTES_IN_SHORT_STRING_OR_SHORT_ARRAY );
@@ -390,6 +455,11 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
             page.close();
             page = null;
         }
+        if ( hotPropertyReader != null )
+        {
+            hotPropertyReader.close();
+            hotPropertyReader = null;
+        }
     }
 
     private PageCursor propertyPage( long reference )
@@ -423,6 +493,15 @@ class RecordPropertyCursor extends PropertyRecord implements StoragePropertyCurs
         return Values.utf8Value( bytes );
     }
 
+    private TextValue compressedString( RecordPropertyCursor cursor, long reference, PageCursor page )
+    {
+        ByteBuffer buffer = cursor.buffer = read.loadString( reference, cursor.buffer, page );
+        buffer.flip();
+        byte[] bytes = new byte[buffer.limit()];
+        buffer.get( bytes );
+        return Values.utf8Value( read.getStringCompressionDictionary().decompress( bytes ) );
+    }
+
     private ArrayValue array( RecordPropertyCursor cursor, long reference, PageCursor page )
     {
         ByteBuffer buffer = cursor.buffer = read.loadArray( reference, cursor.buffer, page );
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.LongFunction;
+
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+import static org.neo4j.internal.helpers.Numbers.ceilingPowerOfTwo;
+
+/**
+ * Bounded cache of decoded records, keyed by record id, for the records that are read over and over again by
+ * {@link RecordNodeCursor#single(long)} and {@link RecordRelationshipScanCursor#single(long)}.
+ * <p>
+ * The cache is direct-mapped: every id maps to one slot and a newer record simply replaces whatever was in its slot.
+ * A record is only admitted into its slot the second time in a row that it's missed there, so that reads of records
+ * that are only read once don't allocate anything, or push out records that are read often.
+ * <p>
+ * Records are invalidated through {@link CacheAccessBackDoor} when transactions that change them are applied, after
+ * the store itself has been updated. Every slot has a stamp that invalidation bumps. Readers take the stamp of a slot
+ * before reading the record from the store and entries are only valid for as long as the stamp of their slot hasn't
+ * changed, so a reader that read a record just before it was updated can't leave the old version in the cache.
+ */
+class RecordReadCache<RECORD extends AbstractBaseRecord>
+{
+    private final AtomicReferenceArray<Entry<RECORD>> entries;
+    private final AtomicLongArray stamps;
+    // Last missed id per slot. Racy on purpose, it's only used to decide on admission.
+    private final long[] candidates;
+    private final int mask;
+    private final LongFunction<RECORD> factory;
+    private final BiConsumer<RECORD,RECORD> copier;
+
+    RecordReadCache( int size, LongFunction<RECORD> factory, BiConsumer<RECORD,RECORD> copier )
+    {
+        int slots = (int) ceilingPowerOfTwo( size );
+        this.entries = new AtomicReferenceArray<>( slots );
+        this.stamps = new AtomicLongArray( slots );
+        this.candidates = new long[slots];
+        this.mask = slots - 1;
+        this.factory = factory;
+        this.copier = copier;
+    }
+
+    /**
+     * @return a cache for node records, or {@code null} if {@code size} is zero.
+     */
+    static RecordReadCache<NodeRecord> nodes( int size )
+    {
+        return size == 0 ? null : new RecordReadCache<>( size, NodeRecord::new,
+                ( from, to ) -> to.initialize( from.inUse(), from.getNextProp(), from.isDense(), from.getNextRel(), from.getLabelField() ) );
+    }
+
+    /**
+     * @return a cache for relationship records, or {@code null} if {@code size} is zero.
+     */
+    static RecordReadCache<RelationshipRecord> relationships( int size )
+    {
+        return size == 0 ? null : new RecordReadCache<>( size, RelationshipRecord::new,
+                ( from, to ) -> to.initialize( from.inUse(), from.getNextProp(), from.getFirstNode(), from.getSecondNode(), from.getType(),
+                        from.getFirstPrevRel(), from.getFirstNextRel(), from.getSecondPrevRel(), from.getSecondNextRel(),
+                        from.isFirstInFirstChain(), from.isFirstInSecondChain() ) );
+    }
+
+    /**
+     * Copies the cached record with the given id into {@code target}, if there is one.
+     *
+     * @return {@code true} if the record was cached, otherwise {@code false}, in which case {@code target} is left as is.
+     */
+    boolean get( long id, RECORD target )
+    {
+        int slot = slot( id );
+        Entry<RECORD> entry = entries.get( slot );
+        if ( entry == null || entry.id != id || entry.stamp != stamps.get( slot ) )
+        {
+            return false;
+        }
+        copier.accept( entry.record, target );
+        target.setId( id );
+        return true;
+    }
+
+    /**
+     * @return the stamp to pass to {@link #put(long, long, AbstractBaseRecord)} for a record that is about to be read from the store.
+     */
+    long stamp( long id )
+    {
+        return stamps.get( slot( id ) );
+    }
+
+    /**
+     * Offers a record that was just read from the store to the cache.
+     *
+     * @param stamp the {@link #stamp(long)} of the record, taken before reading it from the store.
+     */
+    void put( long id, long stamp, RECORD source )
+    {
+        int slot = slot( id );
+        if ( candidates[slot] != id )
+        {
+            candidates[slot] = id;
+            return;
+        }
+        if ( stamps.get( slot ) == stamp )
+        {
+            RECORD copy = factory.apply( id );
+            copier.accept( source, copy );
+            entries.set( slot, new Entry<>( id, stamp, copy ) );
+        }
+    }
+
+    /**
+     * Invalidates the record with the given id, which must be called after the record has been changed in the store.
+     */
+    void invalidate( long id )
+    {
+        stamps.incrementAndGet( slot( id ) );
+    }
+
+    private int slot( long id )
+    {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static class Entry<RECORD>
+    {
+        final long id;
+        final long stamp;
+        final RECORD record;
+
+        Entry( long id, long stamp, RECORD record )
+        {
+            this.id = id;
+            this.stamp = stamp;
+            this.record = record;
+        }
+    }
+}
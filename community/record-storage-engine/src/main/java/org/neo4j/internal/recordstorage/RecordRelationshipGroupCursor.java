@@ -200,6 +200,11 @@ class RecordRelationshipGroupCursor extends RelationshipGroupRecord implements S
         return isBuffered() ? bufferedGroup.loopsCount : count( loopsRawId() );
     }
 
+    /**
+     * The degree of every chain of a dense node is kept in the previous pointer of the first relationship in that chain,
+     * and is maintained by {@link RelationshipCreator} and {@link RelationshipDeleter}. Counting is therefore a single record
+     * read per chain, regardless of how many relationships the chain has.
+     */
     private int count( long reference )
     {
         if ( reference == NO_ID )
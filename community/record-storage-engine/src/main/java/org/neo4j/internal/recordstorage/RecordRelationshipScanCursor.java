@@ -30,6 +30,7 @@ import static java.lang.Math.min;
 
 public class RecordRelationshipScanCursor extends RecordRelationshipCursor implements StorageRelationshipScanCursor
 {
+    private final RecordReadCache<RelationshipRecord> cache;
     private int filterType;
     private long next;
     private long highMark;
@@ -39,8 +40,18 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
     private boolean batched;
 
     RecordRelationshipScanCursor( RelationshipStore relationshipStore )
+    {
+        this( relationshipStore, null );
+    }
+
+    /**
+     * @param cache {@link RecordReadCache} to look up relationships read with {@link #single(long)} in, or {@code null} to always read them
+     * from the store.
+     */
+    RecordRelationshipScanCursor( RelationshipStore relationshipStore, RecordReadCache<RelationshipRecord> cache )
     {
         super( relationshipStore );
+        this.cache = cache;
     }
 
     @Override
@@ -130,6 +141,20 @@ public class RecordRelationshipScanCursor extends RecordRelationshipCursor imple
             return false;
         }
 
+        if ( cache != null && isSingle() )
+        {
+            long reference = next;
+            next = NO_ID;
+            if ( !cache.get( reference, this ) )
+            {
+                long stamp = cache.stamp( reference );
+                relationship( this, reference, pageCursor );
+                cache.put( reference, stamp, this );
+            }
+            nextStoreReference = NO_ID;
+            return inUse();
+        }
+
         do
         {
             if ( nextStoreReference == next )
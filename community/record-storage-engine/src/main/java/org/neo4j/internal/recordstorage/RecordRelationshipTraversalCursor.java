@@ -20,6 +20,7 @@
 package org.neo4j.internal.recordstorage;
 
 import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
@@ -46,13 +47,25 @@ class RecordRelationshipTraversalCursor extends RecordRelationshipCursor impleme
     private Record buffer;
     private PageCursor pageCursor;
     private final RecordRelationshipGroupCursor group;
+    private final NodeStore prefetchNodeStore;
     private GroupState groupState;
     private boolean open;
 
     RecordRelationshipTraversalCursor( RelationshipStore relationshipStore, RelationshipGroupStore groupStore )
+    {
+        this( relationshipStore, groupStore, null );
+    }
+
+    /**
+     * @param prefetchNodeStore if not {@code null}, every relationship returned from {@link #next()} hints the page cache about
+     * the next relationship record of the chain and the record of the neighbour node, which are the records most likely to be
+     * read next, so that loading their pages can overlap with processing the current relationship.
+     */
+    RecordRelationshipTraversalCursor( RelationshipStore relationshipStore, RelationshipGroupStore groupStore, NodeStore prefetchNodeStore )
     {
         super( relationshipStore );
         this.group = new RecordRelationshipGroupCursor( relationshipStore, groupStore );
+        this.prefetchNodeStore = prefetchNodeStore;
     }
 
     @Override
@@ -177,6 +190,11 @@ class RecordRelationshipTraversalCursor extends RecordRelationshipCursor impleme
         }
         while ( !inUse() || (filterType != NO_ID && !correctTypeAndDirection()) );
 
+        if ( prefetchNodeStore != null )
+        {
+            relationshipStore.prefetchRecord( next );
+            prefetchNodeStore.prefetchRecord( neighbourNodeReference() );
+        }
         return true;
     }
 
@@ -19,6 +19,9 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.neo4j.internal.id.IdRange;
+import org.neo4j.internal.id.IdRangeIterator;
+import org.neo4j.kernel.impl.store.CommonAbstractStore;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
@@ -26,10 +29,14 @@ import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.SchemaStore;
 import org.neo4j.kernel.impl.store.StandardDynamicRecordAllocator;
 import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.lock.ResourceLocker;
 import org.neo4j.storageengine.api.CommandCreationContext;
 
 import static java.lang.Math.toIntExact;
+import static org.neo4j.internal.id.IdRangeIterator.VALUE_REPRESENTING_NULL;
 
 /**
  * Holds commit data structures for creating records in a {@link NeoStores}.
@@ -45,8 +52,25 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
     private final NodeStore nodeStore;
     private final RelationshipStore relationshipStore;
     private final SchemaStore schemaStore;
+    private final IdLease nodeIds;
+    private final IdLease relationshipIds;
+    private final boolean relationshipIdLocality;
+    private final NodeRecord sourceNodeRecord;
 
     RecordStorageCommandCreationContext( NeoStores neoStores, int denseNodeThreshold )
+    {
+        this( neoStores, denseNodeThreshold, 0, false );
+    }
+
+    /**
+     * @param idLeaseSize number of node and relationship ids to lease from the id generators at a time. Since this context lives as long as
+     * the pooled transaction object it belongs to, leased ids are handed out to transactions without contending with other transactions
+     * and also end up close together in the store. Unused leased ids are given back on {@link #close()}.
+     * If {@code 0} then ids are allocated directly from the id generators.
+     * @param relationshipIdLocality whether or not to prefer relationship ids close to the first relationship of the start node,
+     * see {@link #reserveRelationship(long)}.
+     */
+    RecordStorageCommandCreationContext( NeoStores neoStores, int denseNodeThreshold, int idLeaseSize, boolean relationshipIdLocality )
     {
         this.neoStores = neoStores;
         this.loaders = new Loaders( neoStores );
@@ -59,10 +83,14 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
         this.propertyCreator = new PropertyCreator(
                 new StandardDynamicRecordAllocator( propertyStore.getStringStore(), propertyStore.getStringStore().getRecordDataSize() ),
                 new StandardDynamicRecordAllocator( propertyStore.getArrayStore(), propertyStore.getArrayStore().getRecordDataSize() ), propertyStore,
-                propertyTraverser, propertyStore.allowStorePointsAndTemporal() );
+                propertyTraverser, propertyStore.allowStorePointsAndTemporal(), propertyStore.getStringCompressionDictionary() );
         this.nodeStore = neoStores.getNodeStore();
         this.relationshipStore = neoStores.getRelationshipStore();
         this.schemaStore = neoStores.getSchemaStore();
+        this.nodeIds = idLeaseSize > 0 ? new IdLease( nodeStore, idLeaseSize ) : null;
+        this.relationshipIds = idLeaseSize > 0 ? new IdLease( relationshipStore, idLeaseSize ) : null;
+        this.relationshipIdLocality = relationshipIdLocality;
+        this.sourceNodeRecord = relationshipIdLocality ? nodeStore.newRecord() : null;
     }
 
     private long nextId( StoreType storeType )
@@ -73,13 +101,36 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
     @Override
     public long reserveNode()
     {
-        return nextId( StoreType.NODE );
+        return nodeIds != null ? nodeIds.nextId() : nextId( StoreType.NODE );
     }
 
     @Override
     public long reserveRelationship()
     {
-        return nextId( StoreType.RELATIONSHIP );
+        return relationshipIds != null ? relationshipIds.nextId() : nextId( StoreType.RELATIONSHIP );
+    }
+
+    /**
+     * Prefers a free id on the same page as, or a page next to, the first relationship in the chain of the start node, if enabled.
+     * New relationships are inserted first in the chains of their nodes, so this keeps the records that a traversal will visit
+     * right after each other close together in the store. Dense nodes are left out, since their chains are split up by type and direction
+     * and the node doesn't point to a relationship directly.
+     */
+    @Override
+    public long reserveRelationship( long sourceNode )
+    {
+        if ( relationshipIdLocality && sourceNode < nodeStore.getHighId() )
+        {
+            nodeStore.getRecord( sourceNode, sourceNodeRecord, RecordLoad.CHECK );
+            long firstRelationship = sourceNodeRecord.getNextRel();
+            if ( sourceNodeRecord.inUse() && !sourceNodeRecord.isDense() && !Record.NULL_REFERENCE.is( firstRelationship ) )
+            {
+                int recordsPerPage = relationshipStore.getRecordsPerPage();
+                long pageStartId = (firstRelationship / recordsPerPage) * recordsPerPage;
+                return relationshipStore.getIdGenerator().nextId( pageStartId - recordsPerPage, pageStartId + 2L * recordsPerPage );
+            }
+        }
+        return reserveRelationship();
     }
 
     @Override
@@ -109,6 +160,11 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
     @Override
     public void close()
     {
+        if ( nodeIds != null )
+        {
+            nodeIds.release();
+            relationshipIds.release();
+        }
     }
 
     TransactionRecordState createTransactionRecordState( IntegrityValidator integrityValidator, long lastTransactionIdWhenStarted,
@@ -119,4 +175,41 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
                 recordChangeSet, lastTransactionIdWhenStarted, locks,
                 relationshipCreator, relationshipDeleter, propertyCreator, propertyDeleter );
     }
+
+    /**
+     * Ids leased in batches from the id generator of a store, handed out one by one w/o any synchronization.
+     */
+    private static class IdLease
+    {
+        private final CommonAbstractStore<?,?> store;
+        private final int size;
+        private IdRangeIterator ids;
+
+        IdLease( CommonAbstractStore<?,?> store, int size )
+        {
+            this.store = store;
+            this.size = size;
+        }
+
+        long nextId()
+        {
+            long id = ids != null ? ids.nextId() : VALUE_REPRESENTING_NULL;
+            if ( id == VALUE_REPRESENTING_NULL )
+            {
+                ids = store.nextIdBatch( size ).iterator();
+                id = ids.nextId();
+            }
+            return id;
+        }
+
+        void release()
+        {
+            if ( ids != null )
+            {
+                IdRange unused = ids.nextIdBatch( Integer.MAX_VALUE );
+                ids = null;
+                store.getIdGenerator().releaseIds( unused );
+            }
+        }
+    }
 }
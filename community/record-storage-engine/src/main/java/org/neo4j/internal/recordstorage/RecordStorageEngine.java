@@ -22,9 +22,11 @@ package org.neo4j.internal.recordstorage;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
@@ -60,6 +62,8 @@ import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.StoreType;
 import org.neo4j.kernel.impl.store.format.RecordFormat;
 import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.lock.LockGroup;
@@ -68,11 +72,14 @@ import org.neo4j.lock.ResourceLocker;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandCreationContext;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.LogVersionRepository;
+import org.neo4j.storageengine.api.NodeCompactionPass;
 import org.neo4j.storageengine.api.NodeLabelUpdateListener;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.StorageEngine;
@@ -91,6 +98,7 @@ import org.neo4j.util.concurrent.WorkSync;
 
 import static org.neo4j.function.ThrowingAction.executeAll;
 import static org.neo4j.lock.LockService.NO_LOCK_SERVICE;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
 import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
 import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_RECOVERY;
 
@@ -98,6 +106,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
 {
     private final NeoStores neoStores;
     private final DatabaseLayout databaseLayout;
+    private final FileSystemAbstraction fs;
     private final TokenHolders tokenHolders;
     private final Health databaseHealth;
     private final SchemaCache schemaCache;
@@ -112,8 +121,20 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync;
     private final IdController idController;
     private final GBPTreeCountsStore countsStore;
+    private final HotPropertyStore hotPropertyStore;
+    private final List<String> hotPropertyKeys;
+    private final boolean readOnly;
     private final int denseNodeThreshold;
+    private final boolean denseNodeBackgroundConversion;
+    private final List<NodeCompactionPass> compactionPasses;
     private final Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs = new EnumMap<>( IdType.class );
+    private final WorkSync<RecordStorageEngine,StoreApplyWork> storeApplySync = new WorkSync<>( this );
+    private final boolean batchedApply;
+    private final int idLeaseSize;
+    private final boolean relationshipIdLocality;
+    private final boolean relationshipTraversalPrefetch;
+    private final RecordReadCache<NodeRecord> nodeReadCache;
+    private final RecordReadCache<RelationshipRecord> relationshipReadCache;
 
     // installed later
     private IndexUpdateListener indexUpdateListener;
@@ -133,9 +154,11 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             IdGeneratorFactory idGeneratorFactory,
             IdController idController,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            JobScheduler jobScheduler,
             boolean createStoreIfNotExists )
     {
         this.databaseLayout = databaseLayout;
+        this.fs = fs;
         this.tokenHolders = tokenHolders;
         this.schemaState = schemaState;
         this.lockService = lockService;
@@ -145,6 +168,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
 
         StoreFactory factory = new StoreFactory( databaseLayout, config, idGeneratorFactory, pageCache, fs, logProvider );
         neoStores = factory.openAllNeoStores( createStoreIfNotExists );
+        neoStores.getPropertyStore().getStringCompressionDictionary().trainWith( jobScheduler.executor( Group.STORAGE_MAINTENANCE ) );
         for ( IdType idType : IdType.values() )
         {
             idGeneratorWorkSyncs.put( idType, new WorkSync<>( idGeneratorFactory.get( idType ) ) );
@@ -156,13 +180,30 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             schemaCache = new SchemaCache( constraintSemantics, indexConfigCompleter );
 
             integrityValidator = new IntegrityValidator( neoStores );
-            cacheAccess = new BridgingCacheAccess( schemaCache, schemaState, tokenHolders );
+            int recordReadCacheSize = config.get( GraphDatabaseSettings.record_read_cache_size );
+            nodeReadCache = RecordReadCache.nodes( recordReadCacheSize );
+            relationshipReadCache = RecordReadCache.relationships( recordReadCacheSize );
+            cacheAccess = new BridgingCacheAccess( schemaCache, schemaState, tokenHolders, nodeReadCache, relationshipReadCache );
 
             denseNodeThreshold = config.get( GraphDatabaseSettings.dense_node_threshold );
+            denseNodeBackgroundConversion = config.get( GraphDatabaseSettings.dense_node_background_conversion );
+            compactionPasses = new ArrayList<>();
+            compactionPasses.add( new PropertyChainCompactor( neoStores.getNodeStore(), neoStores.getPropertyStore() ) );
+            if ( denseNodeBackgroundConversion )
+            {
+                compactionPasses.add( new DenseNodeConverter( neoStores, integrityValidator, denseNodeThreshold ) );
+            }
 
             countsStore = openCountsStore( pageCache, databaseLayout, config, logProvider, recoveryCleanupWorkCollector );
+            hotPropertyStore = new HotPropertyStore( databaseLayout, fs, pageCache );
+            hotPropertyKeys = config.get( GraphDatabaseSettings.hot_property_keys );
+            readOnly = config.get( GraphDatabaseSettings.read_only );
 
             consistencyCheckApply = config.get( GraphDatabaseSettings.consistency_check_on_apply );
+            batchedApply = config.get( GraphDatabaseSettings.batched_store_apply );
+            idLeaseSize = config.get( GraphDatabaseSettings.id_lease_size );
+            relationshipIdLocality = config.get( GraphDatabaseSettings.relationship_id_locality );
+            relationshipTraversalPrefetch = config.get( GraphDatabaseSettings.relationship_traversal_prefetch );
         }
         catch ( Throwable failure )
         {
@@ -205,13 +246,16 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     @Override
     public RecordStorageReader newReader()
     {
-        return new RecordStorageReader( tokenHolders, neoStores, countsStore, schemaCache );
+        return new RecordStorageReader( tokenHolders, neoStores, countsStore, schemaCache, hotPropertyStore, relationshipTraversalPrefetch,
+                nodeReadCache, relationshipReadCache );
     }
 
     @Override
     public RecordStorageCommandCreationContext newCommandCreationContext()
     {
-        return new RecordStorageCommandCreationContext( neoStores, denseNodeThreshold );
+        int inlineDenseNodeThreshold =
+                denseNodeBackgroundConversion ? DenseNodeConverter.inlineConversionThreshold( denseNodeThreshold ) : denseNodeThreshold;
+        return new RecordStorageCommandCreationContext( neoStores, inlineDenseNodeThreshold, idLeaseSize, relationshipIdLocality );
     }
 
     @Override
@@ -277,29 +321,66 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         }
     }
 
+    @Override
+    public List<NodeCompactionPass> compactionPasses()
+    {
+        return compactionPasses;
+    }
+
     @Override
     public void apply( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception
+    {
+        if ( mode == INTERNAL && batchedApply )
+        {
+            // Concurrent committers share applier passes, amortizing the cost of setting up and closing the appliers
+            // and of updating counts and id generators over all the transactions in a pass.
+            StoreApplyWork work = new StoreApplyWork( batch, mode );
+            try
+            {
+                storeApplySync.apply( work );
+            }
+            catch ( ExecutionException ignored )
+            {
+                // This thread applied a pass that failed, but that pass may not have included our own work.
+                // Our own work records the outcome of the pass that did include it, which is checked below.
+            }
+            work.throwIfFailed();
+        }
+        else
+        {
+            applyBatches( Collections.singletonList( batch ), mode );
+        }
+    }
+
+    /**
+     * Applies the given chains of transactions to the store, in order, with a single set of appliers.
+     */
+    void applyBatches( List<CommandsToApply> batches, TransactionApplicationMode mode ) throws Exception
     {
         // Have these command appliers as separate try-with-resource to have better control over
         // point between closing this and the locks above
-        CommandsToApply initialBatch = batch;
+        CommandsToApply batch = null;
         try ( IndexActivator indexActivator = new IndexActivator( indexUpdateListener );
               LockGroup locks = new LockGroup();
               BatchTransactionApplier batchApplier = applier( mode, indexActivator ) )
         {
-            while ( batch != null )
+            for ( CommandsToApply initialBatch : batches )
             {
-                try ( TransactionApplier txApplier = batchApplier.startTx( batch, locks ) )
+                batch = initialBatch;
+                while ( batch != null )
                 {
-                    batch.accept( txApplier );
+                    try ( TransactionApplier txApplier = batchApplier.startTx( batch, locks ) )
+                    {
+                        batch.accept( txApplier );
+                    }
+                    batch = batch.next();
                 }
-                batch = batch.next();
             }
         }
         catch ( Throwable cause )
         {
             TransactionApplyKernelException kernelException = new TransactionApplyKernelException(
-                    cause, "Failed to apply transaction: %s", batch == null ? initialBatch : batch );
+                    cause, "Failed to apply transaction: %s", batch == null ? batches.get( 0 ) : batch );
             databaseHealth.panic( kernelException );
             throw kernelException;
         }
@@ -325,9 +406,14 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         {
             appliers.add( new HighIdBatchTransactionApplier( neoStores ) );
         }
-        if ( mode.needsCacheInvalidationOnUpdates() )
+        if ( hotPropertyStore.hasColumns() )
         {
-            appliers.add( new CacheInvalidationBatchTransactionApplier( neoStores, cacheAccess ) );
+            appliers.add( new HotPropertyBatchTransactionApplier( hotPropertyStore ) );
+        }
+        if ( mode.needsCacheInvalidationOnUpdates() || nodeReadCache != null )
+        {
+            // Must come after the store applier, so that records are invalidated only after they have been updated
+            appliers.add( new CacheInvalidationBatchTransactionApplier( neoStores, cacheAccess, mode.needsCacheInvalidationOnUpdates() ) );
         }
         if ( mode.needsAuxiliaryStores() )
         {
@@ -377,13 +463,14 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     @Override
     public void shutdown() throws Exception
     {
-        executeAll( countsStore::close, neoStores::close );
+        executeAll( countsStore::close, hotPropertyStore::close, neoStores::close );
     }
 
     @Override
     public void flushAndForce( IOLimiter limiter ) throws IOException
     {
         countsStore.checkpoint( limiter);
+        hotPropertyStore.flush( limiter );
         neoStores.flush( limiter );
     }
 
@@ -413,6 +500,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         List<StoreFileMetadata> files = new ArrayList<>();
         files.add( new StoreFileMetadata( databaseLayout.countStore(), RecordFormat.NO_RECORD_SIZE ) );
+        if ( fs.fileExists( databaseLayout.propertyStringDictionary() ) )
+        {
+            files.add( new StoreFileMetadata( databaseLayout.propertyStringDictionary(), RecordFormat.NO_RECORD_SIZE ) );
+        }
         for ( StoreType type : StoreType.values() )
         {
             final RecordStore<AbstractBaseRecord> recordStore = neoStores.getRecordStore( type );
@@ -453,10 +544,14 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         return new LifecycleAdapter()
         {
             @Override
-            public void init()
+            public void init() throws IOException
             {
                 tokenHolders.setInitialTokens( StoreTokens.allTokens( neoStores ) );
                 loadSchemaCache();
+                if ( !readOnly )
+                {
+                    hotPropertyStore.configure( hotPropertyKeys, tokenHolders.propertyKeyTokens() );
+                }
             }
         };
     }
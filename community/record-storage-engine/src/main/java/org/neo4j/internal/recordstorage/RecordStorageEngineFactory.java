@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.configuration.Config;
@@ -112,10 +113,11 @@ public class RecordStorageEngineFactory implements StorageEngineFactory
     public StorageEngine instantiate( FileSystemAbstraction fs, DatabaseLayout databaseLayout, Config config, PageCache pageCache, TokenHolders tokenHolders,
             SchemaState schemaState, ConstraintRuleAccessor constraintSemantics, IndexConfigCompleter indexConfigCompleter, LockService lockService,
             IdGeneratorFactory idGeneratorFactory, IdController idController, DatabaseHealth databaseHealth, LogProvider logProvider,
-            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean createStoreIfNotExists )
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, JobScheduler jobScheduler, boolean createStoreIfNotExists )
     {
         return new RecordStorageEngine( databaseLayout, config, pageCache, fs, logProvider, tokenHolders, schemaState, constraintSemantics,
-                indexConfigCompleter, lockService, databaseHealth, idGeneratorFactory, idController, recoveryCleanupWorkCollector, createStoreIfNotExists );
+                indexConfigCompleter, lockService, databaseHealth, idGeneratorFactory, idController, recoveryCleanupWorkCollector, jobScheduler,
+                createStoreIfNotExists );
     }
 
     @Override
@@ -126,8 +128,8 @@ public class RecordStorageEngineFactory implements StorageEngineFactory
             throw new IOException( "No storage present at " + databaseLayout + " on " + fileSystem );
         }
 
-        return Arrays.stream( StoreType.values() )
-                .map( t -> databaseLayout.file( t.getDatabaseFile() ) )
+        return Stream.concat( Arrays.stream( StoreType.values() ).map( t -> databaseLayout.file( t.getDatabaseFile() ) ),
+                Stream.of( databaseLayout.propertyStringDictionary() ) )
                 .filter( fileSystem::fileExists ).collect( Collectors.toList() );
     }
 
@@ -37,6 +37,8 @@ import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.storageengine.api.AllNodeScan;
 import org.neo4j.storageengine.api.AllRelationshipsScan;
 import org.neo4j.storageengine.api.StoragePropertyCursor;
@@ -63,10 +65,16 @@ public class RecordStorageReader implements StorageReader
     private final CountsAccessor counts;
     private final MetaDataStore metaDataStore;
     private final SchemaCache schemaCache;
+    private final HotPropertyStore hotPropertyStore;
+    private final boolean relationshipTraversalPrefetch;
+    private final RecordReadCache<NodeRecord> nodeReadCache;
+    private final RecordReadCache<RelationshipRecord> relationshipReadCache;
 
     private boolean closed;
 
-    RecordStorageReader( TokenHolders tokenHolders, NeoStores neoStores, CountsAccessor counts, SchemaCache schemaCache )
+    RecordStorageReader( TokenHolders tokenHolders, NeoStores neoStores, CountsAccessor counts, SchemaCache schemaCache,
+            HotPropertyStore hotPropertyStore, boolean relationshipTraversalPrefetch,
+            RecordReadCache<NodeRecord> nodeReadCache, RecordReadCache<RelationshipRecord> relationshipReadCache )
     {
         this.tokenHolders = tokenHolders;
         this.nodeStore = neoStores.getNodeStore();
@@ -76,6 +84,10 @@ public class RecordStorageReader implements StorageReader
         this.counts = counts;
         this.metaDataStore = neoStores.getMetaDataStore();
         this.schemaCache = schemaCache;
+        this.hotPropertyStore = hotPropertyStore;
+        this.relationshipTraversalPrefetch = relationshipTraversalPrefetch;
+        this.nodeReadCache = nodeReadCache;
+        this.relationshipReadCache = relationshipReadCache;
     }
 
     /**
@@ -84,7 +96,7 @@ public class RecordStorageReader implements StorageReader
      */
     public RecordStorageReader( NeoStores stores )
     {
-        this( null, stores, null, null );
+        this( null, stores, null, null, null, false, null, null );
     }
 
     @Override
@@ -315,7 +327,7 @@ public class RecordStorageReader implements StorageReader
     @Override
     public RecordNodeCursor allocateNodeCursor()
     {
-        return new RecordNodeCursor( nodeStore );
+        return new RecordNodeCursor( nodeStore, nodeReadCache );
     }
 
     @Override
@@ -327,13 +339,14 @@ public class RecordStorageReader implements StorageReader
     @Override
     public StorageRelationshipTraversalCursor allocateRelationshipTraversalCursor()
     {
-        return new RecordRelationshipTraversalCursor( relationshipStore, relationshipGroupStore );
+        return new RecordRelationshipTraversalCursor( relationshipStore, relationshipGroupStore,
+                relationshipTraversalPrefetch ? nodeStore : null );
     }
 
     @Override
     public RecordRelationshipScanCursor allocateRelationshipScanCursor()
     {
-        return new RecordRelationshipScanCursor( relationshipStore );
+        return new RecordRelationshipScanCursor( relationshipStore, relationshipReadCache );
     }
 
     @Override
@@ -345,6 +358,6 @@ public class RecordStorageReader implements StorageReader
     @Override
     public StoragePropertyCursor allocatePropertyCursor()
     {
-        return new RecordPropertyCursor( propertyStore );
+        return new RecordPropertyCursor( propertyStore, hotPropertyStore );
     }
 }
@@ -19,6 +19,9 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.neo4j.internal.recordstorage.RecordAccess.RecordProxy;
 import org.neo4j.kernel.impl.store.InvalidRecordException;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
@@ -98,6 +101,79 @@ public class RelationshipCreator
         }
     }
 
+    /**
+     * Converts the sparse node with the given id to a dense node, w/o adding any relationship to it.
+     * The node must be exclusively locked by the caller.
+     */
+    void convertNodeToDense( long nodeId, RecordAccessSet recordChangeSet, ResourceLocker locks )
+    {
+        NodeRecord node = recordChangeSet.getNodeRecords().getOrLoad( nodeId, null ).forChangingLinkage();
+        long relId = node.getNextRel();
+        if ( node.isDense() || relId == Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            return;
+        }
+        locks.acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relId );
+        RelationshipRecord firstRel = recordChangeSet.getRelRecords().getOrLoad( relId, null ).forChangingLinkage();
+        convertNodeToDenseNode( node, firstRel, recordChangeSet.getRelRecords(), recordChangeSet.getRelGroupRecords(), locks );
+    }
+
+    /**
+     * Converts the dense node with the given id back to a sparse node, i.e. links all its relationships into a single chain,
+     * the outgoing ones first, and deletes its relationship groups. The node must be exclusively locked by the caller.
+     */
+    void convertNodeToSparse( long nodeId, RecordAccessSet recordChangeSet, ResourceLocker locks )
+    {
+        NodeRecord node = recordChangeSet.getNodeRecords().getOrLoad( nodeId, null ).forChangingLinkage();
+        if ( !node.isDense() )
+        {
+            return;
+        }
+        RecordAccess<RelationshipRecord,Void> relRecords = recordChangeSet.getRelRecords();
+        List<RelationshipRecord> relationships = new ArrayList<>();
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipGroupRecord group = recordChangeSet.getRelGroupRecords().getOrLoad( groupId, null ).forChangingData();
+            for ( DirectionWrapper direction : DirectionWrapper.values() )
+            {
+                long relId = direction.getNextRel( group );
+                while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+                {
+                    locks.acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relId );
+                    RelationshipRecord rel = relRecords.getOrLoad( relId, null ).forChangingLinkage();
+                    relationships.add( rel );
+                    relId = relChain( rel, nodeId ).get( rel );
+                }
+            }
+            groupId = group.getNext();
+            group.setInUse( false );
+        }
+
+        int count = relationships.size();
+        for ( int i = 0; i < count; i++ )
+        {
+            RelationshipRecord rel = relationships.get( i );
+            // The first relationship in a chain keeps the length of the chain instead of a previous relationship
+            long prevRel = i == 0 ? count : relationships.get( i - 1 ).getId();
+            long nextRel = i == count - 1 ? Record.NO_NEXT_RELATIONSHIP.intValue() : relationships.get( i + 1 ).getId();
+            if ( rel.getFirstNode() == nodeId )
+            {
+                rel.setFirstPrevRel( prevRel );
+                rel.setFirstNextRel( nextRel );
+                rel.setFirstInFirstChain( i == 0 );
+            }
+            if ( rel.getSecondNode() == nodeId )
+            {
+                rel.setSecondPrevRel( prevRel );
+                rel.setSecondNextRel( nextRel );
+                rel.setFirstInSecondChain( i == 0 );
+            }
+        }
+        node.setDense( false );
+        node.setNextRel( count == 0 ? Record.NO_NEXT_RELATIONSHIP.intValue() : relationships.get( 0 ).getId() );
+    }
+
     private void connectRelationship( NodeRecord firstNode,
             NodeRecord secondNode, RelationshipRecord rel,
             RecordAccess<RelationshipRecord, Void> relRecords,
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.util.concurrent.Work;
+
+/**
+ * Application of committed transactions to the store, that can be combined with the transactions of other concurrent
+ * committers so that they all share a single applier pass. The combined transactions are applied in transaction id
+ * order. If the pass fails, every committer whose transactions were part of it gets to see the failure.
+ */
+class StoreApplyWork implements Work<RecordStorageEngine,StoreApplyWork>
+{
+    private final TransactionApplicationMode mode;
+    private final List<StoreApplyWork> combined = new ArrayList<>();
+    private final CommandsToApply batch;
+    private volatile Throwable failure;
+
+    StoreApplyWork( CommandsToApply batch, TransactionApplicationMode mode )
+    {
+        this.batch = batch;
+        this.mode = mode;
+        this.combined.add( this );
+    }
+
+    @Override
+    public StoreApplyWork combine( StoreApplyWork work )
+    {
+        combined.addAll( work.combined );
+        return this;
+    }
+
+    @Override
+    public void apply( RecordStorageEngine storageEngine ) throws Exception
+    {
+        List<CommandsToApply> batches = new ArrayList<>( combined.size() );
+        for ( StoreApplyWork work : combined )
+        {
+            batches.add( work.batch );
+        }
+        batches.sort( Comparator.comparingLong( CommandsToApply::transactionId ) );
+        try
+        {
+            storageEngine.applyBatches( batches, mode );
+        }
+        catch ( Throwable t )
+        {
+            for ( StoreApplyWork work : combined )
+            {
+                work.failure = t;
+            }
+            throw t;
+        }
+    }
+
+    /**
+     * Rethrows the failure of the applier pass that included this work, if it failed.
+     * Must only be called after this work has been applied.
+     */
+    void throwIfFailed() throws Exception
+    {
+        Throwable t = failure;
+        if ( t instanceof Exception )
+        {
+            throw (Exception) t;
+        }
+        if ( t instanceof Error )
+        {
+            throw (Error) t;
+        }
+    }
+}
@@ -285,6 +285,16 @@ public class TransactionRecordState implements RecordState
         relationshipDeleter.relDelete( relId, recordChangeSet, locks );
     }
 
+    void nodeConvertToDense( long nodeId )
+    {
+        relationshipCreator.convertNodeToDense( nodeId, recordChangeSet, locks );
+    }
+
+    void nodeConvertToSparse( long nodeId )
+    {
+        relationshipCreator.convertNodeToSparse( nodeId, recordChangeSet, locks );
+    }
+
     private void addFiltered( Collection<StorageCommand> target, Mode mode, Command[]... commands )
     {
         for ( Command[] c : commands )
@@ -425,6 +425,20 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
         }
     }
 
+    /**
+     * Hint that the record with the given id is about to be read, so that its page can be loaded in the background.
+     * Ids that don't point to a record, like {@link Record#NO_NEXT_RELATIONSHIP}, are ignored.
+     *
+     * @see PagedFile#prefetch(long)
+     */
+    public void prefetchRecord( long id )
+    {
+        if ( id >= 0 )
+        {
+            pagedFile.prefetch( pageIdForRecord( id ) );
+        }
+    }
+
     private void checkIdScanCursorBounds( PageCursor cursor )
     {
         if ( cursor.checkAndClearBoundsFlag() )
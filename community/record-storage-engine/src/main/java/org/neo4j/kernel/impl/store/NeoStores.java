@@ -442,7 +442,7 @@ public class NeoStores implements AutoCloseable
         return initialize( new PropertyStore( layout.propertyStore(), layout.idPropertyStore(), config, idGeneratorFactory, pageCache,
                 logProvider, (DynamicStringStore) getOrOpenStore( StoreType.PROPERTY_STRING ),
                 (PropertyKeyTokenStore) getOrOpenStore( StoreType.PROPERTY_KEY_TOKEN ), (DynamicArrayStore) getOrOpenStore( StoreType.PROPERTY_ARRAY ),
-                recordFormats, openOptions ) );
+                fileSystem, layout.propertyStringDictionary(), recordFormats, openOptions ) );
     }
 
     CommonAbstractStore createPropertyStringStore()
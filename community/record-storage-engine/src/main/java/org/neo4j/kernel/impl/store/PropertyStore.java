@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.store;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.file.OpenOption;
@@ -33,6 +34,7 @@ import org.neo4j.internal.helpers.collection.Iterables;
 import org.neo4j.internal.helpers.collection.Pair;
 import org.neo4j.internal.id.IdGeneratorFactory;
 import org.neo4j.internal.id.IdType;
+import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.memory.ByteBuffers;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
@@ -93,6 +95,8 @@ import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
  * 11: SHORT STRING
  * 12: SHORT ARRAY
  * 13: GEOMETRY
+ * 14: TEMPORAL
+ * 15: COMPRESSED STRING REFERENCE
  * </pre>
  * <h2>value formats</h2>
  * <pre>
@@ -154,6 +158,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
     // this variable here can be removed once the support for older store versions (that do not have these two
     // capabilities) has ceased, the variable can be removed.
     private final boolean allowStorePointsAndTemporal;
+    private final StringCompressionDictionary stringCompressionDictionary;
 
     public PropertyStore(
             File file,
@@ -165,6 +170,8 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
             DynamicStringStore stringPropertyStore,
             PropertyKeyTokenStore propertyKeyTokenStore,
             DynamicArrayStore arrayPropertyStore,
+            FileSystemAbstraction fileSystem,
+            File stringCompressionDictionaryFile,
             RecordFormats recordFormats,
             OpenOption... openOptions )
     {
@@ -175,6 +182,38 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         this.arrayStore = arrayPropertyStore;
         allowStorePointsAndTemporal = recordFormats.hasCapability( RecordStorageCapability.POINT_PROPERTIES ) &&
                 recordFormats.hasCapability( RecordStorageCapability.TEMPORAL_PROPERTIES );
+        stringCompressionDictionary = recordFormats.hasCapability( RecordStorageCapability.COMPRESSED_STRINGS )
+                                      ? StringCompressionDictionary.forFile( fileSystem, stringCompressionDictionaryFile, log )
+                                      : StringCompressionDictionary.DISABLED;
+    }
+
+    @Override
+    protected void initialise( boolean createIfNotExists )
+    {
+        super.initialise( createIfNotExists );
+        try
+        {
+            stringCompressionDictionary.load();
+        }
+        catch ( RuntimeException e )
+        {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void initialiseNewStoreFile() throws IOException
+    {
+        super.initialiseNewStoreFile();
+        stringCompressionDictionary.create();
+    }
+
+    @Override
+    public void close()
+    {
+        stringCompressionDictionary.close();
+        super.close();
     }
 
     @Override
@@ -234,7 +273,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         for ( DynamicRecord valueRecord : records )
         {
             PropertyType recordType = valueRecord.getType();
-            if ( recordType == PropertyType.STRING )
+            if ( recordType == PropertyType.STRING || recordType == PropertyType.COMPRESSED_STRING )
             {
                 stringStore.updateRecord( valueRecord, idUpdateListener );
             }
@@ -284,6 +323,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         {
         case ARRAY: return arrayStore;
         case STRING: return stringStore;
+        case COMPRESSED_STRING: return stringStore;
         default: return null;
         }
     }
@@ -305,11 +345,17 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
 
     public void encodeValue( PropertyBlock block, int keyId, Value value )
     {
-        encodeValue( block, keyId, value, stringStore, arrayStore, allowStorePointsAndTemporal );
+        encodeValue( block, keyId, value, stringStore, arrayStore, allowStorePointsAndTemporal, stringCompressionDictionary );
     }
 
     public static void encodeValue( PropertyBlock block, int keyId, Value value, DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator,
             boolean allowStorePointsAndTemporal )
+    {
+        encodeValue( block, keyId, value, stringAllocator, arrayAllocator, allowStorePointsAndTemporal, StringCompressionDictionary.DISABLED );
+    }
+
+    public static void encodeValue( PropertyBlock block, int keyId, Value value, DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator,
+            boolean allowStorePointsAndTemporal, StringCompressionDictionary stringCompressionDictionary )
     {
         if ( value instanceof ArrayValue )
         {
@@ -333,7 +379,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         }
         else
         {
-            value.writeTo( new PropertyBlockValueWriter( block, keyId, stringAllocator, allowStorePointsAndTemporal ) );
+            value.writeTo( new PropertyBlockValueWriter( block, keyId, stringAllocator, allowStorePointsAndTemporal, stringCompressionDictionary ) );
         }
     }
 
@@ -404,12 +450,15 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         private final int keyId;
         private final DynamicRecordAllocator stringAllocator;
         private final boolean allowStorePointsAndTemporal;
-        PropertyBlockValueWriter( PropertyBlock block, int keyId, DynamicRecordAllocator stringAllocator, boolean allowStorePointsAndTemporal )
+        private final StringCompressionDictionary stringCompressionDictionary;
+        PropertyBlockValueWriter( PropertyBlock block, int keyId, DynamicRecordAllocator stringAllocator, boolean allowStorePointsAndTemporal,
+                StringCompressionDictionary stringCompressionDictionary )
         {
             this.block = block;
             this.keyId = keyId;
             this.stringAllocator = stringAllocator;
             this.allowStorePointsAndTemporal = allowStorePointsAndTemporal;
+            this.stringCompressionDictionary = stringCompressionDictionary;
         }
 
         @Override
@@ -482,14 +531,21 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
                 return;
             }
 
-            // Fall back to dynamic string store
+            // Fall back to dynamic string store, compressed if that saves enough space
             byte[] encodedString = encodeString( value );
+            PropertyType type = PropertyType.STRING;
+            byte[] compressedString = stringCompressionDictionary.compress( encodedString );
+            if ( compressedString != null )
+            {
+                encodedString = compressedString;
+                type = PropertyType.COMPRESSED_STRING;
+            }
             List<DynamicRecord> valueRecords = new ArrayList<>();
             allocateStringRecords( valueRecords, encodedString, stringAllocator );
-            setSingleBlockValue( block, keyId, PropertyType.STRING, Iterables.first( valueRecords ).getId() );
+            setSingleBlockValue( block, keyId, type, Iterables.first( valueRecords ).getId() );
             for ( DynamicRecord valueRecord : valueRecords )
             {
-                valueRecord.setType( PropertyType.STRING.intValue() );
+                valueRecord.setType( type.intValue() );
             }
             block.setValueRecords( valueRecords );
         }
@@ -657,6 +713,18 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         return decodeString( source.other() );
     }
 
+    String getCompressedStringFor( PropertyBlock propertyBlock )
+    {
+        ensureHeavy( propertyBlock );
+        return getCompressedStringFor( propertyBlock.getValueRecords() );
+    }
+
+    public String getCompressedStringFor( Collection<DynamicRecord> dynamicRecords )
+    {
+        Pair<byte[], byte[]> source = stringStore.readFullByteArray( dynamicRecords, PropertyType.COMPRESSED_STRING );
+        return decodeString( stringCompressionDictionary.decompress( source.other() ) );
+    }
+
     Value getArrayFor( PropertyBlock propertyBlock )
     {
         ensureHeavy( propertyBlock );
@@ -685,6 +753,11 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         return allowStorePointsAndTemporal;
     }
 
+    public StringCompressionDictionary getStringCompressionDictionary()
+    {
+        return stringCompressionDictionary;
+    }
+
     /**
      * @return a calculator of property value sizes. The returned instance is designed to be used multiple times by a single thread only.
      */
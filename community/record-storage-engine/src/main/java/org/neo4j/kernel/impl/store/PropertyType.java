@@ -226,6 +226,20 @@ public enum PropertyType
         {
             return TemporalType.calculateNumberOfBlocksUsed( firstBlock );
         }
+    },
+    COMPRESSED_STRING( 15 )
+    {
+        @Override
+        public Value value( PropertyBlock block, PropertyStore store )
+        {
+            return Values.stringValue( store.getCompressedStringFor( block ) );
+        }
+
+        @Override
+        public byte[] readDynamicRecordHeader( byte[] recordBytes )
+        {
+            return EMPTY_BYTE_ARRAY;
+        }
     };
 
     public static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
@@ -299,6 +313,8 @@ public enum PropertyType
             return GEOMETRY;
         case 14:
             return TEMPORAL;
+        case 15:
+            return COMPRESSED_STRING;
         default:
             return null;
         }
@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.util.Native;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.neo4j.exceptions.UnderlyingStorageException;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.store.format.RecordStorageCapability;
+import org.neo4j.logging.Log;
+
+/**
+ * Zstd compression of the UTF-8 bytes of string property values that are too long to be inlined as a
+ * {@link LongerShortString} and therefore end up in a chain of dynamic string records. Values encoded like this
+ * have the type {@link PropertyType#COMPRESSED_STRING} and are only written to stores whose format has the
+ * {@link RecordStorageCapability#COMPRESSED_STRINGS} capability.
+ * <p>
+ * Each property store has at most one dictionary, trained from the first string values written to it and then kept
+ * in its own file for the lifetime of the store. A dictionary is what makes short, repetitive values like URLs or
+ * status texts compressible at all. The file is created together with the store, before there is a dictionary to put
+ * in it, so that a store whose file has gone missing fails to open instead of failing to read values later on.
+ * A trained dictionary is written and forced before any value is compressed with it, so every value in the store or
+ * in the transaction log that references it can always be read back.
+ * <p>
+ * Samples are taken from the values being written, but never at the expense of the writers: a value is simply not
+ * sampled if another thread is adding a sample at the same time, and sampling stops as soon as there are enough
+ * samples. Training is then handed off to the {@link #trainWith(Executor) training executor}.
+ * <p>
+ * A compressed value starts with the id of the dictionary it was compressed with, or {@link #NO_DICTIONARY_ID},
+ * followed by a zstd frame. A value is only compressed if that saves at least an eighth of the space, since every
+ * compressed value costs a decompression when read.
+ */
+public final class StringCompressionDictionary implements Closeable
+{
+    /**
+     * Compression without a dictionary is only attempted for values of at least this many bytes, since the zstd frame
+     * overhead makes anything shorter pointless.
+     */
+    public static final int MIN_COMPRESSIBLE_BYTES = 120;
+    /**
+     * Compression with a dictionary is attempted for all values of at least this many bytes.
+     */
+    public static final int MIN_DICTIONARY_COMPRESSIBLE_BYTES = 16;
+    static final int NO_DICTIONARY_ID = 0;
+    static final int DICTIONARY_ID = 1;
+    static final int DICTIONARY_BYTES = 16 * 1024;
+    static final int SAMPLE_BYTES = 1024 * 1024;
+    static final int MAX_SAMPLE_VALUE_BYTES = 4 * 1024;
+    private static final int COMPRESSION_LEVEL = 3;
+    private static final byte FORMAT_VERSION = 1;
+    private static final int FILE_HEADER_BYTES = Byte.BYTES + Byte.BYTES + Integer.BYTES;
+    private static final byte[] NO_DICTIONARY = new byte[0];
+    private static final boolean AVAILABLE = loadNative();
+
+    /**
+     * Used by stores that can not have compressed strings. Never compresses and never trains a dictionary.
+     */
+    public static final StringCompressionDictionary DISABLED = new StringCompressionDictionary( null, null, null, false );
+
+    private final FileSystemAbstraction fs;
+    private final File file;
+    private final Log log;
+    private final boolean enabled;
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    private List<byte[]> samples;
+    private int sampledBytes;
+    private volatile boolean sampling;
+    private volatile Executor trainingExecutor = Runnable::run;
+    private volatile ZstdDictCompress compressDictionary;
+    private volatile ZstdDictDecompress decompressDictionary;
+    private boolean closed;
+
+    private StringCompressionDictionary( FileSystemAbstraction fs, File file, Log log, boolean enabled )
+    {
+        this.fs = fs;
+        this.file = file;
+        this.log = log;
+        this.enabled = enabled;
+    }
+
+    /**
+     * The returned dictionary needs to be {@link #create() created} or {@link #load() loaded} before use.
+     *
+     * @param fs file system where the dictionary file lives.
+     * @param file the dictionary file of the property store.
+     * @param log where to log dictionary training.
+     */
+    public static StringCompressionDictionary forFile( FileSystemAbstraction fs, File file, Log log )
+    {
+        return new StringCompressionDictionary( fs, file, log, true );
+    }
+
+    /**
+     * Writes the dictionary file of a newly created property store, which has no dictionary yet.
+     */
+    public void create()
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+        try
+        {
+            writeDictionary( NO_DICTIONARY_ID, NO_DICTIONARY );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Unable to create string compression dictionary file " + file, e );
+        }
+    }
+
+    /**
+     * Reads the dictionary file of the property store and either starts using its dictionary, or starts sampling values to train one.
+     *
+     * @throws UnderlyingStorageException if the dictionary file is missing or can't be read.
+     */
+    public void load()
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+        if ( !fs.fileExists( file ) )
+        {
+            throw new UnderlyingStorageException( "Missing string compression dictionary file " + file +
+                    ", compressed string values in this store can't be read without it" );
+        }
+        byte[] bytes = readDictionary();
+        if ( !AVAILABLE )
+        {
+            return;
+        }
+        if ( bytes.length > 0 )
+        {
+            useDictionary( bytes );
+        }
+        else
+        {
+            samples = new ArrayList<>();
+            sampling = true;
+        }
+    }
+
+    /**
+     * @param executor where to train the dictionary once enough values have been sampled. Training takes a while, so this should not be
+     * the thread that happens to write the last sample, which is what happens by default.
+     */
+    public void trainWith( Executor executor )
+    {
+        trainingExecutor = executor;
+    }
+
+    /**
+     * @param utf8 the UTF-8 bytes of a string value.
+     * @return the compressed form of the given bytes, or {@code null} if the value should be stored uncompressed.
+     */
+    public byte[] compress( byte[] utf8 )
+    {
+        if ( !enabled || !AVAILABLE )
+        {
+            return null;
+        }
+        ZstdDictCompress dictionary = compressDictionary;
+        if ( dictionary == null && sampling )
+        {
+            sample( utf8 );
+            dictionary = compressDictionary;
+        }
+        if ( dictionary != null && utf8.length >= MIN_DICTIONARY_COMPRESSIBLE_BYTES )
+        {
+            return withHeader( DICTIONARY_ID, Zstd.compress( utf8, dictionary ), utf8.length );
+        }
+        if ( utf8.length >= MIN_COMPRESSIBLE_BYTES )
+        {
+            return withHeader( NO_DICTIONARY_ID, Zstd.compress( utf8, COMPRESSION_LEVEL ), utf8.length );
+        }
+        return null;
+    }
+
+    /**
+     * @param compressed bytes previously returned from {@link #compress(byte[])}.
+     * @return the UTF-8 bytes of the string value.
+     */
+    public byte[] decompress( byte[] compressed )
+    {
+        if ( !AVAILABLE )
+        {
+            throw new UnderlyingStorageException( "Unable to read compressed string value since the zstd native library is not available on this platform" );
+        }
+        if ( compressed.length < 2 )
+        {
+            throw new InvalidRecordException( "Invalid compressed string of " + compressed.length + " bytes" );
+        }
+        int dictionaryId = compressed[0];
+        byte[] frame = new byte[compressed.length - 1];
+        System.arraycopy( compressed, 1, frame, 0, frame.length );
+        long size = Zstd.decompressedSize( frame );
+        if ( size <= 0 || size > Integer.MAX_VALUE )
+        {
+            throw new InvalidRecordException( "Invalid compressed string of " + compressed.length + " bytes, with decompressed size " + size );
+        }
+        if ( dictionaryId == NO_DICTIONARY_ID )
+        {
+            return Zstd.decompress( frame, (int) size );
+        }
+        ZstdDictDecompress dictionary = decompressDictionary;
+        if ( dictionaryId != DICTIONARY_ID || dictionary == null )
+        {
+            throw new InvalidRecordException( "Compressed string references string compression dictionary " + dictionaryId + ", which is not in " + file );
+        }
+        return Zstd.decompress( frame, dictionary, (int) size );
+    }
+
+    /**
+     * @return whether or not this store has a trained dictionary.
+     */
+    public boolean hasDictionary()
+    {
+        return compressDictionary != null;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+        sampling = false;
+        ZstdDictCompress compress = compressDictionary;
+        ZstdDictDecompress decompress = decompressDictionary;
+        compressDictionary = null;
+        decompressDictionary = null;
+        if ( compress != null )
+        {
+            compress.close();
+            decompress.close();
+        }
+    }
+
+    private void sample( byte[] utf8 )
+    {
+        if ( utf8.length < MIN_DICTIONARY_COMPRESSIBLE_BYTES || utf8.length > MAX_SAMPLE_VALUE_BYTES || !sampleLock.tryLock() )
+        {
+            // A value that another thread competes with for the sampler is simply not sampled, writers never wait here
+            return;
+        }
+        byte[][] fullSamples;
+        try
+        {
+            if ( !sampling )
+            {
+                return;
+            }
+            if ( sampledBytes + utf8.length <= SAMPLE_BYTES )
+            {
+                samples.add( utf8.clone() );
+                sampledBytes += utf8.length;
+                return;
+            }
+            sampling = false;
+            fullSamples = samples.toArray( new byte[samples.size()][] );
+            samples = null;
+        }
+        finally
+        {
+            sampleLock.unlock();
+        }
+
+        try
+        {
+            trainingExecutor.execute( () -> train( fullSamples ) );
+        }
+        catch ( RejectedExecutionException e )
+        {
+            // The store is shutting down, a dictionary will be trained from the values written after it starts again
+            log.warn( "Unable to schedule training of a string compression dictionary for " + file, e );
+        }
+    }
+
+    private void train( byte[][] samples )
+    {
+        byte[] dictionaryBuffer = new byte[DICTIONARY_BYTES];
+        long size = Zstd.trainFromBuffer( samples, dictionaryBuffer );
+        if ( Zstd.isError( size ) )
+        {
+            // Values too diverse to train on, carry on w/o a dictionary
+            log.warn( "Unable to train a string compression dictionary for " + file + ", strings will be compressed w/o one: " + Zstd.getErrorName( size ) );
+            return;
+        }
+        byte[] bytes = Arrays.copyOf( dictionaryBuffer, (int) size );
+        synchronized ( this )
+        {
+            if ( closed )
+            {
+                return;
+            }
+            try
+            {
+                writeDictionary( DICTIONARY_ID, bytes );
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Unable to write string compression dictionary to " + file + ", strings will be compressed w/o one", e );
+                return;
+            }
+            useDictionary( bytes );
+        }
+        log.info( "Trained a string compression dictionary of " + bytes.length + " bytes for " + file );
+    }
+
+    private void useDictionary( byte[] bytes )
+    {
+        decompressDictionary = new ZstdDictDecompress( bytes );
+        compressDictionary = new ZstdDictCompress( bytes, COMPRESSION_LEVEL );
+    }
+
+    private void writeDictionary( int dictionaryId, byte[] bytes ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( FILE_HEADER_BYTES + bytes.length + Long.BYTES );
+        buffer.put( FORMAT_VERSION ).put( (byte) dictionaryId ).putInt( bytes.length ).put( bytes ).putLong( checksum( bytes ) );
+        buffer.flip();
+        // Write to a temporary file first, so that a crash never leaves a partial dictionary behind
+        File tempFile = new File( file.getParentFile(), file.getName() + ".tmp" );
+        try ( StoreChannel channel = fs.write( tempFile ) )
+        {
+            channel.truncate( 0 );
+            channel.writeAll( buffer );
+            channel.force( false );
+        }
+        fs.renameFile( tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+    }
+
+    private byte[] readDictionary()
+    {
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( (int) channel.size() );
+            channel.readAll( buffer );
+            buffer.flip();
+            if ( buffer.remaining() < FILE_HEADER_BYTES || buffer.get() != FORMAT_VERSION )
+            {
+                throw new UnderlyingStorageException( "Unrecognized string compression dictionary file " + file );
+            }
+            byte dictionaryId = buffer.get();
+            if ( dictionaryId != NO_DICTIONARY_ID && dictionaryId != DICTIONARY_ID )
+            {
+                throw new UnderlyingStorageException( "Unrecognized string compression dictionary file " + file );
+            }
+            int length = buffer.getInt();
+            if ( length < 0 || (length == 0) != (dictionaryId == NO_DICTIONARY_ID) || buffer.remaining() != length + Long.BYTES )
+            {
+                throw new UnderlyingStorageException( "Truncated string compression dictionary file " + file );
+            }
+            byte[] bytes = new byte[length];
+            buffer.get( bytes );
+            if ( buffer.getLong() != checksum( bytes ) )
+            {
+                throw new UnderlyingStorageException( "Checksum mismatch in string compression dictionary file " + file );
+            }
+            return bytes;
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Unable to read string compression dictionary file " + file, e );
+        }
+    }
+
+    private static byte[] withHeader( int dictionaryId, byte[] frame, int uncompressedLength )
+    {
+        if ( 1 + frame.length > uncompressedLength - (uncompressedLength >>> 3) )
+        {
+            return null;
+        }
+        byte[] compressed = new byte[1 + frame.length];
+        compressed[0] = (byte) dictionaryId;
+        System.arraycopy( frame, 0, compressed, 1, frame.length );
+        return compressed;
+    }
+
+    private static long checksum( byte[] bytes )
+    {
+        CRC32 crc = new CRC32();
+        crc.update( bytes );
+        return crc.getValue();
+    }
+
+    private static boolean loadNative()
+    {
+        try
+        {
+            Native.load();
+            return Native.isLoaded();
+        }
+        catch ( Throwable t )
+        {
+            // Strings are simply stored uncompressed on platforms where zstd is not available
+            return false;
+        }
+    }
+}
@@ -83,4 +83,17 @@ public abstract class FormatFamily implements Comparable<FormatFamily>
     {
         return oldFormat.getFormatFamily().compareTo( newFormat.getFormatFamily() ) > 0;
     }
+
+    /**
+     * Check if record formats are of different format families with the same rank. Families of the same rank hold data that
+     * the other family can't necessarily hold, e.g. records with other id ranges, and so it is not safe to migrate between them
+     * in either direction.
+     * @param newFormat new record format
+     * @param oldFormat old record format
+     * @return true if the record formats are of different families with the same rank
+     */
+    public static boolean isUnrelatedFamilyFormat( RecordFormats newFormat, RecordFormats oldFormat )
+    {
+        return oldFormat.getFormatFamily().compareTo( newFormat.getFormatFamily() ) == 0 && !isSameFamily( oldFormat, newFormat );
+    }
 }
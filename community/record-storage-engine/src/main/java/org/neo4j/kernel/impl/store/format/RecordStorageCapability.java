@@ -77,7 +77,13 @@ public enum RecordStorageCapability implements Capability
      * ID files (neostore.xyz.id) are backed by {@link GBPTree}, transactional and recoverable.
      */
     GBPTREE_ID_FILES( false, CapabilityType.STORE ),
-    GBPTREE_COUNTS_STORE( CapabilityType.STORE );
+    GBPTREE_COUNTS_STORE( CapabilityType.STORE ),
+
+    /**
+     * Long string property values can be stored compressed, see {@link org.neo4j.kernel.impl.store.StringCompressionDictionary}.
+     * Compressed strings are an addition to the format, not a change
+     */
+    COMPRESSED_STRINGS( true, CapabilityType.STORE );
 
     private final CapabilityType[] types;
     private boolean additive;
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.neo4j.kernel.impl.store.format.FormatFamily;
+
+/**
+ * Compact format family. Stores with this format hold the same amount of data as the standard format family,
+ * but with records that only take as much space as the references they hold actually need.
+ * <p>
+ * Ranks above the standard family, so that standard stores can be migrated to it. It has the same rank as the high limit family,
+ * which holds larger ids than this family can, and families of the same rank can't be migrated to one another,
+ * see {@link FormatFamily#isUnrelatedFamilyFormat(org.neo4j.kernel.impl.store.format.RecordFormats,
+ * org.neo4j.kernel.impl.store.format.RecordFormats)}.
+ */
+public class CompactFormatFamily extends FormatFamily
+{
+    public static final FormatFamily INSTANCE = new CompactFormatFamily();
+
+    private CompactFormatFamily()
+    {
+    }
+
+    @Override
+    public String getName()
+    {
+        return "Compact format family";
+    }
+
+    @Override
+    public int rank()
+    {
+        return 1;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import java.io.IOException;
+
+import org.neo4j.internal.id.IdSequence;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.format.BaseOneByteHeaderRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.StandardFormatSettings;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+/**
+ * Relationship format where every field only takes as many bytes as its value needs.
+ * <p>
+ * Fields are written as unsigned variable-length longs, 7 bits per byte. Pointers to other relationships are written as a distance
+ * relative to the id of the record itself whenever that is shorter than the pointer itself, which is the common case for relationships
+ * that are created close to each other, see {@code relationship_id_locality}. The previous pointer of the first relationship in a chain
+ * holds the degree of the chain and is typically a small number, so that one is usually written as it is.
+ * <p>
+ * The record layout is:
+ * <pre>
+ *  1B  header: in use, has secondary unit, is secondary unit, first in first/second chain and has property bits
+ *  5B  secondary unit id, only if the record has a secondary unit
+ *  1B  how each of the four relationship pointers is encoded, 2 bits each
+ *  ..  type, first node, second node, the four relationship pointers which are not null and next property, if any
+ * </pre>
+ * Records are {@link #RECORD_SIZE} bytes, compared to the 34 bytes of the standard format. A record whose fields don't fit continues
+ * into a secondary record unit, which starts with a header byte of its own and holds the rest of the fields. The limits are the same as
+ * for the standard format, which guarantees that every record fits in two units.
+ */
+public class CompactRelationshipRecordFormat extends BaseOneByteHeaderRecordFormat<RelationshipRecord>
+{
+    public static final int RECORD_SIZE = 24;
+
+    static final int HAS_SECONDARY_UNIT_BIT = 0b0000_0010;
+    static final int SECONDARY_UNIT_BIT = 0b0000_0100;
+    static final int FIRST_IN_FIRST_CHAIN_BIT = 0b0000_1000;
+    static final int FIRST_IN_SECOND_CHAIN_BIT = 0b0001_0000;
+    static final int HAS_PROPERTY_BIT = 0b0010_0000;
+
+    private static final int SECONDARY_UNIT_ID_SIZE = 5;
+    private static final int MAX_VAR_LONG_SIZE = 10;
+
+    private static final int NULL_POINTER = 0;
+    private static final int FORWARD_POINTER = 1;
+    private static final int BACKWARD_POINTER = 2;
+    private static final int ABSOLUTE_POINTER = 3;
+
+    private static final long NULL = Record.NULL_REFERENCE.longValue();
+
+    public CompactRelationshipRecordFormat()
+    {
+        super( fixedRecordSize( RECORD_SIZE ), 0, IN_USE_BIT, StandardFormatSettings.RELATIONSHIP_MAXIMUM_ID_BITS );
+    }
+
+    @Override
+    public RelationshipRecord newRecord()
+    {
+        return new RelationshipRecord( -1 );
+    }
+
+    @Override
+    public boolean isInUse( PageCursor cursor )
+    {
+        byte headerByte = cursor.getByte( cursor.getOffset() );
+        return isInUse( headerByte ) && !has( headerByte, SECONDARY_UNIT_BIT );
+    }
+
+    @Override
+    public void prepare( RelationshipRecord record, int recordSize, IdSequence idSequence )
+    {
+        if ( record.inUse() )
+        {
+            boolean requiresSecondaryUnit = HEADER_SIZE + fieldsSize( record ) > recordSize;
+            record.setRequiresSecondaryUnit( requiresSecondaryUnit );
+            if ( requiresSecondaryUnit && !record.hasSecondaryUnitId() )
+            {
+                record.setSecondaryUnitIdOnCreate( idSequence.nextId() );
+            }
+        }
+    }
+
+    @Override
+    public void read( RelationshipRecord record, PageCursor cursor, RecordLoad mode, int recordSize ) throws IOException
+    {
+        int recordEnd = cursor.getOffset() + recordSize;
+        byte headerByte = cursor.getByte();
+        boolean secondaryUnit = has( headerByte, SECONDARY_UNIT_BIT );
+        boolean inUse = isInUse( headerByte ) && !secondaryUnit;
+        record.setInUse( inUse );
+        if ( !mode.shouldLoad( inUse ) || secondaryUnit )
+        {
+            if ( secondaryUnit )
+            {
+                // The other half of some other record, there's nothing here that makes sense on its own
+                record.clear();
+            }
+            cursor.setOffset( recordEnd );
+            return;
+        }
+
+        long secondaryUnitId = NULL;
+        PageCursor secondaryCursor = null;
+        if ( has( headerByte, HAS_SECONDARY_UNIT_BIT ) )
+        {
+            secondaryUnitId = getSecondaryUnitId( cursor );
+            secondaryCursor = openSecondaryUnit( cursor, secondaryUnitId, recordSize );
+            if ( secondaryCursor == null || !isSecondaryUnit( secondaryCursor.getByte() ) )
+            {
+                if ( inUse )
+                {
+                    cursor.setCursorException( "Relationship record " + record.getId() + " points to secondary unit " + secondaryUnitId +
+                            ", which isn't a secondary unit" );
+                }
+                // A deleted record read by force whose secondary unit has already been reused by some other record
+                record.clear();
+                cursor.setOffset( recordEnd );
+                return;
+            }
+        }
+
+        long id = record.getId();
+        int pointerEncodings = getByte( cursor, recordEnd, secondaryCursor ) & 0xFF;
+        int type = (int) getVarLong( cursor, recordEnd, secondaryCursor );
+        long firstNode = getVarLong( cursor, recordEnd, secondaryCursor );
+        long secondNode = getVarLong( cursor, recordEnd, secondaryCursor );
+        long firstPrevRel = getPointer( id, pointerEncodings, 0, cursor, recordEnd, secondaryCursor );
+        long firstNextRel = getPointer( id, pointerEncodings, 1, cursor, recordEnd, secondaryCursor );
+        long secondPrevRel = getPointer( id, pointerEncodings, 2, cursor, recordEnd, secondaryCursor );
+        long secondNextRel = getPointer( id, pointerEncodings, 3, cursor, recordEnd, secondaryCursor );
+        long nextProp = has( headerByte, HAS_PROPERTY_BIT ) ? getVarLong( cursor, recordEnd, secondaryCursor ) : Record.NO_NEXT_PROPERTY.longValue();
+
+        record.initialize( inUse, nextProp, firstNode, secondNode, type, firstPrevRel, firstNextRel, secondPrevRel, secondNextRel,
+                has( headerByte, FIRST_IN_FIRST_CHAIN_BIT ), has( headerByte, FIRST_IN_SECOND_CHAIN_BIT ) );
+        if ( secondaryUnitId != NULL )
+        {
+            record.setSecondaryUnitIdOnLoad( secondaryUnitId );
+        }
+        cursor.setOffset( recordEnd );
+    }
+
+    @Override
+    public void write( RelationshipRecord record, PageCursor cursor, int recordSize ) throws IOException
+    {
+        if ( !record.inUse() )
+        {
+            // Only clear the in use bit, so that readers that load deleted records by force can still follow the pointers
+            markAsUnused( cursor );
+            return;
+        }
+
+        int recordEnd = cursor.getOffset() + recordSize;
+        boolean secondaryUnit = record.requiresSecondaryUnit();
+        if ( !secondaryUnit && HEADER_SIZE + fieldsSize( record ) > recordSize )
+        {
+            throw new IllegalStateException( "Relationship record " + record + " doesn't fit in a single record unit and has not been prepared" );
+        }
+
+        long id = record.getId();
+        long nextProp = record.getNextProp();
+        byte headerByte = IN_USE_BIT;
+        headerByte = set( headerByte, HAS_SECONDARY_UNIT_BIT, secondaryUnit );
+        headerByte = set( headerByte, FIRST_IN_FIRST_CHAIN_BIT, record.isFirstInFirstChain() );
+        headerByte = set( headerByte, FIRST_IN_SECOND_CHAIN_BIT, record.isFirstInSecondChain() );
+        headerByte = set( headerByte, HAS_PROPERTY_BIT, nextProp != Record.NO_NEXT_PROPERTY.longValue() );
+        cursor.putByte( headerByte );
+
+        PageCursor secondaryCursor = null;
+        if ( secondaryUnit )
+        {
+            long secondaryUnitId = record.getSecondaryUnitId();
+            cursor.putByte( (byte) (secondaryUnitId >>> 32) );
+            cursor.putInt( (int) secondaryUnitId );
+            secondaryCursor = openSecondaryUnit( cursor, secondaryUnitId, recordSize );
+            if ( secondaryCursor == null )
+            {
+                throw new IOException( "Unable to write secondary unit " + secondaryUnitId + " of relationship record " + id );
+            }
+            secondaryCursor.putByte( (byte) (IN_USE_BIT | SECONDARY_UNIT_BIT) );
+        }
+
+        int pointerEncodings = pointerEncoding( id, record.getFirstPrevRel() ) |
+                pointerEncoding( id, record.getFirstNextRel() ) << 2 |
+                pointerEncoding( id, record.getSecondPrevRel() ) << 4 |
+                pointerEncoding( id, record.getSecondNextRel() ) << 6;
+        putByte( cursor, recordEnd, secondaryCursor, (byte) pointerEncodings );
+        putVarLong( cursor, recordEnd, secondaryCursor, record.getType() );
+        putVarLong( cursor, recordEnd, secondaryCursor, record.getFirstNode() );
+        putVarLong( cursor, recordEnd, secondaryCursor, record.getSecondNode() );
+        putPointer( id, record.getFirstPrevRel(), cursor, recordEnd, secondaryCursor );
+        putPointer( id, record.getFirstNextRel(), cursor, recordEnd, secondaryCursor );
+        putPointer( id, record.getSecondPrevRel(), cursor, recordEnd, secondaryCursor );
+        putPointer( id, record.getSecondNextRel(), cursor, recordEnd, secondaryCursor );
+        if ( nextProp != Record.NO_NEXT_PROPERTY.longValue() )
+        {
+            putVarLong( cursor, recordEnd, secondaryCursor, nextProp );
+        }
+        cursor.setOffset( recordEnd );
+    }
+
+    /**
+     * @return number of bytes needed for all fields of the given record, i.e. everything but the header byte and the secondary unit id.
+     */
+    static int fieldsSize( RelationshipRecord record )
+    {
+        long id = record.getId();
+        int size = 1 + varLongSize( record.getType() ) + varLongSize( record.getFirstNode() ) + varLongSize( record.getSecondNode() ) +
+                pointerSize( id, record.getFirstPrevRel() ) + pointerSize( id, record.getFirstNextRel() ) +
+                pointerSize( id, record.getSecondPrevRel() ) + pointerSize( id, record.getSecondNextRel() );
+        long nextProp = record.getNextProp();
+        if ( nextProp != Record.NO_NEXT_PROPERTY.longValue() )
+        {
+            size += varLongSize( nextProp );
+        }
+        return size;
+    }
+
+    private static int pointerEncoding( long id, long pointer )
+    {
+        if ( pointer == NULL )
+        {
+            return NULL_POINTER;
+        }
+        long distance = pointer - id;
+        if ( varLongSize( pointer ) <= varLongSize( Math.abs( distance ) ) )
+        {
+            return ABSOLUTE_POINTER;
+        }
+        return distance >= 0 ? FORWARD_POINTER : BACKWARD_POINTER;
+    }
+
+    private static int pointerSize( long id, long pointer )
+    {
+        return pointer == NULL ? 0 : Math.min( varLongSize( pointer ), varLongSize( Math.abs( pointer - id ) ) );
+    }
+
+    private static void putPointer( long id, long pointer, PageCursor cursor, int recordEnd, PageCursor secondaryCursor )
+    {
+        switch ( pointerEncoding( id, pointer ) )
+        {
+        case FORWARD_POINTER:
+            putVarLong( cursor, recordEnd, secondaryCursor, pointer - id );
+            break;
+        case BACKWARD_POINTER:
+            putVarLong( cursor, recordEnd, secondaryCursor, id - pointer );
+            break;
+        case ABSOLUTE_POINTER:
+            putVarLong( cursor, recordEnd, secondaryCursor, pointer );
+            break;
+        default:
+            // Null pointers take no space at all
+        }
+    }
+
+    private static long getPointer( long id, int pointerEncodings, int index, PageCursor cursor, int recordEnd, PageCursor secondaryCursor )
+    {
+        switch ( (pointerEncodings >>> (index * 2)) & 0b11 )
+        {
+        case FORWARD_POINTER:
+            return id + getVarLong( cursor, recordEnd, secondaryCursor );
+        case BACKWARD_POINTER:
+            return id - getVarLong( cursor, recordEnd, secondaryCursor );
+        case ABSOLUTE_POINTER:
+            return getVarLong( cursor, recordEnd, secondaryCursor );
+        default:
+            return NULL;
+        }
+    }
+
+    static int varLongSize( long value )
+    {
+        int size = 1;
+        while ( (value >>>= 7) != 0 )
+        {
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarLong( PageCursor cursor, int recordEnd, PageCursor secondaryCursor, long value )
+    {
+        while ( (value & ~0x7FL) != 0 )
+        {
+            putByte( cursor, recordEnd, secondaryCursor, (byte) ((value & 0x7F) | 0x80) );
+            value >>>= 7;
+        }
+        putByte( cursor, recordEnd, secondaryCursor, (byte) value );
+    }
+
+    private static long getVarLong( PageCursor cursor, int recordEnd, PageCursor secondaryCursor )
+    {
+        long value = 0;
+        for ( int i = 0; i < MAX_VAR_LONG_SIZE; i++ )
+        {
+            byte b = getByte( cursor, recordEnd, secondaryCursor );
+            value |= (b & 0x7FL) << (i * 7);
+            if ( (b & 0x80) == 0 )
+            {
+                return value;
+            }
+        }
+        // Only happens on inconsistent reads, which will be retried
+        cursor.setCursorException( "Malformed variable-length value in relationship record" );
+        return value;
+    }
+
+    private static void putByte( PageCursor cursor, int recordEnd, PageCursor secondaryCursor, byte value )
+    {
+        if ( cursor.getOffset() < recordEnd )
+        {
+            cursor.putByte( value );
+        }
+        else
+        {
+            // The record has been prepared to have a secondary unit if its fields don't fit in the first one
+            secondaryCursor.putByte( value );
+        }
+    }
+
+    private static byte getByte( PageCursor cursor, int recordEnd, PageCursor secondaryCursor )
+    {
+        if ( cursor.getOffset() < recordEnd )
+        {
+            return cursor.getByte();
+        }
+        if ( secondaryCursor == null )
+        {
+            // Only happens on inconsistent reads, which will be retried
+            cursor.setCursorException( "Relationship record continues beyond its single record unit" );
+            return 0;
+        }
+        return secondaryCursor.getByte();
+    }
+
+    private static long getSecondaryUnitId( PageCursor cursor )
+    {
+        long highByte = cursor.getByte() & 0xFFL;
+        long lowInt = cursor.getInt() & 0xFFFFFFFFL;
+        return highByte << 32 | lowInt;
+    }
+
+    private static boolean isSecondaryUnit( byte headerByte )
+    {
+        return has( headerByte, IN_USE_BIT ) && has( headerByte, SECONDARY_UNIT_BIT );
+    }
+
+    /**
+     * @return a cursor linked to the given cursor, placed at the start of the given secondary unit, or {@code null} if that unit doesn't exist.
+     */
+    private static PageCursor openSecondaryUnit( PageCursor cursor, long secondaryUnitId, int recordSize ) throws IOException
+    {
+        int recordsPerPage = cursor.getCurrentPageSize() / recordSize;
+        long pageId = secondaryUnitId / recordsPerPage;
+        int offset = (int) (secondaryUnitId % recordsPerPage) * recordSize;
+        PageCursor secondaryCursor = cursor.openLinkedCursor( pageId );
+        if ( !secondaryCursor.next( pageId ) )
+        {
+            return null;
+        }
+        secondaryCursor.setOffset( offset );
+        return secondaryCursor;
+    }
+}
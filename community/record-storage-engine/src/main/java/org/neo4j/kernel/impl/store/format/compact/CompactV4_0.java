@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.neo4j.kernel.impl.store.format.BaseRecordFormats;
+import org.neo4j.kernel.impl.store.format.FormatFamily;
+import org.neo4j.kernel.impl.store.format.RecordFormat;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.format.RecordStorageCapability;
+import org.neo4j.kernel.impl.store.format.StoreVersion;
+import org.neo4j.kernel.impl.store.format.standard.DynamicRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.LabelTokenRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.NodeRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.PropertyKeyTokenRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.PropertyRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.RelationshipGroupRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.RelationshipTypeTokenRecordFormat;
+import org.neo4j.kernel.impl.store.format.standard.SchemaRecordFormat;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyKeyTokenRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipTypeTokenRecord;
+import org.neo4j.kernel.impl.store.record.SchemaRecord;
+import org.neo4j.storageengine.api.IndexCapabilities;
+
+/**
+ * Record format that has the same limits as {@link org.neo4j.kernel.impl.store.format.standard.StandardV4_0}, but encodes relationships,
+ * which typically make up the bulk of a store, with {@link CompactRelationshipRecordFormat}. All other records are stored as in the standard format.
+ * Long string property values may additionally be stored compressed, see {@link org.neo4j.kernel.impl.store.StringCompressionDictionary}.
+ */
+public class CompactV4_0 extends BaseRecordFormats
+{
+    public static final String STORE_VERSION = StoreVersion.COMPACT_V4_0.versionString();
+    public static final RecordFormats RECORD_FORMATS = new CompactV4_0();
+    public static final String NAME = "compact";
+
+    public CompactV4_0()
+    {
+        super( STORE_VERSION, StoreVersion.COMPACT_V4_0.introductionVersion(), 9,
+                RecordStorageCapability.SCHEMA,
+                RecordStorageCapability.DENSE_NODES,
+                RecordStorageCapability.POINT_PROPERTIES,
+                RecordStorageCapability.TEMPORAL_PROPERTIES,
+                RecordStorageCapability.SECONDARY_RECORD_UNITS,
+                RecordStorageCapability.FLEXIBLE_SCHEMA_STORE,
+                RecordStorageCapability.INTERNAL_TOKENS,
+                RecordStorageCapability.GBPTREE_ID_FILES,
+                IndexCapabilities.LuceneCapability.LUCENE_8,
+                IndexCapabilities.IndexProviderCapability.INDEX_PROVIDERS_40,
+                IndexCapabilities.ConfigCapability.SCHEMA_STORE_CONFIG,
+                RecordStorageCapability.GBPTREE_COUNTS_STORE,
+                RecordStorageCapability.COMPRESSED_STRINGS );
+    }
+
+    @Override
+    public RecordFormat<NodeRecord> node()
+    {
+        return new NodeRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<RelationshipGroupRecord> relationshipGroup()
+    {
+        return new RelationshipGroupRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<RelationshipRecord> relationship()
+    {
+        return new CompactRelationshipRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<PropertyRecord> property()
+    {
+        return new PropertyRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<LabelTokenRecord> labelToken()
+    {
+        return new LabelTokenRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<PropertyKeyTokenRecord> propertyKeyToken()
+    {
+        return new PropertyKeyTokenRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<RelationshipTypeTokenRecord> relationshipTypeToken()
+    {
+        return new RelationshipTypeTokenRecordFormat();
+    }
+
+    @Override
+    public RecordFormat<DynamicRecord> dynamic()
+    {
+        return new DynamicRecordFormat();
+    }
+
+    @Override
+    public FormatFamily getFormatFamily()
+    {
+        return CompactFormatFamily.INSTANCE;
+    }
+
+    @Override
+    public RecordFormat<SchemaRecord> schema()
+    {
+        return new SchemaRecordFormat();
+    }
+
+    @Override
+    public String name()
+    {
+        return NAME;
+    }
+}
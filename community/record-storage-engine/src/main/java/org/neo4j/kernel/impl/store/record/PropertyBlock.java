@@ -184,6 +184,7 @@ public class PropertyBlock implements Cloneable
             switch ( type )
             {
             case STRING:
+            case COMPRESSED_STRING:
             case ARRAY:
                 result.append( ",firstDynamic=" ).append( getSingleValueLong() );
                 break;
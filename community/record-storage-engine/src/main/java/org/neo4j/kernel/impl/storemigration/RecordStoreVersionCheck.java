@@ -127,9 +127,10 @@ public class RecordStoreVersionCheck implements StoreVersionCheck
                 RecordFormats format = RecordFormatSelector.selectForVersion( desiredVersion );
                 fromFormat = RecordFormatSelector.selectForVersion( version );
 
-                // If we are trying to open an enterprise store when configured to use community format, then inform the user
-                // of the config setting to change since downgrades aren't possible but the store can still be opened.
-                if ( FormatFamily.isLowerFamilyFormat( format, fromFormat ) )
+                // If we are trying to open an enterprise store when configured to use community format, or a store of another family
+                // of the same rank, then inform the user of the config setting to change since such migrations aren't possible
+                // but the store can still be opened.
+                if ( FormatFamily.isLowerFamilyFormat( format, fromFormat ) || FormatFamily.isUnrelatedFamilyFormat( format, fromFormat ) )
                 {
                     return new Result( Outcome.unexpectedUpgradingVersion, version, metaDataFile.getAbsolutePath() );
                 }
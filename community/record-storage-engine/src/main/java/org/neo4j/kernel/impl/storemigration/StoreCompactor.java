@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storemigration;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.exceptions.KernelException;
+import org.neo4j.internal.batchimport.AdditionalInitialIds;
+import org.neo4j.internal.batchimport.BatchImporter;
+import org.neo4j.internal.batchimport.BatchImporterFactory;
+import org.neo4j.internal.batchimport.Configuration;
+import org.neo4j.internal.batchimport.InputIterable;
+import org.neo4j.internal.batchimport.InputIterator;
+import org.neo4j.internal.batchimport.LogFilesInitializer;
+import org.neo4j.internal.batchimport.cache.LongArray;
+import org.neo4j.internal.batchimport.cache.NumberArrayFactory;
+import org.neo4j.internal.batchimport.input.Collector;
+import org.neo4j.internal.batchimport.input.Collectors;
+import org.neo4j.internal.batchimport.input.IdType;
+import org.neo4j.internal.batchimport.input.Input;
+import org.neo4j.internal.batchimport.input.InputChunk;
+import org.neo4j.internal.batchimport.input.InputEntityVisitor;
+import org.neo4j.internal.batchimport.input.ReadableGroups;
+import org.neo4j.internal.batchimport.staging.ExecutionMonitor;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.internal.id.IdGeneratorFactory;
+import org.neo4j.internal.id.ScanOnOpenOverwritingIdGeneratorFactory;
+import org.neo4j.internal.id.ScanOnOpenReadOnlyIdGeneratorFactory;
+import org.neo4j.internal.recordstorage.RecordNodeCursor;
+import org.neo4j.internal.recordstorage.RecordStorageEngineFactory;
+import org.neo4j.internal.recordstorage.RecordStorageReader;
+import org.neo4j.internal.recordstorage.SchemaRuleAccess;
+import org.neo4j.internal.recordstorage.StoreTokens;
+import org.neo4j.internal.schema.SchemaRule;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseFile;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.logging.internal.LogService;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageEntityCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
+import org.neo4j.storageengine.api.StorageRelationshipTraversalCursor;
+import org.neo4j.storageengine.migration.SchemaRuleMigrationAccess;
+import org.neo4j.token.TokenHolders;
+import org.neo4j.token.api.NamedToken;
+import org.neo4j.token.api.TokenHolder;
+
+import static java.lang.Long.min;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.internal.batchimport.ImportLogic.NO_MONITOR;
+import static org.neo4j.internal.recordstorage.StoreTokens.allTokens;
+import static org.neo4j.kernel.impl.storemigration.FileOperation.COPY;
+import static org.neo4j.kernel.impl.storemigration.StoreMigratorFileOperation.fileOperation;
+
+/**
+ * Copies a record store into a new store which is as compact as a freshly imported one, using the {@link BatchImporter}:
+ * <ul>
+ * <li>Nodes get dense ids in breadth-first order of the graph, so that connected nodes end up close to each other.</li>
+ * <li>Relationships get dense ids in the order of their start nodes, so that relationships of a node end up close to each other
+ * and relationship chains are mostly traversed in store order.</li>
+ * <li>Property, dynamic and relationship group records are all written from scratch.</li>
+ * <li>Token ids and schema rules are kept as they are.</li>
+ * </ul>
+ * Indexes are not copied since they refer to the old node ids, they are instead populated when the new database is started.
+ * The transaction log of the new store starts from scratch.
+ */
+public class StoreCompactor
+{
+    private static final DatabaseFile[] TOKEN_STORE_FILES = {
+            DatabaseFile.LABEL_TOKEN_STORE, DatabaseFile.LABEL_TOKEN_NAMES_STORE,
+            DatabaseFile.PROPERTY_KEY_TOKEN_STORE, DatabaseFile.PROPERTY_KEY_TOKEN_NAMES_STORE,
+            DatabaseFile.RELATIONSHIP_TYPE_TOKEN_STORE, DatabaseFile.RELATIONSHIP_TYPE_TOKEN_NAMES_STORE};
+    private static final StoreType[] TOKEN_STORE_TYPES = {
+            StoreType.LABEL_TOKEN, StoreType.LABEL_TOKEN_NAME,
+            StoreType.PROPERTY_KEY_TOKEN, StoreType.PROPERTY_KEY_TOKEN_NAME,
+            StoreType.RELATIONSHIP_TYPE_TOKEN, StoreType.RELATIONSHIP_TYPE_TOKEN_NAME};
+
+    private final FileSystemAbstraction fileSystem;
+    private final PageCache pageCache;
+    private final Config config;
+    private final LogService logService;
+    private final JobScheduler jobScheduler;
+
+    public StoreCompactor( FileSystemAbstraction fileSystem, PageCache pageCache, Config config, LogService logService, JobScheduler jobScheduler )
+    {
+        this.fileSystem = fileSystem;
+        this.pageCache = pageCache;
+        this.config = config;
+        this.logService = logService;
+        this.jobScheduler = jobScheduler;
+    }
+
+    /**
+     * Copies the store in {@code fromLayout} into a new store in {@code toLayout}, keeping the record format of the source store.
+     * The source store must have been cleanly shut down and must not be in use during the copy.
+     *
+     * @param fromLayout layout of the store to copy.
+     * @param toLayout layout to create the new store in, which must not contain a store already.
+     * @param executionMonitor {@link ExecutionMonitor} to report progress to.
+     * @param logFilesInitializer {@link LogFilesInitializer} for creating the transaction log of the new store.
+     * @throws IOException on I/O error.
+     * @throws KernelException if a schema rule could not be copied.
+     */
+    public void compact( DatabaseLayout fromLayout, DatabaseLayout toLayout, ExecutionMonitor executionMonitor,
+            LogFilesInitializer logFilesInitializer ) throws IOException, KernelException
+    {
+        RecordFormats format = RecordFormatSelector.selectForStore( fromLayout, fileSystem, pageCache, logService.getInternalLogProvider() );
+        if ( format == null )
+        {
+            throw new IllegalArgumentException( "No store found in " + fromLayout.databaseDirectory() );
+        }
+
+        try ( NeoStores source = storeFactory( fromLayout, format, new ScanOnOpenReadOnlyIdGeneratorFactory() ).openAllNeoStores() )
+        {
+            copyTokens( fromLayout, toLayout, format );
+
+            long highNodeId = source.getNodeStore().getHighId();
+            try ( LongArray nodeOrder = NumberArrayFactory.AUTO_WITHOUT_PAGECACHE.newLongArray( highNodeId, -1 );
+                  LongArray newNodeIds = NumberArrayFactory.AUTO_WITHOUT_PAGECACHE.newLongArray( highNodeId, -1 );
+                  Collector badCollector = Collectors.silentBadCollector( 0 ) )
+            {
+                long nodeCount = breadthFirstOrder( source, nodeOrder, newNodeIds );
+                String[] labelNames = labelNames( source );
+                int batchSize = source.getNodeStore().getRecordsPerPage() * 10;
+                InputIterable nodes = () -> new NodeOrderInputIterator( nodeCount, batchSize,
+                        () -> new NodeChunk( source, nodeOrder, labelNames ) );
+                InputIterable relationships = () -> new NodeOrderInputIterator( nodeCount, batchSize,
+                        () -> new RelationshipChunk( source, nodeOrder, newNodeIds ) );
+                long propertyStoreSize = source.getPropertyStore().getNumberOfIdsInUse() * source.getPropertyStore().getRecordSize() +
+                        source.getPropertyStore().getStringStore().getNumberOfIdsInUse() * source.getPropertyStore().getStringStore().getRecordSize() +
+                        source.getPropertyStore().getArrayStore().getNumberOfIdsInUse() * source.getPropertyStore().getArrayStore().getRecordSize();
+                Input.Estimates estimates = Input.knownEstimates(
+                        nodeCount,
+                        source.getRelationshipStore().getNumberOfIdsInUse(),
+                        source.getPropertyStore().getNumberOfIdsInUse(),
+                        source.getPropertyStore().getNumberOfIdsInUse(),
+                        propertyStoreSize / 2, propertyStoreSize / 2,
+                        0 );
+
+                BatchImporter importer = BatchImporterFactory.withHighestPriority().instantiate( toLayout, fileSystem, pageCache,
+                        Configuration.DEFAULT, logService, executionMonitor, AdditionalInitialIds.EMPTY, config, format, NO_MONITOR, jobScheduler,
+                        badCollector, logFilesInitializer );
+                importer.doImport( Input.input( nodes, relationships, IdType.ACTUAL, estimates, ReadableGroups.EMPTY ) );
+            }
+
+            copySchemaRules( source, toLayout, format );
+        }
+    }
+
+    /**
+     * Creates the new store with the token stores of the source store copied into it, so that the importer finds the existing
+     * tokens and keeps their ids.
+     */
+    private void copyTokens( DatabaseLayout fromLayout, DatabaseLayout toLayout, RecordFormats format ) throws IOException
+    {
+        storeFactory( toLayout, format, new DefaultIdGeneratorFactory( fileSystem, immediate() ) ).openAllNeoStores( true ).close();
+        fileOperation( COPY, fileSystem, fromLayout, toLayout, Arrays.asList( TOKEN_STORE_FILES ), false, ExistingTargetStrategy.OVERWRITE );
+        storeFactory( toLayout, format, new ScanOnOpenOverwritingIdGeneratorFactory( fileSystem ) ).openNeoStores( TOKEN_STORE_TYPES ).close();
+    }
+
+    private void copySchemaRules( NeoStores source, DatabaseLayout toLayout, RecordFormats format ) throws KernelException, IOException
+    {
+        TokenHolders tokenHolders = new TokenHolders(
+                StoreTokens.createReadOnlyTokenHolder( TokenHolder.TYPE_PROPERTY_KEY ),
+                StoreTokens.createReadOnlyTokenHolder( TokenHolder.TYPE_LABEL ),
+                StoreTokens.createReadOnlyTokenHolder( TokenHolder.TYPE_RELATIONSHIP_TYPE ) );
+        tokenHolders.setInitialTokens( allTokens( source ) );
+        SchemaRuleAccess sourceRules = SchemaRuleAccess.getSchemaRuleAccess( source.getSchemaStore(), tokenHolders );
+
+        NeoStores target = storeFactory( toLayout, format, new DefaultIdGeneratorFactory( fileSystem, immediate() ) )
+                .openNeoStores( StoreType.SCHEMA, StoreType.PROPERTY_KEY_TOKEN, StoreType.PROPERTY );
+        target.start();
+        try ( SchemaRuleMigrationAccess targetRules = RecordStorageEngineFactory.createMigrationTargetSchemaRuleAccess( target ) )
+        {
+            for ( SchemaRule rule : sourceRules.getAll() )
+            {
+                targetRules.writeSchemaRule( rule );
+            }
+        }
+    }
+
+    private StoreFactory storeFactory( DatabaseLayout layout, RecordFormats format, IdGeneratorFactory idGeneratorFactory )
+    {
+        return new StoreFactory( layout, config, idGeneratorFactory, pageCache, fileSystem, format, NullLogProvider.getInstance() );
+    }
+
+    /**
+     * Orders all nodes in the store breadth-first, following relationships in both directions and starting a new traversal
+     * from the lowest node id not yet visited whenever a traversal runs out of nodes.
+     *
+     * @param nodeOrder gets the old node id for every position in the new order.
+     * @param newNodeIds gets the position in the new order, i.e. the new id, for every old node id.
+     * @return number of nodes in use, which is also the number of positions written to {@code nodeOrder}.
+     */
+    private static long breadthFirstOrder( NeoStores source, LongArray nodeOrder, LongArray newNodeIds )
+    {
+        long highNodeId = source.getNodeStore().getHighId();
+        try ( RecordStorageReader reader = new RecordStorageReader( source );
+              RecordNodeCursor node = reader.allocateNodeCursor();
+              StorageRelationshipTraversalCursor relationships = reader.allocateRelationshipTraversalCursor() )
+        {
+            long tail = 0;
+            for ( long root = 0; root < highNodeId; root++ )
+            {
+                if ( newNodeIds.get( root ) != -1 )
+                {
+                    continue;
+                }
+                node.single( root );
+                if ( !node.next() )
+                {
+                    continue;
+                }
+                newNodeIds.set( root, tail );
+                nodeOrder.set( tail++, root );
+
+                // The part of the order array after the nodes visited so far is the queue of this traversal
+                for ( long head = tail - 1; head < tail; head++ )
+                {
+                    long nodeId = nodeOrder.get( head );
+                    node.single( nodeId );
+                    node.next();
+                    relationships.init( nodeId, node.allRelationshipsReference(), node.isDense() );
+                    while ( relationships.next() )
+                    {
+                        long neighbour = relationships.neighbourNodeReference();
+                        if ( newNodeIds.get( neighbour ) == -1 )
+                        {
+                            newNodeIds.set( neighbour, tail );
+                            nodeOrder.set( tail++, neighbour );
+                        }
+                    }
+                }
+            }
+            return tail;
+        }
+    }
+
+    private static String[] labelNames( NeoStores source )
+    {
+        String[] names = new String[Math.toIntExact( source.getLabelTokenStore().getHighId() )];
+        for ( NamedToken token : source.getLabelTokenStore().getTokens() )
+        {
+            names[token.id()] = token.name();
+        }
+        return names;
+    }
+
+    /**
+     * Hands out ranges of positions in the new node order to {@link OrderedChunk chunks}.
+     */
+    private static class NodeOrderInputIterator implements InputIterator
+    {
+        private final long nodeCount;
+        private final int batchSize;
+        private final Supplier<InputChunk> chunkFactory;
+        private long position;
+
+        NodeOrderInputIterator( long nodeCount, int batchSize, Supplier<InputChunk> chunkFactory )
+        {
+            this.nodeCount = nodeCount;
+            this.batchSize = batchSize;
+            this.chunkFactory = chunkFactory;
+        }
+
+        @Override
+        public InputChunk newChunk()
+        {
+            return chunkFactory.get();
+        }
+
+        @Override
+        public synchronized boolean next( InputChunk chunk )
+        {
+            if ( position >= nodeCount )
+            {
+                return false;
+            }
+            long startPosition = position;
+            position = min( nodeCount, startPosition + batchSize );
+            ((OrderedChunk) chunk).initialize( startPosition, position );
+            return true;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private abstract static class OrderedChunk implements InputChunk
+    {
+        final RecordStorageReader reader;
+        final RecordNodeCursor node;
+        final StoragePropertyCursor properties;
+        final LongArray nodeOrder;
+        long position;
+        long endPosition;
+
+        OrderedChunk( NeoStores source, LongArray nodeOrder )
+        {
+            this.reader = new RecordStorageReader( source );
+            this.node = reader.allocateNodeCursor();
+            this.properties = reader.allocatePropertyCursor();
+            this.nodeOrder = nodeOrder;
+        }
+
+        void initialize( long startPosition, long endPosition )
+        {
+            this.position = startPosition;
+            this.endPosition = endPosition;
+        }
+
+        void visitProperties( StorageEntityCursor entity, InputEntityVisitor visitor ) throws IOException
+        {
+            entity.properties( properties );
+            while ( properties.next() )
+            {
+                // add key as int here as to have the importer use the token id
+                visitor.property( properties.propertyKey(), properties.propertyValue().asObject() );
+            }
+            properties.close();
+        }
+
+        @Override
+        public void close()
+        {
+            properties.close();
+            node.close();
+            reader.close();
+        }
+    }
+
+    private static class NodeChunk extends OrderedChunk
+    {
+        private final String[] labelNames;
+
+        NodeChunk( NeoStores source, LongArray nodeOrder, String[] labelNames )
+        {
+            super( source, nodeOrder );
+            this.labelNames = labelNames;
+        }
+
+        @Override
+        public boolean next( InputEntityVisitor visitor ) throws IOException
+        {
+            if ( position >= endPosition )
+            {
+                return false;
+            }
+            node.single( nodeOrder.get( position ) );
+            node.next();
+            visitor.id( position );
+            long[] labelIds = node.labels();
+            String[] labels = new String[labelIds.length];
+            for ( int i = 0; i < labelIds.length; i++ )
+            {
+                labels[i] = labelNames[Math.toIntExact( labelIds[i] )];
+            }
+            visitor.labels( labels );
+            visitProperties( node, visitor );
+            visitor.endOfEntity();
+            position++;
+            return true;
+        }
+    }
+
+    /**
+     * Visits the relationships of one node after the other in the new node order, visiting each relationship from its start node only.
+     */
+    private static class RelationshipChunk extends OrderedChunk
+    {
+        private final LongArray newNodeIds;
+        private final StorageRelationshipTraversalCursor relationships;
+        private long nodeId = -1;
+
+        RelationshipChunk( NeoStores source, LongArray nodeOrder, LongArray newNodeIds )
+        {
+            super( source, nodeOrder );
+            this.newNodeIds = newNodeIds;
+            this.relationships = reader.allocateRelationshipTraversalCursor();
+        }
+
+        @Override
+        void initialize( long startPosition, long endPosition )
+        {
+            super.initialize( startPosition, endPosition );
+            nodeId = -1;
+        }
+
+        @Override
+        public boolean next( InputEntityVisitor visitor ) throws IOException
+        {
+            while ( true )
+            {
+                if ( nodeId != -1 )
+                {
+                    while ( relationships.next() )
+                    {
+                        if ( relationships.sourceNodeReference() == nodeId )
+                        {
+                            visitor.startId( newNodeIds.get( nodeId ) );
+                            visitor.endId( newNodeIds.get( relationships.targetNodeReference() ) );
+                            visitor.type( relationships.type() );
+                            visitProperties( relationships, visitor );
+                            visitor.endOfEntity();
+                            return true;
+                        }
+                    }
+                }
+                if ( position >= endPosition )
+                {
+                    return false;
+                }
+                nodeId = nodeOrder.get( position++ );
+                node.single( nodeId );
+                node.next();
+                relationships.init( nodeId, node.allRelationshipsReference(), node.isDense() );
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            relationships.close();
+            super.close();
+        }
+    }
+}
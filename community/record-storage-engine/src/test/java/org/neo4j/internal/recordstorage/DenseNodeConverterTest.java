@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdGeneratorFactory;
+import org.neo4j.internal.id.IdType;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.lock.LockService;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.ResourceLocker;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.extension.EphemeralNeo4jLayoutExtension;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+import org.neo4j.util.concurrent.WorkSync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+@EphemeralNeo4jLayoutExtension
+@EphemeralPageCacheExtension
+class DenseNodeConverterTest
+{
+    private static final int THRESHOLD = 10;
+
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private EphemeralFileSystemAbstraction fs;
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    private NeoStores neoStores;
+    private IdGeneratorFactory idGeneratorFactory;
+    private RecordStorageCommandCreationContext commandCreationContext;
+    private DenseNodeConverter converter;
+
+    @BeforeEach
+    void startStore()
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.dense_node_threshold, THRESHOLD );
+        idGeneratorFactory = new DefaultIdGeneratorFactory( fs, immediate() );
+        neoStores = new StoreFactory( databaseLayout, config, idGeneratorFactory, pageCache, fs, NullLogProvider.getInstance() )
+                .openAllNeoStores( true );
+        commandCreationContext = new RecordStorageCommandCreationContext( neoStores, DenseNodeConverter.inlineConversionThreshold( THRESHOLD ) );
+        converter = new DenseNodeConverter( neoStores, new IntegrityValidator( neoStores ), THRESHOLD );
+    }
+
+    @AfterEach
+    void closeStore()
+    {
+        neoStores.close();
+    }
+
+    @Test
+    void shouldConvertNodeWithMixedRelationshipsToDense() throws Exception
+    {
+        // given a node which transactions have left sparse, even though it's over the threshold
+        long node = createNode();
+        long other = createNode();
+        MutableLongSet relationships = new LongHashSet();
+        for ( int i = 0; i < THRESHOLD; i++ )
+        {
+            relationships.add( createRelationship( i % 2, node, other ) );
+        }
+        relationships.add( createRelationship( 0, other, node ) );
+        relationships.add( createRelationship( 1, node, node ) );
+        assertFalse( readNode( node ).isDense() );
+
+        // when
+        assertTrue( converter.needsConversion( node ) );
+        convert( node );
+
+        // then
+        assertTrue( readNode( node ).isDense() );
+        assertEquals( relationships, relationshipsOf( node ) );
+        // all but the loop
+        assertEquals( relationships.size() - 1, relationshipsOf( other ).size() );
+        assertFalse( converter.needsConversion( node ) );
+    }
+
+    @Test
+    void shouldLeaveNodeWithRelationshipsOfSingleTypeAndDirectionSparse()
+    {
+        // given
+        long node = createNode();
+        long other = createNode();
+        for ( int i = 0; i < THRESHOLD * 2; i++ )
+        {
+            createRelationship( 0, node, other );
+        }
+
+        // then
+        assertFalse( converter.needsConversion( node ) );
+        assertFalse( converter.needsConversion( other ) );
+    }
+
+    @Test
+    void shouldOnlyLookAtMostRecentRelationshipsForTypeAndDirection() throws Exception
+    {
+        // given a node whose oldest relationship is of another type than the threshold number of relationships added after it
+        long node = createNode();
+        long other = createNode();
+        createRelationship( 1, node, other );
+        for ( int i = 0; i < THRESHOLD; i++ )
+        {
+            createRelationship( 0, node, other );
+        }
+
+        // then
+        assertFalse( converter.needsConversion( node ) );
+
+        // and when adding a relationship of another type
+        createRelationship( 1, node, other );
+
+        // then
+        assertTrue( converter.needsConversion( node ) );
+        convert( node );
+        assertTrue( readNode( node ).isDense() );
+    }
+
+    @Test
+    void shouldNotReadChainOfSingleTypeNodeAgainUntilItsDegreeChanges()
+    {
+        // given a node that has been looked at and left sparse
+        long node = createNode();
+        long other = createNode();
+        for ( int i = 0; i < THRESHOLD; i++ )
+        {
+            createRelationship( 0, node, other );
+        }
+        assertFalse( converter.needsConversion( node ) );
+
+        // when the type of one of its relationships is changed behind the back of the converter
+        RelationshipStore relationshipStore = neoStores.getRelationshipStore();
+        RelationshipRecord relationship = relationshipStore.getRecord( readNode( node ).getNextRel(), relationshipStore.newRecord(), RecordLoad.NORMAL );
+        relationship.setType( 1 );
+        relationshipStore.updateRecord( relationship );
+
+        // then the chain is not read again, since the degree of the node is the same
+        assertFalse( converter.needsConversion( node ) );
+
+        // and when its degree changes
+        createRelationship( 0, node, other );
+
+        // then the chain is read again
+        assertTrue( converter.needsConversion( node ) );
+    }
+
+    @Test
+    void shouldConvertNodeBackToSparseWhenDegreeDrops() throws Exception
+    {
+        // given
+        long node = createNode();
+        long other = createNode();
+        List<Long> relationships = new ArrayList<>();
+        for ( int i = 0; i < THRESHOLD; i++ )
+        {
+            relationships.add( createRelationship( i % 3, i % 2 == 0 ? node : other, i % 2 == 0 ? other : node ) );
+        }
+        relationships.add( createRelationship( 0, node, node ) );
+        convert( node );
+        assertTrue( readNode( node ).isDense() );
+
+        // when dropping to just below half the threshold
+        while ( relationships.size() >= THRESHOLD / 2 )
+        {
+            assertFalse( converter.needsConversion( node ) );
+            deleteRelationship( relationships.remove( 0 ) );
+        }
+        assertTrue( converter.needsConversion( node ) );
+        convert( node );
+
+        // then
+        NodeRecord record = readNode( node );
+        assertFalse( record.isDense() );
+        MutableLongSet expected = LongHashSet.newSetWith( relationships.stream().mapToLong( Long::longValue ).toArray() );
+        assertEquals( expected, relationshipsOf( node ) );
+        RelationshipRecord first = neoStores.getRelationshipStore().getRecord( record.getNextRel(), new RelationshipRecord( -1 ), RecordLoad.NORMAL );
+        assertEquals( relationships.size(), RelationshipCreator.relCount( node, first ) );
+        // the chains of the other node are left intact, it has all but the loop
+        assertEquals( relationships.size() - 1, relationshipsOf( other ).size() );
+        assertFalse( converter.needsConversion( node ) );
+
+        // and when adding relationships to the sparse node again
+        createRelationship( 1, node, other );
+        assertEquals( relationships.size() + 1, relationshipsOf( node ).size() );
+    }
+
+    @Test
+    void shouldBeVisitedAndLockedByStoreCompaction()
+    {
+        // given
+        createNode();
+        long node = createNode();
+        long other = createNode();
+        for ( int i = 0; i < THRESHOLD; i++ )
+        {
+            createRelationship( i % 2, node, other );
+        }
+        ResourceLocker locks = mock( ResourceLocker.class );
+
+        // when
+        List<StorageCommand> commands = new ArrayList<>();
+        long next = converter.createCompactionCommands( 0, 10, commands, locks );
+
+        // then
+        assertEquals( node + 1, next );
+        assertFalse( commands.isEmpty() );
+        verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, node );
+    }
+
+    private long createNode()
+    {
+        long id = commandCreationContext.reserveNode();
+        TransactionRecordState recordState = newTransactionRecordState();
+        recordState.nodeCreate( id );
+        apply( recordState );
+        return id;
+    }
+
+    private long createRelationship( int type, long startNode, long endNode )
+    {
+        long id = commandCreationContext.reserveRelationship();
+        TransactionRecordState recordState = newTransactionRecordState();
+        recordState.relCreate( id, type, startNode, endNode );
+        apply( recordState );
+        return id;
+    }
+
+    private void deleteRelationship( long id )
+    {
+        TransactionRecordState recordState = newTransactionRecordState();
+        recordState.relDelete( id );
+        apply( recordState );
+    }
+
+    private void convert( long node ) throws Exception
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        converter.createCommands( node, commands, ResourceLocker.IGNORE );
+        assertFalse( commands.isEmpty() );
+        apply( commands );
+    }
+
+    private TransactionRecordState newTransactionRecordState()
+    {
+        return commandCreationContext.createTransactionRecordState( new IntegrityValidator( neoStores ),
+                neoStores.getMetaDataStore().getLastCommittedTransactionId(), ResourceLocker.IGNORE );
+    }
+
+    private void apply( TransactionRecordState recordState )
+    {
+        try
+        {
+            List<StorageCommand> commands = new ArrayList<>();
+            recordState.extractCommands( commands );
+            apply( commands );
+        }
+        catch ( Exception e )
+        {
+            throw new AssertionError( e );
+        }
+    }
+
+    private void apply( List<StorageCommand> commands ) throws Exception
+    {
+        Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs = new EnumMap<>( IdType.class );
+        for ( IdType idType : IdType.values() )
+        {
+            idGeneratorWorkSyncs.put( idType, new WorkSync<>( idGeneratorFactory.get( idType ) ) );
+        }
+        CommandHandlerContract.apply( new NeoStoreBatchTransactionApplier( INTERNAL, neoStores, mock( CacheAccessBackDoor.class ),
+                LockService.NO_LOCK_SERVICE, idGeneratorWorkSyncs ), new GroupOfCommands( commands.toArray( new StorageCommand[0] ) ) );
+    }
+
+    private NodeRecord readNode( long node )
+    {
+        return neoStores.getNodeStore().getRecord( node, neoStores.getNodeStore().newRecord(), RecordLoad.NORMAL );
+    }
+
+    private MutableLongSet relationshipsOf( long node )
+    {
+        MutableLongSet relationships = new LongHashSet();
+        try ( RecordStorageReader reader = new RecordStorageReader( neoStores );
+              RecordNodeCursor nodeCursor = reader.allocateNodeCursor();
+              RecordRelationshipTraversalCursor relationshipCursor = (RecordRelationshipTraversalCursor) reader.allocateRelationshipTraversalCursor() )
+        {
+            nodeCursor.single( node );
+            assertTrue( nodeCursor.next() );
+            relationshipCursor.init( node, nodeCursor.allRelationshipsReference(), nodeCursor.isDense() );
+            while ( relationshipCursor.next() )
+            {
+                assertTrue( relationships.add( relationshipCursor.entityReference() ) );
+            }
+        }
+        return relationships;
+    }
+}
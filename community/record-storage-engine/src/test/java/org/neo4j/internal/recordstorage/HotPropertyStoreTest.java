@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.test.extension.EphemeralNeo4jLayoutExtension;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+import org.neo4j.token.api.NamedToken;
+import org.neo4j.token.api.TokenHolder;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EphemeralPageCacheExtension
+@EphemeralNeo4jLayoutExtension
+class HotPropertyStoreTest
+{
+    private static final int AGE = 0;
+    private static final int NAME = 1;
+
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private EphemeralFileSystemAbstraction fs;
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    private final TokenHolder propertyKeyTokens = StoreTokens.createReadOnlyTokenHolder( TokenHolder.TYPE_PROPERTY_KEY );
+    private HotPropertyStore store;
+
+    @BeforeEach
+    void before() throws IOException
+    {
+        fs.mkdirs( databaseLayout.databaseDirectory() );
+        propertyKeyTokens.setInitialTokens( List.of( new NamedToken( "age", AGE ), new NamedToken( "name", NAME ) ) );
+        store = new HotPropertyStore( databaseLayout, fs, pageCache );
+        store.configure( List.of( "age", "does not exist" ), propertyKeyTokens );
+    }
+
+    @AfterEach
+    void after()
+    {
+        store.close();
+    }
+
+    @Test
+    void shouldReadWrittenValuesOfFixedWidthTypes() throws IOException
+    {
+        Value[] values = {Values.booleanValue( true ), Values.byteValue( (byte) -3 ), Values.shortValue( (short) 300 ), Values.charValue( 'x' ),
+                Values.intValue( -12345 ), Values.longValue( Long.MIN_VALUE ), Values.floatValue( 1.5f ), Values.doubleValue( -0.25 )};
+        long[] nodeIds = {0, 1, 5, 909, 910, 10_000, 100_000, 1_000_000};
+        for ( int i = 0; i < values.length; i++ )
+        {
+            store.write( AGE, nodeIds[i], values[i] );
+        }
+
+        try ( HotPropertyStore.Reader reader = store.newReader() )
+        {
+            for ( int i = 0; i < values.length; i++ )
+            {
+                assertEquals( values[i], reader.read( AGE, nodeIds[i] ) );
+            }
+            assertNull( reader.read( AGE, 2 ) );
+            assertNull( reader.read( AGE, 5_000_000 ) );
+            assertNull( reader.read( NAME, 0 ) );
+        }
+    }
+
+    @Test
+    void shouldEmptySlotForValuesWhichAreNotFixedWidth() throws IOException
+    {
+        store.write( AGE, 7, Values.intValue( 10 ) );
+        store.write( AGE, 7, Values.stringValue( "ten" ) );
+        store.write( AGE, 8, Values.longArray( new long[]{1, 2} ) );
+
+        try ( HotPropertyStore.Reader reader = store.newReader() )
+        {
+            assertNull( reader.read( AGE, 7 ) );
+            assertNull( reader.read( AGE, 8 ) );
+        }
+    }
+
+    @Test
+    void shouldKeepColumnsUntilNoLongerConfigured() throws IOException
+    {
+        store.write( AGE, 3, Values.intValue( 42 ) );
+        store.flush( IOLimiter.UNLIMITED );
+        store.close();
+
+        store = new HotPropertyStore( databaseLayout, fs, pageCache );
+        assertTrue( store.hasColumn( AGE ) );
+        try ( HotPropertyStore.Reader reader = store.newReader() )
+        {
+            assertEquals( Values.intValue( 42 ), reader.read( AGE, 3 ) );
+        }
+
+        store.configure( List.of( "name" ), propertyKeyTokens );
+        assertFalse( store.hasColumn( AGE ) );
+        assertTrue( store.hasColumn( NAME ) );
+        assertFalse( fs.fileExists( databaseLayout.file( HotPropertyStore.FILE_NAME_PREFIX + AGE ) ) );
+
+        store.close();
+        HotPropertyStore.deleteColumns( fs, databaseLayout );
+        assertFalse( fs.fileExists( databaseLayout.file( HotPropertyStore.FILE_NAME_PREFIX + NAME ) ) );
+    }
+
+    @Test
+    void shouldKeepValueOfPropertyMovingToAnotherRecordInTheSameTransaction() throws Exception
+    {
+        NodeRecord node = new NodeRecord( 4 );
+        PropertyRecord before = propertyRecord( 10, node, true, Values.intValue( 1 ) );
+        PropertyRecord deleted = propertyRecord( 10, node, false );
+        PropertyRecord created = propertyRecord( 11, node, true, Values.intValue( 2 ) );
+
+        // the record which the property moves to comes first, like when a property chain gets compacted
+        try ( HotPropertyTransactionApplier applier = new HotPropertyTransactionApplier( store ) )
+        {
+            applier.visitPropertyCommand( new PropertyCommand( propertyRecord( 11, node, false ), created ) );
+            applier.visitPropertyCommand( new PropertyCommand( before, deleted ) );
+        }
+
+        try ( HotPropertyStore.Reader reader = store.newReader() )
+        {
+            assertEquals( Values.intValue( 2 ), reader.read( AGE, node.getId() ) );
+        }
+
+        // and when removing it
+        try ( HotPropertyTransactionApplier applier = new HotPropertyTransactionApplier( store ) )
+        {
+            applier.visitPropertyCommand( new PropertyCommand( created, propertyRecord( 11, node, false ) ) );
+        }
+
+        try ( HotPropertyStore.Reader reader = store.newReader() )
+        {
+            assertNull( reader.read( AGE, node.getId() ) );
+        }
+    }
+
+    private static PropertyRecord propertyRecord( long id, NodeRecord owner, boolean inUse, Value... ageValue )
+    {
+        PropertyRecord record = new PropertyRecord( id, owner );
+        record.setInUse( inUse );
+        for ( Value value : ageValue )
+        {
+            PropertyBlock block = new PropertyBlock();
+            PropertyStore.encodeValue( block, AGE, value, null, null, false );
+            record.addPropertyBlock( block );
+        }
+        return record;
+    }
+}
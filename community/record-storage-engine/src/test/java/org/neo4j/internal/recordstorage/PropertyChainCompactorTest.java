@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.ResourceLocker;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.apache.commons.lang3.StringUtils.repeat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+
+@PageCacheExtension
+@Neo4jLayoutExtension
+class PropertyChainCompactorTest
+{
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    private final ResourceLocker locks = mock( ResourceLocker.class );
+    private NeoStores neoStores;
+    private NodeStore nodeStore;
+    private PropertyStore propertyStore;
+    private PropertyChainCompactor compactor;
+
+    @BeforeEach
+    void startStore()
+    {
+        neoStores = new StoreFactory( databaseLayout, Config.defaults(), new DefaultIdGeneratorFactory( fileSystem, immediate() ),
+                pageCache, fileSystem, NullLogProvider.getInstance() ).openNeoStores( true,
+                StoreType.NODE, StoreType.NODE_LABEL, StoreType.PROPERTY, StoreType.PROPERTY_STRING, StoreType.PROPERTY_ARRAY );
+        nodeStore = neoStores.getNodeStore();
+        propertyStore = neoStores.getPropertyStore();
+        compactor = new PropertyChainCompactor( nodeStore, propertyStore );
+    }
+
+    @AfterEach
+    void closeStore()
+    {
+        neoStores.close();
+    }
+
+    @Test
+    void shouldMoveScatteredChainIntoConsecutivePackedRecords()
+    {
+        // given
+        String longString = repeat( "abc", 100 );
+        long nodeId = createNode( new long[]{40, 12, 27}, Values.intValue( 1 ), Values.stringValue( longString ), Values.longValue( 3 ) );
+        long dynamicStringHighId = propertyStore.getStringStore().getHighId();
+
+        // when
+        List<StorageCommand> commands = new ArrayList<>();
+        long next = compactor.createCompactionCommands( 0, 10, commands, locks );
+        apply( commands );
+
+        // then
+        assertEquals( nodeId + 1, next );
+        verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, nodeId );
+        List<PropertyRecord> chain = readChain( nodeId );
+        assertEquals( 1, chain.size() );
+        PropertyRecord record = chain.get( 0 );
+        assertEquals( Record.NO_PREVIOUS_PROPERTY.intValue(), record.getPrevProp() );
+        assertEquals( Values.intValue( 1 ), propertyStore.getValue( record.getPropertyBlock( 0 ) ) );
+        assertEquals( Values.stringValue( longString ), propertyStore.getValue( record.getPropertyBlock( 1 ) ) );
+        assertEquals( Values.longValue( 3 ), propertyStore.getValue( record.getPropertyBlock( 2 ) ) );
+        for ( long oldId : new long[]{40, 12, 27} )
+        {
+            assertFalse( propertyStore.getRecord( oldId, propertyStore.newRecord(), RecordLoad.CHECK ).inUse() );
+        }
+        // the dynamic records of the string were moved along with its block, not rewritten
+        assertEquals( dynamicStringHighId, propertyStore.getStringStore().getHighId() );
+    }
+
+    @Test
+    void shouldPlaceRecordsInChainOrderWhenTheyCannotBePacked()
+    {
+        // given a chain where every record is full, but in descending id order
+        long nodeId = createNode( new long[]{9, 5}, fullRecordOfValues( 0 ), fullRecordOfValues( 4 ) );
+
+        // when
+        List<StorageCommand> commands = new ArrayList<>();
+        compactor.createCompactionCommands( 0, 10, commands, locks );
+        apply( commands );
+
+        // then
+        List<PropertyRecord> chain = readChain( nodeId );
+        assertEquals( 2, chain.size() );
+        assertEquals( chain.get( 0 ).getId() + 1, chain.get( 1 ).getId() );
+        assertEquals( chain.get( 0 ).getId(), chain.get( 1 ).getPrevProp() );
+        assertEquals( 4, chain.get( 0 ).numberOfProperties() );
+        assertEquals( Values.intValue( 0 ), propertyStore.getValue( chain.get( 0 ).getPropertyBlock( 0 ) ) );
+        assertEquals( Values.intValue( 4 ), propertyStore.getValue( chain.get( 1 ).getPropertyBlock( 4 ) ) );
+    }
+
+    @Test
+    void shouldLeaveCompactChainsAlone()
+    {
+        // given
+        createNode( new long[]{3, 4}, fullRecordOfValues( 0 ), fullRecordOfValues( 4 ) );
+        createNode( new long[]{7}, Values.intValue( 1 ) );
+
+        // when
+        List<StorageCommand> commands = new ArrayList<>();
+        long next = compactor.createCompactionCommands( 0, 10, commands, locks );
+
+        // then
+        assertEquals( -1, next );
+        assertTrue( commands.isEmpty() );
+        verify( locks, never() ).acquireExclusive( any(), any(), anyLong() );
+    }
+
+    @Test
+    void shouldOnlyVisitGivenNumberOfNodes()
+    {
+        // given
+        createNode( new long[]{7}, Values.intValue( 1 ) );
+        createNode( new long[]{8}, Values.intValue( 2 ) );
+        long fragmentedNodeId = createNode( new long[]{20, 10}, Values.intValue( 3 ), Values.intValue( 4 ) );
+
+        // when
+        List<StorageCommand> commands = new ArrayList<>();
+        long next = compactor.createCompactionCommands( 0, 2, commands, locks );
+
+        // then
+        assertEquals( 2, next );
+        assertTrue( commands.isEmpty() );
+
+        // and when continuing
+        next = compactor.createCompactionCommands( next, 2, commands, locks );
+
+        // then
+        assertEquals( fragmentedNodeId + 1, next );
+        assertFalse( commands.isEmpty() );
+    }
+
+    private Value[] fullRecordOfValues( int firstValue )
+    {
+        return new Value[]{Values.intValue( firstValue ), Values.intValue( firstValue + 1 ), Values.intValue( firstValue + 2 ),
+                Values.intValue( firstValue + 3 )};
+    }
+
+    private long createNode( long[] propertyRecordIds, Value[]... valuesPerRecord )
+    {
+        long nodeId = nodeStore.nextId();
+        NodeRecord node = new NodeRecord( nodeId ).initialize( true, propertyRecordIds[0], false, Record.NO_NEXT_RELATIONSHIP.intValue(), 0 );
+        int key = 0;
+        for ( int i = 0; i < propertyRecordIds.length; i++ )
+        {
+            PropertyRecord record = new PropertyRecord( propertyRecordIds[i], node );
+            record.setInUse( true );
+            record.setPrevProp( i == 0 ? Record.NO_PREVIOUS_PROPERTY.intValue() : propertyRecordIds[i - 1] );
+            record.setNextProp( i == propertyRecordIds.length - 1 ? Record.NO_NEXT_PROPERTY.intValue() : propertyRecordIds[i + 1] );
+            for ( Value value : valuesPerRecord[i] )
+            {
+                PropertyBlock block = new PropertyBlock();
+                propertyStore.encodeValue( block, key++, value );
+                record.addPropertyBlock( block );
+            }
+            propertyStore.updateRecord( record );
+            propertyStore.setHighestPossibleIdInUse( Math.max( propertyStore.getHighestPossibleIdInUse(), record.getId() ) );
+        }
+        nodeStore.updateRecord( node );
+        return nodeId;
+    }
+
+    private long createNode( long[] propertyRecordIds, Value... valuePerRecord )
+    {
+        Value[][] valuesPerRecord = new Value[valuePerRecord.length][];
+        for ( int i = 0; i < valuePerRecord.length; i++ )
+        {
+            valuesPerRecord[i] = new Value[]{valuePerRecord[i]};
+        }
+        return createNode( propertyRecordIds, valuesPerRecord );
+    }
+
+    private void apply( List<StorageCommand> commands )
+    {
+        for ( StorageCommand command : commands )
+        {
+            if ( command instanceof Command.NodeCommand )
+            {
+                nodeStore.updateRecord( ((Command.NodeCommand) command).getAfter() );
+            }
+            else
+            {
+                propertyStore.updateRecord( ((Command.PropertyCommand) command).getAfter() );
+            }
+        }
+    }
+
+    private List<PropertyRecord> readChain( long nodeId )
+    {
+        List<PropertyRecord> chain = new ArrayList<>();
+        long nextProp = nodeStore.getRecord( nodeId, nodeStore.newRecord(), RecordLoad.NORMAL ).getNextProp();
+        while ( nextProp != Record.NO_NEXT_PROPERTY.intValue() )
+        {
+            PropertyRecord record = propertyStore.getRecord( nextProp, propertyStore.newRecord(), RecordLoad.NORMAL );
+            chain.add( record );
+            nextProp = record.getNextProp();
+        }
+        return chain;
+    }
+}
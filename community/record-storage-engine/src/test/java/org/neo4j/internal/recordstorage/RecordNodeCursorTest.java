@@ -31,6 +31,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class RecordNodeCursorTest
@@ -67,4 +69,45 @@ class RecordNodeCursorTest
         assertEquals( 200, cursor.getId() );
         assertFalse( cursor.next() );
     }
+
+    @Test
+    void shouldReadSingleNodesFromCacheUntilInvalidated()
+    {
+        // given
+        NodeStore nodeStore = mock( NodeStore.class );
+        long[] nextRel = {1L};
+        doAnswer( invocationOnMock ->
+        {
+            long id = invocationOnMock.getArgument( 0 );
+            NodeRecord record = invocationOnMock.getArgument( 1 );
+            record.setId( id );
+            record.initialize( true, 1L, false, nextRel[0], 0L );
+            return null;
+        } ).when( nodeStore ).getRecordByCursor( anyLong(), any(), any(), any() );
+        RecordReadCache<NodeRecord> cache = RecordReadCache.nodes( 16 );
+        RecordNodeCursor cursor = new RecordNodeCursor( nodeStore, cache );
+
+        // when reading the same node three times
+        for ( int i = 0; i < 3; i++ )
+        {
+            cursor.single( 5 );
+            assertTrue( cursor.next() );
+            assertEquals( 5, cursor.getId() );
+            assertEquals( 1L, cursor.getNextRel() );
+            assertFalse( cursor.next() );
+        }
+
+        // then it's admitted into the cache the second time and read from the cache the third time
+        verify( nodeStore, times( 2 ) ).getRecordByCursor( anyLong(), any(), any(), any() );
+
+        // and when
+        nextRel[0] = 2L;
+        cache.invalidate( 5 );
+        cursor.single( 5 );
+
+        // then
+        assertTrue( cursor.next() );
+        assertEquals( 2L, cursor.getNextRel() );
+        verify( nodeStore, times( 3 ) ).getRecordByCursor( anyLong(), any(), any(), any() );
+    }
 }
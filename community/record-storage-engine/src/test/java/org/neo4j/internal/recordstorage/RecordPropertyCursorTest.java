@@ -24,18 +24,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.internal.helpers.collection.IteratorWrapper;
 import org.neo4j.internal.id.DefaultIdGeneratorFactory;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyType;
 import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.format.compact.CompactV4_0;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.PropertyBlock;
 import org.neo4j.logging.NullLogProvider;
@@ -45,6 +49,7 @@ import org.neo4j.test.extension.RandomExtension;
 import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
 import org.neo4j.test.rule.RandomRule;
 import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -72,9 +77,14 @@ class RecordPropertyCursorTest
 
     @BeforeEach
     void setup()
+    {
+        openStores( Config.defaults() );
+    }
+
+    private void openStores( Config config )
     {
         idGeneratorFactory = new DefaultIdGeneratorFactory( fs, immediate() );
-        neoStores = new StoreFactory( databaseLayout, Config.defaults(), idGeneratorFactory,
+        neoStores = new StoreFactory( databaseLayout, config, idGeneratorFactory,
                 pageCache, fs, NullLogProvider.getInstance() ).openAllNeoStores( true );
         creator = new PropertyCreator( neoStores.getPropertyStore(), new PropertyTraverser() );
         owner = neoStores.getNodeStore().newRecord();
@@ -112,6 +122,25 @@ class RecordPropertyCursorTest
         assertPropertyChain( valuesB, firstPropertyIdB, cursor );
     }
 
+    @Test
+    void shouldReadCompressedStrings() throws IOException
+    {
+        // given a store format that compresses long strings
+        neoStores.close();
+        fs.deleteRecursively( databaseLayout.databaseDirectory() );
+        openStores( Config.defaults( GraphDatabaseSettings.record_format, CompactV4_0.NAME ) );
+        Value[] values = new Value[]{
+                Values.stringValue( "https://neo4j.com/docs/".repeat( 20 ) ),
+                Values.stringValue( "short" ),
+                Values.stringValue( random.nextAlphaNumericString( 300, 300 ) ),
+                Values.stringValue( "{\"status\":\"ok\",\"code\":200}".repeat( 50 ) )};
+        assertEquals( PropertyType.COMPRESSED_STRING, creator.encodePropertyValue( 0, values[0] ).getType() );
+        long firstPropertyId = storeValuesAsPropertyChain( creator, owner, values );
+
+        // then
+        assertPropertyChain( values, firstPropertyId, createCursor() );
+    }
+
     @Test
     void closeShouldBeIdempotent()
     {
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordReadCacheTest
+{
+    private final RecordReadCache<RelationshipRecord> cache = RecordReadCache.relationships( 8 );
+
+    @Test
+    void shouldBeDisabledWithZeroSize()
+    {
+        assertNull( RecordReadCache.nodes( 0 ) );
+        assertNull( RecordReadCache.relationships( 0 ) );
+    }
+
+    @Test
+    void shouldOnlyAdmitRecordsMissedTwiceInARow()
+    {
+        RelationshipRecord target = new RelationshipRecord( -1 );
+
+        cache.put( 3, cache.stamp( 3 ), relationship( 3, 10 ) );
+        assertFalse( cache.get( 3, target ) );
+
+        cache.put( 3, cache.stamp( 3 ), relationship( 3, 10 ) );
+        assertTrue( cache.get( 3, target ) );
+        assertEquals( 3, target.getId() );
+        assertEquals( 10, target.getFirstNode() );
+        assertEquals( 11, target.getSecondNode() );
+        assertEquals( 7, target.getType() );
+        assertTrue( target.inUse() );
+    }
+
+    @Test
+    void shouldNotReturnInvalidatedRecords()
+    {
+        RelationshipRecord target = new RelationshipRecord( -1 );
+        admit( 3, cache.stamp( 3 ), relationship( 3, 10 ) );
+
+        cache.invalidate( 3 );
+
+        assertFalse( cache.get( 3, target ) );
+    }
+
+    @Test
+    void shouldNotAdmitRecordsReadBeforeConcurrentInvalidation()
+    {
+        RelationshipRecord target = new RelationshipRecord( -1 );
+        // a reader takes the stamp and reads the old version of the record ...
+        long stamp = cache.stamp( 3 );
+        RelationshipRecord old = relationship( 3, 10 );
+        // ... while the record is updated and invalidated
+        cache.invalidate( 3 );
+
+        admit( 3, stamp, old );
+
+        assertFalse( cache.get( 3, target ) );
+    }
+
+    @Test
+    void shouldNotReturnRecordsOfOtherIdsInSameSlot()
+    {
+        RelationshipRecord target = new RelationshipRecord( -1 );
+        admit( 3, cache.stamp( 3 ), relationship( 3, 10 ) );
+
+        for ( long id = 4; id < 100; id++ )
+        {
+            assertFalse( cache.get( id, target ) );
+        }
+    }
+
+    private void admit( long id, long stamp, RelationshipRecord record )
+    {
+        cache.put( id, stamp, record );
+        cache.put( id, stamp, record );
+    }
+
+    private static RelationshipRecord relationship( long id, long firstNode )
+    {
+        return new RelationshipRecord( id ).initialize( true, 1, firstNode, firstNode + 1, 7, 2, 3, 4, 5, true, false );
+    }
+}
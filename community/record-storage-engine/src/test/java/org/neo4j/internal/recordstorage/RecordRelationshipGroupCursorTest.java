@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+
+@PageCacheExtension
+@Neo4jLayoutExtension
+class RecordRelationshipGroupCursorTest
+{
+    private static final long OWNING_NODE = 1;
+    private static final long OTHER_NODE = 2;
+    private static final int TYPE = 3;
+    private static final long NO_REL = NO_NEXT_RELATIONSHIP.intValue();
+
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private DatabaseLayout databaseLayout;
+
+    private NeoStores neoStores;
+
+    @BeforeEach
+    void setupStores()
+    {
+        DefaultIdGeneratorFactory idGeneratorFactory = new DefaultIdGeneratorFactory( fs, immediate() );
+        StoreFactory storeFactory = new StoreFactory( databaseLayout, Config.defaults(), idGeneratorFactory, pageCache, fs,
+                NullLogProvider.getInstance() );
+        neoStores = storeFactory.openAllNeoStores( true );
+    }
+
+    @AfterEach
+    void shutDownStores()
+    {
+        neoStores.close();
+    }
+
+    @Test
+    void shouldReadDenseNodeDegreesFromFirstRelationshipOfEachChain()
+    {
+        // given the degrees kept in the first relationship of each chain are far larger than the chains that are actually stored,
+        // so that any count that walks a chain would come out wrong
+        createRelationship( 10, OWNING_NODE, OTHER_NODE, 1_000_000 );
+        createRelationship( 11, OTHER_NODE, OWNING_NODE, 2_000_000 );
+        createRelationship( 12, OWNING_NODE, OWNING_NODE, 3_000_000 );
+        neoStores.getRelationshipGroupStore().updateRecord( new RelationshipGroupRecord( 1, TYPE, 10, 11, 12, OWNING_NODE, true ) );
+
+        // when
+        try ( RecordRelationshipGroupCursor cursor = newGroupCursor() )
+        {
+            cursor.init( OWNING_NODE, 1, true );
+
+            // then
+            assertTrue( cursor.next() );
+            assertEquals( TYPE, cursor.type() );
+            assertEquals( 1_000_000, cursor.outgoingCount() );
+            assertEquals( 2_000_000, cursor.incomingCount() );
+            assertEquals( 3_000_000, cursor.loopCount() );
+            assertFalse( cursor.next() );
+        }
+    }
+
+    @Test
+    void shouldHaveZeroDegreeForDirectionsWithoutChain()
+    {
+        // given
+        createRelationship( 10, OTHER_NODE, OWNING_NODE, 7 );
+        neoStores.getRelationshipGroupStore().updateRecord( new RelationshipGroupRecord( 1, TYPE, NO_REL, 10, NO_REL, OWNING_NODE, true ) );
+
+        // when
+        try ( RecordRelationshipGroupCursor cursor = newGroupCursor() )
+        {
+            cursor.init( OWNING_NODE, 1, true );
+
+            // then
+            assertTrue( cursor.next() );
+            assertEquals( 0, cursor.outgoingCount() );
+            assertEquals( 7, cursor.incomingCount() );
+            assertEquals( 0, cursor.loopCount() );
+        }
+    }
+
+    private void createRelationship( long id, long startNode, long endNode, long degree )
+    {
+        // the previous pointer of the first relationship in a chain holds the degree of that chain
+        RelationshipRecord relationship = new RelationshipRecord( id, true, startNode, endNode, TYPE, degree, NO_REL, degree, NO_REL, true, true );
+        neoStores.getRelationshipStore().updateRecord( relationship );
+    }
+
+    private RecordRelationshipGroupCursor newGroupCursor()
+    {
+        return new RecordRelationshipGroupCursor( neoStores.getRelationshipStore(), neoStores.getRelationshipGroupStore() );
+    }
+}
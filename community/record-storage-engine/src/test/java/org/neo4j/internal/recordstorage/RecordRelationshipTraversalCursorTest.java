@@ -135,6 +135,24 @@ class RecordRelationshipTraversalCursorTest
         }
     }
 
+    @ParameterizedTest
+    @MethodSource( "parameters" )
+    void retrieveUsedRelationshipChainWithPrefetch( RelationshipDirection direction, boolean dense )
+    {
+        createRelationshipChain( 4, dense, direction );
+        long expectedNodeId = 1;
+        try ( RecordRelationshipTraversalCursor cursor = new RecordRelationshipTraversalCursor( neoStores.getRelationshipStore(),
+                neoStores.getRelationshipGroupStore(), neoStores.getNodeStore() ) )
+        {
+            cursor.init( FIRST_OWNING_NODE, 1, dense );
+            while ( cursor.next() )
+            {
+                assertEquals( expectedNodeId++, cursor.entityReference(), "Should load next relationship in a sequence" );
+            }
+        }
+        assertEquals( 5, expectedNodeId );
+    }
+
     @ParameterizedTest
     @MethodSource( "parameters" )
     void retrieveRelationshipChainWithUnusedLink( RelationshipDirection direction, boolean dense )
@@ -28,22 +28,36 @@ import org.mockito.InOrder;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.exceptions.UnderlyingStorageException;
+import org.neo4j.function.ThrowingAction;
 import org.neo4j.internal.helpers.collection.Visitor;
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdGenerator.Marker;
 import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.DelegatingPageCache;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.lock.Lock;
 import org.neo4j.lock.LockGroup;
@@ -54,16 +68,19 @@ import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.StoreFileMetadata;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.test.ThreadTestUtils;
 import org.neo4j.test.extension.EphemeralNeo4jLayoutExtension;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
 import org.neo4j.test.rule.RecordStorageEngineRule;
 
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCause;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -74,6 +91,7 @@ import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
 
 @EphemeralPageCacheExtension
 @EphemeralNeo4jLayoutExtension
@@ -179,6 +197,7 @@ class RecordStorageEngineTest
         Set<File> allPossibleFiles = databaseLayout.storeFiles();
         allPossibleFiles.remove( databaseLayout.labelScanStore() );
         allPossibleFiles.remove( databaseLayout.indexStatisticsStore() );
+        allPossibleFiles.remove( databaseLayout.propertyStringDictionary() );
 
         assertEquals( allPossibleFiles, currentFiles );
     }
@@ -219,6 +238,139 @@ class RecordStorageEngineTest
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    @Timeout( 60 )
+    void concurrentCommittersMustShareApplierPassesInTransactionIdOrder() throws Exception
+    {
+        // given
+        AtomicInteger applierPasses = new AtomicInteger();
+        RecordStorageEngine engine = recordStorageEngineBuilder()
+                .transactionApplierTransformer( facade ->
+                {
+                    applierPasses.incrementAndGet();
+                    return facade;
+                } )
+                .build();
+        List<Long> appliedTransactions = new CopyOnWriteArrayList<>();
+        CountDownLatch firstApplying = new CountDownLatch( 1 );
+        CountDownLatch releaseFirst = new CountDownLatch( 1 );
+        CommandsToApply first = newTransactionThatRecordsApplication( 10, appliedTransactions, () ->
+        {
+            firstApplying.countDown();
+            releaseFirst.await();
+        } );
+
+        // when
+        FutureTask<Void> firstCommit = applyInOtherThread( engine, first );
+        firstApplying.await();
+        FutureTask<Void> secondCommit = applyInOtherThread( engine, newTransactionThatRecordsApplication( 12, appliedTransactions, () -> {} ) );
+        FutureTask<Void> thirdCommit = applyInOtherThread( engine, newTransactionThatRecordsApplication( 11, appliedTransactions, () -> {} ) );
+        releaseFirst.countDown();
+        firstCommit.get();
+        secondCommit.get();
+        thirdCommit.get();
+
+        // then
+        assertEquals( List.of( 10L, 11L, 12L ), appliedTransactions );
+        assertEquals( 2, applierPasses.get() );
+    }
+
+    @Test
+    void mustApplyEachCommitterSeparatelyWhenBatchedApplyIsDisabled() throws Exception
+    {
+        AtomicInteger applierPasses = new AtomicInteger();
+        RecordStorageEngine engine = recordStorageEngineBuilder()
+                .setting( GraphDatabaseSettings.batched_store_apply, false )
+                .transactionApplierTransformer( facade ->
+                {
+                    applierPasses.incrementAndGet();
+                    return facade;
+                } )
+                .build();
+        List<Long> appliedTransactions = new ArrayList<>();
+
+        engine.apply( newTransactionThatRecordsApplication( 10, appliedTransactions, () -> {} ), TransactionApplicationMode.INTERNAL );
+        engine.apply( newTransactionThatRecordsApplication( 11, appliedTransactions, () -> {} ), TransactionApplicationMode.INTERNAL );
+
+        assertEquals( List.of( 10L, 11L ), appliedTransactions );
+        assertEquals( 2, applierPasses.get() );
+    }
+
+    @Test
+    void mustLeaseNodeIdsPerCommandCreationContextAndReleaseUnusedOnClose()
+    {
+        RecordStorageEngine engine = recordStorageEngineBuilder()
+                .setting( GraphDatabaseSettings.id_lease_size, 8 )
+                .build();
+        NodeStore nodeStore = engine.testAccessNeoStores().getNodeStore();
+        long highIdBefore = nodeStore.getHighId();
+
+        long first;
+        long second;
+        long other;
+        try ( RecordStorageCommandCreationContext context = engine.newCommandCreationContext();
+              RecordStorageCommandCreationContext otherContext = engine.newCommandCreationContext() )
+        {
+            first = context.reserveNode();
+            other = otherContext.reserveNode();
+            second = context.reserveNode();
+        }
+
+        // Each context got its own lease, allocated in one go from high id
+        assertEquals( first + 1, second );
+        assertEquals( first + 8, other );
+        assertEquals( highIdBefore + 16, nodeStore.getHighId() );
+
+        // and the ids not used from the leases are available again after the contexts were closed
+        nodeStore.getIdGenerator().maintenance();
+        Set<Long> reallocated = new HashSet<>();
+        for ( int i = 0; i < 13; i++ )
+        {
+            reallocated.add( nodeStore.nextId() );
+        }
+        assertEquals( highIdBefore + 16, nodeStore.getHighId() );
+        assertFalse( reallocated.contains( first ) || reallocated.contains( second ) || reallocated.contains( other ) );
+    }
+
+    @Test
+    void mustPreferRelationshipIdsCloseToFirstRelationshipOfSourceNode()
+    {
+        RecordStorageEngine engine = recordStorageEngineBuilder()
+                .setting( GraphDatabaseSettings.relationship_id_locality, true )
+                .build();
+        NeoStores neoStores = engine.testAccessNeoStores();
+        RelationshipStore relationshipStore = neoStores.getRelationshipStore();
+        int recordsPerPage = relationshipStore.getRecordsPerPage();
+        IdGenerator relationshipIds = relationshipStore.getIdGenerator();
+        relationshipIds.setHighId( recordsPerPage * 10L );
+        long firstRelationship = recordsPerPage * 6L + 1;
+        long near = recordsPerPage * 7L + 3;
+        long farAway = 5;
+        try ( Marker marker = relationshipIds.marker() )
+        {
+            for ( long id = 0; id < recordsPerPage * 10L; id++ )
+            {
+                marker.markUsed( id );
+            }
+            for ( long id : new long[]{farAway, near} )
+            {
+                marker.markDeleted( id );
+                marker.markFree( id );
+            }
+        }
+        NodeStore nodeStore = neoStores.getNodeStore();
+        nodeStore.setHighId( 2 );
+        nodeStore.updateRecord( new NodeRecord( 0 ).initialize( true, NO_NEXT_PROPERTY.longValue(), false, firstRelationship, 0 ) );
+
+        try ( RecordStorageCommandCreationContext context = engine.newCommandCreationContext() )
+        {
+            // A relationship from the node with a chain gets the free id next to that chain
+            assertEquals( near, context.reserveRelationship( 0 ) );
+            // while one from a node w/o relationships gets whichever id is free
+            assertEquals( farAway, context.reserveRelationship( 1 ) );
+        }
+    }
+
     private RecordStorageEngine buildRecordStorageEngine()
     {
         return recordStorageEngineBuilder().build();
@@ -256,6 +408,36 @@ class RecordStorageEngineTest
         return transaction;
     }
 
+    private static CommandsToApply newTransactionThatRecordsApplication( long txId, List<Long> appliedTransactions, ThrowingAction<Exception> onApply )
+            throws IOException
+    {
+        CommandsToApply transaction = mock( CommandsToApply.class );
+        when( transaction.transactionId() ).thenReturn( txId );
+        when( transaction.accept( any() ) ).thenAnswer( invocation ->
+        {
+            onApply.apply();
+            appliedTransactions.add( txId );
+            return false;
+        } );
+        return transaction;
+    }
+
+    /**
+     * Applies the transaction in a new thread, and returns once that thread is either done or waiting for another
+     * committer to apply the transaction on its behalf.
+     */
+    private static FutureTask<Void> applyInOtherThread( RecordStorageEngine engine, CommandsToApply transaction )
+    {
+        FutureTask<Void> commit = new FutureTask<>( () ->
+        {
+            engine.apply( transaction, TransactionApplicationMode.INTERNAL );
+            return null;
+        } );
+        Thread thread = ThreadTestUtils.fork( commit );
+        ThreadTestUtils.awaitThreadState( thread, MINUTES.toMillis( 1 ), Thread.State.TIMED_WAITING, Thread.State.WAITING, Thread.State.TERMINATED );
+        return commit;
+    }
+
     private static class FailingBatchTransactionApplierFacade extends BatchTransactionApplierFacade
     {
         private final Exception failure;
@@ -83,7 +83,7 @@ class PropertyStoreTest
         final PropertyStore store =
                 new PropertyStore( storeFile, idFile, config, new DefaultIdGeneratorFactory( fs, immediate() ), pageCache,
                         NullLogProvider.getInstance(), stringPropertyStore, mock( PropertyKeyTokenStore.class ), mock( DynamicArrayStore.class ),
-                        RecordFormatSelector.defaultFormat() );
+                        fs, databaseLayout.propertyStringDictionary(), RecordFormatSelector.defaultFormat() );
         store.initialise( true );
 
         try
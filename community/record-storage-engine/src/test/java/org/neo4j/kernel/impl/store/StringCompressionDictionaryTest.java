@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.neo4j.exceptions.UnderlyingStorageException;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.logging.NullLog;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith( RandomExtension.class )
+class StringCompressionDictionaryTest
+{
+    private static final String[] PATHS = {"users", "orders", "products", "invoices", "sessions", "carts", "reviews"};
+    private static final String[] STATUSES = {"active", "pending", "shipped", "cancelled", "archived"};
+
+    @Inject
+    private RandomRule random;
+
+    private final EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+    private final File file = new File( "store", "dictionary" );
+    private StringCompressionDictionary dictionary;
+
+    @BeforeEach
+    void setUp()
+    {
+        fs.mkdirs( file.getParentFile() );
+        create();
+        dictionary = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        dictionary.close();
+        fs.close();
+    }
+
+    @Test
+    void shouldCompressAndDecompressRepetitiveStringsWithoutDictionary()
+    {
+        byte[] utf8 = PropertyStore.encodeString( "GET /api/v1/status 200 OK; ".repeat( 40 ) );
+
+        byte[] compressed = dictionary.compress( utf8 );
+
+        assertNotNull( compressed );
+        assertTrue( compressed.length < utf8.length );
+        assertArrayEquals( utf8, dictionary.decompress( compressed ) );
+    }
+
+    @Test
+    void shouldNotCompressShortStringsWithoutDictionary()
+    {
+        byte[] utf8 = PropertyStore.encodeString( "a".repeat( StringCompressionDictionary.MIN_COMPRESSIBLE_BYTES - 1 ) );
+
+        assertNull( dictionary.compress( utf8 ) );
+    }
+
+    @Test
+    void shouldNotCompressStringsThatDoNotGetSmaller()
+    {
+        byte[] utf8 = new byte[1_000];
+        random.nextBytes( utf8 );
+
+        assertNull( dictionary.compress( utf8 ) );
+    }
+
+    @Test
+    void shouldTrainDictionaryAndCompressShortValuesWithIt()
+    {
+        train();
+
+        assertTrue( fs.fileExists( file ) );
+        byte[] utf8 = PropertyStore.encodeString( url() );
+        assertTrue( utf8.length < StringCompressionDictionary.MIN_COMPRESSIBLE_BYTES );
+        byte[] compressed = dictionary.compress( utf8 );
+        assertNotNull( compressed );
+        assertEquals( StringCompressionDictionary.DICTIONARY_ID, compressed[0] );
+        assertArrayEquals( utf8, dictionary.decompress( compressed ) );
+    }
+
+    @Test
+    void shouldTrainOnTrainingExecutorAndStopSamplingWhenFull()
+    {
+        ConcurrentLinkedQueue<Runnable> trainingJobs = new ConcurrentLinkedQueue<>();
+        dictionary.trainWith( trainingJobs::add );
+        for ( int i = 0; trainingJobs.isEmpty(); i++ )
+        {
+            assertFalse( i > StringCompressionDictionary.SAMPLE_BYTES, "Should have handed off training by now" );
+            dictionary.compress( PropertyStore.encodeString( url() ) );
+        }
+
+        // when writing more values while training hasn't run yet
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            dictionary.compress( PropertyStore.encodeString( url() ) );
+        }
+
+        // then
+        assertEquals( 1, trainingJobs.size() );
+        assertFalse( dictionary.hasDictionary() );
+        trainingJobs.poll().run();
+        assertTrue( dictionary.hasDictionary() );
+    }
+
+    @Test
+    void shouldKeepDictionaryAcrossRestarts()
+    {
+        train();
+        byte[] utf8 = PropertyStore.encodeString( url() );
+        byte[] compressed = dictionary.compress( utf8 );
+        dictionary.close();
+
+        dictionary = open();
+
+        assertTrue( dictionary.hasDictionary() );
+        assertArrayEquals( utf8, dictionary.decompress( compressed ) );
+    }
+
+    @Test
+    void shouldFailOnValueCompressedWithUnknownDictionary()
+    {
+        StringCompressionDictionary trained = dictionary;
+        train();
+        byte[] compressed = trained.compress( PropertyStore.encodeString( url() ) );
+        create();
+
+        dictionary = open();
+
+        assertThrows( InvalidRecordException.class, () -> dictionary.decompress( compressed ) );
+        trained.close();
+    }
+
+    @Test
+    void shouldRefuseToLoadWhenDictionaryFileIsMissing()
+    {
+        dictionary.close();
+        fs.deleteFile( file );
+
+        assertThrows( UnderlyingStorageException.class, this::open );
+        dictionary = StringCompressionDictionary.DISABLED;
+    }
+
+    @Test
+    void shouldOnlyEncodeCompressedStringsWhenAllowed()
+    {
+        Value value = Values.stringValue( "Lorem ipsum dolor sit amet, ".repeat( 30 ) );
+
+        assertEquals( PropertyType.STRING, encode( value, StringCompressionDictionary.DISABLED ).getType() );
+        PropertyBlock block = encode( value, dictionary );
+        assertEquals( PropertyType.COMPRESSED_STRING, block.getType() );
+        for ( DynamicRecord record : block.getValueRecords() )
+        {
+            assertEquals( PropertyType.COMPRESSED_STRING, record.getType() );
+        }
+    }
+
+    private void create()
+    {
+        StringCompressionDictionary.forFile( fs, file, NullLog.getInstance() ).create();
+    }
+
+    private StringCompressionDictionary open()
+    {
+        StringCompressionDictionary opened = StringCompressionDictionary.forFile( fs, file, NullLog.getInstance() );
+        opened.load();
+        return opened;
+    }
+
+    private void train()
+    {
+        for ( int i = 0; !dictionary.hasDictionary(); i++ )
+        {
+            assertFalse( i > StringCompressionDictionary.SAMPLE_BYTES, "Should have trained a dictionary by now" );
+            dictionary.compress( PropertyStore.encodeString( url() ) );
+        }
+    }
+
+    private String url()
+    {
+        return "https://shop.example.com/api/v2/" + random.among( PATHS ) + "/" + random.nextInt( 1_000_000 ) + "?status=" + random.among( STATUSES );
+    }
+
+    private static PropertyBlock encode( Value value, StringCompressionDictionary dictionary )
+    {
+        PropertyBlock block = new PropertyBlock();
+        List<DynamicRecord> allocated = new ArrayList<>();
+        DynamicRecordAllocator allocator = new DynamicRecordAllocator()
+        {
+            @Override
+            public int getRecordDataSize()
+            {
+                return 120;
+            }
+
+            @Override
+            public DynamicRecord nextRecord()
+            {
+                DynamicRecord record = new DynamicRecord( allocated.size() + 1 );
+                allocated.add( record );
+                return record;
+            }
+        };
+        PropertyStore.encodeValue( block, 0, value, allocator, allocator, true, dictionary );
+        return block;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.kernel.impl.store.format.compact.CompactV4_0;
+import org.neo4j.kernel.impl.store.format.standard.Standard;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FormatFamilyTest
+{
+    private static final RecordFormats STANDARD = Standard.LATEST_RECORD_FORMATS;
+    private static final RecordFormats COMPACT = CompactV4_0.RECORD_FORMATS;
+
+    @Test
+    void shouldAllowMigratingStandardToCompact()
+    {
+        assertTrue( FormatFamily.isHigherFamilyFormat( COMPACT, STANDARD ) );
+        assertFalse( FormatFamily.isUnrelatedFamilyFormat( COMPACT, STANDARD ) );
+        assertTrue( FormatFamily.isLowerFamilyFormat( STANDARD, COMPACT ) );
+    }
+
+    @Test
+    void shouldNotAllowMigratingBetweenCompactAndOtherFamilyOfSameRank()
+    {
+        // given a family like high limit, which ranks the same as compact
+        RecordFormats highLimit = formatsOfFamily( new FormatFamily()
+        {
+            @Override
+            public String getName()
+            {
+                return "High limit format family";
+            }
+
+            @Override
+            public int rank()
+            {
+                return 1;
+            }
+        } );
+
+        // then
+        assertFalse( FormatFamily.isHigherFamilyFormat( COMPACT, highLimit ) );
+        assertTrue( FormatFamily.isUnrelatedFamilyFormat( COMPACT, highLimit ) );
+        assertTrue( FormatFamily.isUnrelatedFamilyFormat( highLimit, COMPACT ) );
+        assertFalse( FormatFamily.isUnrelatedFamilyFormat( COMPACT, COMPACT ) );
+    }
+
+    private static RecordFormats formatsOfFamily( FormatFamily family )
+    {
+        RecordFormats formats = mock( RecordFormats.class );
+        when( formats.getFormatFamily() ).thenReturn( family );
+        return formats;
+    }
+}
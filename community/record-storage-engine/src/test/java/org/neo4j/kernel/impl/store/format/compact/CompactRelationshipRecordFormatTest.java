@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.internal.id.BatchingIdSequence;
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.kernel.impl.store.format.compact.CompactRelationshipRecordFormat.RECORD_SIZE;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.FORCE;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+class CompactRelationshipRecordFormatTest
+{
+    private static final int PAGE_SIZE = RECORD_SIZE * 4;
+    private static final long NULL = -1;
+
+    private final CompactRelationshipRecordFormat format = new CompactRelationshipRecordFormat();
+    private final PageCursor cursor = ByteArrayPageCursor.wrap( PAGE_SIZE );
+
+    @Test
+    void shouldFitRelationshipsWithNearbyPointersInSingleUnit() throws IOException
+    {
+        // given a relationship in the middle of a large store whose chains are made up of relationships created around the same time
+        long id = 10_000_000_000L;
+        RelationshipRecord record = new RelationshipRecord( id ).initialize( true, 20_000_000_000L, 3_000_000_000L, 3_000_000_001L, 12,
+                2, id + 1, id - 3, id + 70, true, false );
+
+        // when
+        format.prepare( record, RECORD_SIZE, new BatchingIdSequence( 1 ) );
+
+        // then
+        assertFalse( record.requiresSecondaryUnit() );
+        assertEquals( record, writeAndRead( record, 1 ) );
+    }
+
+    @Test
+    void shouldSpillRelationshipsWithFarAwayPointersIntoSecondaryUnit() throws IOException
+    {
+        // given
+        long id = 1;
+        RelationshipRecord record = new RelationshipRecord( id ).initialize( true, (1L << 36) - 2, (1L << 35) - 2, (1L << 35) - 3, 0xFFFF,
+                (1L << 35) - 4, (1L << 35) - 5, (1L << 35) - 6, (1L << 35) - 7, false, false );
+
+        // when
+        format.prepare( record, RECORD_SIZE, new BatchingIdSequence( 2 ) );
+
+        // then
+        assertTrue( record.requiresSecondaryUnit() );
+        assertEquals( 2, record.getSecondaryUnitId() );
+        RelationshipRecord read = writeAndRead( record, 1 );
+        assertEquals( record, read );
+        assertEquals( 2, read.getSecondaryUnitId() );
+    }
+
+    @Test
+    void shouldNotSeeSecondaryUnitAsRecordOfItsOwn() throws IOException
+    {
+        // given
+        RelationshipRecord record = new RelationshipRecord( 1 ).initialize( true, (1L << 36) - 2, (1L << 35) - 2, (1L << 35) - 3, 0xFFFF,
+                (1L << 35) - 4, (1L << 35) - 5, (1L << 35) - 6, (1L << 35) - 7, false, false );
+        format.prepare( record, RECORD_SIZE, new BatchingIdSequence( 2 ) );
+        writeAndRead( record, 1 );
+
+        // when
+        cursor.setOffset( 2 * RECORD_SIZE );
+        boolean inUse = format.isInUse( cursor );
+        RelationshipRecord secondaryUnit = new RelationshipRecord( 2 );
+        format.read( secondaryUnit, cursor, FORCE, RECORD_SIZE );
+
+        // then
+        assertFalse( inUse );
+        assertFalse( secondaryUnit.inUse() );
+    }
+
+    @Test
+    void shouldKeepPointersOfDeletedRecordsForForcedReads() throws IOException
+    {
+        // given
+        RelationshipRecord record = new RelationshipRecord( 3 ).initialize( true, NULL, 5, 6, 1, 1, 4, 10, NULL, true, false );
+        format.prepare( record, RECORD_SIZE, new BatchingIdSequence( 1 ) );
+        cursor.setOffset( 3 * RECORD_SIZE );
+        format.write( record, cursor, RECORD_SIZE );
+
+        // when
+        RelationshipRecord deleted = new RelationshipRecord( 3 );
+        deleted.setInUse( false );
+        cursor.setOffset( 3 * RECORD_SIZE );
+        format.write( deleted, cursor, RECORD_SIZE );
+        RelationshipRecord read = new RelationshipRecord( 3 );
+        cursor.setOffset( 3 * RECORD_SIZE );
+        format.read( read, cursor, FORCE, RECORD_SIZE );
+
+        // then
+        assertFalse( read.inUse() );
+        assertEquals( 4, read.getFirstNextRel() );
+        assertEquals( 10, read.getSecondPrevRel() );
+        assertEquals( 6, read.getSecondNode() );
+    }
+
+    private RelationshipRecord writeAndRead( RelationshipRecord record, int slot ) throws IOException
+    {
+        cursor.setOffset( slot * RECORD_SIZE );
+        format.write( record, cursor, RECORD_SIZE );
+        assertEquals( (slot + 1) * RECORD_SIZE, cursor.getOffset() );
+
+        RelationshipRecord read = new RelationshipRecord( record.getId() );
+        cursor.setOffset( slot * RECORD_SIZE );
+        format.read( read, cursor, NORMAL, RECORD_SIZE );
+        assertEquals( (slot + 1) * RECORD_SIZE, cursor.getOffset() );
+        return read;
+    }
+}
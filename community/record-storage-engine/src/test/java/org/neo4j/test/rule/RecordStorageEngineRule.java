@@ -49,10 +49,12 @@ import org.neo4j.monitoring.DatabaseEventListeners;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.DatabasePanicEventGenerator;
 import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.NodeLabelUpdateListener;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.token.TokenHolders;
 import org.neo4j.token.api.TokenHolder;
 
@@ -91,10 +93,11 @@ public class RecordStorageEngineRule extends ExternalResource
     {
         IdGeneratorFactory idGeneratorFactory = new DefaultIdGeneratorFactory( fs, immediate() );
         NullLogProvider nullLogProvider = NullLogProvider.getInstance();
+        JobScheduler jobScheduler = life.add( new ThreadPoolJobScheduler() );
         RecordStorageEngine engine = life.add(
                 new ExtendedRecordStorageEngine( databaseLayout, config, pageCache, fs, nullLogProvider, tokenHolders, mock( SchemaState.class ),
                         constraintSemantics, indexConfigCompleter, lockService, databaseHealth, idGeneratorFactory,
-                        new DefaultIdController(), transactionApplierTransformer ) );
+                        new DefaultIdController(), jobScheduler, transactionApplierTransformer ) );
         engine.addIndexUpdateListener( indexUpdateListener );
         engine.addNodeLabelUpdateListener( nodeLabelUpdateListener );
         return engine;
@@ -229,11 +232,11 @@ public class RecordStorageEngineRule extends ExternalResource
                 ConstraintRuleAccessor constraintSemantics,
                 IndexConfigCompleter indexConfigCompleter,
                 LockService lockService, Health databaseHealth,
-                IdGeneratorFactory idGeneratorFactory, IdController idController,
+                IdGeneratorFactory idGeneratorFactory, IdController idController, JobScheduler jobScheduler,
                 Function<BatchTransactionApplierFacade,BatchTransactionApplierFacade> transactionApplierTransformer )
         {
             super( databaseLayout, config, pageCache, fs, logProvider, tokenHolders, schemaState, constraintSemantics, indexConfigCompleter,
-                    lockService, databaseHealth, idGeneratorFactory, idController, RecoveryCleanupWorkCollector.immediate(), true );
+                    lockService, databaseHealth, idGeneratorFactory, idController, RecoveryCleanupWorkCollector.immediate(), jobScheduler, true );
             this.transactionApplierTransformer = transactionApplierTransformer;
         }
 
@@ -44,6 +44,18 @@ public interface CommandCreationContext extends AutoCloseable
      */
     long reserveRelationship();
 
+    /**
+     * Reserves a relationship id for a relationship which will be created with the given start node.
+     * Storage engines may use the start node to pick an id which places the relationship close to the other relationships of that node.
+     *
+     * @param sourceNode id of the start node of the relationship to reserve an id for.
+     * @return a reserved relationship id for future use.
+     */
+    default long reserveRelationship( long sourceNode )
+    {
+        return reserveRelationship();
+    }
+
     /**
      * Reserves an id for a schema record, be it for a constraint or an index, for future use to store a schema record. The reason for it being exposed here
      * is that the record ids are used for producing unique names for indexes, which we would like to do before we get to the prepare phase
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+import java.util.Collection;
+
+import org.neo4j.lock.ResourceLocker;
+
+/**
+ * One kind of rewrite that {@link StorageEngine#compactionPasses() store compaction} applies to single nodes, w/o changing the data itself,
+ * e.g. placing records that are read together next to each other again after updates and deletes have fragmented them.
+ * Each pass visits all nodes of the store on its own, and so keeps its own position in the store.
+ * <p>
+ * Instances are not thread-safe, a pass is used by one thread at a time.
+ */
+public interface NodeCompactionPass
+{
+    /**
+     * Generates {@link StorageCommand commands} for a single node. Nodes are visited in id order, starting at {@code fromNodeId},
+     * and commands are generated for the first visited node that would benefit from this pass.
+     * That node is exclusively locked using {@code locks} before its commands are generated and the lock must be held
+     * until the commands have been applied.
+     *
+     * @param fromNodeId id of the first node to visit.
+     * @param maxNodesToVisit max number of nodes to visit in this call.
+     * @param target {@link Collection} to put {@link StorageCommand commands} into. Nothing is added if none of the
+     * visited nodes needed it.
+     * @param locks {@link ResourceLocker} to lock the node with.
+     * @return id of the node to start from in the next call, or {@code -1} if the end of the store was reached.
+     */
+    long createCompactionCommands( long fromNodeId, int maxNodesToVisit, Collection<StorageCommand> target, ResourceLocker locks );
+}
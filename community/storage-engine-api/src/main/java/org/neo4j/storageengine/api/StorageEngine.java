@@ -21,6 +21,7 @@ package org.neo4j.storageengine.api;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.neo4j.counts.CountsAccessor;
@@ -92,6 +93,12 @@ public interface StorageEngine extends Lifecycle
             TxStateVisitor.Decorator additionalTxStateVisitor )
             throws KernelException;
 
+    /**
+     * @return the {@link NodeCompactionPass passes} that store compaction should run over the nodes of this storage, each on its own.
+     * The same instances are returned on every call.
+     */
+    List<NodeCompactionPass> compactionPasses();
+
     /**
      * Apply a batch of groups of commands to this storage.
      *
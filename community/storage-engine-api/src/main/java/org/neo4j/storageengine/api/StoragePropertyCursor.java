@@ -33,6 +33,18 @@ public interface StoragePropertyCursor extends StorageCursor
      */
     void initNodeProperties( long reference );
 
+    /**
+     * Initializes this cursor for reading the property with the given {@code propertyKey} of a node, whose properties are at the given
+     * {@code reference}. The cursor may skip other properties of the node, but is not required to.
+     * @param nodeId id of the node to read the property of.
+     * @param reference reference to start reading node properties at.
+     * @param propertyKey key of the property to read.
+     */
+    default void initNodeProperty( long nodeId, long reference, int propertyKey )
+    {
+        initNodeProperties( reference );
+    }
+
     /**
      * Initializes this cursor to that reading relationship properties at the given {@code reference}.
      * @param reference reference to start reading relationship properties at.
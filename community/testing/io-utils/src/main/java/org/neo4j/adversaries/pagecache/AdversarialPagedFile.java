@@ -60,6 +60,12 @@ public class AdversarialPagedFile implements PagedFile
         return new AdversarialWritePageCursor( pageCursor, adversary );
     }
 
+    @Override
+    public void prefetch( long pageId )
+    {
+        delegate.prefetch( pageId );
+    }
+
     @Override
     public int pageSize()
     {
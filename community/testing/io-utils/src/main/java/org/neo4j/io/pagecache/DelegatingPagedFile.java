@@ -49,6 +49,12 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public void prefetch( long pageId )
+    {
+        delegate.prefetch( pageId );
+    }
+
     @Override
     public int pageSize()
     {
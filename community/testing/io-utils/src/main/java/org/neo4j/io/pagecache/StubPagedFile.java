@@ -46,6 +46,11 @@ public class StubPagedFile implements PagedFile
     {
     }
 
+    @Override
+    public void prefetch( long pageId )
+    {
+    }
+
     @Override
     public int pageSize()
     {
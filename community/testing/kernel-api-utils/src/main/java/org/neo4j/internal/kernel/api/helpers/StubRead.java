@@ -116,6 +116,12 @@ public class StubRead implements Read
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void nodesGetProperties( long[] nodeReferences, int[] propertyKeys, Value[][] target )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public long countsForNode( int labelId )
     {
@@ -164,6 +170,12 @@ public class StubRead implements Read
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void relationshipsGetProperties( long[] relationshipReferences, int[] propertyKeys, Value[][] target )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void allRelationshipsScan( RelationshipScanCursor cursor )
     {